@@ -0,0 +1,36 @@
+package org.grails.datastore.gorm.benchmarks
+
+import grails.gorm.annotation.Entity
+
+/**
+ * The domain class exercised by the benchmarks
+ *
+ * @since 2022.2.5
+ */
+@Entity
+class Book {
+
+    String title
+    String author
+    Integer pages
+    BigDecimal price
+    Date published
+
+    static constraints = {
+        title blank: false, maxSize: 255
+        author nullable: true
+        pages min: 1
+        price nullable: true, scale: 2
+        published nullable: true
+    }
+
+    static Book create(int index) {
+        new Book(
+                title: "Book $index".toString(),
+                author: "Author ${index % 50}".toString(),
+                pages: (index % 500) + 1,
+                price: new BigDecimal(index % 100),
+                published: new Date(index * 1000L)
+        )
+    }
+}
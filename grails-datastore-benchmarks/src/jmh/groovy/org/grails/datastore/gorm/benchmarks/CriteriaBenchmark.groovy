@@ -0,0 +1,72 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileStatic
+import org.openjdk.jmh.annotations.Benchmark
+
+import grails.gorm.DetachedCriteria
+
+import org.grails.datastore.mapping.query.Query
+
+/**
+ * Benchmarks for building criteria and executing them with {@link org.grails.datastore.mapping.simple.query.SimpleMapQuery}
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+class CriteriaBenchmark {
+
+    @Benchmark
+    Object buildDetachedCriteria() {
+        new DetachedCriteria<Book>(Book)
+                .eq('author', 'Author 10')
+                .between('pages', 10, 200)
+                .like('title', 'Book 1%')
+                .order('title')
+                .max(10)
+    }
+
+    @Benchmark
+    Object buildQuery(DatastoreState state) {
+        createQuery(state)
+    }
+
+    @Benchmark
+    Object executeEquals(DatastoreState state) {
+        Query query = state.session.createQuery(Book)
+        query.eq('author', 'Author 10')
+        query.list()
+    }
+
+    @Benchmark
+    Object executeConjunction(DatastoreState state) {
+        createQuery(state).list()
+    }
+
+    @Benchmark
+    Object executeRangeOrderedAndPaged(DatastoreState state) {
+        Query query = state.session.createQuery(Book)
+        query.gt('pages', 100)
+        query.lt('pages', 400)
+        query.order(Query.Order.desc('price'))
+        query.max(20)
+        query.list()
+    }
+
+    @Benchmark
+    Object executeProjections(DatastoreState state) {
+        Query query = state.session.createQuery(Book)
+        query.eq('author', 'Author 10')
+        query.projections().sum('pages').max('price').countDistinct('title')
+        query.list()
+    }
+
+    private static Query createQuery(DatastoreState state) {
+        Query query = state.session.createQuery(Book)
+        query.eq('author', 'Author 10')
+        query.between('pages', 10, 200)
+        query.in('price', [new BigDecimal(10), new BigDecimal(60)])
+        query.order(Query.Order.asc('title'))
+        query.max(10)
+        return query
+    }
+}
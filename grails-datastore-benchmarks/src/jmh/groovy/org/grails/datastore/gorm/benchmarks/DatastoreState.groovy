@@ -0,0 +1,58 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileStatic
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+
+import org.grails.datastore.gorm.validation.constraints.registry.DefaultValidatorRegistry
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.model.PersistentEntity
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+
+/**
+ * Benchmark state holding a {@link SimpleMapDatastore} seeded with {@link Book} instances and a session bound to the
+ * benchmark thread, so that GORM static methods such as dynamic finders can be invoked.
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@State(Scope.Thread)
+class DatastoreState {
+
+    @Param(['1000'])
+    int size
+
+    SimpleMapDatastore datastore
+
+    Session session
+
+    PersistentEntity entity
+
+    @Setup(Level.Trial)
+    void setup() {
+        datastore = new SimpleMapDatastore(Book)
+        datastore.mappingContext.setValidatorRegistry(
+                new DefaultValidatorRegistry(datastore.mappingContext, datastore.connectionSources.defaultConnectionSource.settings)
+        )
+        entity = datastore.mappingContext.getPersistentEntity(Book.name)
+
+        session = datastore.connect()
+        DatastoreUtils.bindSession(session)
+        for (int i = 0; i < size; i++) {
+            session.persist(Book.create(i))
+        }
+        session.flush()
+        session.clear()
+    }
+
+    @TearDown(Level.Trial)
+    void tearDown() {
+        DatastoreUtils.unbindSession(session)
+        datastore.close()
+    }
+}
@@ -0,0 +1,39 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileDynamic
+import org.openjdk.jmh.annotations.Benchmark
+
+/**
+ * Benchmarks for dynamic finder dispatch through {@link org.grails.datastore.gorm.GormStaticApi#methodMissing}.
+ * The calls are deliberately dynamic since that is how finders are invoked from application code.
+ *
+ * @since 2022.2.5
+ */
+@CompileDynamic
+class DynamicFinderBenchmark {
+
+    @Benchmark
+    Object findBy(DatastoreState state) {
+        Book.findByTitle('Book 500')
+    }
+
+    @Benchmark
+    Object findByAnd(DatastoreState state) {
+        Book.findByAuthorAndPages('Author 10', 11)
+    }
+
+    @Benchmark
+    Object findAllByBetween(DatastoreState state) {
+        Book.findAllByPagesBetween(100, 120, [max: 10])
+    }
+
+    @Benchmark
+    Object countBy(DatastoreState state) {
+        Book.countByAuthor('Author 10')
+    }
+
+    @Benchmark
+    Object staticGet(DatastoreState state) {
+        Book.get(500L)
+    }
+}
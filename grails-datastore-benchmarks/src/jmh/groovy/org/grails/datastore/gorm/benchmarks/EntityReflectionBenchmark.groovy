@@ -0,0 +1,94 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileStatic
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+import org.grails.datastore.mapping.dirty.checking.DirtyCheckable
+import org.grails.datastore.mapping.engine.EntityAccess
+import org.grails.datastore.mapping.reflect.EntityReflector
+
+/**
+ * Benchmarks for the {@link EntityReflector} obtained from the mapping context, {@link EntityAccess} and
+ * {@link DirtyCheckable} change tracking.
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@State(Scope.Thread)
+class EntityReflectionBenchmark {
+
+    EntityReflector reflector
+
+    EntityAccess entityAccess
+
+    Book book
+
+    int titleIndex
+
+    int counter
+
+    @Setup(Level.Trial)
+    void setup(DatastoreState state) {
+        reflector = state.datastore.mappingContext.getEntityReflector(state.entity)
+        book = Book.create(1)
+        book.id = 1L
+        entityAccess = state.datastore.mappingContext.createEntityAccess(state.entity, book)
+        titleIndex = state.entity.persistentPropertyNames.indexOf('title')
+    }
+
+    @Benchmark
+    Object getPropertyByName() {
+        reflector.getProperty(book, 'title')
+    }
+
+    @Benchmark
+    Object getPropertyByIndex() {
+        reflector.getProperty(book, titleIndex)
+    }
+
+    @Benchmark
+    void setPropertyByName() {
+        reflector.setProperty(book, 'pages', counter++)
+    }
+
+    @Benchmark
+    void setPropertyByIndex() {
+        reflector.setProperty(book, titleIndex, 'Book 1')
+    }
+
+    @Benchmark
+    Object getIdentifier() {
+        reflector.getIdentifier(book)
+    }
+
+    @Benchmark
+    Object entityAccessGetProperty() {
+        entityAccess.getProperty('author')
+    }
+
+    @Benchmark
+    void entityAccessSetPropertyWithConversion() {
+        entityAccess.setProperty('pages', '42')
+    }
+
+    @Benchmark
+    boolean markDirty() {
+        DirtyCheckable dirtyCheckable = (DirtyCheckable) book
+        dirtyCheckable.trackChanges()
+        dirtyCheckable.markDirty('title', 'Changed', 'Book 1')
+        dirtyCheckable.markDirty('pages')
+        return dirtyCheckable.hasChanged()
+    }
+
+    @Benchmark
+    Object listDirtyPropertyNames() {
+        DirtyCheckable dirtyCheckable = (DirtyCheckable) book
+        dirtyCheckable.trackChanges()
+        dirtyCheckable.markDirty('title', 'Changed', 'Book 1')
+        return dirtyCheckable.listDirtyPropertyNames()
+    }
+}
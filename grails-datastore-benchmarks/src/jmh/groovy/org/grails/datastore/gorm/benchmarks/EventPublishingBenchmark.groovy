@@ -0,0 +1,68 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileStatic
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.springframework.context.ApplicationEventPublisher
+
+import org.grails.datastore.mapping.engine.EntityAccess
+import org.grails.datastore.mapping.engine.event.PostLoadEvent
+import org.grails.datastore.mapping.engine.event.PreInsertEvent
+import org.grails.datastore.mapping.model.PersistentEntity
+import org.grails.datastore.mapping.query.event.PreQueryEvent
+
+/**
+ * Benchmarks for publishing persistence and query events through the datastore's
+ * {@link ApplicationEventPublisher} with the default GORM listeners registered.
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@State(Scope.Thread)
+class EventPublishingBenchmark {
+
+    ApplicationEventPublisher publisher
+
+    PersistentEntity entity
+
+    EntityAccess entityAccess
+
+    DatastoreState state
+
+    @Setup(Level.Trial)
+    void setup(DatastoreState state) {
+        this.state = state
+        publisher = state.datastore.applicationEventPublisher
+        entity = state.entity
+        entityAccess = state.datastore.mappingContext.createEntityAccess(entity, Book.create(1))
+    }
+
+    @Benchmark
+    boolean preInsert() {
+        PreInsertEvent event = new PreInsertEvent(state.datastore, entity, entityAccess)
+        publisher.publishEvent(event)
+        return event.isCancelled()
+    }
+
+    @Benchmark
+    Object postLoad() {
+        PostLoadEvent event = new PostLoadEvent(state.datastore, entity, entityAccess)
+        publisher.publishEvent(event)
+        return event
+    }
+
+    @Benchmark
+    Object preQuery() {
+        PreQueryEvent event = new PreQueryEvent(state.datastore, state.session.createQuery(Book))
+        publisher.publishEvent(event)
+        return event
+    }
+
+    @Benchmark
+    void payload() {
+        publisher.publishEvent((Object) 'payload')
+    }
+}
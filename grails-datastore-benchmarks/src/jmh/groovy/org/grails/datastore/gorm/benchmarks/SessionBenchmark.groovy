@@ -0,0 +1,122 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileStatic
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+
+/**
+ * Benchmarks for {@link org.grails.datastore.mapping.core.AbstractSession}: persist and flush, dirty updates and
+ * first-level cache retrieval.
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@State(Scope.Thread)
+class SessionBenchmark {
+
+    @Param(['100'])
+    int batchSize
+
+    @Benchmark
+    List<Serializable> persistAndFlush(InsertState state) {
+        Session session = state.datastore.connect()
+        try {
+            List<Serializable> ids = new ArrayList<>(batchSize)
+            for (int i = 0; i < batchSize; i++) {
+                ids.add(session.persist(Book.create(i)))
+            }
+            session.flush()
+            return ids
+        }
+        finally {
+            session.disconnect()
+        }
+    }
+
+    @Benchmark
+    int updateAndFlush(DatastoreState state) {
+        Session session = state.datastore.connect()
+        try {
+            int updated = 0
+            for (int i = 1; i <= batchSize; i++) {
+                Book book = (Book) session.retrieve(Book, Long.valueOf(i))
+                book.title = book.title.reverse()
+                session.persist(book)
+                updated++
+            }
+            session.flush()
+            return updated
+        }
+        finally {
+            session.disconnect()
+        }
+    }
+
+    @Benchmark
+    Object retrieveUncached(DatastoreState state) {
+        Session session = state.datastore.connect()
+        try {
+            Object last = null
+            for (int i = 1; i <= batchSize; i++) {
+                last = session.retrieve(Book, Long.valueOf(i))
+            }
+            return last
+        }
+        finally {
+            session.disconnect()
+        }
+    }
+
+    @Benchmark
+    Object retrieveCached(DatastoreState state) {
+        Session session = state.session
+        Object last = null
+        for (int i = 1; i <= batchSize; i++) {
+            last = session.retrieve(Book, Long.valueOf(i))
+        }
+        return last
+    }
+
+    @Benchmark
+    boolean isDirty(DatastoreState state) {
+        Session session = state.session
+        boolean dirty = false
+        for (int i = 1; i <= batchSize; i++) {
+            dirty |= session.isDirty(session.retrieve(Book, Long.valueOf(i)))
+        }
+        return dirty
+    }
+
+    /**
+     * An empty datastore that is cleared after every invocation so that inserts do not accumulate.
+     * A single invocation persists a whole batch, which is long enough for an invocation level fixture.
+     */
+    @State(Scope.Thread)
+    static class InsertState {
+
+        SimpleMapDatastore datastore
+
+        @Setup(Level.Trial)
+        void setup() {
+            datastore = new SimpleMapDatastore(Book)
+        }
+
+        @TearDown(Level.Invocation)
+        void clearData() {
+            datastore.clearData()
+        }
+
+        @TearDown(Level.Trial)
+        void tearDown() {
+            datastore.close()
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.grails.datastore.gorm.benchmarks
+
+import groovy.transform.CompileStatic
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+import org.grails.datastore.gorm.GormValidateable
+
+/**
+ * Benchmarks for constraint evaluation through {@link GormValidateable#validate()}
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@State(Scope.Thread)
+class ValidationBenchmark {
+
+    Book valid
+
+    Book invalid
+
+    @Setup(Level.Trial)
+    void setup(DatastoreState state) {
+        valid = Book.create(1)
+        invalid = Book.create(2)
+        invalid.title = ''
+        invalid.pages = 0
+    }
+
+    @Benchmark
+    boolean validateValid() {
+        ((GormValidateable) valid).validate()
+    }
+
+    @Benchmark
+    boolean validateInvalid() {
+        ((GormValidateable) invalid).validate()
+    }
+}
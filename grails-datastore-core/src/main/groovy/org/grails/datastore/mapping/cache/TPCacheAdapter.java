@@ -51,4 +51,33 @@ public interface TPCacheAdapter<T> {
      */
     T getCachedEntry(Serializable key) throws CacheException;
 
+    /**
+     * Removes the entry stored for the specified key, if any. Called when the entry is updated or deleted so that
+     * subsequent reads do not return stale state.
+     * <p>
+     * The default implementation does nothing, adapters that can remove entries should override it.
+     * </p>
+     * @param key the entry key
+     * @throws CacheException runtime exception indicating any cache-related problems
+     */
+    default void evictEntry(Serializable key) throws CacheException {
+        // no-op
+    }
+
+    /**
+     * Removes all stored entries. The default implementation does nothing.
+     * @throws CacheException runtime exception indicating any cache-related problems
+     */
+    default void clear() throws CacheException {
+        // no-op
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of this cache.
+     * @return the statistics, {@link TPCacheStatistics#EMPTY} if the adapter does not record statistics
+     */
+    default TPCacheStatistics getStatistics() {
+        return TPCacheStatistics.EMPTY;
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.cache;
+
+/**
+ * A snapshot of the statistics of a {@link TPCacheAdapter}.
+ *
+ * @since 2022.2.5
+ */
+public class TPCacheStatistics {
+
+    /**
+     * The statistics of an adapter that does not record any
+     */
+    public static final TPCacheStatistics EMPTY = new TPCacheStatistics(0, 0, 0, 0);
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long size;
+
+    public TPCacheStatistics(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * @return The number of lookups that returned a cached entry
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups that did not find a cached entry
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of entries removed because of the size or time to live limits of the cache
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The approximate number of cached entries
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return The ratio of lookups that returned a cached entry, or 1.0 if there were no lookups
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TPCacheStatistics{hitCount=" + hitCount + ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount + ", size=" + size + '}';
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.cache.impl;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.grails.datastore.mapping.cache.TPCacheAdapter;
+import org.grails.datastore.mapping.cache.TPCacheStatistics;
+import org.grails.datastore.mapping.cache.exception.CacheException;
+import org.grails.datastore.mapping.config.CacheConfig;
+
+/**
+ * A {@link TPCacheAdapter} backed by a local Caffeine cache, which evicts entries once the configured maximum size
+ * is exceeded or once their time to live has elapsed.
+ *
+ * @since 2022.2.5
+ */
+public class CaffeineTPCacheAdapter<T> implements TPCacheAdapter<T> {
+
+    private final Cache<Serializable, T> cache;
+
+    /**
+     * @param maximumSize The maximum number of entries, zero for an unbounded cache
+     * @param timeToLive The time after which an entry expires once it was written, null if entries do not expire
+     */
+    public CaffeineTPCacheAdapter(long maximumSize, Duration timeToLive) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (maximumSize > 0) {
+            builder.maximumSize(maximumSize);
+        }
+        if (timeToLive != null) {
+            builder.expireAfterWrite(timeToLive);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * @param cacheConfig The cache configuration of the entity
+     */
+    public CaffeineTPCacheAdapter(CacheConfig cacheConfig) {
+        this(cacheConfig.getMaxSize(), cacheConfig.getTimeToLive());
+    }
+
+    @Override
+    public void cacheEntry(Serializable key, T entry) throws CacheException {
+        if (entry == null) {
+            cache.invalidate(key);
+        }
+        else {
+            cache.put(key, entry);
+        }
+    }
+
+    @Override
+    public T getCachedEntry(Serializable key) throws CacheException {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void evictEntry(Serializable key) throws CacheException {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() throws CacheException {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public TPCacheStatistics getStatistics() {
+        CacheStats stats = cache.stats();
+        return new TPCacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+}
@@ -2,12 +2,15 @@ package org.grails.datastore.mapping.cache.impl;
 
 import java.io.Serializable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.grails.datastore.mapping.cache.TPCacheAdapter;
+import org.grails.datastore.mapping.cache.TPCacheStatistics;
 import org.grails.datastore.mapping.cache.exception.CacheException;
 
 /**
  * Simple implementation of {@link org.grails.datastore.mapping.cache.TPCacheAdapter} backed by a local hash map.
+ * The map is unbounded, use {@link CaffeineTPCacheAdapter} if entries should be evicted.
  *
  * @author Roman Stepanenko
  */
@@ -18,9 +21,35 @@ public class HashMapTPCacheAdapter<T> implements TPCacheAdapter<T> {
     }
 
     public T getCachedEntry(Serializable key) throws CacheException {
-        return cache.get(key);
+        T entry = cache.get(key);
+        if (entry != null) {
+            hitCount.increment();
+        }
+        else {
+            missCount.increment();
+        }
+        return entry;
+    }
+
+    @Override
+    public void evictEntry(Serializable key) throws CacheException {
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() throws CacheException {
+        cache.clear();
+    }
+
+    @Override
+    public TPCacheStatistics getStatistics() {
+        return new TPCacheStatistics(hitCount.sum(), missCount.sum(), 0, cache.size());
     }
 
     private ConcurrentHashMap<Object, T> cache = new ConcurrentHashMap<>();
 
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.cache.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.grails.datastore.mapping.cache.TPCacheAdapter;
+import org.grails.datastore.mapping.config.CacheConfig;
+import org.grails.datastore.mapping.config.Entity;
+import org.grails.datastore.mapping.model.ClassMapping;
+import org.grails.datastore.mapping.model.PersistentEntity;
+
+/**
+ * A {@link org.grails.datastore.mapping.cache.TPCacheAdapterRepository} that creates a {@link CaffeineTPCacheAdapter}
+ * for each entity that enables the second level cache in its mapping block. Adapters registered explicitly
+ * take precedence over the mapping.
+ *
+ * @since 2022.2.5
+ */
+public class MappedTPCacheAdapterRepository<T> extends TPCacheAdapterRepositoryImpl<T> {
+
+    private final Map<String, Boolean> resolved = new ConcurrentHashMap<>();
+
+    @Override
+    public TPCacheAdapter<T> getTPCacheAdapter(PersistentEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        String name = entity.getJavaClass().getName();
+        if (!resolved.containsKey(name)) {
+            resolved.computeIfAbsent(name, n -> {
+                CacheConfig cacheConfig = getCacheConfig(entity);
+                if (cacheConfig != null && cacheConfig.isEnabled() && super.getTPCacheAdapter(entity) == null) {
+                    setTPCacheAdapter(n, createTPCacheAdapter(entity, cacheConfig));
+                }
+                return Boolean.TRUE;
+            });
+        }
+        return super.getTPCacheAdapter(entity);
+    }
+
+    /**
+     * Creates the adapter for an entity that enables the second level cache
+     *
+     * @param entity The entity
+     * @param cacheConfig The cache configuration of the entity
+     * @return The adapter
+     */
+    protected TPCacheAdapter<T> createTPCacheAdapter(PersistentEntity entity, CacheConfig cacheConfig) {
+        return new CaffeineTPCacheAdapter<>(cacheConfig);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static CacheConfig getCacheConfig(PersistentEntity entity) {
+        ClassMapping mapping = entity.getMapping();
+        if (mapping != null) {
+            Object mappedForm = mapping.getMappedForm();
+            if (mappedForm instanceof Entity) {
+                return ((Entity) mappedForm).getSecondLevelCache();
+            }
+        }
+        return null;
+    }
+
+}
@@ -33,6 +33,15 @@ public class TPCacheAdapterRepositoryImpl<T> implements TPCacheAdapterRepository
         adapters.put(entityJavaClassFQN, cacheAdapter);
     }
 
+    /**
+     * Removes the entries of all registered adapters
+     */
+    public void clear() {
+        for (TPCacheAdapter<T> adapter : adapters.values()) {
+            adapter.clear();
+        }
+    }
+
     private ConcurrentHashMap<String, TPCacheAdapter<T>> adapters = new ConcurrentHashMap<>();
 
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.config
+
+import java.time.Duration
+
+import groovy.transform.CompileStatic
+import groovy.transform.builder.Builder
+import groovy.transform.builder.SimpleStrategy
+import org.springframework.beans.MutablePropertyValues
+import org.springframework.validation.DataBinder
+
+/**
+ * The second level cache configuration of an entity, configured with the <code>secondLevelCache</code> method of the mapping block:
+ *
+ * <pre><code>
+ * static mapping = {
+ *     secondLevelCache maxSize: 1000, timeToLive: Duration.ofMinutes(10)
+ * }
+ * </code></pre>
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@Builder(builderStrategy = SimpleStrategy, prefix = '')
+class CacheConfig {
+
+    /**
+     * Whether the entries of the entity are held in the second level cache
+     */
+    boolean enabled = false
+
+    /**
+     * The maximum number of cached entries, zero means the cache is unbounded
+     */
+    long maxSize = 10000
+
+    /**
+     * The time after which an entry expires once it was written, null means entries do not expire
+     */
+    Duration timeToLive
+
+    /**
+     * Configures an existing CacheConfig instance
+     *
+     * @param cacheConfig The cache config
+     * @param config The configuration
+     * @return The cache config
+     */
+    static CacheConfig configureExisting(CacheConfig cacheConfig, Map config) {
+        DataBinder dataBinder = new DataBinder(cacheConfig)
+        dataBinder.bind(new MutablePropertyValues(config))
+        return cacheConfig
+    }
+
+    /**
+     * Configures an existing CacheConfig instance
+     *
+     * @param cacheConfig The cache config
+     * @param config The configuration
+     * @return The cache config
+     */
+    static CacheConfig configureExisting(CacheConfig cacheConfig, @DelegatesTo(CacheConfig) Closure config) {
+        config.setDelegate(cacheConfig)
+        config.setResolveStrategy(Closure.DELEGATE_ONLY)
+        config.call()
+        return cacheConfig
+    }
+
+}
@@ -72,6 +72,12 @@ class Entity<P extends Property> {
      */
     boolean version = true
 
+    /**
+     * The second level cache configuration. Not named <code>cache</code>, so that it doesn't clash with the cache
+     * setting of the mappings that extend this class, such as the Hibernate mapping
+     */
+    protected CacheConfig secondLevelCache = new CacheConfig()
+
     /**
      * @return The property configurations
      */
@@ -147,6 +153,50 @@ class Entity<P extends Property> {
         return version
     }
 
+    /**
+     * @return The second level cache configuration
+     */
+    CacheConfig getSecondLevelCache() {
+        return secondLevelCache
+    }
+
+    /**
+     * Enables or disables the second level cache with the default settings
+     * <code> { secondLevelCache true }
+     *
+     * @param enabled Whether the entity is cached
+     * @return This mapping
+     */
+    Entity<P> secondLevelCache(boolean enabled) {
+        secondLevelCache.enabled = enabled
+        return this
+    }
+
+    /**
+     * Enables and configures the second level cache
+     * <code> { secondLevelCache maxSize: 1000, timeToLive: Duration.ofMinutes(10) }
+     *
+     * @param cacheConfig The cache config
+     * @return This mapping
+     */
+    Entity<P> secondLevelCache(Map cacheConfig) {
+        secondLevelCache.enabled = true
+        CacheConfig.configureExisting(secondLevelCache, cacheConfig)
+        return this
+    }
+
+    /**
+     * Enables and configures the second level cache
+     *
+     * @param cacheConfig The cache config
+     * @return This mapping
+     */
+    Entity<P> secondLevelCache(@DelegatesTo(CacheConfig) Closure cacheConfig) {
+        secondLevelCache.enabled = true
+        CacheConfig.configureExisting(secondLevelCache, cacheConfig)
+        return this
+    }
+
     /**
      * Get a property config
      * @param name The name of the property
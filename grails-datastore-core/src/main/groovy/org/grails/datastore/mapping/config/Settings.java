@@ -33,6 +33,41 @@ public interface Settings {
      */
     String SETTING_MARK_DIRTY = PREFIX + '.' + "markDirty";
 
+    /**
+     * The number of pending operations at which a session is flushed automatically
+     */
+    String SETTING_PENDING_OPERATIONS_FLUSH_THRESHOLD = PREFIX + '.' + "pendingOperations.flushThreshold";
+
+    /**
+     * The implementation of the first level cache used by sessions
+     */
+    String SETTING_SESSION_CACHE_TYPE = PREFIX + '.' + "sessionCache.type";
+
+    /**
+     * The maximum number of instances held by the first level cache of a session
+     */
+    String SETTING_SESSION_CACHE_MAX_SIZE = PREFIX + '.' + "sessionCache.maxSize";
+
+    /**
+     * The maximum number of results held by the query result cache
+     */
+    String SETTING_QUERY_CACHE_MAX_SIZE = PREFIX + '.' + "queryCache.maxSize";
+
+    /**
+     * The class of the {@link org.grails.datastore.mapping.core.connections.ConnectionSources} implementation
+     */
+    String SETTING_CONNECTION_SOURCES_CLASS = PREFIX + '.' + "connectionSourcesClass";
+
+    /**
+     * The maximum number of connection sources created on demand that are kept open
+     */
+    String SETTING_LAZY_CONNECTIONS_MAX_SIZE = PREFIX + '.' + "lazyConnections.maxSize";
+
+    /**
+     * The time in milliseconds after which an unused connection source created on demand is closed
+     */
+    String SETTING_LAZY_CONNECTIONS_IDLE_TIMEOUT = PREFIX + '.' + "lazyConnections.idleTimeout";
+
     /**
      * The default mapping
      */
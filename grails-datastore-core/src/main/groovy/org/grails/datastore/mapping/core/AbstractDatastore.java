@@ -37,6 +37,8 @@ import org.grails.datastore.mapping.model.PersistentEntity;
 import org.grails.datastore.mapping.model.PersistentProperty;
 import org.grails.datastore.mapping.model.PropertyMapping;
 import org.grails.datastore.mapping.model.types.BasicTypeConverterRegistrar;
+import org.grails.datastore.mapping.query.cache.QueryResultCache;
+import org.grails.datastore.mapping.query.cache.QueryResultCacheCapableDatastore;
 import org.grails.datastore.mapping.reflect.FieldEntityAccess;
 import org.grails.datastore.mapping.services.DefaultServiceRegistry;
 import org.grails.datastore.mapping.services.Service;
@@ -51,7 +53,7 @@ import org.grails.datastore.mapping.transactions.SessionHolder;
  * @since 1.0
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
-public abstract class AbstractDatastore implements Datastore, StatelessDatastore, ServiceRegistry {
+public abstract class AbstractDatastore implements Datastore, StatelessDatastore, ServiceRegistry, QueryResultCacheCapableDatastore {
 
     protected static final Logger LOG = LoggerFactory.getLogger(AbstractDatastore.class);
 
@@ -65,6 +67,12 @@ public abstract class AbstractDatastore implements Datastore, StatelessDatastore
 
     protected final TPCacheAdapterRepository cacheAdapterRepository;
 
+    /**
+     * The query result cache, null unless the datastore creates one. Only datastores whose writes all go through the
+     * pending operations of {@link AbstractSession}, which invalidate the cache, should create it.
+     */
+    protected QueryResultCache queryResultCache;
+
 
     public AbstractDatastore(MappingContext mappingContext) {
         this(mappingContext, (PropertyResolver) null, null);
@@ -176,7 +184,7 @@ public abstract class AbstractDatastore implements Datastore, StatelessDatastore
     }
 
     public boolean hasCurrentSession() {
-        return TransactionSynchronizationManager.hasResource(this);
+        return TransactionSynchronizationManager.hasResource(this) || DatastoreUtils.getScopedSession(this) != null;
     }
 
     /**
@@ -219,6 +227,18 @@ public abstract class AbstractDatastore implements Datastore, StatelessDatastore
         return mappingContext;
     }
 
+    @Override
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    /**
+     * @return The repository of the second level cache adapters, or null if the datastore does not use a second level cache
+     */
+    public TPCacheAdapterRepository getCacheAdapterRepository() {
+        return cacheAdapterRepository;
+    }
+
     /**
      * @deprecated Deprecated, will be removed in a future version of GORM
      */
@@ -15,27 +15,30 @@
 package org.grails.datastore.mapping.core;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import javax.persistence.FlushModeType;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.RemovalListener;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.TransactionDefinition;
@@ -44,10 +47,15 @@ import org.springframework.util.Assert;
 
 import org.grails.datastore.mapping.cache.TPCacheAdapterRepository;
 import org.grails.datastore.mapping.config.Entity;
+import org.grails.datastore.mapping.core.cache.BoundedSessionCache;
+import org.grails.datastore.mapping.core.cache.ConcurrentSessionCache;
+import org.grails.datastore.mapping.core.cache.SessionCache;
+import org.grails.datastore.mapping.core.cache.SessionCacheRecord;
 import org.grails.datastore.mapping.core.impl.PendingDelete;
 import org.grails.datastore.mapping.core.impl.PendingInsert;
 import org.grails.datastore.mapping.core.impl.PendingOperation;
 import org.grails.datastore.mapping.core.impl.PendingOperationExecution;
+import org.grails.datastore.mapping.core.impl.PendingOperations;
 import org.grails.datastore.mapping.core.impl.PendingUpdate;
 import org.grails.datastore.mapping.dirty.checking.DirtyCheckable;
 import org.grails.datastore.mapping.dirty.checking.DirtyCheckingSupport;
@@ -61,6 +69,8 @@ import org.grails.datastore.mapping.model.PersistentEntity;
 import org.grails.datastore.mapping.model.PersistentProperty;
 import org.grails.datastore.mapping.query.Query;
 import org.grails.datastore.mapping.query.api.QueryableCriteria;
+import org.grails.datastore.mapping.query.cache.QueryResultCache;
+import org.grails.datastore.mapping.query.cache.QueryResultCacheCapableDatastore;
 import org.grails.datastore.mapping.transactions.Transaction;
 
 /**
@@ -77,30 +87,6 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
     public static final String ENTITY_ACCESS = "org.grails.gorm.ENTITY_ACCESS";
 
-    private static final RemovalListener<PersistentEntity, Collection<PendingInsert>> EXCEPTION_THROWING_INSERT_LISTENER =
-            (key, value, cause) -> {
-                if (cause.wasEvicted()) {
-                    throw new DataAccessResourceFailureException("Maximum number (5000) of insert operations to flush() exceeded. " +
-                            "Flush the session periodically to avoid this error for batch operations.");
-                }
-            };
-
-    private static final RemovalListener<PersistentEntity, Collection<PendingUpdate>> EXCEPTION_THROWING_UPDATE_LISTENER =
-            (key, value, cause) -> {
-                if (cause.wasEvicted()) {
-                    throw new DataAccessResourceFailureException("Maximum number (5000) of update operations to flush() exceeded. " +
-                            "Flush the session periodically to avoid this error for batch operations.");
-                }
-            };
-
-    private static final RemovalListener<PersistentEntity, Collection<PendingDelete>> EXCEPTION_THROWING_DELETE_LISTENER =
-            (key, value, cause) -> {
-                if (cause.wasEvicted()) {
-                    throw new DataAccessResourceFailureException("Maximum number (5000) of delete operations to flush() exceeded. " +
-                            "Flush the session periodically to avoid this error for batch operations.");
-                }
-            };
-
     private static final String NULL = "null";
 
     protected Map<Class, Persister> persisters = new ConcurrentHashMap<>();
@@ -117,35 +103,40 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
     private FlushModeType flushMode = FlushModeType.AUTO;
 
-    protected Map<Class, Map<Serializable, Object>> firstLevelCache = new ConcurrentHashMap<>();
+    protected SessionCache sessionCache = new ConcurrentSessionCache();
 
-    protected Map<Class, Map<Serializable, Object>> firstLevelEntryCache = new ConcurrentHashMap<>();
+    /**
+     * @deprecated The instances are held by the {@link #getFirstLevelCache() first level cache}, this is a view of it
+     * keyed by type
+     */
+    @Deprecated
+    protected Map<Class, Map<Serializable, Object>> firstLevelCache = new LegacyCacheView(CachedValue.INSTANCE);
 
-    protected Map<Class, Map<Serializable, Object>> firstLevelEntryCacheDirtyCheck = new ConcurrentHashMap<>();
+    /**
+     * @deprecated The native entries are held by the {@link #getFirstLevelCache() first level cache}, this is a view
+     * of it keyed by type
+     */
+    @Deprecated
+    protected Map<Class, Map<Serializable, Object>> firstLevelEntryCache = new LegacyCacheView(CachedValue.ENTRY);
+
+    /**
+     * @deprecated The native entries are held by the {@link #getFirstLevelCache() first level cache}, this is a view
+     * of it keyed by type
+     */
+    @Deprecated
+    protected Map<Class, Map<Serializable, Object>> firstLevelEntryCacheDirtyCheck = new LegacyCacheView(CachedValue.DIRTY_CHECK_ENTRY);
 
     protected Map<CollectionKey, Collection> firstLevelCollectionCache = new ConcurrentHashMap<>();
 
     protected TPCacheAdapterRepository cacheAdapterRepository;
 
-    private Collection<Serializable> objectsPendingOperations = new ConcurrentLinkedQueue<>();
+    private Set<Serializable> objectsPendingOperations = ConcurrentHashMap.newKeySet();
 
-    private Map<PersistentEntity, Collection<PendingInsert>> pendingInserts =
-            Caffeine.newBuilder()
-                    .removalListener(EXCEPTION_THROWING_INSERT_LISTENER)
-                    .executor(Runnable::run)
-                    .maximumSize(5000).build().asMap();
+    private final PendingOperations pendingOperations = new PendingOperations();
 
-    private Map<PersistentEntity, Collection<PendingUpdate>> pendingUpdates =
-            Caffeine.newBuilder()
-                    .removalListener(EXCEPTION_THROWING_UPDATE_LISTENER)
-                    .executor(Runnable::run)
-                    .maximumSize(5000).build().asMap();
+    private int pendingOperationsFlushThreshold;
 
-    private Map<PersistentEntity, Collection<PendingDelete>> pendingDeletes =
-            Caffeine.newBuilder()
-                    .removalListener(EXCEPTION_THROWING_DELETE_LISTENER)
-                    .executor(Runnable::run)
-                    .maximumSize(5000).build().asMap();
+    private int operationDepth;
 
     protected Collection<Runnable> postFlushOperations = new ConcurrentLinkedQueue<>();
 
@@ -204,13 +195,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         if (o != null) {
             registerPending(o);
         }
-        Collection<PendingInsert> inserts = pendingInserts.get(insert.getEntity());
-        if (inserts == null) {
-            inserts = new ConcurrentLinkedQueue<>();
-            pendingInserts.put(insert.getEntity(), inserts);
-        }
-
-        inserts.add(insert);
+        pendingOperations.addInsert(insert);
     }
 
     @Override
@@ -229,15 +214,11 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         if (obj != null) {
             Serializable id = getPersister(obj).getObjectIdentifier(obj);
             if (id != null) {
-                if (!objectsPendingOperations.contains(id)) {
-                    objectsPendingOperations.add(id);
-                }
+                objectsPendingOperations.add(id);
             }
             else {
                 final int identityHashCode = System.identityHashCode(obj);
-                if (!objectsPendingOperations.contains(identityHashCode)) {
-                    objectsPendingOperations.add(identityHashCode);
-                }
+                objectsPendingOperations.add(identityHashCode);
             }
         }
     }
@@ -248,13 +229,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             registerPending(o);
         }
 
-        Collection<PendingUpdate> inserts = pendingUpdates.get(update.getEntity());
-        if (inserts == null) {
-            inserts = new ConcurrentLinkedQueue<>();
-            pendingUpdates.put(update.getEntity(), inserts);
-        }
-
-        inserts.add(update);
+        pendingOperations.addUpdate(update);
     }
 
     public void addPendingDelete(PendingDelete delete) {
@@ -263,13 +238,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             registerPending(o);
         }
 
-        Collection<PendingDelete> deletes = pendingDeletes.get(delete.getEntity());
-        if (deletes == null) {
-            deletes = new ConcurrentLinkedQueue<>();
-            pendingDeletes.put(delete.getEntity(), deletes);
-        }
-
-        deletes.add(delete);
+        pendingOperations.addDelete(delete);
     }
 
     public Object getCachedEntry(PersistentEntity entity, Serializable key) {
@@ -283,7 +252,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return null;
         }
 
-        return getEntryCache(entity.getJavaClass(), forDirtyCheck).get(key);
+        return sessionCache.getEntry(entity.getJavaClass(), key, forDirtyCheck);
     }
 
     public void cacheEntry(PersistentEntity entity, Serializable key, Object entry) {
@@ -292,8 +261,8 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return;
         }
 
-        cacheEntry(key, entry, getEntryCache(entity.getJavaClass(), true), true);
-        cacheEntry(key, entry, getEntryCache(entity.getJavaClass(), false), false);
+        cacheEntry(entity.getJavaClass(), key, entry, true);
+        cacheEntry(entity.getJavaClass(), key, entry, false);
     }
 
     public boolean isStateless(PersistentEntity entity) {
@@ -301,6 +270,17 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         return isStateless() || (mappedForm != null && mappedForm.isStateless());
     }
 
+    protected void cacheEntry(Class type, Serializable key, Object entry, boolean forDirtyCheck) {
+        // goes through the deprecated method, so that the subclasses overriding it still see every entry
+        cacheEntry(key, entry, new LegacyTypeCacheView(type, forDirtyCheck ? CachedValue.DIRTY_CHECK_ENTRY : CachedValue.ENTRY), forDirtyCheck);
+    }
+
+    /**
+     * Caches a native entry in the given cache, a view of the entries of one type in the first level cache
+     *
+     * @deprecated Override {@link #cacheEntry(Class, Serializable, Object, boolean)} instead, which calls this method
+     */
+    @Deprecated
     protected void cacheEntry(Serializable key, Object entry, Map<Serializable, Object> entryCache, boolean forDirtyCheck) {
         if (isStateless()) return;
         entryCache.put(key, entry);
@@ -328,15 +308,39 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
     }
 
     public Map<PersistentEntity, Collection<PendingInsert>> getPendingInserts() {
-        return pendingInserts;
+        return pendingOperations.getInserts();
     }
 
     public Map<PersistentEntity, Collection<PendingUpdate>> getPendingUpdates() {
-        return pendingUpdates;
+        return pendingOperations.getUpdates();
     }
 
     public Map<PersistentEntity, Collection<PendingDelete>> getPendingDeletes() {
-        return pendingDeletes;
+        return pendingOperations.getDeletes();
+    }
+
+    /**
+     * @return The queued pending operations, including metrics about the depth of the queues
+     */
+    public PendingOperations getPendingOperations() {
+        return pendingOperations;
+    }
+
+    /**
+     * @return The number of pending operations at which the session is flushed automatically
+     */
+    public int getPendingOperationsFlushThreshold() {
+        return pendingOperationsFlushThreshold;
+    }
+
+    /**
+     * Sets the number of pending operations at which the session is flushed automatically. Batch persist
+     * operations are split into batches of this size. A value of zero or less disables automatic flushing.
+     *
+     * @param pendingOperationsFlushThreshold The threshold
+     */
+    public void setPendingOperationsFlushThreshold(int pendingOperationsFlushThreshold) {
+        this.pendingOperationsFlushThreshold = pendingOperationsFlushThreshold;
     }
 
     public FlushModeType getFlushMode() {
@@ -369,9 +373,9 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
             hasInserts = hasUpdates();
             if (hasInserts) {
-                flushPendingInserts(pendingInserts);
-                flushPendingUpdates(pendingUpdates);
-                flushPendingDeletes(pendingDeletes);
+                flushPendingInserts(pendingOperations.getInserts());
+                flushPendingUpdates(pendingOperations.getUpdates());
+                flushPendingDeletes(pendingOperations.getDeletes());
 
                 firstLevelCollectionCache.clear();
 
@@ -386,10 +390,15 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         postFlush(hasInserts);
     }
 
+    /**
+     * The default implementation of flushPendingDeletes hands the deletes of each entity to
+     * {@link #flushPendingDeletes(PersistentEntity, List)} as a single group.
+     *
+     * @param pendingDeletes The delete operations
+     */
     protected void flushPendingDeletes(Map<PersistentEntity, Collection<PendingDelete>> pendingDeletes) {
-        final Collection<Collection<PendingDelete>> deletes = pendingDeletes.values();
-        for (Collection<PendingDelete> delete : deletes) {
-            flushPendingOperations(delete);
+        for (Map.Entry<PersistentEntity, Collection<PendingDelete>> entry : pendingDeletes.entrySet()) {
+            flushPendingOperations(entry.getKey(), entry.getValue(), this::flushPendingDeletes);
         }
     }
 
@@ -418,8 +427,19 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return false;
         }
 
-        Object entry = getCachedEntry(persister.getPersistentEntity(), id, false);
-        Object instance2 = getCachedInstance(instance.getClass(), id);
+        PersistentEntity entity = persister.getPersistentEntity();
+        Object entry;
+        Object instance2;
+        if (entity.getJavaClass() == instance.getClass()) {
+            // the instance and its entry are held by the same record
+            SessionCacheRecord record = isStateless(entity) ? null : sessionCache.get(entity.getJavaClass(), id);
+            entry = record != null ? record.getEntry(false) : null;
+            instance2 = record != null ? record.getInstance() : null;
+        }
+        else {
+            entry = getCachedEntry(entity, id, false);
+            instance2 = getCachedInstance(instance.getClass(), id);
+        }
         return instance != instance2 || ((NativeEntryEntityPersister) persister).isDirty(instance, entry);
     }
 
@@ -434,53 +454,128 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
 
     /**
-     * The default implementation of flushPendingUpdates is to iterate over each update operation
-     * and execute them one by one. This may be suboptimal for stores that support batch update
-     * operations. Subclasses can override this method to implement batch update more efficiently.
+     * The default implementation of flushPendingUpdates hands the updates of each entity to
+     * {@link #flushPendingUpdates(PersistentEntity, List)} as a single group, so that the persister
+     * of the entity can write them in one batch. Subclasses can override this method to implement
+     * batch updates spanning several entities.
      *
-     * @param updates
+     * @param updates The update operations
      */
     protected void flushPendingUpdates(Map<PersistentEntity, Collection<PendingUpdate>> updates) {
-        for (Collection<PendingUpdate> pending : updates.values()) {
-            flushPendingOperations(pending);
+        for (Map.Entry<PersistentEntity, Collection<PendingUpdate>> entry : updates.entrySet()) {
+            flushPendingOperations(entry.getKey(), entry.getValue(), this::flushPendingUpdates);
         }
     }
 
     /**
-     * The default implementation of flushPendingInserts is to iterate over each insert operations
-     * and execute them one by one. This may be suboptimal for stores that support batch insert
-     * operations. Subclasses can override this method to implement batch insert more efficiently.
+     * The default implementation of flushPendingInserts hands the inserts of each entity to
+     * {@link #flushPendingInserts(PersistentEntity, List)} as a single group, so that the persister
+     * of the entity can write them in one batch. Subclasses can override this method to implement
+     * batch inserts spanning several entities.
      *
      * @param inserts The insert operations
      */
     protected void flushPendingInserts(Map<PersistentEntity, Collection<PendingInsert>> inserts) {
-        for (Collection<PendingInsert> pending : inserts.values()) {
-            flushPendingOperations(pending);
+        for (Map.Entry<PersistentEntity, Collection<PendingInsert>> entry : inserts.entrySet()) {
+            flushPendingOperations(entry.getKey(), entry.getValue(), this::flushPendingInserts);
         }
     }
 
-    private void flushPendingOperations(Collection operations) {
-        for (Object o : operations) {
-            PendingOperation pendingOperation = (PendingOperation) o;
-            try {
-                PendingOperationExecution.executePendingOperation(pendingOperation);
+    @Override
+    public void flushPendingInserts(PersistentEntity entity, List<PendingInsert> inserts) {
+        Persister persister = getPersister(entity);
+        if (persister instanceof EntityPersister) {
+            ((EntityPersister) persister).flushPendingInserts(inserts);
+        }
+        else {
+            PendingOperationExecution.executePendingOperations(inserts);
+        }
+    }
+
+    @Override
+    public void flushPendingUpdates(PersistentEntity entity, List<PendingUpdate> updates) {
+        Persister persister = getPersister(entity);
+        if (persister instanceof EntityPersister) {
+            ((EntityPersister) persister).flushPendingUpdates(updates);
+        }
+        else {
+            PendingOperationExecution.executePendingOperations(updates);
+        }
+    }
+
+    @Override
+    public void flushPendingDeletes(PersistentEntity entity, List<PendingDelete> deletes) {
+        Persister persister = getPersister(entity);
+        if (persister instanceof EntityPersister) {
+            ((EntityPersister) persister).flushPendingDeletes(deletes);
+        }
+        else {
+            PendingOperationExecution.executePendingOperations(deletes);
+        }
+    }
+
+    private <T extends PendingOperation> void flushPendingOperations(PersistentEntity entity, Collection<T> operations,
+            BiConsumer<PersistentEntity, List<T>> flusher) {
+        List<T> ordered = operations instanceof List ? (List<T>) operations : new ArrayList<>(operations);
+        int flushed = 0;
+        try {
+            // operations queued for the entity while a group is flushed (by cascades or event listeners)
+            // are flushed as a further group
+            while (flushed < ordered.size()) {
+                int size = ordered.size();
+                flusher.accept(entity, ordered.subList(flushed, size));
+                flushed = size;
+            }
+        }
+        catch (RuntimeException e) {
+            setFlushMode(FlushModeType.COMMIT);
+            exceptionOccurred = true;
+            throw e;
+        }
+        finally {
+            if (!ordered.isEmpty()) {
+                invalidateQueryResultCache(entity);
             }
-            catch (RuntimeException e) {
-                setFlushMode(FlushModeType.COMMIT);
-                exceptionOccurred = true;
-                throw e;
+        }
+    }
+
+    /**
+     * Invalidates the cached query results of an entity, called once operations on the entity were written
+     *
+     * @param entity The entity
+     */
+    protected void invalidateQueryResultCache(PersistentEntity entity) {
+        Datastore datastore = getDatastore();
+        if (entity != null && datastore instanceof QueryResultCacheCapableDatastore) {
+            QueryResultCache queryResultCache = ((QueryResultCacheCapableDatastore) datastore).getQueryResultCache();
+            if (queryResultCache != null) {
+                queryResultCache.invalidate(entity);
             }
         }
     }
 
     private boolean hasUpdates() {
-        return !pendingInserts.isEmpty() || !pendingUpdates.isEmpty() || !pendingDeletes.isEmpty() || !postFlushOperations.isEmpty();
+        return !pendingOperations.isEmpty() || !postFlushOperations.isEmpty();
     }
 
     protected void postFlush(boolean hasUpdates) {
         // do nothing
     }
 
+    /**
+     * Flushes the session if the number of pending operations has reached the configured threshold. Nested
+     * operations, such as those cascaded from a persist, never trigger a flush, so an object graph is always
+     * queued completely before it is flushed. A session with the {@link FlushModeType#COMMIT} flush mode is
+     * only flushed on commit.
+     */
+    protected void flushIfThresholdReached() {
+        if (pendingOperationsFlushThreshold > 0 && flushMode != FlushModeType.COMMIT && operationDepth == 0 &&
+                !flushActive && pendingOperations.size() >= pendingOperationsFlushThreshold) {
+            pendingOperations.recordAutoFlush();
+            flush();
+        }
+    }
+
     protected void executePendings(Collection<? extends Runnable> pendings) {
         try {
             for (Runnable pending : pendings) {
@@ -495,9 +590,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
     }
 
     public void clear() {
-        clearMaps(firstLevelCache);
-        clearMaps(firstLevelEntryCache);
-        clearMaps(firstLevelEntryCacheDirtyCheck);
+        sessionCache.clear();
         firstLevelCollectionCache.clear();
         clearPendingOperations();
         attributes.clear();
@@ -506,18 +599,10 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
     protected void clearPendingOperations() {
         objectsPendingOperations.clear();
-        pendingInserts.clear();
-        pendingUpdates.clear();
-        pendingDeletes.clear();
+        pendingOperations.clear();
         postFlushOperations.clear();
     }
 
-    private void clearMaps(Map<Class, Map<Serializable, Object>> mapOfMaps) {
-        for (Map<Serializable, Object> cache : mapOfMaps.values()) {
-            cache.clear();
-        }
-    }
-
     public final Persister getPersister(Object o) {
         if (o == null) return null;
         Class cls;
@@ -534,9 +619,6 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         if (p == null) {
             p = createPersister(cls, getMappingContext());
             if (p != null) {
-                if (!isStateless(((EntityPersister) p).getPersistentEntity())) {
-                    firstLevelCache.put(cls, new ConcurrentHashMap<Serializable, Object>());
-                }
                 persisters.put(cls, p);
             }
         }
@@ -552,10 +634,10 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
         final Serializable identifier = getObjectIdentifier(o);
         if (identifier != null) {
-            return getInstanceCache(o.getClass()).containsKey(identifier);
+            return sessionCache.getInstance(o.getClass(), identifier) != null;
         }
         else {
-            return getInstanceCache(o.getClass()).containsValue(o);
+            return sessionCache.containsInstance(o.getClass(), o);
         }
     }
 
@@ -565,7 +647,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return false;
         }
 
-        return getInstanceCache(type).containsKey(key);
+        return sessionCache.getInstance(type, key) != null;
     }
 
     public void cacheInstance(Class type, Serializable key, Object instance) {
@@ -573,7 +655,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return;
         }
         if (isStateless(getMappingContext().getPersistentEntity(type.getName()))) return;
-        getInstanceCache(type).put(key, instance);
+        sessionCache.putInstance(type, key, instance);
     }
 
     public Object getCachedInstance(Class type, Serializable key) {
@@ -582,7 +664,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return null;
         }
         if (isStateless(getMappingContext().getPersistentEntity(type.getName()))) return null;
-        return getInstanceCache(type).get(key);
+        return sessionCache.getInstance(type, key);
     }
 
     public void clear(Object o) {
@@ -590,12 +672,11 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return;
         }
 
-        final Map<Serializable, Object> cache = firstLevelCache.get(o.getClass());
-        if (cache != null) {
-            Persister persister = getPersister(o);
+        Persister persister = getPersister(o);
+        if (persister != null) {
             Serializable key = persister.getObjectIdentifier(o);
             if (key != null) {
-                cache.remove(key);
+                sessionCache.removeInstance(o.getClass(), key);
             }
         }
         removeAttributesForEntity(o);
@@ -632,8 +713,16 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
                     "] cannot be persisted. It is not a known persistent type.");
         }
 
-        final Serializable key = persister.persist(o);
-        cacheObject(key, o);
+        final Serializable key;
+        operationDepth++;
+        try {
+            key = persister.persist(o);
+            cacheObject(key, o);
+        }
+        finally {
+            operationDepth--;
+        }
+        flushIfThresholdReached();
         return key;
     }
 
@@ -646,8 +735,16 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
                     "] cannot be persisted. It is not a known persistent type.");
         }
 
-        final Serializable key = persister.insert(o);
-        cacheObject(key, o);
+        final Serializable key;
+        operationDepth++;
+        try {
+            key = persister.insert(o);
+            cacheObject(key, o);
+        }
+        finally {
+            operationDepth--;
+        }
+        flushIfThresholdReached();
         return key;
     }
 
@@ -686,7 +783,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return null;
         }
 
-        Object o = getInstanceCache(type).get(key);
+        Object o = sessionCache.getInstance(type, key);
         if (o == null) {
             o = persister.retrieve(key);
             if (o != null) {
@@ -721,7 +818,7 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         }
 
         // only return proxy if real instance is not available.
-        Object o = getInstanceCache(type).get(key);
+        Object o = sessionCache.getInstance(type, key);
         if (o == null) {
             o = persister.proxy(key);
         }
@@ -751,9 +848,14 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
      * @param criteria The criteria
      */
     public long deleteAll(QueryableCriteria criteria) {
-        List list = criteria.list();
-        delete(list);
-        return list.size();
+        try {
+            List list = criteria.list();
+            delete(list);
+            return list.size();
+        }
+        finally {
+            invalidateQueryResultCache(criteria.getPersistentEntity());
+        }
     }
 
     /**
@@ -765,15 +867,20 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
      * @param properties The properties
      */
     public long updateAll(QueryableCriteria criteria, Map<String, Object> properties) {
-        List list = criteria.list();
-        for (Object o : list) {
-            BeanWrapper bean = new BeanWrapperImpl(o);
-            for (String property : properties.keySet()) {
-                bean.setPropertyValue(property, properties.get(property));
+        try {
+            List list = criteria.list();
+            for (Object o : list) {
+                BeanWrapper bean = new BeanWrapperImpl(o);
+                for (String property : properties.keySet()) {
+                    bean.setPropertyValue(property, properties.get(property));
+                }
             }
+            persist(list);
+            return list.size();
+        }
+        finally {
+            invalidateQueryResultCache(criteria.getPersistentEntity());
         }
-        persist(list);
-        return list.size();
     }
 
     public void delete(final Object obj) {
@@ -786,8 +893,16 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             return;
         }
 
-        p.delete(obj);
-        clear(obj);
+        operationDepth++;
+        try {
+            p.delete(obj);
+            clear(obj);
+        }
+        finally {
+            operationDepth--;
+            invalidateQueryResultCache(p.getPersistentEntity());
+        }
+        flushIfThresholdReached();
     }
 
     public void delete(final Iterable objects) {
@@ -812,10 +927,22 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
             listForPersister.add(object);
         }
         // for each type (usually only 1 type), set up a pendingDelete of that type
-        for (Map.Entry<Persister, List> entry : toDelete.entrySet()) {
-            final EntityPersister p = (EntityPersister) entry.getKey();
-            p.delete(entry.getValue());
+        operationDepth++;
+        try {
+            for (Map.Entry<Persister, List> entry : toDelete.entrySet()) {
+                final EntityPersister p = (EntityPersister) entry.getKey();
+                try {
+                    p.delete(entry.getValue());
+                }
+                finally {
+                    invalidateQueryResultCache(p.getPersistentEntity());
+                }
+            }
+        }
+        finally {
+            operationDepth--;
         }
+        flushIfThresholdReached();
     }
 
     public List<Serializable> persist(Iterable objects) {
@@ -836,7 +963,38 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
                     obj.getClass().getName() + "] is not a known persistent type.");
         }
 
-        return p.persist(objects);
+        final int batchSize = pendingOperationsFlushThreshold;
+        if (batchSize <= 0 || operationDepth > 0) {
+            return p.persist(objects);
+        }
+
+        // persist in batches so that the pending operations are flushed before they exceed the threshold
+        List<Serializable> keys = new ArrayList<>();
+        List batch = new ArrayList(batchSize);
+        for (Object object : objects) {
+            batch.add(object);
+            if (batch.size() == batchSize) {
+                keys.addAll(persistBatch(p, batch));
+                batch = new ArrayList(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            keys.addAll(persistBatch(p, batch));
+        }
+        return keys;
+    }
+
+    private List<Serializable> persistBatch(Persister persister, List batch) {
+        final List<Serializable> keys;
+        operationDepth++;
+        try {
+            keys = persister.persist(batch);
+        }
+        finally {
+            operationDepth--;
+        }
+        flushIfThresholdReached();
+        return keys;
     }
 
     public List retrieveAll(Class type, Iterable keys) {
@@ -848,10 +1006,9 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
         List list = new ArrayList();
         List<Serializable> toRetrieve = new ArrayList<Serializable>();
-        final Map<Serializable, Object> cache = getInstanceCache(type);
         for (Object key : keys) {
             Serializable serializable = (Serializable) key;
-            Object cached = cache.get(serializable);
+            Object cached = sessionCache.getInstance(type, serializable);
             list.add(cached);
             if (cached == null) {
                 toRetrieve.add(serializable);
@@ -925,23 +1082,53 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
         return transaction != null;
     }
 
-    private Map<Serializable, Object> getInstanceCache(Class c) {
-        Map<Serializable, Object> cache = firstLevelCache.get(c);
-        if (cache == null) {
-            cache = new ConcurrentHashMap<>();
-            firstLevelCache.put(c, cache);
-        }
-        return cache;
+    /**
+     * @return The first level cache of this session
+     */
+    public SessionCache getFirstLevelCache() {
+        return sessionCache;
     }
 
-    private Map<Serializable, Object> getEntryCache(Class c, boolean forDirtyCheck) {
-        Map<Class, Map<Serializable, Object>> caches = forDirtyCheck ? firstLevelEntryCacheDirtyCheck : firstLevelEntryCache;
-        Map<Serializable, Object> cache = caches.get(c);
-        if (cache == null) {
-            cache = new ConcurrentHashMap<>();
-            caches.put(c, cache);
+    /**
+     * Replaces the first level cache of this session. Should be called before the session is used.
+     *
+     * @param firstLevelCache The cache
+     */
+    public void setFirstLevelCache(SessionCache firstLevelCache) {
+        Assert.notNull(firstLevelCache, "Argument [firstLevelCache] cannot be null");
+        this.sessionCache = firstLevelCache;
+    }
+
+    /**
+     * Switches this session to a {@link BoundedSessionCache} that holds at most the given number of instances. Once the
+     * limit is reached the least recently used instances that are neither dirty nor pending are evicted, see
+     * {@link #isEvictable(Class, Serializable, SessionCacheRecord)}. Should be called before the session is used.
+     *
+     * @param maxSize The maximum number of cached instances
+     */
+    public void useBoundedFirstLevelCache(int maxSize) {
+        setFirstLevelCache(new BoundedSessionCache(maxSize, this::isEvictable));
+    }
+
+    /**
+     * Whether a record of the first level cache can be evicted. Only instances that implement {@link DirtyCheckable}
+     * can be evicted, and only if they have not changed and have no pending operation.
+     *
+     * @param type The type
+     * @param id The identifier
+     * @param record The record
+     * @return True if the record can be evicted
+     */
+    protected boolean isEvictable(Class type, Serializable id, SessionCacheRecord record) {
+        Object instance = record.getInstance();
+        if (instance == null) {
+            return true;
+        }
+        if (!(instance instanceof DirtyCheckable) || ((DirtyCheckable) instance).hasChanged()) {
+            return false;
         }
-        return cache;
+        return !objectsPendingOperations.contains(id) &&
+                !objectsPendingOperations.contains(System.identityHashCode(instance));
     }
 
     @Override
@@ -996,4 +1183,244 @@ public abstract class AbstractSession<N> extends AbstractAttributeStoringSession
 
     }
 
+    /**
+     * The values of the first level cache exposed by the deprecated maps
+     */
+    private enum CachedValue {
+        INSTANCE, ENTRY, DIRTY_CHECK_ENTRY
+    }
+
+    /**
+     * A view of the first level cache for the deprecated maps keyed by type. A type is only contained while values of
+     * the view are cached for it. A map that is put into the view is copied, later changes to it are not seen.
+     */
+    private class LegacyCacheView extends AbstractMap<Class, Map<Serializable, Object>> {
+
+        private final CachedValue cachedValue;
+
+        LegacyCacheView(CachedValue cachedValue) {
+            this.cachedValue = cachedValue;
+        }
+
+        @Override
+        public Map<Serializable, Object> get(Object type) {
+            if (!(type instanceof Class)) {
+                return null;
+            }
+            LegacyTypeCacheView view = new LegacyTypeCacheView((Class) type, cachedValue);
+            return view.isEmpty() ? null : view;
+        }
+
+        @Override
+        public boolean containsKey(Object type) {
+            return get(type) != null;
+        }
+
+        @Override
+        public Map<Serializable, Object> put(Class type, Map<Serializable, Object> values) {
+            Map<Serializable, Object> previous = remove(type);
+            new LegacyTypeCacheView(type, cachedValue).putAll(values);
+            return previous;
+        }
+
+        @Override
+        public Map<Serializable, Object> computeIfAbsent(Class type, Function<? super Class, ? extends Map<Serializable, Object>> mappingFunction) {
+            Map<Serializable, Object> view = get(type);
+            if (view == null) {
+                Map<Serializable, Object> values = mappingFunction.apply(type);
+                if (values == null) {
+                    return null;
+                }
+                // the caller gets the live view rather than the map that was copied into it
+                view = new LegacyTypeCacheView(type, cachedValue);
+                view.putAll(values);
+            }
+            return view;
+        }
+
+        @Override
+        public Map<Serializable, Object> remove(Object type) {
+            Map<Serializable, Object> view = get(type);
+            if (view == null) {
+                return null;
+            }
+            Map<Serializable, Object> previous = new LinkedHashMap<>(view);
+            view.clear();
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<Class, Map<Serializable, Object>>> entrySet() {
+            return new AbstractSet<Entry<Class, Map<Serializable, Object>>>() {
+                @Override
+                public Iterator<Entry<Class, Map<Serializable, Object>>> iterator() {
+                    Iterator<Class> types = cachedTypes().iterator();
+                    return new Iterator<Entry<Class, Map<Serializable, Object>>>() {
+                        Class current;
+
+                        @Override
+                        public boolean hasNext() {
+                            return types.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Class, Map<Serializable, Object>> next() {
+                            current = types.next();
+                            return new SimpleImmutableEntry<>(current, new LegacyTypeCacheView(current, cachedValue));
+                        }
+
+                        @Override
+                        public void remove() {
+                            LegacyCacheView.this.remove(current);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return cachedTypes().size();
+                }
+            };
+        }
+
+        private List<Class> cachedTypes() {
+            List<Class> types = new ArrayList<>();
+            for (Class type : sessionCache.getTypes()) {
+                if (!new LegacyTypeCacheView(type, cachedValue).isEmpty()) {
+                    types.add(type);
+                }
+            }
+            return types;
+        }
+
+    }
+
+    /**
+     * A view of the instances or native entries of one type in the first level cache
+     */
+    private class LegacyTypeCacheView extends AbstractMap<Serializable, Object> {
+
+        private final Class type;
+
+        private final CachedValue cachedValue;
+
+        LegacyTypeCacheView(Class type, CachedValue cachedValue) {
+            this.type = type;
+            this.cachedValue = cachedValue;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof Serializable)) {
+                return null;
+            }
+            Serializable id = (Serializable) key;
+            switch (cachedValue) {
+                case INSTANCE:
+                    return sessionCache.getInstance(type, id);
+                case ENTRY:
+                    return sessionCache.getEntry(type, id, false);
+                default:
+                    return sessionCache.getEntry(type, id, true);
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            if (cachedValue == CachedValue.INSTANCE) {
+                return sessionCache.containsInstance(type, value);
+            }
+            return super.containsValue(value);
+        }
+
+        @Override
+        public Object put(Serializable key, Object value) {
+            Object previous = get(key);
+            switch (cachedValue) {
+                case INSTANCE:
+                    sessionCache.putInstance(type, key, value);
+                    break;
+                case ENTRY:
+                    sessionCache.putEntry(type, key, value, false);
+                    break;
+                default:
+                    sessionCache.putEntry(type, key, value, true);
+            }
+            return previous;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Object previous = get(key);
+            if (previous != null) {
+                if (cachedValue == CachedValue.INSTANCE) {
+                    sessionCache.removeInstance(type, (Serializable) key);
+                }
+                else {
+                    sessionCache.putEntry(type, (Serializable) key, null, cachedValue == CachedValue.DIRTY_CHECK_ENTRY);
+                }
+            }
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<Serializable, Object>> entrySet() {
+            return new AbstractSet<Entry<Serializable, Object>>() {
+                @Override
+                public Iterator<Entry<Serializable, Object>> iterator() {
+                    Iterator<Entry<Serializable, Object>> values = cachedValues().entrySet().iterator();
+                    return new Iterator<Entry<Serializable, Object>>() {
+                        Entry<Serializable, Object> current;
+
+                        @Override
+                        public boolean hasNext() {
+                            return values.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Serializable, Object> next() {
+                            current = values.next();
+                            return new SimpleEntry<Serializable, Object>(current.getKey(), current.getValue()) {
+                                @Override
+                                public Object setValue(Object value) {
+                                    put(getKey(), value);
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            LegacyTypeCacheView.this.remove(current.getKey());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return cachedValues().size();
+                }
+            };
+        }
+
+        private Map<Serializable, Object> cachedValues() {
+            Map<Serializable, Object> values = new LinkedHashMap<>();
+            for (Map.Entry<Serializable, SessionCacheRecord> entry : sessionCache.getRecords(type).entrySet()) {
+                SessionCacheRecord record = entry.getValue();
+                Object value = cachedValue == CachedValue.INSTANCE ? record.getInstance() :
+                        record.getEntry(cachedValue == CachedValue.DIRTY_CHECK_ENTRY);
+                if (value != null) {
+                    values.put(entry.getKey(), value);
+                }
+            }
+            return values;
+        }
+
+    }
+
 }
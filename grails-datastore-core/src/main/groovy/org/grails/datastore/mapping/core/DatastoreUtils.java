@@ -31,7 +31,6 @@ import groovy.util.ConfigSlurper;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.convert.ConversionException;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.env.ConfigurableEnvironment;
@@ -48,6 +47,9 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
 import org.grails.datastore.mapping.config.DatastoreEnvironment;
+import org.grails.datastore.mapping.core.context.ContextKey;
+import org.grails.datastore.mapping.core.context.ContextStorages;
+import org.grails.datastore.mapping.core.context.ScopedContexts;
 import org.grails.datastore.mapping.transactions.SessionHolder;
 import org.grails.datastore.mapping.transactions.support.SpringSessionSynchronization;
 
@@ -65,8 +67,8 @@ public abstract class DatastoreUtils {
 
     private static final String DATASTORE_CONFIG_FLAT = "datastoreConfigFlat";
 
-    private static final ThreadLocal<Map<Datastore, Set<Session>>> deferredCloseHolder =
-            new NamedThreadLocal<>(
+    private static final ContextKey<Map<Datastore, Set<Session>>> deferredCloseHolder =
+            ContextKey.newInstance(
                     "Datastore Sessions registered for deferred close");
 
     private static final String DATASTORE_CONFIG = "datastoreConfig";
@@ -147,6 +149,11 @@ public abstract class DatastoreUtils {
             }
         }
 
+        Session scopedSession = getScopedSession(datastore);
+        if (scopedSession != null) {
+            return scopedSession;
+        }
+
         if (logger.isDebugEnabled()) {
             logger.debug("Opening Datastore Session");
         }
@@ -184,6 +191,20 @@ public abstract class DatastoreUtils {
         return session;
     }
 
+    /**
+     * Returns the session bound to the current scope by {@link ScopedContexts#withSession(Datastore, SessionCallback)}.
+     * Within a transaction the session bound to the transaction is used instead, so none is returned.
+     *
+     * @param datastore The datastore
+     * @return The scoped session or null
+     */
+    public static Session getScopedSession(Datastore datastore) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        return ScopedContexts.currentSession(datastore);
+    }
+
     /**
      * Return whether the given Datastore Session is transactional, that is,
      * bound to the current thread by Spring's transaction facilities.
@@ -246,7 +267,7 @@ public abstract class DatastoreUtils {
      */
     public static void processDeferredClose(Datastore datastore) {
         Assert.notNull(datastore, "No Datastore specified");
-        Map<Datastore, Set<Session>> holderMap = deferredCloseHolder.get();
+        Map<Datastore, Set<Session>> holderMap = ContextStorages.get().get(deferredCloseHolder);
         if (holderMap == null || !holderMap.containsKey(datastore)) {
             throw new IllegalStateException("Deferred close not active for Datastore [" + datastore + "]");
         }
@@ -258,7 +279,7 @@ public abstract class DatastoreUtils {
             closeSession(session);
         }
         if (holderMap.isEmpty()) {
-            deferredCloseHolder.set(null);
+            ContextStorages.get().set(deferredCloseHolder, null);
         }
     }
 
@@ -274,10 +295,10 @@ public abstract class DatastoreUtils {
     public static void initDeferredClose(Datastore datastore) {
         Assert.notNull(datastore, "No Datastore specified");
         logger.debug("Initializing deferred close of Datastore Sessions");
-        Map<Datastore, Set<Session>> holderMap = deferredCloseHolder.get();
+        Map<Datastore, Set<Session>> holderMap = ContextStorages.get().get(deferredCloseHolder);
         if (holderMap == null) {
             holderMap = new HashMap<Datastore, Set<Session>>();
-            deferredCloseHolder.set(holderMap);
+            ContextStorages.get().set(deferredCloseHolder, holderMap);
         }
         holderMap.put(datastore, new LinkedHashSet<Session>(4));
     }
@@ -291,7 +312,7 @@ public abstract class DatastoreUtils {
      * @see #processDeferredClose
      */
     public static void closeSessionOrRegisterDeferredClose(Session session, Datastore datastore) {
-        Map<Datastore, Set<Session>> holderMap = deferredCloseHolder.get();
+        Map<Datastore, Set<Session>> holderMap = ContextStorages.get().get(deferredCloseHolder);
         if (holderMap != null && datastore != null && holderMap.containsKey(datastore)) {
             logger.debug("Registering Datastore Session for deferred close");
             holderMap.get(datastore).add(session);
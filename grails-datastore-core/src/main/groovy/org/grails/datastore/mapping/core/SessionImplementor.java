@@ -16,10 +16,12 @@ package org.grails.datastore.mapping.core;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.grails.datastore.mapping.core.impl.PendingDelete;
 import org.grails.datastore.mapping.core.impl.PendingInsert;
+import org.grails.datastore.mapping.core.impl.PendingOperationExecution;
 import org.grails.datastore.mapping.core.impl.PendingUpdate;
 import org.grails.datastore.mapping.engine.EntityAccess;
 import org.grails.datastore.mapping.model.PersistentEntity;
@@ -71,6 +73,42 @@ public interface SessionImplementor<T> {
      */
     Map<PersistentEntity, Collection<PendingDelete>> getPendingDeletes();
 
+    /**
+     * Flushes an ordered group of pending inserts for a single entity. Implementations hand the whole group
+     * to the persister of the entity so that it can be written in one operation.
+     *
+     * @param entity The entity
+     * @param inserts The pending inserts in the order they were queued
+     * @since 2022.2.5
+     */
+    default void flushPendingInserts(PersistentEntity entity, List<PendingInsert> inserts) {
+        PendingOperationExecution.executePendingOperations(inserts);
+    }
+
+    /**
+     * Flushes an ordered group of pending updates for a single entity. Implementations hand the whole group
+     * to the persister of the entity so that it can be written in one operation.
+     *
+     * @param entity The entity
+     * @param updates The pending updates in the order they were queued
+     * @since 2022.2.5
+     */
+    default void flushPendingUpdates(PersistentEntity entity, List<PendingUpdate> updates) {
+        PendingOperationExecution.executePendingOperations(updates);
+    }
+
+    /**
+     * Flushes an ordered group of pending deletes for a single entity. Implementations hand the whole group
+     * to the persister of the entity so that it can be written in one operation.
+     *
+     * @param entity The entity
+     * @param deletes The pending deletes in the order they were queued
+     * @since 2022.2.5
+     */
+    default void flushPendingDeletes(PersistentEntity entity, List<PendingDelete> deletes) {
+        PendingOperationExecution.executePendingOperations(deletes);
+    }
+
     /**
      * Caches a native entry
      * @param entity The entity
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+import java.io.Serializable;
+
+/**
+ * Implements the {@link SessionCache} operations on top of the record lookups of a concrete implementation.
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+public abstract class AbstractSessionCache implements SessionCache {
+
+    @Override
+    public Object getInstance(Class type, Serializable id) {
+        SessionCacheRecord record = get(type, id);
+        return record != null ? record.getInstance() : null;
+    }
+
+    @Override
+    public void putInstance(Class type, Serializable id, Object instance) {
+        getOrCreate(type, id).setInstance(instance);
+    }
+
+    @Override
+    public void removeInstance(Class type, Serializable id) {
+        SessionCacheRecord record = get(type, id);
+        if (record != null) {
+            record.setInstance(null);
+            if (record.isEmpty()) {
+                remove(type, id, record);
+            }
+        }
+    }
+
+    @Override
+    public Object getEntry(Class type, Serializable id, boolean forDirtyCheck) {
+        SessionCacheRecord record = get(type, id);
+        return record != null ? record.getEntry(forDirtyCheck) : null;
+    }
+
+    @Override
+    public void putEntry(Class type, Serializable id, Object entry, boolean forDirtyCheck) {
+        getOrCreate(type, id).setEntry(entry, forDirtyCheck);
+    }
+
+    /**
+     * Obtains the record for the given type and identifier, creating it if necessary
+     *
+     * @param type The type
+     * @param id The identifier
+     * @return The record
+     */
+    protected abstract SessionCacheRecord getOrCreate(Class type, Serializable id);
+
+    /**
+     * Removes the given record
+     *
+     * @param type The type
+     * @param id The identifier
+     * @param record The record to remove
+     */
+    protected abstract void remove(Class type, Serializable id, SessionCacheRecord record);
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link SessionCache} that holds at most a configured number of records. Once the limit is exceeded, the least
+ * recently used records are evicted, but only those the {@link EvictionFilter} considers safe to drop. Records that
+ * cannot be evicted, for example because their instance is dirty or has a pending operation, are retained and the
+ * cache may temporarily exceed the limit until they can be evicted.
+ *
+ * <p>Evicting an instance means that a later retrieve of the same identifier returns a new instance.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+public class BoundedSessionCache extends AbstractSessionCache {
+
+    /**
+     * The maximum number of records examined for eviction when a record is added
+     */
+    private static final int MAX_EVICTION_CANDIDATES = 64;
+
+    private final int maxSize;
+
+    private final EvictionFilter evictionFilter;
+
+    private final LinkedHashMap<RecordKey, SessionCacheRecord> records = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long evictionCount;
+
+    public BoundedSessionCache(int maxSize, EvictionFilter evictionFilter) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size of the session cache must be greater than zero");
+        }
+        this.maxSize = maxSize;
+        this.evictionFilter = evictionFilter;
+    }
+
+    /**
+     * @return The maximum number of records
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return The number of records evicted since the cache was created
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized SessionCacheRecord get(Class type, Serializable id) {
+        return records.get(new RecordKey(type, id));
+    }
+
+    @Override
+    protected synchronized SessionCacheRecord getOrCreate(Class type, Serializable id) {
+        RecordKey key = new RecordKey(type, id);
+        SessionCacheRecord record = records.get(key);
+        if (record == null) {
+            record = new SessionCacheRecord();
+            records.put(key, record);
+            evictIfNecessary(key);
+        }
+        return record;
+    }
+
+    @Override
+    protected synchronized void remove(Class type, Serializable id, SessionCacheRecord record) {
+        records.remove(new RecordKey(type, id), record);
+    }
+
+    @Override
+    public synchronized boolean containsInstance(Class type, Object instance) {
+        if (instance != null) {
+            for (Map.Entry<RecordKey, SessionCacheRecord> entry : records.entrySet()) {
+                if (entry.getKey().type == type && instance.equals(entry.getValue().getInstance())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized Set<Class> getTypes() {
+        Set<Class> types = new HashSet<>();
+        for (RecordKey key : records.keySet()) {
+            types.add(key.type);
+        }
+        return types;
+    }
+
+    @Override
+    public synchronized Map<Serializable, SessionCacheRecord> getRecords(Class type) {
+        // iterating does not change the access order of the records
+        Map<Serializable, SessionCacheRecord> forType = new LinkedHashMap<>();
+        for (Map.Entry<RecordKey, SessionCacheRecord> entry : records.entrySet()) {
+            if (entry.getKey().type == type) {
+                forType.put(entry.getKey().id, entry.getValue());
+            }
+        }
+        return forType;
+    }
+
+    @Override
+    public synchronized int size() {
+        return records.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        records.clear();
+    }
+
+    private void evictIfNecessary(RecordKey added) {
+        int excess = records.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        List<RecordKey> retained = null;
+        int examined = 0;
+        Iterator<Map.Entry<RecordKey, SessionCacheRecord>> i = records.entrySet().iterator();
+        while (excess > 0 && examined < MAX_EVICTION_CANDIDATES && i.hasNext()) {
+            Map.Entry<RecordKey, SessionCacheRecord> entry = i.next();
+            RecordKey key = entry.getKey();
+            if (key.equals(added)) {
+                continue;
+            }
+            examined++;
+            if (evictionFilter == null || evictionFilter.isEvictable(key.type, key.id, entry.getValue())) {
+                i.remove();
+                evictionCount++;
+                excess--;
+            }
+            else {
+                if (retained == null) {
+                    retained = new ArrayList<>();
+                }
+                retained.add(key);
+            }
+        }
+
+        if (retained != null) {
+            // mark the records that could not be evicted as recently used, so that the next eviction examines other records
+            for (RecordKey key : retained) {
+                records.get(key);
+            }
+        }
+    }
+
+    /**
+     * Decides whether a record can be evicted
+     */
+    @FunctionalInterface
+    public interface EvictionFilter {
+
+        /**
+         * @param type The type
+         * @param id The identifier
+         * @param record The record
+         * @return Whether the record can be evicted
+         */
+        boolean isEvictable(Class type, Serializable id, SessionCacheRecord record);
+
+    }
+
+    private static final class RecordKey {
+
+        final Class type;
+
+        final Serializable id;
+
+        RecordKey(Class type, Serializable id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RecordKey)) {
+                return false;
+            }
+            RecordKey other = (RecordKey) o;
+            return type == other.type && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default {@link SessionCache}, which is backed by a {@link ConcurrentHashMap} per type and can be shared between threads.
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+public class ConcurrentSessionCache extends AbstractSessionCache {
+
+    private final Map<Class, Map<Serializable, SessionCacheRecord>> records = new ConcurrentHashMap<>();
+
+    @Override
+    public SessionCacheRecord get(Class type, Serializable id) {
+        Map<Serializable, SessionCacheRecord> forType = records.get(type);
+        return forType != null ? forType.get(id) : null;
+    }
+
+    @Override
+    protected SessionCacheRecord getOrCreate(Class type, Serializable id) {
+        return records.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(id, i -> new SessionCacheRecord());
+    }
+
+    @Override
+    protected void remove(Class type, Serializable id, SessionCacheRecord record) {
+        Map<Serializable, SessionCacheRecord> forType = records.get(type);
+        if (forType != null) {
+            forType.remove(id, record);
+        }
+    }
+
+    @Override
+    public boolean containsInstance(Class type, Object instance) {
+        Map<Serializable, SessionCacheRecord> forType = records.get(type);
+        if (forType != null && instance != null) {
+            for (SessionCacheRecord record : forType.values()) {
+                if (instance.equals(record.getInstance())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Class> getTypes() {
+        Set<Class> types = new HashSet<>();
+        for (Map.Entry<Class, Map<Serializable, SessionCacheRecord>> entry : records.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                types.add(entry.getKey());
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public Map<Serializable, SessionCacheRecord> getRecords(Class type) {
+        Map<Serializable, SessionCacheRecord> forType = records.get(type);
+        return forType != null ? new LinkedHashMap<>(forType) : Collections.emptyMap();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Map<Serializable, SessionCacheRecord> forType : records.values()) {
+            size += forType.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        records.clear();
+    }
+
+}
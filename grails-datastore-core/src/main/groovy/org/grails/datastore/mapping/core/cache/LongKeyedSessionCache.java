@@ -0,0 +1,285 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link SessionCache} for sessions that are confined to a single thread. Records with {@link Long} identifiers,
+ * the most common identifier type, are stored in an open addressing table per type that is keyed by the primitive
+ * identifier, which avoids the boxing and the per entry allocations of a {@link HashMap}. Records with other
+ * identifier types are stored in a regular {@link HashMap}.
+ *
+ * <p>This class is not thread safe.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+public class LongKeyedSessionCache extends AbstractSessionCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Class, TypeRecords> records = new HashMap<>();
+
+    private Class lastType;
+
+    private TypeRecords lastRecords;
+
+    @Override
+    public SessionCacheRecord get(Class type, Serializable id) {
+        TypeRecords forType = forType(type, false);
+        return forType != null ? forType.get(id) : null;
+    }
+
+    @Override
+    protected SessionCacheRecord getOrCreate(Class type, Serializable id) {
+        TypeRecords forType = forType(type, true);
+        SessionCacheRecord record = forType.get(id);
+        if (record == null) {
+            record = new SessionCacheRecord();
+            forType.put(id, record);
+        }
+        return record;
+    }
+
+    @Override
+    protected void remove(Class type, Serializable id, SessionCacheRecord record) {
+        TypeRecords forType = forType(type, false);
+        if (forType != null) {
+            forType.remove(id, record);
+        }
+    }
+
+    @Override
+    public boolean containsInstance(Class type, Object instance) {
+        TypeRecords forType = forType(type, false);
+        return forType != null && instance != null && forType.containsInstance(instance);
+    }
+
+    @Override
+    public Set<Class> getTypes() {
+        Set<Class> types = new HashSet<>();
+        for (Map.Entry<Class, TypeRecords> entry : records.entrySet()) {
+            if (entry.getValue().size() > 0) {
+                types.add(entry.getKey());
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public Map<Serializable, SessionCacheRecord> getRecords(Class type) {
+        TypeRecords forType = forType(type, false);
+        if (forType == null) {
+            return Collections.emptyMap();
+        }
+        Map<Serializable, SessionCacheRecord> copy = new LinkedHashMap<>();
+        forType.copyTo(copy);
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (TypeRecords forType : records.values()) {
+            size += forType.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        records.clear();
+        lastType = null;
+        lastRecords = null;
+    }
+
+    private TypeRecords forType(Class type, boolean create) {
+        if (type == lastType) {
+            return lastRecords;
+        }
+        TypeRecords forType = records.get(type);
+        if (forType == null) {
+            if (!create) {
+                return null;
+            }
+            forType = new TypeRecords();
+            records.put(type, forType);
+        }
+        lastType = type;
+        lastRecords = forType;
+        return forType;
+    }
+
+    /**
+     * The records of a single type. Long identifiers are stored in a linear probing table that is kept at most half full.
+     */
+    static final class TypeRecords {
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+
+        private SessionCacheRecord[] values = new SessionCacheRecord[INITIAL_CAPACITY];
+
+        private int longSize;
+
+        private Map<Serializable, SessionCacheRecord> others;
+
+        SessionCacheRecord get(Serializable id) {
+            if (id instanceof Long) {
+                final long key = (Long) id;
+                final int mask = values.length - 1;
+                int i = index(key, mask);
+                SessionCacheRecord value;
+                while ((value = values[i]) != null) {
+                    if (keys[i] == key) {
+                        return value;
+                    }
+                    i = (i + 1) & mask;
+                }
+                return null;
+            }
+            return others != null ? others.get(id) : null;
+        }
+
+        void put(Serializable id, SessionCacheRecord record) {
+            if (id instanceof Long) {
+                if ((longSize + 1) * 2 > values.length) {
+                    resize(values.length * 2);
+                }
+                insert((Long) id, record);
+            }
+            else {
+                if (others == null) {
+                    others = new HashMap<>();
+                }
+                others.put(id, record);
+            }
+        }
+
+        void remove(Serializable id, SessionCacheRecord record) {
+            if (id instanceof Long) {
+                final long key = (Long) id;
+                final int mask = values.length - 1;
+                int i = index(key, mask);
+                while (values[i] != null) {
+                    if (keys[i] == key) {
+                        if (values[i] == record) {
+                            delete(i);
+                        }
+                        return;
+                    }
+                    i = (i + 1) & mask;
+                }
+            }
+            else if (others != null) {
+                others.remove(id, record);
+            }
+        }
+
+        boolean containsInstance(Object instance) {
+            for (SessionCacheRecord value : values) {
+                if (value != null && instance.equals(value.getInstance())) {
+                    return true;
+                }
+            }
+            if (others != null) {
+                for (SessionCacheRecord value : others.values()) {
+                    if (instance.equals(value.getInstance())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        int size() {
+            return longSize + (others != null ? others.size() : 0);
+        }
+
+        void copyTo(Map<Serializable, SessionCacheRecord> copy) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    copy.put(keys[i], values[i]);
+                }
+            }
+            if (others != null) {
+                copy.putAll(others);
+            }
+        }
+
+        private void insert(long key, SessionCacheRecord record) {
+            final int mask = values.length - 1;
+            int i = index(key, mask);
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    values[i] = record;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = record;
+            longSize++;
+        }
+
+        /**
+         * Removes the slot at the given index and shifts back the following records of the probe sequence, so that no tombstones are needed
+         */
+        private void delete(int hole) {
+            final int mask = values.length - 1;
+            values[hole] = null;
+            longSize--;
+            int i = (hole + 1) & mask;
+            while (values[i] != null) {
+                int home = index(keys[i], mask);
+                boolean reachable = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+                if (!reachable) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    values[i] = null;
+                    hole = i;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            SessionCacheRecord[] oldValues = values;
+            keys = new long[capacity];
+            values = new SessionCacheRecord[capacity];
+            longSize = 0;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The first level cache of a session. Holds the persistent instances of a session, and the native entries
+ * they were read from, keyed by type and identifier. Both are kept in a single {@link SessionCacheRecord}
+ * per identifier, so that they can be obtained with one lookup.
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+public interface SessionCache {
+
+    /**
+     * Obtains the record for the given type and identifier
+     *
+     * @param type The type
+     * @param id The identifier
+     * @return The record or null if nothing is cached
+     */
+    SessionCacheRecord get(Class type, Serializable id);
+
+    /**
+     * @param type The type
+     * @param id The identifier
+     * @return The cached instance or null
+     */
+    Object getInstance(Class type, Serializable id);
+
+    /**
+     * Caches an instance
+     *
+     * @param type The type
+     * @param id The identifier
+     * @param instance The instance
+     */
+    void putInstance(Class type, Serializable id, Object instance);
+
+    /**
+     * Removes a cached instance. Any cached native entries are retained.
+     *
+     * @param type The type
+     * @param id The identifier
+     */
+    void removeInstance(Class type, Serializable id);
+
+    /**
+     * @param type The type
+     * @param instance The instance
+     * @return Whether an instance equal to the given instance is cached for the type
+     */
+    boolean containsInstance(Class type, Object instance);
+
+    /**
+     * @param type The type
+     * @param id The identifier
+     * @param forDirtyCheck Whether to obtain the entry used for dirty checking
+     * @return The cached native entry or null
+     */
+    Object getEntry(Class type, Serializable id, boolean forDirtyCheck);
+
+    /**
+     * Caches a native entry
+     *
+     * @param type The type
+     * @param id The identifier
+     * @param entry The native entry
+     * @param forDirtyCheck Whether the entry is used for dirty checking
+     */
+    void putEntry(Class type, Serializable id, Object entry, boolean forDirtyCheck);
+
+    /**
+     * @return The types that records are cached for
+     */
+    Set<Class> getTypes();
+
+    /**
+     * @param type The type
+     * @return A snapshot of the records of the type keyed by identifier, empty if nothing is cached for the type
+     */
+    Map<Serializable, SessionCacheRecord> getRecords(Class type);
+
+    /**
+     * @return The number of cached records
+     */
+    int size();
+
+    /**
+     * Removes all cached instances and entries
+     */
+    void clear();
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+/**
+ * Holds everything a session caches for a single persistent instance: the instance itself and the native
+ * entries it was read from, both for general use and for dirty checking.
+ *
+ * @since 2022.2.5
+ */
+public class SessionCacheRecord {
+
+    private volatile Object instance;
+
+    private volatile Object entry;
+
+    private volatile Object dirtyCheckEntry;
+
+    /**
+     * @return The cached instance or null
+     */
+    public Object getInstance() {
+        return instance;
+    }
+
+    public void setInstance(Object instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * @param forDirtyCheck Whether to return the entry used for dirty checking
+     * @return The cached native entry or null
+     */
+    public Object getEntry(boolean forDirtyCheck) {
+        return forDirtyCheck ? dirtyCheckEntry : entry;
+    }
+
+    public void setEntry(Object entry, boolean forDirtyCheck) {
+        if (forDirtyCheck) {
+            this.dirtyCheckEntry = entry;
+        }
+        else {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * @return Whether nothing is cached in this record
+     */
+    public boolean isEmpty() {
+        return instance == null && entry == null && dirtyCheckEntry == null;
+    }
+
+}
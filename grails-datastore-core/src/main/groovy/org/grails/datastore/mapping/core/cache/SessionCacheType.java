@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.cache;
+
+/**
+ * The {@link SessionCache} implementations that can be selected for the sessions of a datastore
+ *
+ * @since 2022.2.5
+ */
+public enum SessionCacheType {
+
+    /**
+     * A cache that can be shared between threads, see {@link ConcurrentSessionCache}
+     */
+    CONCURRENT {
+        @Override
+        public SessionCache createCache() {
+            return new ConcurrentSessionCache();
+        }
+    },
+
+    /**
+     * A cache for sessions that are confined to a single thread and optimized for {@link Long} identifiers,
+     * see {@link LongKeyedSessionCache}
+     */
+    LONG_KEYED {
+        @Override
+        public SessionCache createCache() {
+            return new LongKeyedSessionCache();
+        }
+    };
+
+    /**
+     * @return A new cache of this type
+     */
+    public abstract SessionCache createCache();
+
+}
@@ -8,8 +8,10 @@ import groovy.transform.builder.Builder
 import groovy.transform.builder.SimpleStrategy
 
 import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.cache.SessionCacheType
 import org.grails.datastore.mapping.engine.types.CustomTypeMarshaller
 import org.grails.datastore.mapping.multitenancy.MultiTenancySettings
+import org.grails.datastore.mapping.query.cache.QueryResultCache
 
 /**
  * Default settings shared across all implementations
@@ -75,6 +77,26 @@ class ConnectionSourceSettings implements Settings {
      */
     MultiTenancySettings multiTenancy = new MultiTenancySettings()
 
+    /**
+     * The settings for the operations a session queues until it is flushed
+     */
+    PendingOperationsSettings pendingOperations = new PendingOperationsSettings()
+
+    /**
+     * The settings for the first level cache of sessions
+     */
+    SessionCacheSettings sessionCache = new SessionCacheSettings()
+
+    /**
+     * The settings for the cache of query results
+     */
+    QueryCacheSettings queryCache = new QueryCacheSettings()
+
+    /**
+     * The settings for connection sources created on demand by {@link LazyConnectionSources}
+     */
+    LazyConnectionsSettings lazyConnections = new LazyConnectionsSettings()
+
     /**
      * @return Any defaults
      */
@@ -104,6 +126,70 @@ class ConnectionSourceSettings implements Settings {
 
     }
 
+    /**
+     * The settings for pending operations
+     */
+    @Builder(builderStrategy = SimpleStrategy, prefix = '')
+    static class PendingOperationsSettings {
+
+        /**
+         * The number of pending operations at which the session is flushed automatically. Zero disables automatic flushing
+         */
+        int flushThreshold = 0
+
+    }
+
+    /**
+     * The settings for the first level cache of sessions
+     */
+    @Builder(builderStrategy = SimpleStrategy, prefix = '')
+    static class SessionCacheSettings {
+
+        /**
+         * The cache implementation. {@link SessionCacheType#LONG_KEYED} can only be used if sessions are confined to a single thread
+         */
+        SessionCacheType type = SessionCacheType.CONCURRENT
+
+        /**
+         * The maximum number of instances held by the cache. When set, clean instances without pending operations are
+         * evicted once the limit is reached, regardless of the cache type. Zero means the cache is unbounded
+         */
+        int maxSize = 0
+
+    }
+
+    /**
+     * The settings for the cache of query results
+     */
+    @Builder(builderStrategy = SimpleStrategy, prefix = '')
+    static class QueryCacheSettings {
+
+        /**
+         * The maximum number of cached query results
+         */
+        long maxSize = QueryResultCache.DEFAULT_MAX_SIZE
+
+    }
+
+    /**
+     * The settings for connection sources created on demand
+     */
+    @Builder(builderStrategy = SimpleStrategy, prefix = '')
+    static class LazyConnectionsSettings {
+
+        /**
+         * The maximum number of connection sources kept open besides the default one. The least recently used one is closed once
+         * the limit is exceeded. Zero means the connection sources are never closed for this reason
+         */
+        int maxSize = 0
+
+        /**
+         * The time in milliseconds after which an unused connection source is closed. Zero means unused connection sources are kept open
+         */
+        long idleTimeout = 0
+
+    }
+
     /**
      * Any custom settings
      */
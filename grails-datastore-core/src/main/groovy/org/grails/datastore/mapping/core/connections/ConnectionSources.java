@@ -1,6 +1,8 @@
 package org.grails.datastore.mapping.core.connections;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.core.env.PropertyResolver;
@@ -30,6 +32,21 @@ public interface ConnectionSources<T, S extends ConnectionSourceSettings> extend
      */
     Iterable<ConnectionSource<T, S>> getAllConnectionSources();
 
+    /**
+     * Obtains the names of all {@link ConnectionSource} instances. Unlike {@link #getAllConnectionSources()} this does not require
+     * implementations that create connection sources on demand to create them.
+     *
+     * @return The names of all the connection sources
+     * @since 2022.2.5
+     */
+    default Iterable<String> getAllConnectionSourceNames() {
+        List<String> names = new ArrayList<>();
+        for (ConnectionSource<T, S> connectionSource : getAllConnectionSources()) {
+            names.add(connectionSource.getName());
+        }
+        return names;
+    }
+
     /**
      * Obtain a {@link ConnectionSource} by name
      *
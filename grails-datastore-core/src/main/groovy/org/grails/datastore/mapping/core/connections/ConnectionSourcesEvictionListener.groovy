@@ -0,0 +1,18 @@
+package org.grails.datastore.mapping.core.connections
+
+/**
+ * A listener for connection sources that are also notified when a connection source created on demand is closed again
+ *
+ * @since 2022.2.5
+ * @see LazyConnectionSources
+ */
+interface ConnectionSourcesEvictionListener<T, S extends ConnectionSourceSettings> extends ConnectionSourcesListener<T, S> {
+
+    /**
+     * Triggered when a connection source is evicted, before it is closed
+     *
+     * @param connectionSource The connection source
+     */
+    void connectionSourceEvicted(ConnectionSource<T, S> connectionSource)
+
+}
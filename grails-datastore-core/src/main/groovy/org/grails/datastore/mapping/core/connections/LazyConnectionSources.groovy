@@ -0,0 +1,332 @@
+package org.grails.datastore.mapping.core.connections
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Function
+import java.util.function.Predicate
+
+import groovy.transform.CompileStatic
+import groovy.util.logging.Slf4j
+import org.springframework.core.env.PropertyResolver
+
+/**
+ * A {@link ConnectionSources} implementation that creates a {@link ConnectionSource} the first time it is obtained rather than when it is
+ * constructed, which suits database per tenant multi tenancy with many tenants. The names of the connection sources are read from the
+ * configuration or added at runtime, a name that is not known is never created.
+ *
+ * <p>Connection sources other than the default one are closed again once more than {@link ConnectionSourceSettings.LazyConnectionsSettings#maxSize}
+ * of them are open, least recently used first, or once they have not been used for {@link ConnectionSourceSettings.LazyConnectionsSettings#idleTimeout}
+ * milliseconds. An evicted connection source is created again the next time it is obtained, hence eviction should only be enabled for
+ * sources that keep their data once closed and the maximum size should exceed the number of connection sources used at the same time.
+ * {@link ConnectionSourcesEvictionListener} listeners are notified when a connection source is evicted.</p>
+ *
+ * <p>A connection source obtained with {@link #acquireConnectionSource(String)} is not closed while it is in use. If it is evicted before
+ * it is {@link #releaseConnectionSource(ConnectionSource) released}, it is closed once the last user releases it.</p>
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+@Slf4j
+class LazyConnectionSources<T, S extends ConnectionSourceSettings> extends AbstractConnectionSources<T, S> {
+
+    protected final Set<String> connectionSourceNames = Collections.synchronizedSet(new LinkedHashSet<String>())
+    protected final Map<String, PropertyResolver> runtimeConfigurations = new ConcurrentHashMap<>()
+    protected final Map<String, OpenConnectionSource<T, S>> openConnectionSources = new ConcurrentHashMap<>()
+    // the acquired connection sources, also guards their reference counts
+    protected final Map<ConnectionSource<T, S>, OpenConnectionSource<T, S>> acquiredConnectionSources =
+            new IdentityHashMap<ConnectionSource<T, S>, OpenConnectionSource<T, S>>()
+    protected final int maxSize
+    protected final long idleTimeoutNanos
+    private final AtomicLong nextIdleCheck = new AtomicLong(System.nanoTime())
+
+    LazyConnectionSources(ConnectionSource<T, S> defaultConnectionSource, ConnectionSourceFactory<T, S> connectionSourceFactory,
+                          PropertyResolver configuration) {
+        super(defaultConnectionSource, connectionSourceFactory, configuration)
+        ConnectionSourceSettings.LazyConnectionsSettings settings = defaultConnectionSource.getSettings().getLazyConnections()
+        this.maxSize = settings.maxSize
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeout)
+        this.connectionSourceNames.add(ConnectionSource.DEFAULT)
+
+        for (String name : getConnectionSourceNames(connectionSourceFactory, configuration)) {
+            if (name.equals("dataSource")) continue // data source is reserved name for the default
+            this.connectionSourceNames.add(name)
+        }
+    }
+
+    @Override
+    List<String> getAllConnectionSourceNames() {
+        synchronized (connectionSourceNames) {
+            return Collections.unmodifiableList(new ArrayList<String>(connectionSourceNames))
+        }
+    }
+
+    /**
+     * Obtains all the connection sources, creating each one as it is iterated over. Prefer {@link #getAllConnectionSourceNames()} when the
+     * names are enough.
+     *
+     * @return An iterable containing all {@link ConnectionSource} instances
+     */
+    @Override
+    Iterable<ConnectionSource<T, S>> getAllConnectionSources() {
+        List<String> names = getAllConnectionSourceNames()
+        return { ->
+            names.stream()
+                    .map({ String name -> getConnectionSource(name) } as Function<String, ConnectionSource<T, S>>)
+                    .filter({ ConnectionSource<T, S> connectionSource -> connectionSource != null } as Predicate<ConnectionSource<T, S>>)
+                    .iterator()
+        } as Iterable<ConnectionSource<T, S>>
+    }
+
+    @Override
+    ConnectionSource<T, S> getConnectionSource(String name) {
+        if (ConnectionSource.DEFAULT == name) {
+            return this.defaultConnectionSource
+        }
+        OpenConnectionSource<T, S> open = obtain(name)
+        return open?.connectionSource
+    }
+
+    /**
+     * Obtains a connection source that is not closed until it is released again with {@link #releaseConnectionSource(ConnectionSource)},
+     * even if it is evicted in the meantime
+     *
+     * @param name The name of the connection source
+     * @return The connection source or null if there is none of the given name
+     */
+    ConnectionSource<T, S> acquireConnectionSource(String name) {
+        if (ConnectionSource.DEFAULT == name) {
+            return this.defaultConnectionSource
+        }
+        while (true) {
+            OpenConnectionSource<T, S> open = obtain(name)
+            if (open == null) {
+                return null
+            }
+            synchronized (acquiredConnectionSources) {
+                // an evicted connection source may already be closed, it is created again
+                if (!open.evicted) {
+                    open.references++
+                    acquiredConnectionSources.put(open.connectionSource, open)
+                    return open.connectionSource
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases a connection source obtained with {@link #acquireConnectionSource(String)}, closing it if it was evicted and this was its
+     * last user
+     *
+     * @param connectionSource The connection source
+     */
+    void releaseConnectionSource(ConnectionSource<T, S> connectionSource) {
+        if (connectionSource == null || connectionSource.is(this.defaultConnectionSource)) {
+            return
+        }
+        OpenConnectionSource<T, S> open
+        synchronized (acquiredConnectionSources) {
+            open = acquiredConnectionSources.get(connectionSource)
+            if (open == null || --open.references > 0) {
+                return
+            }
+            acquiredConnectionSources.remove(connectionSource)
+            if (!open.evicted) {
+                return
+            }
+        }
+        closeEvicted(connectionSource.name, open)
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener The listener
+     * @return This connection sources
+     */
+    ConnectionSources<T, S> removeListener(ConnectionSourcesListener<T, S> listener) {
+        listeners.remove(listener)
+        return this
+    }
+
+    protected OpenConnectionSource<T, S> obtain(String name) {
+        evictIdleIfDue()
+        OpenConnectionSource<T, S> open = openConnectionSources.get(name)
+        if (open == null) {
+            if (!connectionSourceNames.contains(name)) {
+                return null
+            }
+            boolean created = false
+            open = openConnectionSources.computeIfAbsent(name) { String key ->
+                ConnectionSource<T, S> connectionSource = createConnectionSource(key)
+                created = connectionSource != null
+                return created ? new OpenConnectionSource<T, S>(connectionSource) : null
+            }
+            if (open == null) {
+                return null
+            }
+            if (created) {
+                log.debug("Created connection source [{}] on demand", name)
+                for (listener in listeners) {
+                    listener.newConnectionSource(open.connectionSource)
+                }
+                evictLeastRecentlyUsed()
+            }
+        }
+        open.lastAccess = System.nanoTime()
+        return open
+    }
+
+    @Override
+    ConnectionSource<T, S> addConnectionSource(String name, PropertyResolver configuration) {
+        if (name == null) {
+            throw new IllegalArgumentException("Argument [name] cannot be null")
+        }
+        if (configuration == null) {
+            throw new IllegalArgumentException("Argument [configuration] cannot be null")
+        }
+
+        ConnectionSource<T, S> connectionSource = connectionSourceFactory.createRuntime(name, configuration, (S) this.defaultConnectionSource.getSettings())
+        if (connectionSource == null) {
+            throw new IllegalStateException("ConnectionSource factory returned null")
+        }
+        this.runtimeConfigurations.put(name, configuration)
+        this.connectionSourceNames.add(name)
+        this.openConnectionSources.put(name, new OpenConnectionSource<T, S>(connectionSource))
+
+        for (listener in listeners) {
+            listener.newConnectionSource(connectionSource)
+        }
+        evictLeastRecentlyUsed()
+        return connectionSource
+    }
+
+    /**
+     * Whether the connection source of the given name is currently open
+     *
+     * @param name The name of the connection source
+     * @return True if it is the default connection source or it has been created and not evicted since
+     */
+    boolean isOpen(String name) {
+        return ConnectionSource.DEFAULT == name || openConnectionSources.containsKey(name)
+    }
+
+    /**
+     * Closes the connection sources that have not been used for longer than the idle timeout. This happens as connection sources are
+     * obtained, but can also be scheduled when they are obtained rarely.
+     */
+    void evictIdle() {
+        if (idleTimeoutNanos < 1) {
+            return
+        }
+        long now = System.nanoTime()
+        for (Map.Entry<String, OpenConnectionSource<T, S>> entry : openConnectionSources.entrySet()) {
+            if (now - entry.value.lastAccess > idleTimeoutNanos) {
+                evict(entry.key, entry.value)
+            }
+        }
+    }
+
+    @Override
+    void close() throws IOException {
+        defaultConnectionSource.close()
+        for (OpenConnectionSource<T, S> open : openConnectionSources.values()) {
+            open.connectionSource.close()
+        }
+        openConnectionSources.clear()
+        synchronized (acquiredConnectionSources) {
+            for (OpenConnectionSource<T, S> open : acquiredConnectionSources.values()) {
+                if (open.evicted) {
+                    open.connectionSource.close()
+                }
+            }
+            acquiredConnectionSources.clear()
+        }
+    }
+
+    protected ConnectionSource<T, S> createConnectionSource(String name) {
+        PropertyResolver runtimeConfiguration = runtimeConfigurations.get(name)
+        if (runtimeConfiguration != null) {
+            return connectionSourceFactory.createRuntime(name, runtimeConfiguration, (S) this.defaultConnectionSource.getSettings())
+        }
+        return connectionSourceFactory.create(name, this.configuration, this.defaultConnectionSource.getSettings())
+    }
+
+    protected void evictLeastRecentlyUsed() {
+        if (maxSize < 1) {
+            return
+        }
+        while (openConnectionSources.size() > maxSize) {
+            Map.Entry<String, OpenConnectionSource<T, S>> eldest = null
+            for (Map.Entry<String, OpenConnectionSource<T, S>> entry : openConnectionSources.entrySet()) {
+                if (eldest == null || entry.value.lastAccess - eldest.value.lastAccess < 0) {
+                    eldest = entry
+                }
+            }
+            if (eldest == null) {
+                return
+            }
+            evict(eldest.key, eldest.value)
+        }
+    }
+
+    protected void evict(String name, OpenConnectionSource<T, S> open) {
+        if (!openConnectionSources.remove(name, open)) {
+            return
+        }
+        log.debug("Evicting connection source [{}]", name)
+        for (listener in listeners) {
+            if (listener instanceof ConnectionSourcesEvictionListener) {
+                ((ConnectionSourcesEvictionListener<T, S>) listener).connectionSourceEvicted(open.connectionSource)
+            }
+        }
+        boolean inUse
+        synchronized (acquiredConnectionSources) {
+            open.evicted = true
+            inUse = open.references > 0
+        }
+        if (inUse) {
+            log.debug("Closing evicted connection source [{}] once it is released", name)
+        }
+        else {
+            closeEvicted(name, open)
+        }
+    }
+
+    protected void closeEvicted(String name, OpenConnectionSource<T, S> open) {
+        try {
+            open.connectionSource.close()
+        }
+        catch (IOException e) {
+            log.warn("Error closing evicted connection source [{}]: {}", name, e.message)
+        }
+    }
+
+    private void evictIdleIfDue() {
+        if (idleTimeoutNanos < 1) {
+            return
+        }
+        long now = System.nanoTime()
+        long due = nextIdleCheck.get()
+        if (now - due >= 0 && nextIdleCheck.compareAndSet(due, now + (idleTimeoutNanos >> 1))) {
+            evictIdle()
+        }
+    }
+
+    /**
+     * A connection source that is open, the time it was last obtained and the number of users that acquired it
+     */
+    protected static class OpenConnectionSource<T, S extends ConnectionSourceSettings> {
+
+        protected final ConnectionSource<T, S> connectionSource
+        protected volatile long lastAccess = System.nanoTime()
+        // guarded by the acquired connection sources
+        protected int references
+        protected boolean evicted
+
+        OpenConnectionSource(ConnectionSource<T, S> connectionSource) {
+            this.connectionSource = connectionSource
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.context;
+
+import org.springframework.core.NamedThreadLocal;
+
+/**
+ * A key of a value bound to the current context by a {@link ContextStorage}. Keys are compared by identity and are
+ * meant to be held in constants, as a ThreadLocal or a ScopedValue would be.
+ *
+ * @param <T> The type of the value
+ * @since 2022.2.5
+ */
+public final class ContextKey<T> {
+
+    private final String name;
+
+    final ThreadLocal<T> threadLocal;
+
+    private ContextKey(String name) {
+        this.name = name;
+        this.threadLocal = new NamedThreadLocal<>(name);
+    }
+
+    /**
+     * Creates a new key
+     *
+     * @param name The name of the key, used for debugging
+     * @param <T> The type of the value
+     * @return The key
+     */
+    public static <T> ContextKey<T> newInstance(String name) {
+        return new ContextKey<>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.context;
+
+import java.util.function.Supplier;
+
+/**
+ * Stores the values GORM binds to the current context of execution, such as the current sessions and tenant.
+ *
+ * <p>Values should be bound with {@link #where(ContextKey, Object, Supplier)}, for the duration of an operation, as a
+ * ScopedValue would be. {@link #set(ContextKey, Object)} is there for the APIs that bind and unbind values in
+ * separate calls, such as the start and the end of a request.</p>
+ *
+ * @since 2022.2.5
+ * @see ContextStorages
+ */
+public interface ContextStorage {
+
+    /**
+     * @param key The key
+     * @param <T> The type of the value
+     * @return The value bound to the key in the current context or null if there is none
+     */
+    <T> T get(ContextKey<T> key);
+
+    /**
+     * Executes the operation with the value bound to the key. The previous value is bound again once the operation
+     * completes.
+     *
+     * @param key The key
+     * @param value The value, null to execute the operation without a value
+     * @param operation The operation
+     * @param <T> The type of the value
+     * @param <R> The type of the result
+     * @return The result of the operation
+     */
+    <T, R> R where(ContextKey<T> key, T value, Supplier<R> operation);
+
+    /**
+     * Binds the value to the key in the current context until it is set again
+     *
+     * @param key The key
+     * @param value The value, null to unbind the current value
+     * @param <T> The type of the value
+     */
+    <T> void set(ContextKey<T> key, T value);
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.context;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import org.grails.datastore.mapping.core.exceptions.ConfigurationException;
+
+/**
+ * Holds the {@link ContextStorage} used by GORM. The storage is chosen at startup with the
+ * {@value #SETTING_CONTEXT_STORAGE} system property, which is either {@code threadLocal} (the default),
+ * {@code scoped} or the name of a class that implements {@link ContextStorage}.
+ *
+ * @since 2022.2.5
+ */
+public final class ContextStorages {
+
+    public static final String SETTING_CONTEXT_STORAGE = "grails.gorm.contextStorage";
+
+    private static volatile ContextStorage storage = create(System.getProperty(SETTING_CONTEXT_STORAGE));
+
+    private ContextStorages() {
+    }
+
+    /**
+     * @return The storage in use
+     */
+    public static ContextStorage get() {
+        return storage;
+    }
+
+    /**
+     * Replaces the storage. Values bound to the previous storage are not carried over, so the storage should only be
+     * replaced at startup.
+     *
+     * @param contextStorage The storage
+     */
+    public static void set(ContextStorage contextStorage) {
+        Assert.notNull(contextStorage, "Argument [contextStorage] cannot be null");
+        storage = contextStorage;
+    }
+
+    static ContextStorage create(String type) {
+        if (!StringUtils.hasText(type) || "threadLocal".equals(type)) {
+            return new ThreadLocalContextStorage();
+        }
+        if ("scoped".equals(type)) {
+            return new ScopedContextStorage();
+        }
+        try {
+            Class<?> storageClass = ClassUtils.forName(type, ContextStorages.class.getClassLoader());
+            return (ContextStorage) storageClass.getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            throw new ConfigurationException("Invalid context storage [" + type + "]: " + e.getMessage(), e);
+        }
+    }
+
+}
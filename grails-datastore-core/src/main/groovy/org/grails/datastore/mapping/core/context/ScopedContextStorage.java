@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.context;
+
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+
+/**
+ * A {@link ContextStorage} modelled on ScopedValue, for applications that run on many short-lived threads such as
+ * virtual threads.
+ *
+ * <p>All the values bound to a thread are held by a single immutable chain of bindings. Binding a value for an
+ * operation links a new binding in front of the chain and the previous value of the key is bound again once the
+ * operation completes, while the values the operation set for other keys are kept, as with
+ * {@link ThreadLocalContextStorage}. A thread holds no entry at all once every value is unbound again. A thread costs
+ * a single ThreadLocal entry, whatever the number of keys, and the chain can be handed to another thread without
+ * copying.</p>
+ *
+ * @since 2022.2.5
+ */
+public class ScopedContextStorage implements ContextStorage {
+
+    private final ThreadLocal<Binding> bindings = new NamedThreadLocal<>("GORM scoped context bindings");
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextKey<T> key) {
+        Binding binding = find(bindings.get(), key);
+        return binding != null ? (T) binding.value : null;
+    }
+
+    @Override
+    public <T, R> R where(ContextKey<T> key, T value, Supplier<R> operation) {
+        Binding previous = bindings.get();
+        Binding binding = new Binding(key, value, previous);
+        bindings.set(binding);
+        try {
+            return operation.get();
+        }
+        finally {
+            Binding current = bindings.get();
+            if (current == binding) {
+                restore(previous);
+            }
+            else {
+                // the operation set other keys, only the value of this key is restored
+                Binding outer = find(previous, key);
+                Binding others = without(current, key);
+                restore(outer != null && outer.value != null ? new Binding(key, outer.value, others) : others);
+            }
+        }
+    }
+
+    @Override
+    public <T> void set(ContextKey<T> key, T value) {
+        Binding others = without(bindings.get(), key);
+        restore(value != null ? new Binding(key, value, others) : others);
+    }
+
+    private void restore(Binding binding) {
+        if (binding == null) {
+            bindings.remove();
+        }
+        else {
+            bindings.set(binding);
+        }
+    }
+
+    private static Binding find(Binding binding, ContextKey<?> key) {
+        for (; binding != null; binding = binding.parent) {
+            if (binding.key == key) {
+                return binding;
+            }
+        }
+        return null;
+    }
+
+    private static Binding without(Binding binding, ContextKey<?> key) {
+        if (binding == null) {
+            return null;
+        }
+        Binding parent = without(binding.parent, key);
+        if (binding.key == key) {
+            return parent;
+        }
+        return parent == binding.parent ? binding : new Binding(binding.key, binding.value, parent);
+    }
+
+    private static final class Binding {
+
+        private final ContextKey<?> key;
+
+        private final Object value;
+
+        private final Binding parent;
+
+        private Binding(ContextKey<?> key, Object value, Binding parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.context;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import org.grails.datastore.mapping.core.Datastore;
+import org.grails.datastore.mapping.core.DatastoreUtils;
+import org.grails.datastore.mapping.core.Session;
+import org.grails.datastore.mapping.core.SessionCallback;
+
+/**
+ * Structured binding of the current session and tenant. The session or tenant is bound through the
+ * {@link ContextStorages#get() context storage} for the duration of the operation only, and the binding of the caller
+ * is restored once it completes.
+ *
+ * @since 2022.2.5
+ */
+public final class ScopedContexts {
+
+    /**
+     * The tenant id explicitly bound to the current context
+     */
+    public static final ContextKey<Serializable> CURRENT_TENANT = ContextKey.newInstance("GORM current tenant");
+
+    private static final ContextKey<Map<Datastore, Session>> SESSIONS = ContextKey.newInstance("GORM scoped sessions");
+
+    private ScopedContexts() {
+    }
+
+    /**
+     * Executes the operation with the given tenant as the current tenant
+     *
+     * @param tenantId The tenant id
+     * @param operation The operation
+     * @param <T> The type of the result
+     * @return The result of the operation
+     */
+    public static <T> T withTenant(Serializable tenantId, Supplier<T> operation) {
+        return ContextStorages.get().where(CURRENT_TENANT, tenantId, operation);
+    }
+
+    /**
+     * @return The tenant id bound to the current context or null if there is none
+     */
+    public static Serializable currentTenant() {
+        return ContextStorages.get().get(CURRENT_TENANT);
+    }
+
+    /**
+     * Executes the callback with the current session of the datastore, or with a new session that is bound for the
+     * duration of the callback and closed afterwards. Within a transaction the session is bound to the transaction as
+     * {@link DatastoreUtils#execute(Datastore, SessionCallback)} does.
+     *
+     * @param datastore The datastore
+     * @param callback The callback
+     * @param <T> The type of the result
+     * @return The result of the callback
+     */
+    public static <T> T withSession(Datastore datastore, SessionCallback<T> callback) {
+        Assert.notNull(datastore, "No Datastore specified");
+        if (datastore.hasCurrentSession()) {
+            return callback.doInSession(datastore.getCurrentSession());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            return DatastoreUtils.execute(datastore, callback);
+        }
+
+        ContextStorage storage = ContextStorages.get();
+        Session session = datastore.connect();
+        Map<Datastore, Session> current = storage.get(SESSIONS);
+        Map<Datastore, Session> sessions = current != null ? new HashMap<>(current) : new HashMap<>(4);
+        sessions.put(datastore, session);
+        try {
+            return storage.where(SESSIONS, Collections.unmodifiableMap(sessions), () -> callback.doInSession(session));
+        }
+        finally {
+            DatastoreUtils.closeSessionOrRegisterDeferredClose(session, datastore);
+        }
+    }
+
+    /**
+     * @param datastore The datastore
+     * @return The session bound to the current context by {@link #withSession(Datastore, SessionCallback)} or null
+     */
+    public static Session currentSession(Datastore datastore) {
+        Map<Datastore, Session> sessions = ContextStorages.get().get(SESSIONS);
+        return sessions != null ? sessions.get(datastore) : null;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.context;
+
+import java.util.function.Supplier;
+
+/**
+ * The default {@link ContextStorage} that binds each key to the current thread with a ThreadLocal of its own
+ *
+ * @since 2022.2.5
+ */
+public class ThreadLocalContextStorage implements ContextStorage {
+
+    @Override
+    public <T> T get(ContextKey<T> key) {
+        return key.threadLocal.get();
+    }
+
+    @Override
+    public <T, R> R where(ContextKey<T> key, T value, Supplier<R> operation) {
+        T previous = key.threadLocal.get();
+        set(key, value);
+        try {
+            return operation.get();
+        }
+        finally {
+            set(key, previous);
+        }
+    }
+
+    @Override
+    public <T> void set(ContextKey<T> key, T value) {
+        if (value == null) {
+            key.threadLocal.remove();
+        }
+        else {
+            key.threadLocal.set(value);
+        }
+    }
+
+}
@@ -14,6 +14,7 @@
  */
 package org.grails.datastore.mapping.core.impl;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,11 +26,43 @@ import java.util.List;
 public class PendingOperationExecution {
 
     public static void executePendingOperation(PendingOperation pendingOperation) {
+        executePreOperations(pendingOperation);
+        pendingOperation.run();
+        executeCascadeOperations(pendingOperation);
+    }
+
+    /**
+     * Executes each of the given operations, including their pre and cascade operations, in order
+     *
+     * @param pendingOperations The operations
+     * @since 2022.2.5
+     */
+    public static void executePendingOperations(Collection<? extends PendingOperation> pendingOperations) {
+        for (PendingOperation pendingOperation : pendingOperations) {
+            executePendingOperation(pendingOperation);
+        }
+    }
+
+    /**
+     * Executes the operations that have to run directly prior to the given operation
+     *
+     * @param pendingOperation The operation
+     * @since 2022.2.5
+     */
+    public static void executePreOperations(PendingOperation pendingOperation) {
         List<PendingOperation> preOperations = pendingOperation.getPreOperations();
         for (PendingOperation preOperation : preOperations) {
             preOperation.run();
         }
-        pendingOperation.run();
+    }
+
+    /**
+     * Executes the operations that cascade from the given operation, unless it has been vetoed
+     *
+     * @param pendingOperation The operation
+     * @since 2022.2.5
+     */
+    public static void executeCascadeOperations(PendingOperation pendingOperation) {
         if (!pendingOperation.isVetoed()) {
             List<PendingOperation> cascadeOperations = pendingOperation.getCascadeOperations();
             for (PendingOperation cascadeOperation : cascadeOperations) {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.impl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An append-only, array backed list of pending operations for a single entity.
+ *
+ * <p>Operations are kept in the order they were queued. Unlike {@link java.util.ArrayList}, iteration
+ * never fails with a {@link java.util.ConcurrentModificationException}: operations appended while the
+ * list is being flushed (for example by cascades or event listeners) are visible to the running iterator.</p>
+ *
+ * <p>This class is not thread safe, it is designed to be confined to a single session.</p>
+ *
+ * @param <T> The pending operation type
+ * @since 2022.2.5
+ */
+public class PendingOperationList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private Object[] elements;
+
+    private int size;
+
+    public PendingOperationList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PendingOperationList(int initialCapacity) {
+        this.elements = new Object[Math.max(initialCapacity, 1)];
+    }
+
+    @Override
+    public boolean add(T operation) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+        }
+        elements[size++] = operation;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.core.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.grails.datastore.mapping.model.PersistentEntity;
+
+/**
+ * Holds the insert, update and delete operations queued by a session until the next flush.
+ *
+ * <p>Operations are grouped per {@link PersistentEntity} into {@link PendingOperationList} instances, which
+ * preserve the order operations were queued in. The queues are unbounded, the owning session decides when
+ * they are flushed. The depth of the queues is tracked so that it can be monitored.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+public class PendingOperations {
+
+    private final Map<PersistentEntity, Collection<PendingInsert>> inserts = new ConcurrentHashMap<>();
+
+    private final Map<PersistentEntity, Collection<PendingUpdate>> updates = new ConcurrentHashMap<>();
+
+    private final Map<PersistentEntity, Collection<PendingDelete>> deletes = new ConcurrentHashMap<>();
+
+    private int insertCount;
+
+    private int updateCount;
+
+    private int deleteCount;
+
+    private int peakSize;
+
+    private long autoFlushCount;
+
+    public void addInsert(PendingInsert insert) {
+        add(inserts, insert);
+        insertCount++;
+        updatePeakSize();
+    }
+
+    public void addUpdate(PendingUpdate update) {
+        add(updates, update);
+        updateCount++;
+        updatePeakSize();
+    }
+
+    public void addDelete(PendingDelete delete) {
+        add(deletes, delete);
+        deleteCount++;
+        updatePeakSize();
+    }
+
+    /**
+     * @return The pending inserts grouped by entity
+     */
+    public Map<PersistentEntity, Collection<PendingInsert>> getInserts() {
+        return inserts;
+    }
+
+    /**
+     * @return The pending updates grouped by entity
+     */
+    public Map<PersistentEntity, Collection<PendingUpdate>> getUpdates() {
+        return updates;
+    }
+
+    /**
+     * @return The pending deletes grouped by entity
+     */
+    public Map<PersistentEntity, Collection<PendingDelete>> getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * @return The number of queued insert operations
+     */
+    public int getInsertCount() {
+        return insertCount;
+    }
+
+    /**
+     * @return The number of queued update operations
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * @return The number of queued delete operations
+     */
+    public int getDeleteCount() {
+        return deleteCount;
+    }
+
+    /**
+     * @return The total number of queued operations
+     */
+    public int size() {
+        return insertCount + updateCount + deleteCount;
+    }
+
+    /**
+     * @return Whether no operations are queued
+     */
+    public boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+
+    /**
+     * @return The largest number of operations that were queued at the same time
+     */
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    /**
+     * @return The number of times the queues were flushed because they reached the flush threshold
+     */
+    public long getAutoFlushCount() {
+        return autoFlushCount;
+    }
+
+    /**
+     * Records that the queues were flushed because they reached the flush threshold
+     */
+    public void recordAutoFlush() {
+        autoFlushCount++;
+    }
+
+    /**
+     * Removes all queued operations. The peak size and auto flush count are retained.
+     */
+    public void clear() {
+        inserts.clear();
+        updates.clear();
+        deletes.clear();
+        insertCount = 0;
+        updateCount = 0;
+        deleteCount = 0;
+    }
+
+    private <T extends PendingOperation> void add(Map<PersistentEntity, Collection<T>> operations, T operation) {
+        PersistentEntity entity = operation.getEntity();
+        Collection<T> forEntity = operations.get(entity);
+        if (forEntity == null) {
+            forEntity = new PendingOperationList<>();
+            operations.put(entity, forEntity);
+        }
+        forEntity.add(operation);
+    }
+
+    private void updatePeakSize() {
+        int size = size();
+        if (size > peakSize) {
+            peakSize = size;
+        }
+    }
+
+}
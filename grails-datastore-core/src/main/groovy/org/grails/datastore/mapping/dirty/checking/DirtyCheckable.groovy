@@ -9,6 +9,9 @@ import org.grails.datastore.mapping.proxy.EntityProxy
 /**
  * Interface to classes that are able to track changes to their internal state.
  *
+ * <p>Changes are kept in a map of property names to original values, which is only allocated once a property
+ * actually changes. Setters generated by the dirty checking transformation additionally pass the index of the
+ * property, which is recorded in a bit set so that repeated changes to a dirty property need no map lookup.</p>
  *
  * @author Graeme Rocher
  * @since 2.0
@@ -19,12 +22,16 @@ trait DirtyCheckable {
     @Transient
     private transient Map<String, Object> $changedProperties
 
+    @Transient
+    private transient long $changedPropertyBits
+
     /**
      * Indicates that the instance should start tacking changes. Note that if the instance is dirty this will clear any previously tracked
      * changes
      */
     void trackChanges() {
-        $changedProperties = new LinkedHashMap<String, Object>()
+        $changedProperties = DirtyCheckingSupport.NO_CHANGES_MARKER
+        $changedPropertyBits = 0L
     }
 
     /**
@@ -34,6 +41,10 @@ trait DirtyCheckable {
      */
     void syncChangedProperties(Object o) {
         if (o instanceof DirtyCheckable) {
+            if (DirtyCheckingSupport.NO_CHANGES_MARKER.is($changedProperties)) {
+                // share a modifiable map, so that later changes are visible to both instances
+                $changedProperties = new LinkedHashMap<String, Object>()
+            }
             o.trackChanges($changedProperties)
         }
     }
@@ -45,6 +56,7 @@ trait DirtyCheckable {
      */
     void trackChanges(Map<String, Object> changedProperties) {
         $changedProperties = changedProperties
+        $changedPropertyBits = 0L
     }
 
     /**
@@ -87,10 +99,11 @@ trait DirtyCheckable {
      */
     void markDirty(String propertyName) {
         if ($changedProperties != null && !$changedProperties.containsKey(propertyName)) {
-            if (DirtyCheckingSupport.DIRTY_CLASS_MARKER.is($changedProperties)) {
-                trackChanges()
+            Object oldValue = ((GroovyObject) this).getProperty(propertyName)
+            if (DirtyCheckingSupport.isMarker($changedProperties)) {
+                $changedProperties = new LinkedHashMap<String, Object>()
             }
-            $changedProperties.put propertyName, ((GroovyObject) this).getProperty(propertyName)
+            $changedProperties.put propertyName, oldValue
         }
     }
 
@@ -117,14 +130,33 @@ trait DirtyCheckable {
             if ((isNull && oldValue != null) ||
                     (!isNull && oldValue == null) ||
                     (!isNull && !newValue.equals(oldValue))) {
-                if (DirtyCheckingSupport.DIRTY_CLASS_MARKER.is($changedProperties)) {
-                    trackChanges()
+                if (DirtyCheckingSupport.isMarker($changedProperties)) {
+                    $changedProperties = new LinkedHashMap<String, Object>()
                 }
                 $changedProperties.put propertyName, oldValue
             }
         }
     }
 
+    /**
+     * Marks the property with the given index as dirty. Called by the setters generated by the dirty checking
+     * transformation, which pass the current value of the field as the old value.
+     *
+     * @param propertyIndex The index of the property within the class, between 0 and 63
+     * @param propertyName The property name
+     * @param newValue The new value
+     * @param oldValue The old value
+     */
+    void markDirty(int propertyIndex, String propertyName, newValue, oldValue) {
+        long propertyBit = 1L << propertyIndex
+        if ($changedProperties != null && ($changedPropertyBits & propertyBit) == 0L) {
+            markDirty(propertyName, newValue, oldValue)
+            if ($changedProperties.containsKey(propertyName)) {
+                $changedPropertyBits |= propertyBit
+            }
+        }
+    }
+
     /**
      * @return A list of the dirty property names
      */
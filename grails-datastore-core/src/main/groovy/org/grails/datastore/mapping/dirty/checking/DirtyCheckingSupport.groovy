@@ -39,6 +39,19 @@ class DirtyCheckingSupport {
      */
     public static final Map DIRTY_CLASS_MARKER = [:].asImmutable()
 
+    /**
+     * Used internally as a marker for instances that track changes but have none yet. Do not use in user code
+     */
+    public static final Map NO_CHANGES_MARKER = [:].asImmutable()
+
+    /**
+     * @param changedProperties The changed properties of an instance
+     * @return True if the given map is one of the immutable markers, which has to be replaced before a change is recorded
+     */
+    static boolean isMarker(Map changedProperties) {
+        DIRTY_CLASS_MARKER.is(changedProperties) || NO_CHANGES_MARKER.is(changedProperties)
+    }
+
     /**
      * Checks whether associations are dirty
      *
@@ -22,6 +22,12 @@ import java.util.List;
 import org.grails.datastore.mapping.config.Property;
 import org.grails.datastore.mapping.core.Session;
 import org.grails.datastore.mapping.core.SessionImplementor;
+import org.grails.datastore.mapping.core.impl.PendingDelete;
+import org.grails.datastore.mapping.core.impl.PendingInsert;
+import org.grails.datastore.mapping.core.impl.PendingOperationExecution;
+import org.grails.datastore.mapping.core.impl.PendingUpdate;
+import org.grails.datastore.mapping.dirty.checking.DirtyCheckable;
+import org.grails.datastore.mapping.engine.event.EntityEventPublisher;
 import org.grails.datastore.mapping.engine.event.PostDeleteEvent;
 import org.grails.datastore.mapping.engine.event.PostInsertEvent;
 import org.grails.datastore.mapping.engine.event.PostLoadEvent;
@@ -37,6 +43,7 @@ import org.grails.datastore.mapping.model.PropertyMapping;
 import org.grails.datastore.mapping.model.config.GormProperties;
 import org.grails.datastore.mapping.proxy.ProxyFactory;
 import org.grails.datastore.mapping.reflect.EntityReflector;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 
 /**
@@ -275,6 +282,43 @@ public abstract class EntityPersister implements Persister {
 
     protected abstract void deleteEntities(PersistentEntity pe, @SuppressWarnings("rawtypes") Iterable objects);
 
+    /**
+     * Flushes an ordered group of pending inserts for the entity of this persister. The default implementation
+     * executes each insert together with its pre and cascade operations in turn. Persisters for stores that
+     * support multi-row writes can override this method to write the whole group at once.
+     *
+     * @param inserts The pending inserts in the order they were queued
+     * @since 2022.2.5
+     */
+    @SuppressWarnings("rawtypes")
+    public void flushPendingInserts(List<PendingInsert> inserts) {
+        PendingOperationExecution.executePendingOperations(inserts);
+    }
+
+    /**
+     * Flushes an ordered group of pending updates for the entity of this persister. The default implementation
+     * executes each update together with its pre and cascade operations in turn.
+     *
+     * @param updates The pending updates in the order they were queued
+     * @since 2022.2.5
+     */
+    @SuppressWarnings("rawtypes")
+    public void flushPendingUpdates(List<PendingUpdate> updates) {
+        PendingOperationExecution.executePendingOperations(updates);
+    }
+
+    /**
+     * Flushes an ordered group of pending deletes for the entity of this persister. The default implementation
+     * executes each delete together with its pre and cascade operations in turn.
+     *
+     * @param deletes The pending deletes in the order they were queued
+     * @since 2022.2.5
+     */
+    @SuppressWarnings("rawtypes")
+    public void flushPendingDeletes(List<PendingDelete> deletes) {
+        PendingOperationExecution.executePendingOperations(deletes);
+    }
+
     protected EntityAccess createEntityAccess(PersistentEntity pe, Object obj) {
         final SessionImplementor si = (SessionImplementor)getSession();
         return si.createEntityAccess(pe, obj);
@@ -282,11 +326,40 @@ public abstract class EntityPersister implements Persister {
 
     protected Object newEntityInstance(PersistentEntity persistentEntity) {
         Object o = persistentEntity.newInstance();
-        publisher.publishEvent(new PreLoadEvent(session.getDatastore(), getPersistentEntity(),
-                createEntityAccess(persistentEntity, o)));
+        if (hasInterestedListeners(PreLoadEvent.class, getPersistentEntity())) {
+            publisher.publishEvent(new PreLoadEvent(session.getDatastore(), getPersistentEntity(),
+                    createEntityAccess(persistentEntity, o)));
+        }
         return o;
     }
 
+    /**
+     * Whether any listener handles the given event type for the given entity. Always true unless the publisher is an
+     * {@link EntityEventPublisher}.
+     *
+     * @param eventType The event type
+     * @param persistentEntity The entity
+     * @return True if the event has to be published
+     * @since 2022.2.5
+     */
+    protected boolean hasInterestedListeners(Class<? extends ApplicationEvent> eventType, PersistentEntity persistentEntity) {
+        return !(publisher instanceof EntityEventPublisher) ||
+                ((EntityEventPublisher) publisher).hasInterestedListeners(eventType, session.getDatastore().getClass(), persistentEntity);
+    }
+
+    /**
+     * Activates dirty checking for an entity whose post insert, update or load event was not published. This is what
+     * the listeners of GORM do when they receive the event.
+     *
+     * @param entityAccess The entity access
+     */
+    private void trackChanges(EntityAccess entityAccess) {
+        Object entity = entityAccess.getEntity();
+        if (entity instanceof DirtyCheckable) {
+            ((DirtyCheckable) entity).trackChanges();
+        }
+    }
+
    /**
     * Fire the beforeInsert even on an entityAccess object and return true if the operation should be cancelled
     * @param persistentEntity The entity
@@ -294,12 +367,19 @@ public abstract class EntityPersister implements Persister {
     * @return true if the operation should be cancelled
     */
     public boolean cancelInsert(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+       if (!hasInterestedListeners(PreInsertEvent.class, persistentEntity)) {
+           return false;
+       }
        PreInsertEvent event = new PreInsertEvent(session.getDatastore(), persistentEntity, entityAccess);
        publisher.publishEvent(event);
        return event.isCancelled();
    }
 
     public void firePostInsertEvent(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PostInsertEvent.class, persistentEntity)) {
+            trackChanges(entityAccess);
+            return;
+        }
         publisher.publishEvent(new PostInsertEvent(
                 session.getDatastore(), persistentEntity, entityAccess));
     }
@@ -311,6 +391,9 @@ public abstract class EntityPersister implements Persister {
     * @return true if the operation should be cancelled
     */
     public boolean cancelUpdate(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+       if (!hasInterestedListeners(PreUpdateEvent.class, persistentEntity)) {
+           return false;
+       }
        PreUpdateEvent event = new PreUpdateEvent(session.getDatastore(), persistentEntity, entityAccess);
        publisher.publishEvent(event);
        return event.isCancelled();
@@ -323,6 +406,9 @@ public abstract class EntityPersister implements Persister {
      * @return true if the operation should be cancelled
      */
     public boolean cancelDelete( final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PreDeleteEvent.class, persistentEntity)) {
+            return false;
+        }
         PreDeleteEvent event = new PreDeleteEvent(session.getDatastore(), persistentEntity, entityAccess);
         publisher.publishEvent(event);
         return event.isCancelled();
@@ -335,27 +421,44 @@ public abstract class EntityPersister implements Persister {
      * @return true if the operation should be cancelled
      */
     public boolean cancelLoad( final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PreLoadEvent.class, persistentEntity)) {
+            return false;
+        }
         PreLoadEvent event = new PreLoadEvent(session.getDatastore(), persistentEntity, entityAccess);
         publisher.publishEvent(event);
         return event.isCancelled();
     }
 
     public void firePostUpdateEvent(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PostUpdateEvent.class, persistentEntity)) {
+            trackChanges(entityAccess);
+            return;
+        }
         publisher.publishEvent(new PostUpdateEvent(
                 session.getDatastore(), persistentEntity, entityAccess));
     }
 
     public void firePostDeleteEvent(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PostDeleteEvent.class, persistentEntity)) {
+            return;
+        }
         publisher.publishEvent(new PostDeleteEvent(
                 session.getDatastore(), persistentEntity, entityAccess));
     }
 
     public void firePreLoadEvent(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PreLoadEvent.class, persistentEntity)) {
+            return;
+        }
         publisher.publishEvent(new PreLoadEvent(
                 session.getDatastore(), persistentEntity, entityAccess));
     }
 
     public void firePostLoadEvent(final PersistentEntity persistentEntity, final EntityAccess entityAccess) {
+        if (!hasInterestedListeners(PostLoadEvent.class, persistentEntity)) {
+            trackChanges(entityAccess);
+            return;
+        }
         publisher.publishEvent(new PostLoadEvent(
                 session.getDatastore(), persistentEntity, entityAccess));
     }
@@ -135,6 +135,7 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
             session.setFlushMode(FlushModeType.COMMIT);
             cascadeBeforeDelete(persistentEntity, entityAccess, key, obj);
             deleteEntry(getEntityFamily(), key, obj);
+            evictFromTPCache(persistentEntity, (Serializable) key);
             cascadeAfterDelete(persistentEntity, entityAccess, key, obj);
         }
         finally {
@@ -261,6 +262,9 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
 
             if (!keys.isEmpty()) {
                 deleteEntries(getEntityFamily(), new ArrayList<K>(keys));
+                for (K key : keys) {
+                    evictFromTPCache(persistentEntity, (Serializable) key);
+                }
                 for (Object object : deleteList) {
                     firePostDeleteEvent(persistentEntity, createEntityAccess(persistentEntity, object));
                 }
@@ -337,6 +341,7 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
             if (nativeEntry == null) {
                 return null;
             }
+            updateTPCache(persistentEntity, nativeEntry, nativeKey);
         }
 
         return createObjectFromNativeEntry(persistentEntity, key, nativeEntry);
@@ -840,14 +845,7 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
 
             cacheNativeEntry(persistentEntity, (Serializable) k, tmp);
 
-            pendingOperation = new PendingInsertAdapter<T, K>(persistentEntity, k, tmp, entityAccess) {
-                public void run() {
-                    K insertResult = executeInsert(persistentEntity, entityAccess, getNativeKey(), getNativeEntry());
-                    if (insertResult == null) {
-                        setVetoed(true);
-                    }
-                }
-            };
+            pendingOperation = new NativeEntryPendingInsert(persistentEntity, k, tmp, entityAccess);
 
             entityAccess.setProperty(entityAccess.getIdentifierName(), k);
         }
@@ -863,19 +861,7 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
                 tmp = createNewEntry(family);
             }
 
-            final T finalTmp = tmp;
-            final K finalK = k;
-            pendingOperation = new PendingUpdateAdapter<T, K>(persistentEntity, finalK, finalTmp, entityAccess) {
-                public void run() {
-                    if (cancelUpdate(persistentEntity, entityAccess)) {
-                        setVetoed(true);
-                        return;
-                    }
-                    updateEntry(persistentEntity, entityAccess, getNativeKey(), getNativeEntry());
-                    updateTPCache(persistentEntity, finalTmp, (Serializable) finalK);
-                    firePostUpdateEvent(persistentEntity, entityAccess);
-                }
-            };
+            pendingOperation = new NativeEntryPendingUpdate(persistentEntity, k, tmp, entityAccess);
         }
 
         final T e = tmp;
@@ -1625,6 +1611,173 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
      */
     protected abstract void deleteEntries(String family, List<K> keys);
 
+    /**
+     * Stores the native entries of a group of pending inserts. The default implementation calls
+     * {@link #storeEntry(PersistentEntity, EntityAccess, Object, Object)} for each insert, subclasses
+     * can override this method to write all entries in a single operation.
+     *
+     * @param persistentEntity The persistent entity
+     * @param inserts The inserts to store, in the order they were queued
+     * @return The native keys of the stored entries, in the same order as the inserts
+     * @since 2022.2.5
+     */
+    protected List<K> storeEntries(PersistentEntity persistentEntity, List<PendingInsert<T, K>> inserts) {
+        List<K> keys = new ArrayList<>(inserts.size());
+        for (PendingInsert<T, K> insert : inserts) {
+            keys.add(storeEntry(persistentEntity, insert.getEntityAccess(), insert.getNativeKey(), insert.getNativeEntry()));
+        }
+        return keys;
+    }
+
+    /**
+     * Updates the native entries of a group of pending updates. The default implementation calls
+     * {@link #updateEntry(PersistentEntity, EntityAccess, Object, Object)} for each update, subclasses
+     * can override this method to write all entries in a single operation.
+     *
+     * @param persistentEntity The persistent entity
+     * @param updates The updates to apply, in the order they were queued
+     * @since 2022.2.5
+     */
+    protected void updateEntries(PersistentEntity persistentEntity, List<PendingUpdate<T, K>> updates) {
+        for (PendingUpdate<T, K> update : updates) {
+            updateEntry(persistentEntity, update.getEntityAccess(), update.getNativeKey(), update.getNativeEntry());
+        }
+    }
+
+    /**
+     * Whether {@link #storeEntries(PersistentEntity, List)} writes a group of inserts in a single operation. Only then are
+     * the inserts of a flush processed in phases by {@link #flushPendingInserts(List)}, otherwise each insert fires its
+     * events, is written and cascades in turn.
+     *
+     * @return True if the inserts are written as a batch
+     * @since 2022.2.5
+     */
+    protected boolean isBatchInsertSupported() {
+        return false;
+    }
+
+    /**
+     * Whether {@link #updateEntries(PersistentEntity, List)} writes a group of updates in a single operation. Only then are
+     * the updates of a flush processed in phases by {@link #flushPendingUpdates(List)}, otherwise each update fires its
+     * events, is written and cascades in turn.
+     *
+     * @return True if the updates are written as a batch
+     * @since 2022.2.5
+     */
+    protected boolean isBatchUpdateSupported() {
+        return false;
+    }
+
+    /**
+     * Flushes a group of inserts. If the persister {@link #isBatchInsertSupported() supports batch inserts}, this happens in
+     * three phases, keeping the order of the inserts in each of them. First the pre operations and the before insert event
+     * of each insert are executed, then the inserts that were not cancelled are written with a single call to
+     * {@link #storeEntries(PersistentEntity, List)}. Finally the after insert event and the cascade operations of each
+     * insert are executed. Listeners of an insert therefore don't see the entries written by the other inserts of the
+     * group.
+     *
+     * @param inserts The pending inserts in the order they were queued
+     */
+    @Override
+    public void flushPendingInserts(List<PendingInsert> inserts) {
+        if (!isBatchInsertSupported() || !isOwnGroup(inserts, NativeEntryEntityPersister.NativeEntryPendingInsert.class)) {
+            super.flushPendingInserts(inserts);
+            return;
+        }
+
+        final PersistentEntity persistentEntity = inserts.get(0).getEntity();
+        final List<PendingInsert<T, K>> toStore = new ArrayList<>(inserts.size());
+        for (PendingInsert insert : inserts) {
+            PendingOperationExecution.executePreOperations(insert);
+            NativeEntryPendingInsert pendingInsert = (NativeEntryPendingInsert) insert;
+            if (cancelInsert(persistentEntity, pendingInsert.getEntityAccess())) {
+                pendingInsert.setVetoed(true);
+            }
+            else {
+                toStore.add(pendingInsert);
+            }
+        }
+
+        if (!toStore.isEmpty()) {
+            final List<K> keys = storeEntries(persistentEntity, toStore);
+            for (int i = 0; i < toStore.size(); i++) {
+                NativeEntryPendingInsert pendingInsert = (NativeEntryPendingInsert) toStore.get(i);
+                K newId = keys.get(i);
+                EntityAccess entityAccess = pendingInsert.getEntityAccess();
+                entityAccess.setIdentifier(newId);
+                updateTPCache(persistentEntity, pendingInsert.getNativeEntry(), (Serializable) newId);
+                firePostInsertEvent(persistentEntity, entityAccess);
+                if (newId == null) {
+                    pendingInsert.setVetoed(true);
+                }
+            }
+        }
+
+        for (PendingInsert insert : inserts) {
+            PendingOperationExecution.executeCascadeOperations(insert);
+        }
+    }
+
+    /**
+     * Flushes a group of updates. If the persister {@link #isBatchUpdateSupported() supports batch updates}, this happens in
+     * three phases, keeping the order of the updates in each of them. First the pre operations and the before update event
+     * of each update are executed, then the updates that were not cancelled are written with a single call to
+     * {@link #updateEntries(PersistentEntity, List)}. Finally the after update event and the cascade operations of each
+     * update are executed. Listeners of an update therefore don't see the changes written by the other updates of the
+     * group.
+     *
+     * @param updates The pending updates in the order they were queued
+     */
+    @Override
+    public void flushPendingUpdates(List<PendingUpdate> updates) {
+        if (!isBatchUpdateSupported() || !isOwnGroup(updates, NativeEntryEntityPersister.NativeEntryPendingUpdate.class)) {
+            super.flushPendingUpdates(updates);
+            return;
+        }
+
+        final PersistentEntity persistentEntity = updates.get(0).getEntity();
+        final List<PendingUpdate<T, K>> toUpdate = new ArrayList<>(updates.size());
+        for (PendingUpdate update : updates) {
+            PendingOperationExecution.executePreOperations(update);
+            NativeEntryPendingUpdate pendingUpdate = (NativeEntryPendingUpdate) update;
+            if (cancelUpdate(persistentEntity, pendingUpdate.getEntityAccess())) {
+                pendingUpdate.setVetoed(true);
+            }
+            else {
+                toUpdate.add(pendingUpdate);
+            }
+        }
+
+        if (!toUpdate.isEmpty()) {
+            updateEntries(persistentEntity, toUpdate);
+            for (PendingUpdate<T, K> pendingUpdate : toUpdate) {
+                evictFromTPCache(persistentEntity, (Serializable) pendingUpdate.getNativeKey());
+                firePostUpdateEvent(persistentEntity, pendingUpdate.getEntityAccess());
+            }
+        }
+
+        for (PendingUpdate update : updates) {
+            PendingOperationExecution.executeCascadeOperations(update);
+        }
+    }
+
+    /**
+     * Whether all the given operations were created by this persister, for the same entity, and can therefore be flushed as a batch
+     */
+    private boolean isOwnGroup(List<? extends PendingOperation> operations, Class<? extends PendingOperation> operationType) {
+        if (operations.isEmpty()) {
+            return false;
+        }
+        PersistentEntity entity = operations.get(0).getEntity();
+        for (PendingOperation operation : operations) {
+            if (!operationType.isInstance(operation) || operation.getEntity() != entity ||
+                    ((NativeEntryPendingOperation) operation).getPersister() != this) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Executes an insert for the given entity, entity access, identifier and native entry.
      * Any before interceptors will be triggered
@@ -1647,6 +1800,69 @@ public abstract class NativeEntryEntityPersister<T, K> extends ThirdPartyCacheEn
         return newId;
     }
 
+    /**
+     * Implemented by the pending operations created by this persister
+     */
+    private interface NativeEntryPendingOperation {
+
+        NativeEntryEntityPersister getPersister();
+
+    }
+
+    /**
+     * An insert of a native entry created by {@link #persistEntity(PersistentEntity, Object, boolean)}
+     */
+    protected class NativeEntryPendingInsert extends PendingInsertAdapter<T, K> implements NativeEntryPendingOperation {
+
+        private final NativeEntryModifyingEntityAccess entityAccess;
+
+        public NativeEntryPendingInsert(PersistentEntity entity, K nativeKey, T nativeEntry, NativeEntryModifyingEntityAccess ea) {
+            super(entity, nativeKey, nativeEntry, ea);
+            this.entityAccess = ea;
+        }
+
+        public void run() {
+            K insertResult = executeInsert(getEntity(), entityAccess, getNativeKey(), getNativeEntry());
+            if (insertResult == null) {
+                setVetoed(true);
+            }
+        }
+
+        @Override
+        public NativeEntryEntityPersister getPersister() {
+            return NativeEntryEntityPersister.this;
+        }
+
+    }
+
+    /**
+     * An update of a native entry created by {@link #persistEntity(PersistentEntity, Object, boolean)}
+     */
+    protected class NativeEntryPendingUpdate extends PendingUpdateAdapter<T, K> implements NativeEntryPendingOperation {
+
+        public NativeEntryPendingUpdate(PersistentEntity entity, K nativeKey, T nativeEntry, NativeEntryModifyingEntityAccess ea) {
+            super(entity, nativeKey, nativeEntry, ea);
+        }
+
+        public void run() {
+            PersistentEntity persistentEntity = getEntity();
+            EntityAccess entityAccess = getEntityAccess();
+            if (cancelUpdate(persistentEntity, entityAccess)) {
+                setVetoed(true);
+                return;
+            }
+            updateEntry(persistentEntity, entityAccess, getNativeKey(), getNativeEntry());
+            evictFromTPCache(persistentEntity, (Serializable) getNativeKey());
+            firePostUpdateEvent(persistentEntity, entityAccess);
+        }
+
+        @Override
+        public NativeEntryEntityPersister getPersister() {
+            return NativeEntryEntityPersister.this;
+        }
+
+    }
+
     protected class NativeEntryModifyingEntityAccess extends BeanEntityAccess {
 
         T nativeEntry;
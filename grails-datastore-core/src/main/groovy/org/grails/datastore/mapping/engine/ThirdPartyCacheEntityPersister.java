@@ -51,7 +51,26 @@ public abstract class ThirdPartyCacheEntityPersister<T> extends LockableEntityPe
 
         TPCacheAdapter<T> cacheAdapter = cacheAdapterRepository.getTPCacheAdapter(persistentEntity);
         if (cacheAdapter != null) {
-            cacheAdapter.cacheEntry(id, e);
+            cacheAdapter.cacheEntry(id, e != null ? copyTPCacheEntry(e) : null);
+        }
+    }
+
+    /**
+     * Removes the cached entry of the given entity and of its parent entities, called when the entry is updated or deleted
+     *
+     * @param persistentEntity The entity
+     * @param id The identifier
+     */
+    protected void evictFromTPCache(PersistentEntity persistentEntity, Serializable id) {
+        if (cacheAdapterRepository == null || id == null) {
+            return;
+        }
+
+        for (PersistentEntity entity = persistentEntity; entity != null; entity = entity.getParentEntity()) {
+            TPCacheAdapter<T> cacheAdapter = cacheAdapterRepository.getTPCacheAdapter(entity);
+            if (cacheAdapter != null) {
+                cacheAdapter.evictEntry(id);
+            }
         }
     }
 
@@ -62,9 +81,22 @@ public abstract class ThirdPartyCacheEntityPersister<T> extends LockableEntityPe
 
         TPCacheAdapter<T> cacheAdapter = cacheAdapterRepository.getTPCacheAdapter(persistentEntity);
         if (cacheAdapter != null) {
-            return cacheAdapter.getCachedEntry(id);
+            T entry = cacheAdapter.getCachedEntry(id);
+            return entry != null ? copyTPCacheEntry(entry) : null;
         }
         return null;
     }
 
+    /**
+     * Copies an entry that is stored in or read from the third party cache. Sessions modify the native entries they
+     * hold, so mutable entries must be copied to prevent changes that are not yet flushed from being shared with
+     * other sessions. The default implementation returns the entry itself, which is only safe for immutable entries.
+     *
+     * @param entry The entry
+     * @return The copy
+     */
+    protected T copyTPCacheEntry(T entry) {
+        return entry;
+    }
+
 }
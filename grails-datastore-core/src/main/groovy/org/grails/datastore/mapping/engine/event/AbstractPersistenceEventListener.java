@@ -14,6 +14,8 @@
  */
 package org.grails.datastore.mapping.engine.event;
 
+import java.util.List;
+
 import org.springframework.context.ApplicationEvent;
 
 import org.grails.datastore.mapping.core.Datastore;
@@ -25,6 +27,8 @@ public abstract class AbstractPersistenceEventListener implements PersistenceEve
 
     protected Datastore datastore;
 
+    private PostCommitEventDelivery postCommitEventDelivery;
+
     protected AbstractPersistenceEventListener(final Datastore datastore) {
         this.datastore = datastore;
     }
@@ -49,6 +53,10 @@ public abstract class AbstractPersistenceEventListener implements PersistenceEve
             if (event.isListenerExcluded(getClass().getName())) {
                 return;
             }
+
+            if (postCommitEventDelivery != null && isPostCommitEvent(event) && postCommitEventDelivery.defer(this, event)) {
+                return;
+            }
             onPersistenceEvent(event);
         }
 
@@ -61,6 +69,46 @@ public abstract class AbstractPersistenceEventListener implements PersistenceEve
 
     protected abstract void onPersistenceEvent(AbstractPersistenceEvent event);
 
+    /**
+     * Receives the post insert, update and delete events of a committed transaction when a
+     * {@link PostCommitEventDelivery} is set. Override to process the events as a batch.
+     *
+     * @param events The events in the order they were published
+     */
+    protected void onPostCommitEvents(List<AbstractPersistenceEvent> events) {
+        for (AbstractPersistenceEvent event : events) {
+            onPersistenceEvent(event);
+        }
+    }
+
+    /**
+     * @return The delivery of post commit events or null if all events are handled during the flush
+     */
+    public PostCommitEventDelivery getPostCommitEventDelivery() {
+        return postCommitEventDelivery;
+    }
+
+    /**
+     * Delivers the post insert, update and delete events of this listener after the transaction commits. Events that
+     * are published outside of a transaction are still handled immediately.
+     *
+     * @param postCommitEventDelivery The delivery or null to handle all events during the flush
+     */
+    public void setPostCommitEventDelivery(PostCommitEventDelivery postCommitEventDelivery) {
+        this.postCommitEventDelivery = postCommitEventDelivery;
+    }
+
+    private static boolean isPostCommitEvent(AbstractPersistenceEvent event) {
+        switch (event.getEventType()) {
+            case PostInsert:
+            case PostUpdate:
+            case PostDelete:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     public int getOrder() {
         return DEFAULT_ORDER;
     }
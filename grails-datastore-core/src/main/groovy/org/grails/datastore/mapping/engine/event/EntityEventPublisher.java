@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.engine.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import org.grails.datastore.mapping.model.PersistentEntity;
+
+/**
+ * An {@link ApplicationEventPublisher} that knows which of its listeners handle the events of an entity.
+ *
+ * <p>Persisters and queries consult {@link #hasInterestedListeners(Class, Class, PersistentEntity)} before creating
+ * an event, so that no event is created and published when every listener would ignore it.
+ * A {@link PersistenceEventListener} declares the entities it handles with
+ * {@link PersistenceEventListener#supportsEntityEvent(Class, PersistentEntity)}, any other listener is assumed to
+ * handle the events of all entities.</p>
+ *
+ * @since 2022.2.5
+ */
+public interface EntityEventPublisher extends ApplicationEventPublisher {
+
+    /**
+     * Whether any listener handles the given event type for the given entity
+     *
+     * @param eventType The event type
+     * @param sourceType The type of the source of the event, usually the datastore
+     * @param entity The entity
+     * @return True if the event has to be published
+     */
+    boolean hasInterestedListeners(Class<? extends ApplicationEvent> eventType, Class<?> sourceType, PersistentEntity entity);
+
+}
@@ -14,8 +14,11 @@
  */
 package org.grails.datastore.mapping.engine.event;
 
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.event.SmartApplicationListener;
 
+import org.grails.datastore.mapping.model.PersistentEntity;
+
 /**
  * @author Burt Beckwith
  */
@@ -23,4 +26,18 @@ public interface PersistenceEventListener extends SmartApplicationListener {
 
     int DEFAULT_ORDER = Integer.MAX_VALUE / 2;
 
+    /**
+     * Whether this listener handles events of the given type for the given entity. An {@link EntityEventPublisher}
+     * caches the answer, so it must not change over time. Only called for event types that
+     * {@link #supportsEventType(Class)} accepts.
+     *
+     * @param eventType The event type
+     * @param entity The entity
+     * @return False if the listener ignores the events of the entity, true by default
+     * @since 2022.2.5
+     */
+    default boolean supportsEntityEvent(Class<? extends ApplicationEvent> eventType, PersistentEntity entity) {
+        return true;
+    }
+
 }
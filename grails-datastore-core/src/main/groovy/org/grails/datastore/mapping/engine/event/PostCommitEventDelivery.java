@@ -0,0 +1,218 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.engine.event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Delivers the post insert, update and delete events of the {@link AbstractPersistenceEventListener listeners} it is
+ * assigned to after the surrounding transaction has committed, instead of during the flush.
+ *
+ * <p>The events are buffered per transaction and listener, and discarded if the transaction rolls back. After the
+ * commit they are handed to {@link AbstractPersistenceEventListener#onPostCommitEvents(List)} in batches of at most
+ * {@code batchSize} events on the given executor. At most {@code maxPendingBatches} batches are queued or running at
+ * any time, the committing thread waits for a free slot otherwise. Events published outside of a transaction are
+ * delivered immediately.</p>
+ *
+ * <p>Since the listeners run after the commit and on another thread, they must not modify the entities of the events
+ * nor rely on the session that published them.</p>
+ *
+ * @since 2022.2.5
+ */
+public class PostCommitEventDelivery implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostCommitEventDelivery.class);
+
+    private final ExecutorService executor;
+
+    private final int batchSize;
+
+    private final Semaphore pendingBatches;
+
+    /**
+     * @param executor The executor the batches are delivered on, shut down by {@link #close()}
+     * @param batchSize The maximum number of events passed to a listener at once
+     * @param maxPendingBatches The maximum number of batches that are queued or delivered at the same time
+     */
+    public PostCommitEventDelivery(ExecutorService executor, int batchSize, int maxPendingBatches) {
+        if (batchSize < 1 || maxPendingBatches < 1) {
+            throw new IllegalArgumentException("The batch size and the maximum number of pending batches must be positive");
+        }
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+    }
+
+    /**
+     * Creates a delivery that uses a fixed pool of daemon threads
+     *
+     * @param threads The number of threads
+     * @param batchSize The maximum number of events passed to a listener at once
+     * @param maxPendingBatches The maximum number of batches that are queued or delivered at the same time
+     * @return The delivery
+     */
+    public static PostCommitEventDelivery withThreadPool(int threads, int batchSize, int maxPendingBatches) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxPendingBatches), runnable -> {
+                    Thread thread = new Thread(runnable, "gorm-post-commit-events-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return new PostCommitEventDelivery(executor, batchSize, maxPendingBatches);
+    }
+
+    /**
+     * Creates a delivery that starts a virtual thread per batch
+     *
+     * @param batchSize The maximum number of events passed to a listener at once
+     * @param maxPendingBatches The maximum number of batches that are queued or delivered at the same time
+     * @return The delivery
+     * @throws UnsupportedOperationException If the JVM does not support virtual threads
+     */
+    public static PostCommitEventDelivery withVirtualThreads(int batchSize, int maxPendingBatches) {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM", e);
+        }
+        return new PostCommitEventDelivery(executor, batchSize, maxPendingBatches);
+    }
+
+    /**
+     * Buffers the event until the current transaction commits
+     *
+     * @param listener The listener to deliver the event to
+     * @param event The event
+     * @return False if there is no transaction and the event should be delivered immediately
+     */
+    boolean defer(AbstractPersistenceEventListener listener, AbstractPersistenceEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        EventBuffer buffer = (EventBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new EventBuffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        return buffer.add(listener, event);
+    }
+
+    private void deliver(AbstractPersistenceEventListener listener, List<AbstractPersistenceEvent> events) {
+        for (int from = 0; from < events.size(); from += batchSize) {
+            List<AbstractPersistenceEvent> batch = events.subList(from, Math.min(from + batchSize, events.size()));
+            try {
+                pendingBatches.acquire();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warn("Interrupted while delivering post commit events, {} events of listener [{}] were dropped",
+                        events.size() - from, listener.getClass().getName());
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        listener.onPostCommitEvents(batch);
+                    }
+                    catch (RuntimeException e) {
+                        LOG.error("Error delivering post commit events to listener [" + listener.getClass().getName() + "]: " + e.getMessage(), e);
+                    }
+                    finally {
+                        pendingBatches.release();
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                pendingBatches.release();
+                LOG.warn("Post commit events of listener [{}] were rejected: {}", listener.getClass().getName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * The events published within a transaction, bound to the transaction as a resource
+     */
+    private final class EventBuffer implements TransactionSynchronization {
+
+        private final Map<AbstractPersistenceEventListener, List<AbstractPersistenceEvent>> eventsByListener = new LinkedHashMap<>();
+
+        private boolean committed;
+
+        boolean add(AbstractPersistenceEventListener listener, AbstractPersistenceEvent event) {
+            if (committed) {
+                // published by another synchronization after the commit
+                return false;
+            }
+            eventsByListener.computeIfAbsent(listener, key -> new ArrayList<>()).add(event);
+            return true;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(PostCommitEventDelivery.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(PostCommitEventDelivery.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            committed = true;
+            for (Map.Entry<AbstractPersistenceEventListener, List<AbstractPersistenceEvent>> entry : eventsByListener.entrySet()) {
+                deliver(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PostCommitEventDelivery.this);
+            if (status != STATUS_COMMITTED && !eventsByListener.isEmpty()) {
+                LOG.debug("Discarding the post commit events of a transaction that did not commit");
+            }
+        }
+
+    }
+
+}
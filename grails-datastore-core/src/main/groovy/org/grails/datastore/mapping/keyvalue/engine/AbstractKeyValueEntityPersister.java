@@ -16,6 +16,7 @@ package org.grails.datastore.mapping.keyvalue.engine;
 
 import org.springframework.context.ApplicationEventPublisher;
 
+import org.grails.datastore.mapping.cache.TPCacheAdapterRepository;
 import org.grails.datastore.mapping.core.Session;
 import org.grails.datastore.mapping.engine.NativeEntryEntityPersister;
 import org.grails.datastore.mapping.keyvalue.mapping.config.Family;
@@ -44,6 +45,12 @@ public abstract class AbstractKeyValueEntityPersister<T, K> extends NativeEntryE
         entityFamily = getFamily(entity, classMapping);
     }
 
+    protected AbstractKeyValueEntityPersister(MappingContext context, PersistentEntity entity,
+            Session session, ApplicationEventPublisher publisher, TPCacheAdapterRepository<T> cacheAdapterRepository) {
+        super(context, entity, session, publisher, cacheAdapterRepository);
+        entityFamily = getFamily(entity, classMapping);
+    }
+
     @Override
     public String getEntityFamily() {
         return entityFamily;
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.multitenancy;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.grails.datastore.mapping.core.context.ContextKey;
+import org.grails.datastore.mapping.core.context.ContextStorages;
+
+/**
+ * A scope, such as a web request, in which each {@link TenantResolver} is called at most once. The first tenant id
+ * resolved by a resolver is kept by the context and returned for any later resolution within the scope, so that
+ * resolvers that read the request are not called again for every operation.
+ *
+ * <p>The context is bound to the current thread with {@link #bind(TenantContext)}, through the
+ * {@link ContextStorages#get() context storage}, and can be carried over to other
+ * threads by wrapping the tasks handed off to them with {@link #wrap(Runnable)} or {@link #wrap(Callable)}.</p>
+ *
+ * @since 2022.2.5
+ */
+public final class TenantContext {
+
+    private static final ContextKey<TenantContext> CURRENT = ContextKey.newInstance("GORM tenant context");
+
+    private final Map<TenantResolver, Serializable> tenantIds = new ConcurrentHashMap<>();
+
+    /**
+     * @return The context bound to the current thread or null if there is none
+     */
+    public static TenantContext current() {
+        return ContextStorages.get().get(CURRENT);
+    }
+
+    /**
+     * Binds the given context to the current thread
+     *
+     * @param context The context or null to unbind the current context
+     * @return The context that was bound before
+     */
+    public static TenantContext bind(TenantContext context) {
+        TenantContext previous = ContextStorages.get().get(CURRENT);
+        ContextStorages.get().set(CURRENT, context);
+        return previous;
+    }
+
+    /**
+     * Resolves the tenant id through the context bound to the current thread, or directly through the resolver if
+     * there is none
+     *
+     * @param tenantResolver The tenant resolver
+     * @return The tenant id
+     * @throws org.grails.datastore.mapping.multitenancy.exceptions.TenantNotFoundException if the resolver does not find a tenant
+     */
+    public static Serializable resolveTenantIdentifier(TenantResolver tenantResolver) {
+        TenantContext context = current();
+        if (context != null) {
+            return context.resolve(tenantResolver);
+        }
+        return tenantResolver.resolveTenantIdentifier();
+    }
+
+    /**
+     * Wraps the runnable to execute it with the context bound to the current thread
+     *
+     * @param runnable The runnable
+     * @return The wrapped runnable or the runnable itself if no context is bound
+     */
+    public static Runnable wrap(Runnable runnable) {
+        TenantContext context = current();
+        if (context == null) {
+            return runnable;
+        }
+        return () -> {
+            TenantContext previous = bind(context);
+            try {
+                runnable.run();
+            }
+            finally {
+                bind(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps the callable to execute it with the context bound to the current thread
+     *
+     * @param callable The callable
+     * @return The wrapped callable or the callable itself if no context is bound
+     */
+    public static <T> Callable<T> wrap(Callable<T> callable) {
+        TenantContext context = current();
+        if (context == null) {
+            return callable;
+        }
+        return () -> {
+            TenantContext previous = bind(context);
+            try {
+                return callable.call();
+            }
+            finally {
+                bind(previous);
+            }
+        };
+    }
+
+    /**
+     * Resolves the tenant id, calling the resolver only if no tenant id was resolved by it in this context yet. A
+     * resolver that fails to find a tenant is called again the next time.
+     *
+     * @param tenantResolver The tenant resolver
+     * @return The tenant id
+     */
+    public Serializable resolve(TenantResolver tenantResolver) {
+        Serializable tenantId = tenantIds.get(tenantResolver);
+        if (tenantId == null) {
+            tenantId = tenantResolver.resolveTenantIdentifier();
+            if (tenantId != null) {
+                Serializable existing = tenantIds.putIfAbsent(tenantResolver, tenantId);
+                if (existing != null) {
+                    tenantId = existing;
+                }
+            }
+        }
+        return tenantId;
+    }
+
+}
@@ -0,0 +1,32 @@
+package org.grails.datastore.mapping.multitenancy.exceptions
+
+import groovy.transform.CompileStatic
+
+/**
+ * Exception thrown when the execution for one or many tenants failed. The first failure is the cause of the exception and the others
+ * are added as suppressed exceptions
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+class TenantExecutionException extends TenantException {
+
+    /**
+     * The results of the tenants that completed, keyed by tenant id
+     */
+    final Map<Serializable, Object> results
+
+    /**
+     * The failures of the tenants that did not complete, keyed by tenant id
+     */
+    final Map<Serializable, Throwable> failures
+
+    TenantExecutionException(Map<Serializable, ?> results, Map<Serializable, Throwable> failures) {
+        super("Execution failed for ${failures.size()} of ${results.size() + failures.size()} tenants: ${failures.keySet()}".toString(),
+                failures.values().first())
+        this.results = Collections.unmodifiableMap(new LinkedHashMap<Serializable, Object>(results))
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<Serializable, Throwable>(failures))
+        failures.values().drop(1).each { Throwable failure -> addSuppressed(failure) }
+    }
+
+}
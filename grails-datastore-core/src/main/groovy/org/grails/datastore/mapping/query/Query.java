@@ -28,12 +28,15 @@ import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.criteria.JoinType;
 
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import org.grails.datastore.mapping.core.Datastore;
 import org.grails.datastore.mapping.core.Session;
+import org.grails.datastore.mapping.engine.event.EntityEventPublisher;
 import org.grails.datastore.mapping.model.MappingContext;
 import org.grails.datastore.mapping.model.PersistentEntity;
 import org.grails.datastore.mapping.model.PersistentProperty;
@@ -41,6 +44,8 @@ import org.grails.datastore.mapping.model.types.Association;
 import org.grails.datastore.mapping.model.types.Embedded;
 import org.grails.datastore.mapping.query.api.AssociationCriteria;
 import org.grails.datastore.mapping.query.api.QueryableCriteria;
+import org.grails.datastore.mapping.query.cache.QueryResultCache;
+import org.grails.datastore.mapping.query.cache.QueryResultCacheCapableDatastore;
 import org.grails.datastore.mapping.query.event.PostQueryEvent;
 import org.grails.datastore.mapping.query.event.PreQueryEvent;
 
@@ -599,13 +604,27 @@ public abstract class Query implements Cloneable {
         flushBeforeQuery();
 
         ApplicationEventPublisher publisher = session.getDatastore().getApplicationEventPublisher();
-        if (publisher != null) {
+        if (publisher != null && hasInterestedListeners(publisher, PreQueryEvent.class)) {
             publisher.publishEvent(new PreQueryEvent(this));
         }
 
-        List results = executeQuery(entity, criteria);
+        List results = null;
+        QueryResultCache resultCache = Boolean.TRUE.equals(queryCache) && lockResult == null ? getQueryResultCache() : null;
+        Object cacheKey = resultCache != null ? createCacheKey() : null;
+        long generation = 0;
+        if (cacheKey != null) {
+            generation = resultCache.getGeneration(entity);
+            results = getCachedResults(resultCache, cacheKey);
+        }
+
+        if (results == null) {
+            results = executeQuery(entity, criteria);
+            if (cacheKey != null) {
+                cacheResults(resultCache, cacheKey, generation, results);
+            }
+        }
 
-        if (publisher != null) {
+        if (publisher != null && hasInterestedListeners(publisher, PostQueryEvent.class)) {
             PostQueryEvent postQueryEvent = new PostQueryEvent(this, results);
             publisher.publishEvent(postQueryEvent);
             results = postQueryEvent.getResults();
@@ -615,6 +634,64 @@ public abstract class Query implements Cloneable {
         return results;
     }
 
+    private boolean hasInterestedListeners(ApplicationEventPublisher publisher, Class<? extends ApplicationEvent> eventType) {
+        return !(publisher instanceof EntityEventPublisher) ||
+                ((EntityEventPublisher) publisher).hasInterestedListeners(eventType, session.getDatastore().getClass(), entity);
+    }
+
+    /**
+     * Creates the key under which the results of this query are cached when {@link #cache(boolean)} is enabled.
+     * The default implementation normalizes the criteria, projections, order, max and offset of the query.
+     * Subclasses holding further state that affects the results must include it in the key.
+     *
+     * @return The key or null if the query cannot be cached
+     */
+    protected Object createCacheKey() {
+        return QueryCacheKeys.create(this);
+    }
+
+    /**
+     * @return The query result cache of the datastore or null if it does not cache results
+     */
+    protected QueryResultCache getQueryResultCache() {
+        Datastore datastore = session != null ? session.getDatastore() : null;
+        if (datastore instanceof QueryResultCacheCapableDatastore) {
+            return ((QueryResultCacheCapableDatastore) datastore).getQueryResultCache();
+        }
+        return null;
+    }
+
+    private List getCachedResults(QueryResultCache resultCache, Object cacheKey) {
+        QueryResultCache.CachedQueryResult cached = resultCache.get(entity, cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        List<Object> values = cached.getValues();
+        if (!cached.isIdentifiers()) {
+            return values;
+        }
+
+        List instances = session.retrieveAll(entity.getJavaClass(), values);
+        if (instances.size() != values.size() || instances.contains(null)) {
+            // an instance was removed without the cache being invalidated, so the query is executed again
+            return null;
+        }
+        return instances;
+    }
+
+    private void cacheResults(QueryResultCache resultCache, Object cacheKey, long generation, List results) {
+        boolean identifiers = projections.isEmpty();
+        List<Object> values = new ArrayList<>(results.size());
+        for (Object result : results) {
+            Object value = identifiers && result != null ? session.getObjectIdentifier(result) : result;
+            if (identifiers ? value == null : !QueryCacheKeys.isCacheableValue(value)) {
+                return;
+            }
+            values.add(value);
+        }
+        resultCache.put(entity, cacheKey, generation, identifiers, values);
+    }
+
     /**
      * Here purely for compatibility
      *
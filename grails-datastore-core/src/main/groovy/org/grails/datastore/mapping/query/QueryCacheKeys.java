@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Creates the keys of the query result cache. A key is a normalized form of the criteria, projections, order, max
+ * and offset of a query, built from lists and sets so that equal queries produce equal keys. The criteria of a
+ * junction are compared as a set, so their order does not matter.
+ *
+ * <p>Only the criteria and projections declared by {@link Query} are supported. Queries that use any other criterion,
+ * a subquery, an association query or a value that is not immutable cannot be cached.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings("rawtypes")
+final class QueryCacheKeys {
+
+    private boolean cacheable = true;
+
+    private QueryCacheKeys() {
+    }
+
+    /**
+     * @param query The query
+     * @return The key or null if the query cannot be cached
+     */
+    static Object create(Query query) {
+        QueryCacheKeys keys = new QueryCacheKeys();
+        List<Object> orders = new ArrayList<>(query.orderBy.size());
+        for (Query.Order order : query.orderBy) {
+            orders.add(Arrays.asList(order.getProperty(), order.getDirection(), order.isIgnoreCase()));
+        }
+        List<Object> projections = new ArrayList<>();
+        for (Query.Projection projection : query.projections.getProjectionList()) {
+            projections.add(keys.projectionKey(projection));
+        }
+        Object criteria = keys.criterionKey(query.criteria);
+        if (!keys.cacheable) {
+            return null;
+        }
+        return Arrays.asList(query.entity.getName(), query.uniqueResult, query.max, query.offset, orders, projections, criteria);
+    }
+
+    /**
+     * @param value A value returned by a projection
+     * @return Whether the value is immutable and can therefore be shared through the cache
+     */
+    static boolean isCacheableValue(Object value) {
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                if (!isCacheableValue(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Character ||
+                value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte ||
+                value instanceof Double || value instanceof Float || value instanceof BigDecimal || value instanceof BigInteger ||
+                value instanceof Enum || value instanceof UUID || value instanceof Class || value instanceof Currency ||
+                value instanceof Locale || (value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time."));
+    }
+
+    private Object projectionKey(Query.Projection projection) {
+        if (!isDeclaredByQuery(projection)) {
+            cacheable = false;
+            return null;
+        }
+        if (projection instanceof Query.PropertyProjection) {
+            return Arrays.asList(projection.getClass().getName(), ((Query.PropertyProjection) projection).getPropertyName());
+        }
+        return projection.getClass().getName();
+    }
+
+    private Object criterionKey(Query.Criterion criterion) {
+        if (!cacheable) {
+            return null;
+        }
+        if (!isDeclaredByQuery(criterion) || criterion instanceof Query.Exists || criterion instanceof Query.NotExists) {
+            cacheable = false;
+            return null;
+        }
+
+        String type = criterion.getClass().getName();
+        if (criterion instanceof Query.Junction) {
+            Set<Object> criteria = new HashSet<>();
+            for (Query.Criterion c : ((Query.Junction) criterion).getCriteria()) {
+                criteria.add(criterionKey(c));
+            }
+            return Arrays.asList(type, criteria);
+        }
+        if (criterion instanceof Query.Between) {
+            Query.Between between = (Query.Between) criterion;
+            return Arrays.asList(type, between.getProperty(), valueKey(between.getFrom()), valueKey(between.getTo()));
+        }
+        if (criterion instanceof Query.In && ((Query.In) criterion).getSubquery() == null) {
+            Query.In in = (Query.In) criterion;
+            return Arrays.asList(type, in.getProperty(), valueKey(in.getValues()), valueKey(in.getValue()));
+        }
+        if (criterion instanceof Query.PropertyCriterion) {
+            Query.PropertyCriterion pc = (Query.PropertyCriterion) criterion;
+            return Arrays.asList(type, pc.getProperty(), valueKey(pc.getValue()));
+        }
+        if (criterion instanceof Query.PropertyComparisonCriterion) {
+            Query.PropertyComparisonCriterion pc = (Query.PropertyComparisonCriterion) criterion;
+            return Arrays.asList(type, pc.getProperty(), pc.getOtherProperty());
+        }
+        if (criterion instanceof Query.PropertyNameCriterion) {
+            return Arrays.asList(type, ((Query.PropertyNameCriterion) criterion).getProperty());
+        }
+        cacheable = false;
+        return null;
+    }
+
+    private Object valueKey(Object value) {
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return Arrays.asList(value.getClass().getName(), ((Date) value).getTime());
+        }
+        if (value instanceof Collection) {
+            Set<Object> values = new HashSet<>();
+            for (Object element : (Collection) value) {
+                values.add(valueKey(element));
+            }
+            return values;
+        }
+        if (value instanceof Object[]) {
+            List<Object> values = new ArrayList<>();
+            for (Object element : (Object[]) value) {
+                values.add(valueKey(element));
+            }
+            return values;
+        }
+        if (!isCacheableValue(value)) {
+            cacheable = false;
+        }
+        return value;
+    }
+
+    private static boolean isDeclaredByQuery(Object o) {
+        return o.getClass().getEnclosingClass() == Query.class;
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.query.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.grails.datastore.mapping.model.PersistentEntity;
+
+/**
+ * Caches the results of queries that enable caching with {@link org.grails.datastore.mapping.query.Query#cache(boolean)}.
+ *
+ * <p>Results are stored as identifiers, which are resolved through the session when a result is reused, or as
+ * immutable values for projection queries. Each entity has a generation that is incremented whenever operations
+ * on the entity are flushed. A cached result is only returned while the generation it was created with is current,
+ * so invalidating all results of an entity is a constant time operation. Stale results are dropped lazily once the
+ * maximum size of the cache is exceeded.</p>
+ *
+ * <p>Only modifications made through GORM invalidate results, changes made directly to the underlying store are
+ * not detected.</p>
+ *
+ * @since 2022.2.5
+ */
+public class QueryResultCache {
+
+    /**
+     * The default maximum number of cached results
+     */
+    public static final long DEFAULT_MAX_SIZE = 1000;
+
+    private final Cache<Object, CachedQueryResult> results;
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    public QueryResultCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize The maximum number of cached results
+     */
+    public QueryResultCache(long maxSize) {
+        this.results = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Obtains the current generation of an entity, which must be read before the query is executed and passed to
+     * {@link #put(PersistentEntity, Object, long, boolean, List)} along with its results
+     *
+     * @param entity The entity
+     * @return The generation
+     */
+    public long getGeneration(PersistentEntity entity) {
+        return generation(entity).get();
+    }
+
+    /**
+     * @param entity The queried entity
+     * @param key The normalized query
+     * @return The cached result or null if there is no current result for the query
+     */
+    public CachedQueryResult get(PersistentEntity entity, Object key) {
+        CachedQueryResult result = results.getIfPresent(key);
+        if (result != null && result.generation == getGeneration(entity)) {
+            hitCount.increment();
+            return result;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Stores the result of a query
+     *
+     * @param entity The queried entity
+     * @param key The normalized query
+     * @param generation The generation of the entity before the query was executed
+     * @param identifiers Whether the values are the identifiers of the resulting instances
+     * @param values The identifiers or the projected values
+     */
+    public void put(PersistentEntity entity, Object key, long generation, boolean identifiers, List<?> values) {
+        if (generation == getGeneration(entity)) {
+            results.put(key, new CachedQueryResult(generation, identifiers, values));
+        }
+    }
+
+    /**
+     * Invalidates the cached results of an entity and of its parent entities, whose queries include the instances
+     * of the entity
+     *
+     * @param entity The entity that was modified
+     */
+    public void invalidate(PersistentEntity entity) {
+        for (PersistentEntity current = entity; current != null; current = current.getParentEntity()) {
+            generation(current).incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes all cached results
+     */
+    public void clear() {
+        results.invalidateAll();
+        for (AtomicLong generation : generations.values()) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The number of queries answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return The number of cacheable queries that had to be executed
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return The approximate number of cached results, including results that are no longer current
+     */
+    public long size() {
+        return results.estimatedSize();
+    }
+
+    private AtomicLong generation(PersistentEntity entity) {
+        return generations.computeIfAbsent(entity.getName(), name -> new AtomicLong());
+    }
+
+    /**
+     * A cached query result
+     */
+    public static class CachedQueryResult implements Serializable {
+
+        private final long generation;
+
+        private final boolean identifiers;
+
+        private final List<Object> values;
+
+        CachedQueryResult(long generation, boolean identifiers, List<?> values) {
+            this.generation = generation;
+            this.identifiers = identifiers;
+            this.values = Collections.unmodifiableList(copy(values));
+        }
+
+        /**
+         * @return Whether the values are the identifiers of the resulting instances rather than projected values
+         */
+        public boolean isIdentifiers() {
+            return identifiers;
+        }
+
+        /**
+         * @return A copy of the values, projected rows are copied as well
+         */
+        public List<Object> getValues() {
+            return copy(values);
+        }
+
+        private static List<Object> copy(List<?> values) {
+            List<Object> copy = new ArrayList<>(values.size());
+            for (Object value : values) {
+                copy.add(value instanceof Object[] ? ((Object[]) value).clone() : value);
+            }
+            return copy;
+        }
+
+    }
+
+}
@@ -2,9 +2,14 @@ package org.grails.datastore.mapping.reflect;
 
 import java.beans.PropertyDescriptor;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,13 +21,19 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.util.ReflectionUtils;
 
 import org.grails.datastore.mapping.dirty.checking.DirtyCheckable;
+import org.grails.datastore.mapping.dirty.checking.DirtyCheckingSupport;
 import org.grails.datastore.mapping.engine.EntityAccess;
 import org.grails.datastore.mapping.model.PersistentEntity;
 import org.grails.datastore.mapping.model.PersistentProperty;
 import org.grails.datastore.mapping.proxy.ProxyHandler;
 
 /**
- * Uses field reflection or CGlib to improve performance
+ * Reads and writes the properties of entities through method handles, which are created once per property when the
+ * reflector of an entity is initialized. Properties backed by a field are accessed through the field, so that
+ * hydrating an entity does not invoke its setters. Plain reflection is used if a method handle cannot be created.
+ *
+ * <p>If the entity implements {@link GeneratedPropertyAccessor} the fields it declares are instead accessed through
+ * the accessor methods generated at compile time.</p>
  *
  * @author Graeme Rocher
  * @since 5.0
@@ -166,6 +177,12 @@ public class FieldEntityAccess implements EntityAccess {
 
     static class FieldEntityReflector implements EntityReflector {
 
+        private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+        private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+        private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
         final PersistentEntity entity;
 
         final PropertyReader[] readers;
@@ -186,22 +203,32 @@ public class FieldEntityAccess implements EntityAccess {
 
         final Field dirtyCheckingStateField;
 
+        final PropertyReader dirtyCheckingStateReader;
+
+        final String[] generatedPropertyNames;
+
+        private ClassPropertyFetcher classPropertyFetcher;
+
         FastClass fastClass;
 
         public FieldEntityReflector(PersistentEntity entity) {
             this.entity = entity;
+            this.generatedPropertyNames = findGeneratedPropertyNames(entity.getJavaClass());
             PersistentProperty identity = entity.getIdentity();
             dirtyCheckingStateField = ReflectionUtils.findField(entity.getJavaClass(), getTraitFieldName(DirtyCheckable.class, "$changedProperties"));
             if (dirtyCheckingStateField != null) {
                 ReflectionUtils.makeAccessible(dirtyCheckingStateField);
+                dirtyCheckingStateReader = createFieldReader(dirtyCheckingStateField, null);
+            }
+            else {
+                dirtyCheckingStateReader = null;
             }
-            ClassPropertyFetcher cpf = ClassPropertyFetcher.forClass(entity.getJavaClass());
             if (identity != null) {
                 String identityName = identity.getName();
                 this.identifierName = identityName;
                 this.identifierType = identity.getType();
 
-                ReaderAndWriterMaker readerAndWriterMaker = new ReaderAndWriterMaker(cpf, identityName).make();
+                ReaderAndWriterMaker readerAndWriterMaker = makeReaderAndWriter(identityName, identity.getType());
                 identifierReader = readerAndWriterMaker.getPropertyReader();
                 identifierWriter = readerAndWriterMaker.getPropertyWriter();
 
@@ -221,7 +248,7 @@ public class FieldEntityAccess implements EntityAccess {
             if (composite != null) {
                 for (PersistentProperty property : composite) {
                     String propertyName = property.getName();
-                    ReaderAndWriterMaker readerAndWriterMaker = new ReaderAndWriterMaker(cpf, propertyName).make();
+                    ReaderAndWriterMaker readerAndWriterMaker = makeReaderAndWriter(propertyName, property.getType());
                     readerMap.put(propertyName, readerAndWriterMaker.getPropertyReader());
                     writerMap.put(propertyName, readerAndWriterMaker.getPropertyWriter());
                 }
@@ -233,7 +260,7 @@ public class FieldEntityAccess implements EntityAccess {
                 PersistentProperty property = properties.get(i);
 
                 String propertyName = property.getName();
-                ReaderAndWriterMaker readerAndWriterMaker = new ReaderAndWriterMaker(cpf, propertyName).make();
+                ReaderAndWriterMaker readerAndWriterMaker = makeReaderAndWriter(propertyName, property.getType());
                 PropertyReader reader = readerAndWriterMaker.getPropertyReader();
                 PropertyWriter writer = readerAndWriterMaker.getPropertyWriter();
 
@@ -244,6 +271,91 @@ public class FieldEntityAccess implements EntityAccess {
             }
         }
 
+        private ReaderAndWriterMaker makeReaderAndWriter(String propertyName, Class propertyType) {
+            if (generatedPropertyNames != null) {
+                for (int i = 0; i < generatedPropertyNames.length; i++) {
+                    if (generatedPropertyNames[i].equals(propertyName)) {
+                        GeneratedProperty property = new GeneratedProperty(propertyName, i, propertyType);
+                        return new ReaderAndWriterMaker(new GeneratedPropertyReader(property), new GeneratedPropertyWriter(property));
+                    }
+                }
+            }
+            return new ReaderAndWriterMaker(classPropertyFetcher(), propertyName).make();
+        }
+
+        private ClassPropertyFetcher classPropertyFetcher() {
+            if (classPropertyFetcher == null) {
+                classPropertyFetcher = ClassPropertyFetcher.forClass(entity.getJavaClass());
+            }
+            return classPropertyFetcher;
+        }
+
+        /**
+         * Finds the names of the properties covered by the accessor methods generated for the given class
+         *
+         * @param javaClass The entity class
+         * @return The property names or null if no accessor methods were generated
+         */
+        static String[] findGeneratedPropertyNames(Class javaClass) {
+            if (!GeneratedPropertyAccessor.class.isAssignableFrom(javaClass)) {
+                return null;
+            }
+            try {
+                Field field = javaClass.getDeclaredField(GeneratedPropertyAccessor.PROPERTY_NAMES_FIELD);
+                ReflectionUtils.makeAccessible(field);
+                return (String[]) field.get(null);
+            }
+            catch (NoSuchFieldException | IllegalAccessException | ClassCastException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Creates a reader that reads the field directly, bypassing the getter
+         */
+        static PropertyReader createFieldReader(Field field, Method getter) {
+            ReflectionUtils.makeAccessible(field);
+            try {
+                return new MethodHandleReader(LOOKUP.unreflectGetter(field).asType(READER_TYPE), field, getter, field.getType());
+            }
+            catch (IllegalAccessException e) {
+                return new FieldReader(field, getter);
+            }
+        }
+
+        /**
+         * Creates a writer that writes the field directly, bypassing the setter
+         */
+        static PropertyWriter createFieldWriter(Field field, Method setter) {
+            ReflectionUtils.makeAccessible(field);
+            try {
+                return new MethodHandleWriter(LOOKUP.unreflectSetter(field).asType(WRITER_TYPE), field, setter, field.getType());
+            }
+            catch (IllegalAccessException e) {
+                return new FieldWriter(field, setter);
+            }
+        }
+
+        static PropertyReader createMethodReader(Method getter) {
+            ReflectionUtils.makeAccessible(getter);
+            try {
+                return new MethodHandleReader(LOOKUP.unreflect(getter).asType(READER_TYPE), null, getter, getter.getReturnType());
+            }
+            catch (IllegalAccessException e) {
+                return new ReflectMethodReader(getter);
+            }
+        }
+
+        static PropertyWriter createMethodWriter(Method setter, Class propertyType) {
+            ReflectionUtils.makeAccessible(setter);
+            try {
+                return new MethodHandleWriter(LOOKUP.unreflect(setter).asType(WRITER_TYPE), null, setter, propertyType);
+            }
+            catch (IllegalAccessException e) {
+                return new ReflectionMethodWriter(setter, propertyType);
+            }
+        }
+
         protected String getTraitFieldName(Traits.TraitBridge traitBridge, String fieldName) {
             Class traitClass = traitBridge.traitClass();
             return getTraitFieldName(traitClass, fieldName);
@@ -261,9 +373,15 @@ public class FieldEntityAccess implements EntityAccess {
 
         @Override
         public Map<String, Object> getDirtyCheckingState(Object entity) {
-            if (dirtyCheckingStateField != null) {
+            if (dirtyCheckingStateReader != null) {
                 try {
-                    return (Map<String, Object>) dirtyCheckingStateField.get(entity);
+                    Map<String, Object> state = (Map<String, Object>) dirtyCheckingStateReader.read(entity);
+                    if (DirtyCheckingSupport.NO_CHANGES_MARKER == state) {
+                        // the marker is immutable and shared, so callers get a map of their own that changes are tracked in
+                        state = new LinkedHashMap<>();
+                        ReflectionUtils.setField(dirtyCheckingStateField, entity, state);
+                    }
+                    return state;
                 }
                 catch (Throwable e) {
                     return null;
@@ -352,6 +470,228 @@ public class FieldEntityAccess implements EntityAccess {
         }
 
 
+        /**
+         * Reads a property through a method handle of type (Object)Object, bound to either the field or the getter.
+         * As all readers of an entity share this class, reading a property by index is a monomorphic call.
+         */
+        static final class MethodHandleReader implements PropertyReader {
+
+            final MethodHandle handle;
+
+            final Field field;
+
+            final Method getter;
+
+            final Class propertyType;
+
+            MethodHandleReader(MethodHandle handle, Field field, Method getter, Class propertyType) {
+                this.handle = handle;
+                this.field = field;
+                this.getter = getter;
+                this.propertyType = propertyType;
+            }
+
+            @Override
+            public Field field() {
+                return field;
+            }
+
+            @Override
+            public Method getter() {
+                return getter;
+            }
+
+            @Override
+            public Class propertyType() {
+                return propertyType;
+            }
+
+            @Override
+            public Object read(Object object) {
+                try {
+                    return (Object) handle.invokeExact(object);
+                }
+                catch (Throwable e) {
+                    if (field != null) {
+                        throw new IllegalArgumentException("Cannot read field [" + field + "] from object [" + object + "] of type [" + (object != null ? object.getClass() : null) + "]", e);
+                    }
+                    throw rethrow(e);
+                }
+            }
+
+        }
+
+        /**
+         * Writes a property through a method handle of type (Object,Object)void, bound to either the field or the setter
+         */
+        static final class MethodHandleWriter implements PropertyWriter {
+
+            final MethodHandle handle;
+
+            final Field field;
+
+            final Method setter;
+
+            final Class propertyType;
+
+            MethodHandleWriter(MethodHandle handle, Field field, Method setter, Class propertyType) {
+                this.handle = handle;
+                this.field = field;
+                this.setter = setter;
+                this.propertyType = propertyType;
+            }
+
+            @Override
+            public Field field() {
+                return field;
+            }
+
+            @Override
+            public Method setter() {
+                return setter;
+            }
+
+            @Override
+            public Class propertyType() {
+                return propertyType;
+            }
+
+            @Override
+            public void write(Object object, Object value) {
+                try {
+                    handle.invokeExact(object, value);
+                }
+                catch (Throwable e) {
+                    if (field != null) {
+                        throw new IllegalArgumentException("Cannot set field [" + field.getName() + "] of object [" + object + "] for value [" + value + "] of type [" + (value != null ? value.getClass().getName() : null) + "]", e);
+                    }
+                    throw rethrow(e);
+                }
+            }
+
+        }
+
+        /**
+         * A property accessed through the methods generated for the entity class. Instances of other classes, such as
+         * sub classes or proxies, are read and written through a reader and writer created on first use.
+         */
+        private final class GeneratedProperty {
+
+            final String name;
+
+            final int index;
+
+            final Class propertyType;
+
+            final Class declaringClass;
+
+            private ReaderAndWriterMaker fallback;
+
+            GeneratedProperty(String name, int index, Class propertyType) {
+                this.name = name;
+                this.index = index;
+                this.propertyType = propertyType;
+                this.declaringClass = entity.getJavaClass();
+            }
+
+            boolean isGenerated(Object object) {
+                return object != null && object.getClass() == declaringClass;
+            }
+
+            ReaderAndWriterMaker fallback() {
+                ReaderAndWriterMaker maker = fallback;
+                if (maker == null) {
+                    maker = new ReaderAndWriterMaker(classPropertyFetcher(), name).make();
+                    fallback = maker;
+                }
+                return maker;
+            }
+
+        }
+
+        private static final class GeneratedPropertyReader implements PropertyReader {
+
+            final GeneratedProperty property;
+
+            GeneratedPropertyReader(GeneratedProperty property) {
+                this.property = property;
+            }
+
+            @Override
+            public Field field() {
+                return property.fallback().getPropertyReader().field();
+            }
+
+            @Override
+            public Method getter() {
+                return property.fallback().getPropertyReader().getter();
+            }
+
+            @Override
+            public Class propertyType() {
+                return property.propertyType;
+            }
+
+            @Override
+            public Object read(Object object) {
+                if (property.isGenerated(object)) {
+                    return ((GeneratedPropertyAccessor) object).$gormReadProperty(property.index);
+                }
+                return property.fallback().getPropertyReader().read(object);
+            }
+
+        }
+
+        private static final class GeneratedPropertyWriter implements PropertyWriter {
+
+            final GeneratedProperty property;
+
+            GeneratedPropertyWriter(GeneratedProperty property) {
+                this.property = property;
+            }
+
+            @Override
+            public Field field() {
+                return property.fallback().getPropertyWriter().field();
+            }
+
+            @Override
+            public Method setter() {
+                return property.fallback().getPropertyWriter().setter();
+            }
+
+            @Override
+            public Class propertyType() {
+                return property.propertyType;
+            }
+
+            @Override
+            public void write(Object object, Object value) {
+                if (property.isGenerated(object)) {
+                    try {
+                        ((GeneratedPropertyAccessor) object).$gormWriteProperty(property.index, value);
+                    }
+                    catch (ClassCastException | NullPointerException e) {
+                        throw new IllegalArgumentException("Cannot set property [" + property.name + "] of object [" + object + "] for value [" + value + "] of type [" + (value != null ? value.getClass().getName() : null) + "]", e);
+                    }
+                }
+                else {
+                    property.fallback().getPropertyWriter().write(object, value);
+                }
+            }
+
+        }
+
+        private static RuntimeException rethrow(Throwable e) {
+            if (e instanceof RuntimeException) {
+                return (RuntimeException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return new UndeclaredThrowableException(e);
+        }
+
         static class ReflectMethodReader implements PropertyReader {
 
             final Method method;
@@ -511,6 +851,11 @@ public class FieldEntityAccess implements EntityAccess {
                 this.propertyName = propertyName;
             }
 
+            public ReaderAndWriterMaker(PropertyReader propertyReader, PropertyWriter propertyWriter) {
+                this.propertyReader = propertyReader;
+                this.propertyWriter = propertyWriter;
+            }
+
             public PropertyReader getPropertyReader() {
                 return propertyReader;
             }
@@ -523,9 +868,8 @@ public class FieldEntityAccess implements EntityAccess {
                 Class javaClass = cpf.getJavaClass();
                 Field field = ReflectionUtils.findField(javaClass, propertyName);
                 if (field != null) {
-                    ReflectionUtils.makeAccessible(field);
-                    propertyReader = new FieldReader(field, ReflectionUtils.findMethod(javaClass, NameUtils.getGetterName(propertyName)));
-                    propertyWriter = new FieldWriter(field, ReflectionUtils.findMethod(javaClass, NameUtils.getSetterName(propertyName), field.getType()));
+                    propertyReader = createFieldReader(field, ReflectionUtils.findMethod(javaClass, NameUtils.getGetterName(propertyName)));
+                    propertyWriter = createFieldWriter(field, ReflectionUtils.findMethod(javaClass, NameUtils.getSetterName(propertyName), field.getType()));
                 }
                 else {
                     PropertyDescriptor descriptor = cpf.getPropertyDescriptor(propertyName);
@@ -548,21 +892,20 @@ public class FieldEntityAccess implements EntityAccess {
                     if (traitFieldName != null) {
                         field = ReflectionUtils.findField(javaClass, traitFieldName);
                         if (field != null) {
-                            ReflectionUtils.makeAccessible(field);
-                            propertyReader = new FieldReader(field, readMethod);
-                            propertyWriter = new FieldWriter(field, descriptor.getWriteMethod());
+                            propertyReader = createFieldReader(field, readMethod);
+                            propertyWriter = createFieldWriter(field, descriptor.getWriteMethod());
                         }
                         else {
                             Method writeMethod = descriptor.getWriteMethod();
-                            propertyReader = new ReflectMethodReader(readMethod);
-                            propertyWriter = new ReflectionMethodWriter(writeMethod, descriptor.getPropertyType());
+                            propertyReader = createMethodReader(readMethod);
+                            propertyWriter = writeMethod != null ? createMethodWriter(writeMethod, descriptor.getPropertyType()) : null;
                         }
                     }
                     else {
-                        propertyReader = new ReflectMethodReader(readMethod);
+                        propertyReader = createMethodReader(readMethod);
                         Method writeMethod = descriptor.getWriteMethod();
                         if (writeMethod != null) {
-                            propertyWriter = new ReflectionMethodWriter(writeMethod, descriptor.getPropertyType());
+                            propertyWriter = createMethodWriter(writeMethod, descriptor.getPropertyType());
                         }
                     }
                 }
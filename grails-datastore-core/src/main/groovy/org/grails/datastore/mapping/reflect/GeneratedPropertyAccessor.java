@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.reflect;
+
+/**
+ * Implemented by entities whose property accessors were generated at compile time by the GORM entity
+ * transformation. The generated methods read and write the fields declared by the entity class by index, which
+ * allows the {@link EntityReflector} of the entity to access them without reflection.
+ *
+ * <p>The index of a property is its position in the {@link #PROPERTY_NAMES_FIELD} array declared by the same
+ * class. Fields inherited from a super class are not covered by the generated methods of a sub class.</p>
+ *
+ * @since 2022.2.5
+ */
+public interface GeneratedPropertyAccessor {
+
+    /**
+     * The name of the static {@code String[]} field holding the names of the generated properties
+     */
+    String PROPERTY_NAMES_FIELD = "$gormPropertyNames";
+
+    /**
+     * Reads the field of the property with the given index
+     *
+     * @param index The index of the property
+     * @return The value of the field
+     */
+    Object $gormReadProperty(int index);
+
+    /**
+     * Writes the field of the property with the given index, bypassing the setter
+     *
+     * @param index The index of the property
+     * @param value The value to write
+     */
+    void $gormWriteProperty(int index, Object value);
+
+}
@@ -0,0 +1,79 @@
+package org.grails.datastore.mapping.cache.impl
+
+import java.time.Duration
+
+import org.grails.datastore.mapping.cache.TPCacheStatistics
+import org.grails.datastore.mapping.config.CacheConfig
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+class CaffeineTPCacheAdapterSpec extends Specification {
+
+    void "test entries are cached, evicted and counted"() {
+        given:
+        CaffeineTPCacheAdapter<Map> adapter = new CaffeineTPCacheAdapter<>(100, Duration.ofMinutes(1))
+
+        when:
+        adapter.cacheEntry(1L, [name: 'one'])
+        adapter.getCachedEntry(1L)
+        adapter.getCachedEntry(2L)
+        TPCacheStatistics statistics = adapter.statistics
+
+        then:
+        adapter.getCachedEntry(1L) == [name: 'one']
+        statistics.hitCount == 1
+        statistics.missCount == 1
+        statistics.hitRate == 0.5d
+        statistics.size == 1
+
+        when:
+        adapter.evictEntry(1L)
+
+        then:
+        adapter.getCachedEntry(1L) == null
+
+        when:"a null entry is cached"
+        adapter.cacheEntry(3L, [name: 'three'])
+        adapter.cacheEntry(3L, null)
+
+        then:"the existing entry is removed"
+        adapter.getCachedEntry(3L) == null
+    }
+
+    void "test the maximum size is enforced"() {
+        given:
+        CaffeineTPCacheAdapter<String> adapter = new CaffeineTPCacheAdapter<>(new CacheConfig(enabled: true, maxSize: 10))
+
+        when:
+        100.times { adapter.cacheEntry(it.longValue(), "entry$it".toString()) }
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert adapter.statistics.size <= 10
+            assert adapter.statistics.evictionCount >= 90
+        }
+
+        when:
+        adapter.clear()
+
+        then:
+        adapter.statistics.size == 0
+    }
+
+    void "test the hash map adapter records hits and misses"() {
+        given:
+        HashMapTPCacheAdapter<String> adapter = new HashMapTPCacheAdapter<>()
+        adapter.cacheEntry(1L, 'one')
+
+        when:
+        adapter.getCachedEntry(1L)
+        adapter.getCachedEntry(2L)
+        adapter.evictEntry(1L)
+        adapter.getCachedEntry(1L)
+
+        then:
+        adapter.statistics.hitCount == 1
+        adapter.statistics.missCount == 2
+        adapter.statistics.size == 0
+    }
+}
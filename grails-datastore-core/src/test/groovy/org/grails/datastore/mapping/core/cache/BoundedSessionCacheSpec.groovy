@@ -0,0 +1,60 @@
+package org.grails.datastore.mapping.core.cache
+
+import spock.lang.Specification
+
+class BoundedSessionCacheSpec extends Specification {
+
+    void "test the least recently used records are evicted"() {
+        given:
+        BoundedSessionCache cache = new BoundedSessionCache(3, null)
+
+        when:
+        (1L..3L).each { cache.putInstance(String, it, "instance$it".toString()) }
+        cache.getInstance(String, 1L)
+        cache.putInstance(String, 4L, 'instance4')
+
+        then:"the record that was used least recently is evicted"
+        cache.size() == 3
+        cache.evictionCount == 1
+        cache.getInstance(String, 2L) == null
+        cache.getInstance(String, 1L) == 'instance1'
+        cache.getInstance(String, 3L) == 'instance3'
+        cache.getInstance(String, 4L) == 'instance4'
+    }
+
+    void "test records rejected by the eviction filter are retained"() {
+        given:
+        BoundedSessionCache cache = new BoundedSessionCache(2, { Class type, Serializable id, SessionCacheRecord record ->
+            record.instance != 'dirty'
+        } as BoundedSessionCache.EvictionFilter)
+
+        when:
+        cache.putInstance(String, 1L, 'dirty')
+        cache.putInstance(String, 2L, 'clean')
+        cache.putInstance(String, 3L, 'clean')
+
+        then:
+        cache.size() == 2
+        cache.evictionCount == 1
+        cache.getInstance(String, 1L) == 'dirty'
+        cache.getInstance(String, 2L) == null
+
+        when:"only records that cannot be evicted remain"
+        BoundedSessionCache pinned = new BoundedSessionCache(1, { Class type, Serializable id, SessionCacheRecord record ->
+            false
+        } as BoundedSessionCache.EvictionFilter)
+        (1L..3L).each { pinned.putInstance(String, it, "instance$it".toString()) }
+
+        then:"the cache exceeds its limit"
+        pinned.size() == 3
+        pinned.evictionCount == 0
+    }
+
+    void "test the maximum size must be positive"() {
+        when:
+        new BoundedSessionCache(0, null)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
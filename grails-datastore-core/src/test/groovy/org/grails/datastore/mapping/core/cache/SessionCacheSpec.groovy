@@ -0,0 +1,77 @@
+package org.grails.datastore.mapping.core.cache
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SessionCacheSpec extends Specification {
+
+    @Unroll
+    void "test instances and entries share one record with #type"() {
+        given:
+        SessionCache cache = type.createCache()
+        Object instance = new Object()
+        Map entry = [name: 'test']
+
+        when:
+        cache.putInstance(String, 1L, instance)
+        cache.putEntry(String, 1L, entry, false)
+        cache.putEntry(String, 1L, entry, true)
+
+        then:
+        cache.size() == 1
+        cache.get(String, 1L).instance.is(instance)
+        cache.get(String, 1L).getEntry(false).is(entry)
+        cache.getInstance(String, 1L).is(instance)
+        cache.getEntry(String, 1L, true).is(entry)
+        cache.getInstance(Integer, 1L) == null
+        cache.getInstance(String, 2L) == null
+        cache.containsInstance(String, instance)
+
+        when:"the instance is removed"
+        cache.removeInstance(String, 1L)
+
+        then:"the entries are retained"
+        cache.getInstance(String, 1L) == null
+        cache.getEntry(String, 1L, false).is(entry)
+        !cache.containsInstance(String, instance)
+
+        when:
+        cache.clear()
+
+        then:
+        cache.size() == 0
+        cache.get(String, 1L) == null
+
+        where:
+        type << SessionCacheType.values()
+    }
+
+    @Unroll
+    void "test many identifiers with #type"() {
+        given:
+        SessionCache cache = type.createCache()
+
+        when:"enough records are cached to resize the tables"
+        for (long i = 0; i < 10000; i++) {
+            cache.putInstance(Object, i * 31, "instance$i".toString())
+        }
+        cache.putInstance(Object, 'key', 'string keyed')
+
+        then:
+        cache.size() == 10001
+        (0..<10000).every { int i -> cache.getInstance(Object, i * 31L) == "instance$i".toString() }
+        cache.getInstance(Object, 'key') == 'string keyed'
+
+        when:"every other record is removed"
+        for (long i = 0; i < 10000; i += 2) {
+            cache.removeInstance(Object, i * 31)
+        }
+
+        then:"the remaining records can still be found"
+        cache.size() == 5001
+        (0..<10000).every { int i -> cache.getInstance(Object, i * 31L) == (i % 2 == 0 ? null : "instance$i".toString()) }
+
+        where:
+        type << SessionCacheType.values()
+    }
+}
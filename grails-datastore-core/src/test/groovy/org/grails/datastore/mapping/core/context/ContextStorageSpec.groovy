@@ -0,0 +1,129 @@
+package org.grails.datastore.mapping.core.context
+
+import java.util.function.Supplier
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import org.grails.datastore.mapping.core.exceptions.ConfigurationException
+
+class ContextStorageSpec extends Specification {
+
+    static final ContextKey<String> FIRST = ContextKey.newInstance("first")
+    static final ContextKey<String> SECOND = ContextKey.newInstance("second")
+
+    @Unroll
+    void "test values are bound for the duration of an operation with #storage.class.simpleName"() {
+        when:
+        List<String> values = storage.where(FIRST, "outer", {
+            storage.where(SECOND, "other", {
+                storage.where(FIRST, "inner", {
+                    [storage.get(FIRST), storage.get(SECOND)]
+                } as Supplier) + storage.where(FIRST, null, {
+                    [storage.get(FIRST)]
+                } as Supplier) + [storage.get(FIRST)]
+            } as Supplier)
+        } as Supplier)
+
+        then:
+        values == ['inner', 'other', null, 'outer']
+        storage.get(FIRST) == null
+        storage.get(SECOND) == null
+
+        where:
+        storage << [new ThreadLocalContextStorage(), new ScopedContextStorage()]
+    }
+
+    @Unroll
+    void "test values set outside of an operation are kept until unset with #storage.class.simpleName"() {
+        when:
+        storage.set(FIRST, "first")
+        storage.set(SECOND, "second")
+        storage.set(FIRST, "again")
+
+        then:
+        storage.get(FIRST) == "again"
+        storage.get(SECOND) == "second"
+
+        when:"an operation sets a value"
+        String inner = storage.where(SECOND, "inner", {
+            storage.set(SECOND, "set")
+            storage.get(SECOND)
+        } as Supplier)
+
+        then:"the value of the caller is restored"
+        inner == "set"
+        storage.get(SECOND) == "second"
+
+        when:
+        storage.set(FIRST, null)
+        storage.set(SECOND, null)
+
+        then:
+        storage.get(FIRST) == null
+        storage.get(SECOND) == null
+
+        where:
+        storage << [new ThreadLocalContextStorage(), new ScopedContextStorage()]
+    }
+
+    @Unroll
+    void "test values set for other keys during an operation are kept with #storage.class.simpleName"() {
+        given:
+        storage.set(FIRST, "first")
+
+        when:"an operation binding one key sets the other keys"
+        List<String> inner = storage.where(FIRST, "inner", {
+            storage.set(SECOND, "set")
+            storage.where(SECOND, "nested", { storage.set(FIRST, "changed") } as Supplier)
+            [storage.get(FIRST), storage.get(SECOND)]
+        } as Supplier)
+
+        then:"only the bound keys are restored"
+        inner == ['changed', 'set']
+        storage.get(FIRST) == "first"
+        storage.get(SECOND) == "set"
+
+        when:"the value of the key is unset during an operation"
+        storage.where(SECOND, "inner", { storage.set(FIRST, null) } as Supplier)
+
+        then:
+        storage.get(FIRST) == null
+        storage.get(SECOND) == "set"
+
+        cleanup:
+        storage.set(FIRST, null)
+        storage.set(SECOND, null)
+
+        where:
+        storage << [new ThreadLocalContextStorage(), new ScopedContextStorage()]
+    }
+
+    void "test the scoped storage holds no entry for a thread outside of any operation"() {
+        given:
+        ScopedContextStorage storage = new ScopedContextStorage()
+
+        when:
+        storage.where(FIRST, "value", {
+            storage.set(SECOND, "other")
+            storage.set(SECOND, null)
+        } as Supplier)
+
+        then:
+        storage.@bindings.get() == null
+    }
+
+    void "test the storage is created from its type"() {
+        expect:
+        ContextStorages.create(null) instanceof ThreadLocalContextStorage
+        ContextStorages.create("threadLocal") instanceof ThreadLocalContextStorage
+        ContextStorages.create("scoped") instanceof ScopedContextStorage
+        ContextStorages.create(ScopedContextStorage.name) instanceof ScopedContextStorage
+
+        when:
+        ContextStorages.create(String.name)
+
+        then:
+        thrown(ConfigurationException)
+    }
+}
@@ -59,6 +59,49 @@ class DirtyCheckableSpec extends Specification {
         animal.hasChanged("barks")
 
     }
+
+    def 'marking an indexed property dirty keeps the first original value'() {
+        given:
+        def person = new Person(name: 'John Doe')
+        person.trackChanges()
+
+        expect:
+        !person.hasChanged()
+        person.listDirtyPropertyNames().isEmpty()
+
+        when:"the property is marked dirty more than once"
+        person.markDirty(0, 'name', 'Jane Doe', 'John Doe')
+        person.markDirty(0, 'name', 'Jim Doe', 'Jane Doe')
+
+        then:
+        person.hasChanged()
+        person.hasChanged('name')
+        person.listDirtyPropertyNames() == ['name']
+        person.getOriginalValue('name') == 'John Doe'
+
+        when:"an unchanged value is set after the changes were reset"
+        person.trackChanges()
+        person.markDirty(0, 'name', 'Jim Doe', 'Jim Doe')
+
+        then:
+        !person.hasChanged()
+        !person.hasChanged('name')
+    }
+
+    def 'synced instances share the changes recorded after the sync'() {
+        given:
+        def person = new Person(name: 'John Doe')
+        def proxy = new Person(name: 'John Doe')
+        person.trackChanges()
+
+        when:
+        person.syncChangedProperties(proxy)
+        person.markDirty(0, 'name', 'Jane Doe', 'John Doe')
+
+        then:
+        proxy.hasChanged('name')
+        proxy.getOriginalValue('name') == 'John Doe'
+    }
 }
 
 class Animal implements DirtyCheckable {
@@ -0,0 +1,118 @@
+package org.grails.datastore.mapping.engine.event
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import org.springframework.context.ApplicationEvent
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionSynchronizationUtils
+import spock.lang.Specification
+
+import org.grails.datastore.mapping.core.Datastore
+import org.grails.datastore.mapping.engine.EntityAccess
+import org.grails.datastore.mapping.model.PersistentEntity
+
+class PostCommitEventDeliverySpec extends Specification {
+
+    Datastore datastore = Mock(Datastore)
+    PersistentEntity entity = Mock(PersistentEntity)
+    ExecutorService executor = Executors.newSingleThreadExecutor()
+    RecordingListener listener = new RecordingListener(datastore)
+
+    void setup() {
+        listener.postCommitEventDelivery = new PostCommitEventDelivery(executor, 2, 4)
+    }
+
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+        executor.shutdownNow()
+    }
+
+    void "test post events are delivered in batches after the transaction commits"() {
+        given:
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        PreInsertEvent preInsert = new PreInsertEvent(datastore, entity, (EntityAccess) null)
+        listener.onApplicationEvent(preInsert)
+        3.times { listener.onApplicationEvent(new PostInsertEvent(datastore, entity, (EntityAccess) null)) }
+        listener.onApplicationEvent(new PostDeleteEvent(datastore, entity, (EntityAccess) null))
+
+        then:"only the pre event is handled during the flush"
+        listener.events == [preInsert]
+        listener.batches.isEmpty()
+
+        when:
+        complete(TransactionSynchronization.STATUS_COMMITTED)
+
+        then:
+        listener.batches*.size() == [2, 2]
+        listener.batches.flatten()*.eventType == [EventType.PostInsert, EventType.PostInsert, EventType.PostInsert, EventType.PostDelete]
+        listener.threads.every { it != Thread.currentThread() }
+    }
+
+    void "test post events are discarded when the transaction rolls back"() {
+        given:
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        listener.onApplicationEvent(new PostUpdateEvent(datastore, entity, (EntityAccess) null))
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK)
+
+        then:
+        listener.events.isEmpty()
+        listener.batches.isEmpty()
+    }
+
+    void "test post events are delivered immediately outside of a transaction"() {
+        when:
+        PostInsertEvent event = new PostInsertEvent(datastore, entity, (EntityAccess) null)
+        listener.onApplicationEvent(event)
+
+        then:
+        listener.events == [event]
+        listener.batches.isEmpty()
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations()
+        TransactionSynchronizationManager.clearSynchronization()
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations)
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status)
+        executor.shutdown()
+        executor.awaitTermination(5, TimeUnit.SECONDS)
+    }
+
+    static class RecordingListener extends AbstractPersistenceEventListener {
+
+        final List<AbstractPersistenceEvent> events = []
+        final List<List<AbstractPersistenceEvent>> batches = []
+        final List<Thread> threads = []
+
+        RecordingListener(Datastore datastore) {
+            super(datastore)
+        }
+
+        @Override
+        protected void onPersistenceEvent(AbstractPersistenceEvent event) {
+            events << event
+        }
+
+        @Override
+        protected synchronized void onPostCommitEvents(List<AbstractPersistenceEvent> events) {
+            batches << new ArrayList<>(events)
+            threads << Thread.currentThread()
+        }
+
+        @Override
+        boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+            true
+        }
+    }
+}
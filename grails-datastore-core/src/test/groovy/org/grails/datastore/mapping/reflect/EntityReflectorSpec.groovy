@@ -18,6 +18,42 @@ class EntityReflectorSpec extends Specification {
         then:"the property from the trait can be reflected"
         entity.reflector.getPropertyReader('bar').read(new Bar(bar: "test")) == 'test'
     }
+
+    void "test properties are read and written through method handles"() {
+        given:
+        MappingContext mappingContext = new KeyValueMappingContext("test")
+        PersistentEntity entity = mappingContext.addPersistentEntity(Baz)
+        EntityReflector reflector = entity.reflector
+        Baz baz = new Baz()
+
+        when:"properties are written"
+        reflector.setProperty(baz, 'title', 'test')
+        reflector.getPropertyWriter('count').write(baz, 10)
+
+        then:"the fields are written without invoking the setters"
+        reflector.getPropertyReader('title') instanceof FieldEntityAccess.FieldEntityReflector.MethodHandleReader
+        reflector.getPropertyWriter('title') instanceof FieldEntityAccess.FieldEntityReflector.MethodHandleWriter
+        baz.title == 'test'
+        baz.count == 10
+        baz.setterCalls == 0
+
+        and:"the properties can be read by name and by index"
+        reflector.getProperty(baz, 'title') == 'test'
+        reflector.getPropertyReader('count').read(baz) == 10
+        reflector.getProperty(baz, entity.persistentProperties.indexOf(entity.getPropertyByName('count'))) == 10
+    }
+
+    void "test writing a value of the wrong type fails with an IllegalArgumentException"() {
+        given:
+        MappingContext mappingContext = new KeyValueMappingContext("test")
+        PersistentEntity entity = mappingContext.addPersistentEntity(Baz)
+
+        when:
+        entity.reflector.getPropertyWriter('count').write(new Baz(), 'ten')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
 
 trait Foo {
@@ -27,3 +63,15 @@ trait Foo {
 class Bar implements Foo {
     String name
 }
+
+class Baz {
+    Long id
+    String title
+    int count
+    transient int setterCalls
+
+    void setTitle(String title) {
+        setterCalls++
+        this.title = title
+    }
+}
@@ -32,7 +32,7 @@ class AsyncQuery<E> implements PromiseDecoratorProvider {
     GormOperations<E> gormOperations
 
     /**
-     * Wraps each promise in a new persistence session
+     * Wraps each promise in a new persistence session, within the tenant context of the calling thread
      */
     private List<PromiseDecorator> decorators = [ { Closure callable ->
         return { args ->
@@ -40,7 +40,7 @@ class AsyncQuery<E> implements PromiseDecoratorProvider {
                 callable.call(*args)
             }
         }
-    } as PromiseDecorator ]
+    } as PromiseDecorator, new TenantContextPromiseDecorator() ]
 
     AsyncQuery(GormOperations<E> gormOperations) {
         this.gormOperations = gormOperations
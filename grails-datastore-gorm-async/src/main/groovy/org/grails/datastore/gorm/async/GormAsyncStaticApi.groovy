@@ -37,11 +37,11 @@ class GormAsyncStaticApi<D> implements PromiseDecoratorProvider {
     GormStaticOperations<D> staticApi
 
     /**
-     * Wraps each promise in a new persistence session
+     * Wraps each promise in a new persistence session, within the tenant context of the calling thread
      */
     private List<PromiseDecorator> decorators = [ { Closure callable ->
         return { args -> staticApi.withNewSession{ callable.call(*args) } }
-    } as PromiseDecorator ]
+    } as PromiseDecorator, new TenantContextPromiseDecorator() ]
 
     GormAsyncStaticApi(GormStaticApi<D> staticApi) {
         this.staticApi = staticApi
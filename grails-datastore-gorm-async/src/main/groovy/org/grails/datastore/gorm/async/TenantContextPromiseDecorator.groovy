@@ -0,0 +1,34 @@
+package org.grails.datastore.gorm.async
+
+import groovy.transform.CompileStatic
+
+import grails.async.decorator.PromiseDecorator
+
+import org.grails.datastore.mapping.multitenancy.TenantContext
+
+/**
+ * Binds the {@link TenantContext} of the thread that creates a promise to the thread that executes it
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+class TenantContextPromiseDecorator implements PromiseDecorator {
+
+    @Override
+    def <D> Closure<D> decorate(Closure<D> c) {
+        TenantContext tenantContext = TenantContext.current()
+        if (tenantContext == null) {
+            return c
+        }
+        return { Object[] args ->
+            TenantContext previous = TenantContext.bind(tenantContext)
+            try {
+                return c.call(args)
+            }
+            finally {
+                TenantContext.bind(previous)
+            }
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.grails.datastore.gorm.async
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import org.grails.datastore.mapping.multitenancy.TenantContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+class TenantContextPromiseDecoratorSpec extends Specification {
+
+    @AutoCleanup('shutdownNow')
+    ExecutorService executor = Executors.newSingleThreadExecutor()
+
+    void cleanup() {
+        TenantContext.bind(null)
+    }
+
+    void "test the context of the decorating thread is bound while the promise runs"() {
+        given:
+        TenantContext tenantContext = new TenantContext()
+        TenantContext.bind(tenantContext)
+        Closure<TenantContext> decorated = new TenantContextPromiseDecorator().decorate({ -> TenantContext.current() })
+
+        when:
+        TenantContext inPromise = executor.submit(decorated as Callable<TenantContext>).get()
+        TenantContext afterPromise = executor.submit({ TenantContext.current() } as Callable<TenantContext>).get()
+
+        then:
+        inPromise.is(tenantContext)
+        afterPromise == null
+    }
+
+    void "test the closure is not decorated without a context"() {
+        given:
+        Closure<Object> closure = { -> 'result' }
+
+        expect:
+        new TenantContextPromiseDecorator().decorate(closure).is(closure)
+    }
+}
@@ -7,6 +7,7 @@ import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.grails.datastore.mapping.core.connections.ConnectionSources
 import org.grails.datastore.mapping.multitenancy.AllTenantsResolver
 import org.grails.datastore.mapping.multitenancy.MultiTenancySettings
+import org.grails.datastore.mapping.multitenancy.TenantContext
 import org.grails.datastore.mapping.multitenancy.TenantResolver
 import org.grails.datastore.rx.RxDatastoreClient
 import org.grails.gorm.rx.api.RxGormEnhancer
@@ -52,7 +53,7 @@ class Tenants extends grails.gorm.multitenancy.Tenants {
             return tenantId
         }
         else {
-            return datastoreClient.getTenantResolver().resolveTenantIdentifier()
+            return TenantContext.resolveTenantIdentifier(datastoreClient.getTenantResolver())
         }
     }
 
@@ -68,7 +69,7 @@ class Tenants extends grails.gorm.multitenancy.Tenants {
         }
         else {
             def tenantResolver = datastore.getTenantResolver()
-            def tenantIdentifier = tenantResolver.resolveTenantIdentifier()
+            def tenantIdentifier = TenantContext.resolveTenantIdentifier(tenantResolver)
             log.debug "Resolved tenant id [$tenantIdentifier] from resolver [${tenantResolver.getClass().simpleName}]"
             return tenantIdentifier
         }
@@ -82,7 +83,7 @@ class Tenants extends grails.gorm.multitenancy.Tenants {
      */
     static <T> T withCurrent(@DelegatesTo(RxDatastoreClient) Closure<T> callable) {
         RxDatastoreClient datastoreClient = RxGormEnhancer.findSingleDatastoreClient()
-        def tenantIdentifier = datastoreClient.getTenantResolver().resolveTenantIdentifier()
+        def tenantIdentifier = TenantContext.resolveTenantIdentifier(datastoreClient.getTenantResolver())
         return withTenantIdInternal(datastoreClient, tenantIdentifier, callable)
     }
 
@@ -95,7 +96,7 @@ class Tenants extends grails.gorm.multitenancy.Tenants {
      */
     static <T> T withCurrent(Class<? extends RxDatastoreClient> datastoreClass, @DelegatesTo(RxDatastoreClient) Closure<T> callable) {
         RxDatastoreClient datastoreClient = RxGormEnhancer.findDatastoreClientByType(datastoreClass)
-        def tenantIdentifier = datastoreClient.getTenantResolver().resolveTenantIdentifier()
+        def tenantIdentifier = TenantContext.resolveTenantIdentifier(datastoreClient.getTenantResolver())
         return withTenantIdInternal(datastoreClient, tenantIdentifier, callable)
     }
 
@@ -142,8 +143,7 @@ class Tenants extends grails.gorm.multitenancy.Tenants {
         MultiTenancySettings.MultiTenancyMode multiTenancyMode = datastoreClient.multiTenancyMode
         ConnectionSources connectionSources = datastoreClient.connectionSources
         if (multiTenancyMode == MultiTenancySettings.MultiTenancyMode.DATABASE) {
-            for (ConnectionSource connectionSource in connectionSources.allConnectionSources) {
-                def tenantId = connectionSource.name
+            for (String tenantId in connectionSources.allConnectionSourceNames) {
                 if (tenantId != ConnectionSource.DEFAULT) {
                     withTenantIdInternal(datastoreClient, tenantId, callable)
                 }
@@ -46,6 +46,7 @@ import org.grails.datastore.mapping.reflect.EntityReflector
 import org.grails.datastore.mapping.validation.ValidatorRegistry
 import org.grails.datastore.rx.batch.BatchOperation
 import org.grails.datastore.rx.internal.RxDatastoreClientImplementor
+import org.grails.datastore.rx.multitenancy.TenantContextScheduleHook
 import org.grails.datastore.rx.proxy.ProxyFactory
 import org.grails.datastore.rx.proxy.RxJavassistProxyFactory
 import org.grails.datastore.rx.query.QueryState
@@ -88,6 +89,9 @@ abstract class AbstractRxDatastoreClient<T> implements RxDatastoreClient<T>, RxD
         if (this.tenantResolver instanceof RxDatastoreClientAware) {
             ((RxDatastoreClientAware) tenantResolver).setRxDatastoreClient(this)
         }
+        if (this.multiTenancyMode != MultiTenancySettings.MultiTenancyMode.NONE) {
+            TenantContextScheduleHook.install()
+        }
         this.mappingContext.setValidatorRegistry(
                 createValidatorRegistry()
         )
@@ -0,0 +1,53 @@
+package org.grails.datastore.rx.multitenancy
+
+import groovy.transform.CompileStatic
+import rx.functions.Action0
+import rx.functions.Func1
+import rx.plugins.RxJavaHooks
+
+import org.grails.datastore.mapping.multitenancy.TenantContext
+
+/**
+ * A schedule hook that binds the {@link TenantContext} of the thread that schedules an action to the thread of
+ * the scheduler that runs it. Any previously installed hook is applied first.
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+class TenantContextScheduleHook implements Func1<Action0, Action0> {
+
+    private final Func1<Action0, Action0> previousHook
+
+    TenantContextScheduleHook(Func1<Action0, Action0> previousHook) {
+        this.previousHook = previousHook
+    }
+
+    @Override
+    Action0 call(Action0 action) {
+        Action0 scheduled = previousHook != null ? previousHook.call(action) : action
+        TenantContext tenantContext = TenantContext.current()
+        if (tenantContext == null) {
+            return scheduled
+        }
+        return {
+            TenantContext previous = TenantContext.bind(tenantContext)
+            try {
+                scheduled.call()
+            }
+            finally {
+                TenantContext.bind(previous)
+            }
+        } as Action0
+    }
+
+    /**
+     * Installs the hook into {@link RxJavaHooks}, unless it is already installed
+     */
+    static synchronized void install() {
+        Func1<Action0, Action0> current = RxJavaHooks.getOnScheduleAction()
+        if (!(current instanceof TenantContextScheduleHook)) {
+            RxJavaHooks.setOnScheduleAction(new TenantContextScheduleHook(current))
+        }
+    }
+
+}
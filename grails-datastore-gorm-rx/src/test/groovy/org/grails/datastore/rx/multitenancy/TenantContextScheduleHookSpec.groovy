@@ -0,0 +1,61 @@
+package org.grails.datastore.rx.multitenancy
+
+import org.grails.datastore.mapping.multitenancy.TenantContext
+import rx.Observable
+import rx.functions.Action0
+import rx.functions.Func1
+import rx.plugins.RxJavaHooks
+import rx.schedulers.Schedulers
+import spock.lang.Specification
+
+class TenantContextScheduleHookSpec extends Specification {
+
+    Func1<Action0, Action0> previousHook = RxJavaHooks.getOnScheduleAction()
+
+    void cleanup() {
+        TenantContext.bind(null)
+        RxJavaHooks.setOnScheduleAction(previousHook)
+    }
+
+    void "test scheduled actions run with the context of the scheduling thread"() {
+        given:
+        TenantContextScheduleHook.install()
+        TenantContext tenantContext = new TenantContext()
+        TenantContext.bind(tenantContext)
+
+        when:
+        TenantContext scheduled = Observable.fromCallable { TenantContext.current() }
+                .subscribeOn(Schedulers.newThread())
+                .toBlocking()
+                .first()
+
+        then:
+        scheduled.is(tenantContext)
+    }
+
+    void "test the hook is installed once and applies the previous hook first"() {
+        given:
+        List<String> calls = []
+        RxJavaHooks.setOnScheduleAction({ Action0 action ->
+            return { calls << 'previous'; action.call() } as Action0
+        } as Func1<Action0, Action0>)
+
+        when:
+        TenantContextScheduleHook.install()
+        TenantContextScheduleHook.install()
+        TenantContext.bind(new TenantContext())
+        RxJavaHooks.getOnScheduleAction().call({ calls << 'action' } as Action0).call()
+
+        then:
+        RxJavaHooks.getOnScheduleAction() instanceof TenantContextScheduleHook
+        calls == ['previous', 'action']
+    }
+
+    void "test actions scheduled without a context are not wrapped"() {
+        given:
+        Action0 action = { } as Action0
+
+        expect:
+        new TenantContextScheduleHook(null).call(action).is(action)
+    }
+}
@@ -15,10 +15,10 @@
 package org.grails.datastore.mapping.simple;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -30,11 +30,14 @@ import org.grails.datastore.gorm.GormValidationApi;
 import org.grails.datastore.gorm.events.*;
 import org.grails.datastore.gorm.multitenancy.MultiTenantEventListener;
 import org.grails.datastore.gorm.utils.ClasspathEntityScanner;
+import org.grails.datastore.mapping.cache.impl.MappedTPCacheAdapterRepository;
+import org.grails.datastore.mapping.cache.impl.TPCacheAdapterRepositoryImpl;
 import org.grails.datastore.mapping.config.Settings;
 import org.grails.datastore.mapping.core.AbstractDatastore;
 import org.grails.datastore.mapping.core.Datastore;
 import org.grails.datastore.mapping.core.DatastoreUtils;
 import org.grails.datastore.mapping.core.Session;
+import org.grails.datastore.mapping.core.cache.SessionCacheType;
 import org.grails.datastore.mapping.core.connections.*;
 import org.grails.datastore.mapping.core.exceptions.ConfigurationException;
 import org.grails.datastore.mapping.keyvalue.mapping.config.KeyValueMappingContext;
@@ -43,7 +46,10 @@ import org.grails.datastore.mapping.model.PersistentEntity;
 import org.grails.datastore.mapping.multitenancy.MultiTenancySettings;
 import org.grails.datastore.mapping.multitenancy.SchemaMultiTenantCapableDatastore;
 import org.grails.datastore.mapping.multitenancy.TenantResolver;
+import org.grails.datastore.mapping.query.cache.QueryResultCache;
 import org.grails.datastore.mapping.simple.connections.SimpleMapConnectionSourceFactory;
+import org.grails.datastore.mapping.simple.engine.SegmentStore;
+import org.grails.datastore.mapping.simple.engine.SimpleMapIndexes;
 import org.grails.datastore.mapping.transactions.DatastoreTransactionManager;
 import org.grails.datastore.mapping.transactions.TransactionCapableDatastore;
 import org.springframework.context.ApplicationEventPublisher;
@@ -60,22 +66,47 @@ import org.springframework.transaction.PlatformTransactionManager;
  */
 @SuppressWarnings("rawtypes")
 public class SimpleMapDatastore extends AbstractDatastore implements Closeable, TransactionCapableDatastore, MultipleConnectionSourceCapableDatastore, SchemaMultiTenantCapableDatastore<Map<String,Map>, ConnectionSourceSettings>, ConnectionSourcesProvider<Map<String,Map>, ConnectionSourceSettings> {
+    /**
+     * The number of entries of a family from which queries filter, sort and aggregate them in parallel. Parallel
+     * execution is disabled if the value is not positive.
+     */
+    public static final String SETTING_PARALLEL_QUERY_THRESHOLD = Settings.PREFIX + '.' + "simpleMap.parallelQueryThreshold";
+    public static final int DEFAULT_PARALLEL_QUERY_THRESHOLD = 100000;
+    /**
+     * The directory to store the data in durable segment files, see {@link SegmentStore}. The data is kept in memory
+     * if it is not set.
+     */
+    public static final String SETTING_STORAGE_DIRECTORY = Settings.PREFIX + '.' + "simpleMap.storage.directory";
+    /**
+     * The size of the segment files in bytes
+     */
+    public static final String SETTING_STORAGE_SEGMENT_SIZE = Settings.PREFIX + '.' + "simpleMap.storage.segmentSize";
+
     private final Map<String, Map> inmemoryData;
     private final TenantResolver tenantResolver;
     protected final GormEnhancer gormEnhancer;
     private final ConfigurableApplicationEventPublisher eventPublisher;
-    private Map indices = new ConcurrentHashMap();
+    private final Map indices;
+    private final SimpleMapIndexes secondaryIndexes = new SimpleMapIndexes();
     private final PlatformTransactionManager transactionManager;
     private final ConnectionSources<Map<String,Map>, ConnectionSourceSettings> connectionSources;
     private final MultiTenancySettings.MultiTenancyMode multiTenancyMode;
-    protected final Map<String, SimpleMapDatastore> datastoresByConnectionSource = new LinkedHashMap<>();
+    protected final Map<String, SimpleMapDatastore> datastoresByConnectionSource = new ConcurrentHashMap<>();
     protected final boolean failOnError;
+    protected final int pendingOperationsFlushThreshold;
+    protected final SessionCacheType sessionCacheType;
+    protected final int sessionCacheMaxSize;
+    protected final int parallelQueryThreshold;
+
+    private static final String INDICES_FAMILY = "~indices";
 
     public SimpleMapDatastore(ConnectionSources<Map<String,Map>, ConnectionSourceSettings> connectionSources, MappingContext mappingContext, ConfigurableApplicationEventPublisher eventPublisher) {
-        super(mappingContext);
+        super(mappingContext, (PropertyResolver) null, null, new MappedTPCacheAdapterRepository<Map>());
         this.connectionSources = connectionSources;
         ConnectionSource<Map<String, Map>, ConnectionSourceSettings> defaultConnectionSource = connectionSources.getDefaultConnectionSource();
         this.inmemoryData = defaultConnectionSource.getSource();
+        // a durable store keeps the identity and association indexes together with the entries
+        this.indices = inmemoryData instanceof SegmentStore ? inmemoryData.get(INDICES_FAMILY) : new ConcurrentHashMap();
         DatastoreTransactionManager dtm = new DatastoreTransactionManager();
         dtm.setDatastore(this);
         this.transactionManager = dtm;
@@ -84,28 +115,36 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
         this.tenantResolver = multiTenancy.getTenantResolver();
         PropertyResolver config = connectionSources.getBaseConfiguration();
         this.failOnError = config.getProperty(Settings.SETTING_FAIL_ON_ERROR, Boolean.class, false);
-        if(!(connectionSources instanceof SingletonConnectionSources)) {
+        this.parallelQueryThreshold = config.getProperty(SETTING_PARALLEL_QUERY_THRESHOLD, Integer.class, DEFAULT_PARALLEL_QUERY_THRESHOLD);
+        this.pendingOperationsFlushThreshold = defaultConnectionSource.getSettings().getPendingOperations().getFlushThreshold();
+        this.sessionCacheType = defaultConnectionSource.getSettings().getSessionCache().getType();
+        this.sessionCacheMaxSize = defaultConnectionSource.getSettings().getSessionCache().getMaxSize();
+        this.queryResultCache = new QueryResultCache(defaultConnectionSource.getSettings().getQueryCache().getMaxSize());
+        this.eventPublisher = eventPublisher;
+        if(connectionSources instanceof LazyConnectionSources) {
+            // the child datastores are created together with their connection source, see getDatastoreForConnection
+            datastoresByConnectionSource.put(ConnectionSource.DEFAULT, this);
+            connectionSources.addListener(new ConnectionSourcesEvictionListener<Map<String, Map>, ConnectionSourceSettings>() {
+                @Override
+                public void newConnectionSource(ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource) {
+                    // created once it is used
+                }
+
+                @Override
+                public void connectionSourceEvicted(ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource) {
+                    datastoresByConnectionSource.computeIfPresent(connectionSource.getName(), (name, childDatastore) ->
+                            childDatastore.getConnectionSources().getDefaultConnectionSource() == connectionSource ? null : childDatastore
+                    );
+                }
+            });
+        }
+        else if(!(connectionSources instanceof SingletonConnectionSources)) {
 
             Iterable<ConnectionSource<Map<String,Map>, ConnectionSourceSettings>> allConnectionSources = connectionSources.getAllConnectionSources();
             for (ConnectionSource<Map<String,Map>, ConnectionSourceSettings> connectionSource : allConnectionSources) {
-                SingletonConnectionSources singletonConnectionSources = new SingletonConnectionSources(connectionSource, connectionSources.getBaseConfiguration());
-                SimpleMapDatastore childDatastore;
-
-                if(ConnectionSource.DEFAULT.equals(connectionSource.getName())) {
-                    childDatastore = this;
-                }
-                else {
-                    childDatastore = new SimpleMapDatastore(singletonConnectionSources, mappingContext, eventPublisher) {
-                        @Override
-                        protected GormEnhancer initialize(ConnectionSourceSettings settings) {
-                            return null;
-                        }
-                    };
-                }
-                datastoresByConnectionSource.put(connectionSource.getName(), childDatastore);
+                datastoresByConnectionSource.put(connectionSource.getName(), createChildDatastore(connectionSource));
             }
         }
-        this.eventPublisher = eventPublisher;
         this.gormEnhancer = initialize(defaultConnectionSource.getSettings());
     }
 
@@ -114,7 +153,7 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
     }
 
     public SimpleMapDatastore(PropertyResolver configuration, ConfigurableApplicationEventPublisher eventPublisher, Class...classes) {
-        this(ConnectionSourcesInitializer.create(new SimpleMapConnectionSourceFactory(), configuration), eventPublisher, classes);
+        this(ConnectionSourcesInitializer.create(createConnectionSourceFactory(configuration), configuration), eventPublisher, classes);
     }
 
     public SimpleMapDatastore() {
@@ -195,10 +234,24 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
         return ctx;
     }
 
-    protected static InMemoryConnectionSources<Map<String, Map>, ConnectionSourceSettings> createMultipleDataSources(final Iterable<String> dataSourceNames, PropertyResolver propertyResolver) {
-        SimpleMapConnectionSourceFactory simpleMapConnectionSourceFactory = new SimpleMapConnectionSourceFactory();
+    protected static ConnectionSources<Map<String, Map>, ConnectionSourceSettings> createMultipleDataSources(final Iterable<String> dataSourceNames, PropertyResolver propertyResolver) {
+        SimpleMapConnectionSourceFactory simpleMapConnectionSourceFactory = createConnectionSourceFactory(propertyResolver);
+        ConnectionSource<Map<String, Map>, ConnectionSourceSettings> defaultConnectionSource = simpleMapConnectionSourceFactory.create(ConnectionSource.DEFAULT, propertyResolver);
+        Class<ConnectionSources> connectionSourcesClass = defaultConnectionSource.getSettings().getConnectionSourcesClass();
+        if (connectionSourcesClass != null && LazyConnectionSources.class.isAssignableFrom(connectionSourcesClass)) {
+            return new LazyConnectionSources<Map<String, Map>, ConnectionSourceSettings>(
+                    defaultConnectionSource,
+                    simpleMapConnectionSourceFactory,
+                    propertyResolver
+            ) {
+                @Override
+                protected Iterable<String> getConnectionSourceNames(ConnectionSourceFactory<Map<String, Map>, ConnectionSourceSettings> connectionSourceFactory, PropertyResolver configuration) {
+                    return dataSourceNames;
+                }
+            };
+        }
         return new InMemoryConnectionSources<Map<String, Map>, ConnectionSourceSettings>(
-                simpleMapConnectionSourceFactory.create(ConnectionSource.DEFAULT, propertyResolver),
+                defaultConnectionSource,
                 simpleMapConnectionSourceFactory,
                 propertyResolver
         ) {
@@ -209,6 +262,16 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
         };
     }
 
+    protected static SimpleMapConnectionSourceFactory createConnectionSourceFactory(PropertyResolver configuration) {
+        SimpleMapConnectionSourceFactory connectionSourceFactory = new SimpleMapConnectionSourceFactory();
+        String storageDirectory = configuration.getProperty(SETTING_STORAGE_DIRECTORY);
+        if (storageDirectory != null) {
+            connectionSourceFactory.setStorageDirectory(new File(storageDirectory));
+            connectionSourceFactory.setSegmentSize(configuration.getProperty(SETTING_STORAGE_SEGMENT_SIZE, Integer.class, SegmentStore.DEFAULT_SEGMENT_SIZE));
+        }
+        return connectionSourceFactory;
+    }
+
     protected GormEnhancer initialize(ConnectionSourceSettings settings) {
         registerEventListeners(this.eventPublisher);
 
@@ -255,7 +318,7 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
                     if(connectionSource == null) {
                         throw new ConfigurationException("Invalid connection ["+defaultConnectionSourceName+"] configured for class ["+cls+"]");
                     }
-                    return SimpleMapDatastore.this.datastoresByConnectionSource.get(qualifier);
+                    return (SimpleMapDatastore) SimpleMapDatastore.this.getDatastoreForConnection(qualifier);
                 }
             }
         };
@@ -273,9 +336,31 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
         return indices;
     }
 
+    /**
+     * @return The secondary indexes used to answer queries
+     */
+    public SimpleMapIndexes getSecondaryIndexes() {
+        return secondaryIndexes;
+    }
+
+    /**
+     * @return The number of entries of a family from which queries are executed in parallel
+     */
+    public int getParallelQueryThreshold() {
+        return parallelQueryThreshold;
+    }
+
     @Override
     protected Session createSession(PropertyResolver connectionDetails) {
-        return new SimpleMapSession(this, getMappingContext(), eventPublisher);
+        SimpleMapSession session = new SimpleMapSession(this, getMappingContext(), eventPublisher);
+        session.setPendingOperationsFlushThreshold(pendingOperationsFlushThreshold);
+        if (sessionCacheMaxSize > 0) {
+            session.useBoundedFirstLevelCache(sessionCacheMaxSize);
+        }
+        else if (sessionCacheType != null && sessionCacheType != SessionCacheType.CONCURRENT) {
+            session.setFirstLevelCache(sessionCacheType.createCache());
+        }
+        return session;
     }
 
     @Override
@@ -290,6 +375,11 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
     public void clearData() {
         inmemoryData.clear();
         indices.clear();
+        secondaryIndexes.clear();
+        if (cacheAdapterRepository instanceof TPCacheAdapterRepositoryImpl) {
+            ((TPCacheAdapterRepositoryImpl) cacheAdapterRepository).clear();
+        }
+        queryResultCache.clear();
     }
 
     @Override
@@ -325,7 +415,25 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
 
     @Override
     public <T1> T1 withNewSession(Serializable tenantId, Closure<T1> callable) {
-        Datastore datastore = getDatastoreForTenantId(tenantId);
+        if(connectionSources instanceof LazyConnectionSources && tenantId != null && multiTenancyMode != MultiTenancySettings.MultiTenancyMode.DISCRIMINATOR) {
+            // the connection source of the tenant is not closed while the session uses it, even if it is evicted meanwhile
+            LazyConnectionSources<Map<String, Map>, ConnectionSourceSettings> lazyConnectionSources =
+                    (LazyConnectionSources<Map<String, Map>, ConnectionSourceSettings>) connectionSources;
+            ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource = lazyConnectionSources.acquireConnectionSource(tenantId.toString());
+            if(connectionSource == null) {
+                throw new ConfigurationException("No datastore found for connection named ["+tenantId+"]");
+            }
+            try {
+                return withBoundSession(getDatastoreOnDemand(connectionSource), callable);
+            }
+            finally {
+                lazyConnectionSources.releaseConnectionSource(connectionSource);
+            }
+        }
+        return withBoundSession(getDatastoreForTenantId(tenantId), callable);
+    }
+
+    private <T1> T1 withBoundSession(Datastore datastore, Closure<T1> callable) {
         org.grails.datastore.mapping.core.Session session = datastore.connect();
         try {
             DatastoreUtils.bindNewSession(session);
@@ -339,13 +447,47 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
     @Override
     public Datastore getDatastoreForConnection(String connectionName) {
 
-        SimpleMapDatastore childDatastore = datastoresByConnectionSource.get(connectionName);
+        SimpleMapDatastore childDatastore = connectionSources instanceof LazyConnectionSources ?
+                getDatastoreOnDemand(connectionName) : datastoresByConnectionSource.get(connectionName);
         if(childDatastore == null) {
             throw new ConfigurationException("No datastore found for connection named ["+connectionName+"]");
         }
         return childDatastore;
     }
 
+    /**
+     * Obtains the child datastore of a connection source created on demand, creating it if the connection source is new
+     * or was evicted and created again since
+     */
+    private SimpleMapDatastore getDatastoreOnDemand(String connectionName) {
+        ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource = connectionSources.getConnectionSource(connectionName);
+        return connectionSource != null ? getDatastoreOnDemand(connectionSource) : null;
+    }
+
+    private SimpleMapDatastore getDatastoreOnDemand(ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource) {
+        String connectionName = connectionSource.getName();
+        SimpleMapDatastore childDatastore = datastoresByConnectionSource.get(connectionName);
+        if(childDatastore != null && childDatastore.getConnectionSources().getDefaultConnectionSource() == connectionSource) {
+            return childDatastore;
+        }
+        return datastoresByConnectionSource.compute(connectionName, (name, existing) ->
+                existing != null && existing.getConnectionSources().getDefaultConnectionSource() == connectionSource ? existing : createChildDatastore(connectionSource)
+        );
+    }
+
+    protected SimpleMapDatastore createChildDatastore(ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource) {
+        if(ConnectionSource.DEFAULT.equals(connectionSource.getName())) {
+            return this;
+        }
+        SingletonConnectionSources singletonConnectionSources = new SingletonConnectionSources(connectionSource, connectionSources.getBaseConfiguration());
+        return new SimpleMapDatastore(singletonConnectionSources, mappingContext, eventPublisher) {
+            @Override
+            protected GormEnhancer initialize(ConnectionSourceSettings settings) {
+                return null;
+            }
+        };
+    }
+
     @Override
     public void close() throws IOException {
         try {
@@ -354,26 +496,13 @@ public class SimpleMapDatastore extends AbstractDatastore implements Closeable,
             throw new IOException(e);
         }
         gormEnhancer.close();
+        connectionSources.close();
     }
 
     @Override
     public void addTenantForSchema(String schemaName) {
         ConnectionSource<Map<String, Map>, ConnectionSourceSettings> connectionSource = this.connectionSources.addConnectionSource(schemaName, Collections.<String, Object>emptyMap());
-        SingletonConnectionSources singletonConnectionSources = new SingletonConnectionSources(connectionSource, connectionSources.getBaseConfiguration());
-        SimpleMapDatastore childDatastore;
-
-        if(ConnectionSource.DEFAULT.equals(connectionSource.getName())) {
-            childDatastore = this;
-        }
-        else {
-            childDatastore = new SimpleMapDatastore(singletonConnectionSources, mappingContext, eventPublisher) {
-                @Override
-                protected GormEnhancer initialize(ConnectionSourceSettings settings) {
-                    return null;
-                }
-            };
-        }
-        datastoresByConnectionSource.put(connectionSource.getName(), childDatastore);
+        datastoresByConnectionSource.put(connectionSource.getName(), createChildDatastore(connectionSource));
 
         for (PersistentEntity persistentEntity : mappingContext.getPersistentEntities()) {
             gormEnhancer.registerEntity(persistentEntity);
@@ -37,7 +37,7 @@ public class SimpleMapSession extends AbstractSession<Map> {
 
     public SimpleMapSession(SimpleMapDatastore datastore, MappingContext mappingContext,
                ApplicationEventPublisher publisher) {
-        super(datastore, mappingContext, publisher);
+        super(datastore, mappingContext, publisher, datastore.getCacheAdapterRepository());
         this.datastore = datastore.getBackingMap();
     }
 
@@ -53,7 +53,7 @@ public class SimpleMapSession extends AbstractSession<Map> {
             return null;
         }
         return new SimpleMapEntityPersister(mappingContext, entity, this,
-            (SimpleMapDatastore) getDatastore(), publisher);
+            (SimpleMapDatastore) getDatastore(), publisher, cacheAdapterRepository);
     }
 
     public Map<String, Map> getBackingMap() {
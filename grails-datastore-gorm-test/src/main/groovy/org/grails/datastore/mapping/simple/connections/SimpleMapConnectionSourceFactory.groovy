@@ -2,6 +2,7 @@ package org.grails.datastore.mapping.simple.connections
 
 import groovy.transform.CompileStatic
 import org.grails.datastore.mapping.core.connections.*
+import org.grails.datastore.mapping.simple.engine.SegmentStore
 import org.springframework.core.env.PropertyResolver
 
 import java.util.concurrent.ConcurrentHashMap
@@ -9,14 +10,45 @@ import java.util.concurrent.ConcurrentHashMap
 /**
  * Simple implementation that just builds {@link ConnectionSource} instances from Maps
  *
+ * <p>If a storage directory is set the data of each connection source is stored durably in a {@link SegmentStore}
+ * instead of in memory.</p>
+ *
  * @author Graeme Rocher
  * @since 6.0
  */
 @CompileStatic
 class SimpleMapConnectionSourceFactory extends AbstractConnectionSourceFactory<Map<String,Map>, ConnectionSourceSettings> {
+
+    /**
+     * The directory to store the data in or null to keep the data in memory. The data of a connection source other
+     * than the default one is stored in a sub directory named after it.
+     */
+    File storageDirectory
+
+    /**
+     * The size of the segment files in bytes
+     */
+    int segmentSize = SegmentStore.DEFAULT_SEGMENT_SIZE
+
+    SimpleMapConnectionSourceFactory() {
+    }
+
+    SimpleMapConnectionSourceFactory(File storageDirectory, int segmentSize = SegmentStore.DEFAULT_SEGMENT_SIZE) {
+        this.storageDirectory = storageDirectory
+        this.segmentSize = segmentSize
+    }
+
     @Override
     ConnectionSource<Map<String, Map>, ConnectionSourceSettings> create(String name, ConnectionSourceSettings settings) {
-        return new DefaultConnectionSource<Map<String,Map>, ConnectionSourceSettings>(name, new ConcurrentHashMap<String, Map>(), settings)
+        Map<String, Map> source
+        if (storageDirectory != null) {
+            File directory = ConnectionSource.DEFAULT == name ? storageDirectory : new File(storageDirectory, name)
+            source = new SegmentStore(directory, segmentSize, SegmentStore.DEFAULT_COMPACTION_RATIO)
+        }
+        else {
+            source = new ConcurrentHashMap<String, Map>()
+        }
+        return new DefaultConnectionSource<Map<String,Map>, ConnectionSourceSettings>(name, source, settings)
     }
     @Override
     Serializable getConnectionSourcesConfigurationKey() {
@@ -0,0 +1,777 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.simple.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * A durable backing map for {@link org.grails.datastore.mapping.simple.SimpleMapDatastore} that keeps the entries of
+ * each family in memory-mapped, append-only segment files.
+ *
+ * <p>Every write appends a record to the active segment and updates an in-memory directory that maps the key of each
+ * entry to the location of its latest value, so reading an entry deserializes it straight from the mapped segment.
+ * The records are checksummed and the directory is rebuilt by replaying the segments when the store is opened,
+ * stopping at the first incomplete record of a segment. When a segment is full and most of the records in the
+ * segments have been overwritten or deleted, the live records are compacted into new segments. Compaction also writes
+ * the highest numeric key of each family, so that identifiers are not reused after the entry that had them was deleted
+ * and compacted away.</p>
+ *
+ * <p>Keys and values are stored with Java serialization, so they have to be {@link java.io.Serializable}. The
+ * {@code put} and {@code remove} methods of the family maps return {@code null} rather than the previous value, which
+ * would have to be read back from the segments. The mapped segments are written to disk by the operating system or
+ * when the store is {@link #force() forced} or closed.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class SegmentStore extends AbstractMap<String, Map> implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    public static final double DEFAULT_COMPACTION_RATIO = 0.5d;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("\\d+" + Pattern.quote(SEGMENT_SUFFIX));
+
+    private static final Pattern NUMERIC_KEY = Pattern.compile("\\d{1,18}");
+
+    // the length and the checksum of the payload
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final byte HIGHEST_KEY = 3;
+
+    private static final byte[] NO_VALUE = new byte[0];
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    private final double compactionRatio;
+
+    private final ClassLoader classLoader;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final Map<String, FamilyMap> families = new LinkedHashMap<>();
+
+    private Segment active;
+
+    private long nextSegmentNumber;
+
+    private long totalBytes;
+
+    private long liveBytes;
+
+    private boolean closed;
+
+    public SegmentStore(File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_RATIO);
+    }
+
+    /**
+     * Opens the store in the given directory, replaying the segments it contains
+     *
+     * @param directory The directory of the segment files
+     * @param segmentSize The size of a segment file in bytes
+     * @param compactionRatio The ratio of live bytes to all bytes in the segments below which they are compacted
+     */
+    public SegmentStore(File directory, int segmentSize, double compactionRatio) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionRatio = compactionRatio;
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        this.classLoader = contextClassLoader != null ? contextClassLoader : SegmentStore.class.getClassLoader();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new DataAccessResourceFailureException("Cannot create the storage directory [" + directory + "]");
+        }
+        try {
+            open();
+        }
+        catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot open the segments in [" + directory + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return The directory of the segment files
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return The number of segment files
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized FamilyMap get(Object family) {
+        return family instanceof String ? family((String) family) : null;
+    }
+
+    /**
+     * Replaces the entries of the family with the given entries
+     *
+     * @return Always {@code null}
+     */
+    @Override
+    public synchronized Map put(String family, Map entries) {
+        FamilyMap familyMap = family(family);
+        if (entries != familyMap) {
+            familyMap.clear();
+            familyMap.putAll(entries);
+        }
+        return null;
+    }
+
+    /**
+     * Removes all entries of the family
+     *
+     * @return Always {@code null}
+     */
+    @Override
+    public synchronized Map remove(Object family) {
+        FamilyMap familyMap = families.get(family);
+        if (familyMap != null) {
+            familyMap.clear();
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object family) {
+        return families.containsKey(family);
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<String, Map>> entrySet() {
+        Map families = new LinkedHashMap<>(this.families);
+        return Collections.unmodifiableMap((Map<String, Map>) families).entrySet();
+    }
+
+    /**
+     * Removes all entries of all families and deletes the segment files
+     */
+    @Override
+    public synchronized void clear() {
+        checkOpen();
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        segments.clear();
+        for (FamilyMap family : families.values()) {
+            family.locations.clear();
+            family.highestKey = 0;
+        }
+        totalBytes = 0;
+        liveBytes = 0;
+        active = newSegment(segmentSize);
+    }
+
+    /**
+     * Writes the active segment to disk
+     */
+    public synchronized void force() {
+        if (!closed) {
+            active.buffer.force();
+        }
+    }
+
+    /**
+     * Rewrites the live records into new segments and deletes the current segments
+     */
+    public synchronized void compact() {
+        checkOpen();
+        List<Segment> previous = new ArrayList<>(segments);
+        segments.clear();
+        totalBytes = 0;
+        liveBytes = 0;
+        active = newSegment(segmentSize);
+        for (FamilyMap family : families.values()) {
+            if (family.highestKey > 0) {
+                Long highestKey = family.highestKey;
+                Location location = append(HIGHEST_KEY, family.name.getBytes(StandardCharsets.UTF_8),
+                        serialize(family, highestKey, highestKey), NO_VALUE);
+                totalBytes += location.recordLength;
+                liveBytes += location.recordLength;
+            }
+            for (Map.Entry<Object, Location> entry : family.locations.entrySet()) {
+                Location location = entry.getValue();
+                ensureRemaining(location.recordLength);
+                entry.setValue(copy(location));
+            }
+        }
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        for (Segment segment : previous) {
+            segment.delete();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.close();
+        }
+    }
+
+    private FamilyMap family(String name) {
+        FamilyMap family = families.get(name);
+        if (family == null) {
+            family = new FamilyMap(name);
+            families.put(name, family);
+        }
+        return family;
+    }
+
+    private void open() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_NAME.matcher(name).matches());
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(SegmentStore::segmentNumber));
+            for (File file : files) {
+                Segment segment = Segment.open(file, segmentNumber(file), (int) file.length());
+                segments.add(segment);
+                nextSegmentNumber = segment.number + 1;
+                replay(segment);
+            }
+        }
+        active = segments.isEmpty() ? newSegment(segmentSize) : segments.get(segments.size() - 1);
+    }
+
+    private void replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - HEADER_SIZE ||
+                    checksum(segment.slice(position + HEADER_SIZE, length)) != buffer.getInt(position + 4)) {
+                break;
+            }
+            ByteBuffer payload = segment.slice(position + HEADER_SIZE, length);
+            byte operation = payload.get();
+            byte[] familyBytes = new byte[payload.getInt()];
+            payload.get(familyBytes);
+            int keyLength = payload.getInt();
+            Object key = deserialize(segment.slice(position + HEADER_SIZE + payload.position(), keyLength));
+            int valueOffset = position + HEADER_SIZE + payload.position() + keyLength;
+            Location location = new Location(segment, position, HEADER_SIZE + length, valueOffset, position + HEADER_SIZE + length - valueOffset);
+            FamilyMap family = family(new String(familyBytes, StandardCharsets.UTF_8));
+            if (operation == HIGHEST_KEY) {
+                // written by the last compaction, it stays live until the next one writes it again
+                totalBytes += location.recordLength;
+                liveBytes += location.recordLength;
+                family.updateHighestKey(key);
+            }
+            else {
+                apply(family, key, operation == PUT ? location : null, location.recordLength);
+            }
+            position += HEADER_SIZE + length;
+        }
+        segment.position = position;
+    }
+
+    private void write(FamilyMap family, Object key, Object value) {
+        byte[] familyBytes = family.name.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = serialize(family, key, key);
+        byte[] valueBytes = value != null ? serialize(family, key, value) : NO_VALUE;
+        synchronized (this) {
+            Location location = append(value != null ? PUT : DELETE, familyBytes, keyBytes, valueBytes);
+            apply(family, key, value != null ? location : null, location.recordLength);
+        }
+    }
+
+    private Location append(byte operation, byte[] familyBytes, byte[] keyBytes, byte[] valueBytes) {
+        checkOpen();
+        int length = 1 + 4 + familyBytes.length + 4 + keyBytes.length + valueBytes.length;
+        ensureRemaining(HEADER_SIZE + length);
+
+        Segment segment = active;
+        int position = segment.position;
+        ByteBuffer out = segment.buffer.duplicate();
+        out.position(position + HEADER_SIZE);
+        out.put(operation)
+                .putInt(familyBytes.length).put(familyBytes)
+                .putInt(keyBytes.length).put(keyBytes)
+                .put(valueBytes);
+        // the length is written last, a record without it is ignored when the segment is replayed
+        segment.buffer.putInt(position + 4, checksum(segment.slice(position + HEADER_SIZE, length)));
+        segment.buffer.putInt(position, length);
+        segment.position = position + HEADER_SIZE + length;
+
+        int valueOffset = segment.position - valueBytes.length;
+        return new Location(segment, position, HEADER_SIZE + length, valueOffset, valueBytes.length);
+    }
+
+    private void apply(FamilyMap family, Object key, Location location, int recordLength) {
+        totalBytes += recordLength;
+        Location previous = location != null ? family.locations.put(key, location) : family.locations.remove(key);
+        if (previous != null) {
+            liveBytes -= previous.recordLength;
+        }
+        if (location != null) {
+            liveBytes += recordLength;
+            family.updateHighestKey(key);
+        }
+    }
+
+    private void ensureRemaining(int recordLength) {
+        if (active.remaining() >= recordLength) {
+            return;
+        }
+        if (segments.size() > 1 && liveBytes < totalBytes * compactionRatio) {
+            compact();
+        }
+        if (active.remaining() < recordLength) {
+            active = newSegment(Math.max(segmentSize, recordLength));
+        }
+    }
+
+    private Location copy(Location location) {
+        Segment segment = active;
+        int position = segment.position;
+        ByteBuffer out = segment.buffer.duplicate();
+        out.position(position);
+        out.put(location.segment.slice(location.offset, location.recordLength));
+        segment.position = position + location.recordLength;
+        totalBytes += location.recordLength;
+        liveBytes += location.recordLength;
+        return new Location(segment, position, location.recordLength, position + location.valueOffset - location.offset, location.valueLength);
+    }
+
+    private Segment newSegment(int size) {
+        File file = new File(directory, String.format("%016d%s", nextSegmentNumber, SEGMENT_SUFFIX));
+        try {
+            Segment segment = Segment.open(file, nextSegmentNumber++, size);
+            segments.add(segment);
+            return segment;
+        }
+        catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot create the segment [" + file + "]: " + e.getMessage(), e);
+        }
+    }
+
+    private Object read(Location location) {
+        return deserialize(location.segment.slice(location.valueOffset, location.valueLength));
+    }
+
+    private byte[] serialize(FamilyMap family, Object key, Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot store the entry [" + key + "] of family [" + family.name + "]: " + e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(ByteBuffer buffer) {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferInputStream(buffer)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                }
+                catch (ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        }) {
+            return in.readObject();
+        }
+        catch (IOException | ClassNotFoundException e) {
+            throw new DataAccessResourceFailureException("Cannot read an entry from [" + directory + "]: " + e.getMessage(), e);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new DataAccessResourceFailureException("The segment store in [" + directory + "] is closed");
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+
+    private static long segmentNumber(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * The entries of a family, mapping the key of each entry to its latest value in the segments
+     */
+    public final class FamilyMap extends AbstractMap<Object, Object> {
+
+        private final String name;
+
+        private final LinkedHashMap<Object, Location> locations = new LinkedHashMap<>();
+
+        private long highestKey;
+
+        FamilyMap(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return The highest numeric key ever stored in the family, used to continue generating identifiers
+         */
+        public long getHighestKey() {
+            synchronized (SegmentStore.this) {
+                return highestKey;
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (SegmentStore.this) {
+                return locations.size();
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            synchronized (SegmentStore.this) {
+                return locations.containsKey(key);
+            }
+        }
+
+        @Override
+        public Object get(Object key) {
+            Location location;
+            synchronized (SegmentStore.this) {
+                location = locations.get(key);
+            }
+            // a mapped segment stays readable after it has been compacted away
+            return location != null ? read(location) : null;
+        }
+
+        /**
+         * Stores the value of the entry
+         *
+         * @return Always {@code null}
+         */
+        @Override
+        public Object put(Object key, Object value) {
+            if (value == null) {
+                throw new IllegalArgumentException("The entry [" + key + "] of family [" + name + "] cannot be null");
+            }
+            write(this, key, value);
+            return null;
+        }
+
+        /**
+         * Deletes the entry
+         *
+         * @return Always {@code null}
+         */
+        @Override
+        public Object remove(Object key) {
+            synchronized (SegmentStore.this) {
+                if (locations.containsKey(key)) {
+                    write(this, key, null);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void clear() {
+            synchronized (SegmentStore.this) {
+                for (Object key : new ArrayList<>(locations.keySet())) {
+                    write(this, key, null);
+                }
+            }
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            return new AbstractSet<Object>() {
+                @Override
+                public Iterator<Object> iterator() {
+                    Iterator<Object> keys = snapshot().iterator();
+                    return new Iterator<Object>() {
+                        Object current;
+
+                        @Override
+                        public boolean hasNext() {
+                            return keys.hasNext();
+                        }
+
+                        @Override
+                        public Object next() {
+                            current = keys.next();
+                            return current;
+                        }
+
+                        @Override
+                        public void remove() {
+                            FamilyMap.this.remove(current);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return FamilyMap.this.size();
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<Object, Object>>() {
+                @Override
+                public Iterator<Map.Entry<Object, Object>> iterator() {
+                    Iterator<Object> keys = snapshot().iterator();
+                    return new Iterator<Map.Entry<Object, Object>>() {
+                        Map.Entry<Object, Object> next = advance();
+                        Map.Entry<Object, Object> current;
+
+                        private Map.Entry<Object, Object> advance() {
+                            while (keys.hasNext()) {
+                                Object key = keys.next();
+                                Object value = get(key);
+                                // skip the entries removed since the iteration started
+                                if (value != null) {
+                                    return new SimpleEntry<Object, Object>(key, value) {
+                                        @Override
+                                        public Object setValue(Object value) {
+                                            put(getKey(), value);
+                                            return super.setValue(value);
+                                        }
+                                    };
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Map.Entry<Object, Object> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            current = next;
+                            next = advance();
+                            return current;
+                        }
+
+                        @Override
+                        public void remove() {
+                            FamilyMap.this.remove(current.getKey());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return FamilyMap.this.size();
+                }
+            };
+        }
+
+        private List<Object> snapshot() {
+            synchronized (SegmentStore.this) {
+                return new ArrayList<>(locations.keySet());
+            }
+        }
+
+        private void updateHighestKey(Object key) {
+            long value = -1;
+            if (key instanceof Number) {
+                value = ((Number) key).longValue();
+            }
+            else if (key instanceof CharSequence && NUMERIC_KEY.matcher((CharSequence) key).matches()) {
+                value = Long.parseLong(key.toString());
+            }
+            highestKey = Math.max(highestKey, value);
+        }
+
+    }
+
+    private static final class Location {
+
+        final Segment segment;
+
+        final int offset;
+
+        final int recordLength;
+
+        final int valueOffset;
+
+        final int valueLength;
+
+        Location(Segment segment, int offset, int recordLength, int valueOffset, int valueLength) {
+            this.segment = segment;
+            this.offset = offset;
+            this.recordLength = recordLength;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+        }
+
+    }
+
+    private static final class Segment {
+
+        final File file;
+
+        final long number;
+
+        final FileChannel channel;
+
+        final MappedByteBuffer buffer;
+
+        int position;
+
+        private Segment(File file, long number, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(File file, long number, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // mapping beyond the end of a new file extends it to the size of the segment
+                return new Segment(file, number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size())));
+            }
+            catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        ByteBuffer slice(int offset, int length) {
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(offset);
+            slice.limit(offset + length);
+            return slice.slice();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            }
+            catch (IOException ignored) {
+                // the mapped buffer remains valid
+            }
+        }
+
+        void delete() {
+            close();
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+
+    }
+
+    /**
+     * Reads a buffer without copying it first
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+    }
+
+}
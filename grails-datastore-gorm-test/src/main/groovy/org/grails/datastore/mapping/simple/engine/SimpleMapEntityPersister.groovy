@@ -14,10 +14,12 @@
  */
 package org.grails.datastore.mapping.simple.engine
 
+import org.grails.datastore.mapping.cache.TPCacheAdapterRepository
 import org.grails.datastore.mapping.config.Property
 import org.grails.datastore.mapping.core.IdentityGenerationException
 import org.grails.datastore.mapping.core.OptimisticLockingException
 import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.core.impl.PendingInsert
 import org.grails.datastore.mapping.engine.AssociationIndexer
 import org.grails.datastore.mapping.engine.EntityAccess
 import org.grails.datastore.mapping.engine.EntityPersister
@@ -44,24 +46,35 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
 
     Map<String, Map> datastore
     Map indices
+    SimpleMapIndexes secondaryIndexes
     def lastKey
     String family
 
     SimpleMapEntityPersister(MappingContext context, PersistentEntity entity, Session session,
                              SimpleMapDatastore datastore, ApplicationEventPublisher publisher) {
-        super(context, entity, session, publisher)
+        this(context, entity, session, datastore, publisher, null)
+    }
+
+    SimpleMapEntityPersister(MappingContext context, PersistentEntity entity, Session session,
+                             SimpleMapDatastore datastore, ApplicationEventPublisher publisher,
+                             TPCacheAdapterRepository<Map> cacheAdapterRepository) {
+        super(context, entity, session, publisher, cacheAdapterRepository)
         this.datastore = datastore.backingMap
         this.indices = datastore.indices
+        this.secondaryIndexes = datastore.secondaryIndexes
         family = getFamily(entity, entity.getMapping())
         final identity = entity.getIdentity()
         def idType = identity?.type
         if (this.datastore[family] == null) this.datastore[family] = [:]
 
+        // a durable family may have had entries deleted before it was reopened
+        Map entries = this.datastore[family]
+        long highestKey = entries instanceof SegmentStore.FamilyMap ? ((SegmentStore.FamilyMap) entries).getHighestKey() : entries.size()
         if (idType == Integer) {
-            lastKey = this.datastore[family].size()
+            lastKey = (int) highestKey
         }
         else {
-            lastKey = this.datastore[family].size().longValue()
+            lastKey = highestKey
         }
     }
 
@@ -80,10 +93,12 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
 
     protected void deleteEntry(String family, key, entry) {
         datastore[family].remove(key)
+        secondaryIndexes.invalidate(family)
         def parent = persistentEntity.parentEntity
         while (parent != null) {
             def f = getFamily(parent, parent.mapping)
             datastore[f].remove(key)
+            secondaryIndexes.invalidate(f)
             parent = parent.parentEntity
         }
     }
@@ -102,22 +117,23 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
 
             void deindex(value, primaryKey) {
                 def index = getIndexName(value)
-                List indexed = indices[index]
+                Set indexed = indices[index]
                 if (indexed) {
-                    indexed.removeElement(primaryKey)
+                    indexed.remove(primaryKey)
+                    indices[index] = indexed
                 }
             }
 
             void index(value, primaryKey) {
 
                 def index = getIndexName(value)
-                def indexed = indices[index]
+                Set indexed = indices[index]
                 if (indexed == null) {
-                    indexed = []
-                    indices[index] = indexed
+                    indexed = new LinkedHashSet()
                 }
-                if (!indexed.contains(primaryKey)) {
-                    indexed << primaryKey
+                if (indexed.add(primaryKey)) {
+                    // stores the modified index in a durable backing map
+                    indices[index] = indexed
                 }
             }
 
@@ -128,11 +144,11 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
             List query(value, int offset, int max) {
                 def index = getIndexName(value)
 
-                def indexed = indices[index]
+                Set indexed = indices[index]
                 if (!indexed) {
                     return Collections.emptyList()
                 }
-                return indexed[offset..max]
+                return new ArrayList(indexed)[offset..max]
             }
 
             String getIndexName(value) {
@@ -183,8 +199,10 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
 
             void index(primaryKey, foreignKey) {
                 def indexed = getIndex(primaryKey)
-                if (!indexed.contains(foreignKey))
+                if (!indexed.contains(foreignKey)) {
                     indexed.add(foreignKey)
+                    indices[getIndexName(primaryKey)] = indexed
+                }
             }
 
             List query(primaryKey) {
@@ -258,6 +276,11 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
         return null
     }
 
+    @Override
+    protected Map copyTPCacheEntry(Map entry) {
+        return new LinkedHashMap<>(entry)
+    }
+
     protected generateIdentifier(PersistentEntity persistentEntity, Map id) {
         final isRoot = persistentEntity.root
         final type = isRoot ? persistentEntity.identity.type : persistentEntity.rootEntity.identity.type
@@ -290,17 +313,52 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
             nativeEntry.discriminator = persistentEntity.discriminator
         }
         datastore[family].put(storeId, nativeEntry)
+        secondaryIndexes.invalidate(family)
         indexIdentifier(persistentEntity, storeId)
         updateInheritanceHierarchy(persistentEntity, storeId, nativeEntry)
         return storeId
     }
 
+    @Override
+    protected boolean isBatchInsertSupported() {
+        true
+    }
+
+    /**
+     * Stores all entries of a flush in one write to the family map and to the maps of any parent entities
+     */
+    @Override
+    protected List<Object> storeEntries(PersistentEntity persistentEntity, List<PendingInsert<Map, Object>> inserts) {
+        def discriminator = persistentEntity.root ? null : persistentEntity.discriminator
+        Map<Object, Map> entries = new LinkedHashMap<>(inserts.size() * 2)
+        for (PendingInsert<Map, Object> insert in inserts) {
+            Map nativeEntry = insert.nativeEntry
+            if (discriminator != null) {
+                nativeEntry.discriminator = discriminator
+            }
+            entries.put(insert.nativeKey, nativeEntry)
+        }
+
+        datastore[family].putAll(entries)
+        secondaryIndexes.invalidate(family)
+        final indexer = getPropertyIndexer(persistentEntity.identity)
+        for (storeId in entries.keySet()) {
+            indexer.index(storeId, storeId)
+        }
+        updateInheritanceHierarchy(persistentEntity, entries)
+        return inserts.collect { PendingInsert<Map, Object> insert -> insert.nativeKey }
+    }
+
     protected def indexIdentifier(PersistentEntity persistentEntity, storeId) {
         final indexer = getPropertyIndexer(persistentEntity.identity)
         indexer.index(storeId, storeId)
     }
 
     private updateInheritanceHierarchy(PersistentEntity persistentEntity, storeId, Map nativeEntry) {
+        updateInheritanceHierarchy(persistentEntity, Collections.singletonMap(storeId, nativeEntry))
+    }
+
+    private updateInheritanceHierarchy(PersistentEntity persistentEntity, Map<Object, Map> entries) {
         def parent = persistentEntity.parentEntity
         while (parent != null) {
 
@@ -310,7 +368,8 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
                 parentEntry = [:]
                 datastore[f] = parentEntry
             }
-            parentEntry.put(storeId, nativeEntry)
+            parentEntry.putAll(entries)
+            secondaryIndexes.invalidate(f)
             parent = parent.parentEntity
         }
     }
@@ -348,7 +407,10 @@ class SimpleMapEntityPersister extends AbstractKeyValueEntityPersister<Map, Obje
         }
         else {
             existing.putAll(entry)
+            // a durable backing map returns a copy of the existing entry
+            datastore[family].put(key, existing)
         }
+        secondaryIndexes.invalidate(family)
         updateInheritanceHierarchy(persistentEntity, key, entry)
     }
 
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.simple.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Secondary indexes over the property values of the entries of a {@link org.grails.datastore.mapping.simple.SimpleMapDatastore}.
+ *
+ * <p>An index is built on first use from the entries of a family and discarded whenever an entry of the family is
+ * written. Values that are all of the same {@link Comparable} type are kept in a sorted index that answers equality and
+ * range lookups, other values in a hash index that only answers equality lookups.</p>
+ *
+ * <p>Every invalidation of a family bumps its generation, and an index is only published if no invalidation happened
+ * while it was built, so that a query running concurrently with a write cannot install an index of the previous
+ * entries.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class SimpleMapIndexes {
+
+    private final ConcurrentMap<String, FamilyIndexes> indexesByFamily = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Obtains the index of a property, building it if necessary
+     *
+     * @param family The family
+     * @param property The name of the property
+     * @param entries The entries of the family
+     * @return The index
+     */
+    public PropertyIndex getIndex(String family, String property, Map<Object, Map> entries) {
+        AtomicLong generation = generationOf(family);
+        long current = generation.get();
+        FamilyIndexes familyIndexes = indexesByFamily.get(family);
+        if (familyIndexes == null || familyIndexes.generation != current || !familyIndexes.isCurrent(entries)) {
+            FamilyIndexes built = new FamilyIndexes(entries, current);
+            // the index only serves this lookup if the family was invalidated while building it
+            indexesByFamily.compute(family, (f, existing) -> generation.get() == current ? built : existing);
+            familyIndexes = built;
+        }
+        return familyIndexes.getIndex(property);
+    }
+
+    /**
+     * Discards the indexes of a family after its entries have changed
+     *
+     * @param family The family
+     */
+    public void invalidate(String family) {
+        generationOf(family).incrementAndGet();
+        indexesByFamily.remove(family);
+    }
+
+    /**
+     * Discards all indexes
+     */
+    public void clear() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        indexesByFamily.clear();
+    }
+
+    private AtomicLong generationOf(String family) {
+        return generations.computeIfAbsent(family, f -> new AtomicLong());
+    }
+
+    private static final class FamilyIndexes {
+
+        private final Map<Object, Map> entries;
+
+        private final int size;
+
+        private final long generation;
+
+        private final Map<Object, Integer> positions;
+
+        private final ConcurrentMap<String, PropertyIndex> indexesByProperty = new ConcurrentHashMap<>();
+
+        FamilyIndexes(Map<Object, Map> entries, long generation) {
+            this.entries = entries;
+            this.size = entries.size();
+            this.generation = generation;
+            this.positions = new HashMap<>(size * 2);
+            int position = 0;
+            for (Object key : entries.keySet()) {
+                positions.put(key, position++);
+            }
+        }
+
+        /**
+         * Entries that are modified without going through the persister are not tracked, but replacing, clearing or
+         * adding entries to the family at least changes the map or its size
+         */
+        boolean isCurrent(Map<Object, Map> entries) {
+            return this.entries == entries && this.size == entries.size();
+        }
+
+        PropertyIndex getIndex(String property) {
+            return indexesByProperty.computeIfAbsent(property, name -> new PropertyIndex(name, entries, positions));
+        }
+
+    }
+
+    /**
+     * The keys of the entries of a family by the value of one of their properties. Lookups return the keys in the order
+     * of the entries, or null if the index cannot answer them the way Groovy would compare the values.
+     */
+    public static final class PropertyIndex {
+
+        private final Map<Object, Integer> positions;
+
+        private final List<Object> nullKeys = new ArrayList<>();
+
+        private final Class<?> valueType;
+
+        private final Map<Object, List<Object>> keysByValue;
+
+        PropertyIndex(String property, Map<Object, Map> entries, Map<Object, Integer> positions) {
+            this.positions = positions;
+            Class<?> type = null;
+            boolean uniform = true;
+            for (Map entry : entries.values()) {
+                Object value = entry != null ? entry.get(property) : null;
+                if (value == null) {
+                    continue;
+                }
+                if (type == null) {
+                    type = value.getClass();
+                }
+                else if (type != value.getClass()) {
+                    uniform = false;
+                    break;
+                }
+            }
+            this.valueType = uniform ? type : null;
+            if (!uniform || (type != null && !isIndexable(type))) {
+                keysByValue = null;
+                return;
+            }
+
+            keysByValue = valueType != null && Comparable.class.isAssignableFrom(valueType) ? new TreeMap<>() : new HashMap<>();
+            for (Map.Entry<Object, Map> entry : entries.entrySet()) {
+                Object value = entry.getValue() != null ? entry.getValue().get(property) : null;
+                if (value == null) {
+                    nullKeys.add(entry.getKey());
+                }
+                else {
+                    keysByValue.computeIfAbsent(value, v -> new ArrayList<>()).add(entry.getKey());
+                }
+            }
+        }
+
+        /**
+         * @return Whether the index answers range lookups
+         */
+        public boolean isSorted() {
+            return keysByValue instanceof NavigableMap || (keysByValue != null && keysByValue.isEmpty());
+        }
+
+        /**
+         * Finds the keys of the entries whose value equals the given value
+         *
+         * @param value The value, may be null
+         * @return The keys or null if the index does not apply
+         */
+        public List<Object> equalTo(Object value) {
+            if (value == null) {
+                return keysByValue != null ? new ArrayList<>(nullKeys) : null;
+            }
+            if (!isApplicable(value)) {
+                return null;
+            }
+            List<Object> keys = keysByValue.get(value);
+            return keys != null ? new ArrayList<>(keys) : new ArrayList<>();
+        }
+
+        /**
+         * Finds the keys of the entries whose value equals one of the given values
+         *
+         * @param values The values
+         * @return The keys or null if the index does not apply
+         */
+        public List<Object> in(Collection<?> values) {
+            if (keysByValue == null) {
+                return null;
+            }
+            List<List<Object>> matches = new ArrayList<>(values.size());
+            for (Object value : values) {
+                if (value == null) {
+                    matches.add(nullKeys);
+                    continue;
+                }
+                if (!isApplicable(value)) {
+                    return null;
+                }
+                List<Object> keys = keysByValue.get(value);
+                if (keys != null) {
+                    matches.add(keys);
+                }
+            }
+            return inEntryOrder(matches);
+        }
+
+        /**
+         * Finds the keys of the entries whose value lies within the given bounds. A missing lower bound includes the
+         * entries without a value, since Groovy orders null before any other value.
+         *
+         * @param from The lower bound or null if there is none
+         * @param fromInclusive Whether the lower bound is inclusive
+         * @param to The upper bound or null if there is none
+         * @param toInclusive Whether the upper bound is inclusive
+         * @return The keys or null if the index does not apply
+         */
+        public List<Object> range(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+            if (!isSorted() || (from != null && !isApplicable(from)) || (to != null && !isApplicable(to))) {
+                return null;
+            }
+            List<List<Object>> matches = new ArrayList<>();
+            if (from == null) {
+                matches.add(nullKeys);
+            }
+            if (!keysByValue.isEmpty()) {
+                NavigableMap<Object, List<Object>> sorted = (NavigableMap<Object, List<Object>>) keysByValue;
+                if (from != null && to != null) {
+                    if (((Comparable) from).compareTo(to) > 0) {
+                        return new ArrayList<>();
+                    }
+                    sorted = sorted.subMap(from, fromInclusive, to, toInclusive);
+                }
+                else if (from != null) {
+                    sorted = sorted.tailMap(from, fromInclusive);
+                }
+                else if (to != null) {
+                    sorted = sorted.headMap(to, toInclusive);
+                }
+                matches.addAll(sorted.values());
+            }
+            return inEntryOrder(matches);
+        }
+
+        /**
+         * Groovy compares arrays, collections and maps by their elements and coerces numbers while doing so
+         */
+        private static boolean isIndexable(Class<?> type) {
+            return !type.isArray() && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type);
+        }
+
+        private boolean isApplicable(Object value) {
+            return keysByValue != null && (valueType == null || valueType == value.getClass());
+        }
+
+        private List<Object> inEntryOrder(List<List<Object>> matches) {
+            if (matches.size() == 1) {
+                return new ArrayList<>(matches.get(0));
+            }
+            List<Object> keys = new ArrayList<>();
+            for (List<Object> match : matches) {
+                keys.addAll(match);
+            }
+            if (matches.size() > 1) {
+                keys.sort((a, b) -> Integer.compare(positions.get(a), positions.get(b)));
+            }
+            return keys;
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.simple.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.codehaus.groovy.runtime.DefaultGroovyMethods;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.runtime.NumberAwareComparator;
+
+/**
+ * Computes the projections of a {@link SimpleMapQuery} over the queried entities.
+ *
+ * <p>When the number of values reaches the parallel query threshold of the datastore the values are split, a partial
+ * aggregate is computed for each split on the common fork-join pool and the partial aggregates are merged with the
+ * same aggregate. The aggregates are computed by Groovy, so the results are the same as those of a sequential
+ * computation, except for rounding differences of floating point sums.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public final class SimpleMapAggregates {
+
+    private static final int SPLITS_PER_THREAD = 4;
+
+    private SimpleMapAggregates() {
+    }
+
+    /**
+     * Whether the given number of values should be processed in parallel
+     *
+     * @param size The number of values
+     * @param parallelThreshold The parallel query threshold, parallel processing is disabled if it is not positive
+     */
+    public static boolean isParallel(int size, int parallelThreshold) {
+        return parallelThreshold > 0 && size >= parallelThreshold && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Reads the values of a property of the given entities
+     *
+     * @param entities The entities
+     * @param property The name of the property
+     * @param parallelThreshold The parallel query threshold
+     * @return The values in the order of the entities
+     */
+    public static List<Object> propertyValues(Collection<Object> entities, String property, int parallelThreshold) {
+        if (!isParallel(entities.size(), parallelThreshold)) {
+            List<Object> values = new ArrayList<>(entities.size());
+            for (Object entity : entities) {
+                values.add(InvokerHelper.getProperty(entity, property));
+            }
+            return values;
+        }
+        Object[] items = entities.toArray();
+        return IntStream.range(0, items.length).parallel()
+                .mapToObj(i -> InvokerHelper.getProperty(items[i], property))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the maximum of the values like Groovy's {@code max}
+     */
+    public static Object max(List<Object> values, int parallelThreshold) {
+        return aggregate(values, list -> DefaultGroovyMethods.max((Iterable<Object>) list), parallelThreshold);
+    }
+
+    /**
+     * Computes the minimum of the values like Groovy's {@code min}
+     */
+    public static Object min(List<Object> values, int parallelThreshold) {
+        return aggregate(values, list -> DefaultGroovyMethods.min((Iterable<Object>) list), parallelThreshold);
+    }
+
+    /**
+     * Computes the sum of the values like Groovy's {@code sum}
+     */
+    public static Object sum(List<Object> values, int parallelThreshold) {
+        return aggregate(values, list -> DefaultGroovyMethods.sum((Iterable<Object>) list), parallelThreshold);
+    }
+
+    /**
+     * Counts the distinct values, comparing them like Groovy's {@code unique} does
+     */
+    public static int countDistinct(List<Object> values, int parallelThreshold) {
+        Function<List<Object>, List<Object>> unique = list -> DefaultGroovyMethods.unique(list, false, new NumberAwareComparator<>());
+        if (!isParallel(values.size(), parallelThreshold)) {
+            return unique.apply(values).size();
+        }
+        List<Object> distinct = new ArrayList<>();
+        for (List<Object> partial : mapSplits(values.size(), (from, to) -> unique.apply(values.subList(from, to)))) {
+            distinct.addAll(partial);
+        }
+        return unique.apply(distinct).size();
+    }
+
+    /**
+     * Applies the given function to consecutive ranges of indexes in parallel
+     *
+     * @param size The number of indexes
+     * @param function The function receiving the first index of a range and the index after its last
+     * @return The results in the order of the ranges
+     */
+    static <R> List<R> mapSplits(int size, BiFunction<Integer, Integer, R> function) {
+        int splits = Math.max(1, Math.min(size, ForkJoinPool.getCommonPoolParallelism() * SPLITS_PER_THREAD));
+        int splitSize = (size + splits - 1) / splits;
+        return IntStream.range(0, (size + splitSize - 1) / splitSize).parallel()
+                .mapToObj(i -> function.apply(i * splitSize, Math.min(size, (i + 1) * splitSize)))
+                .collect(Collectors.toList());
+    }
+
+    private static Object aggregate(List<Object> values, Function<List<Object>, Object> aggregate, int parallelThreshold) {
+        if (!isParallel(values.size(), parallelThreshold)) {
+            return aggregate.apply(values);
+        }
+        return aggregate.apply(mapSplits(values.size(), (from, to) -> aggregate.apply(values.subList(from, to))));
+    }
+
+}
@@ -14,6 +14,7 @@
  */
 package org.grails.datastore.mapping.simple.query
 
+import java.util.function.Function
 import java.util.regex.Pattern
 
 import org.grails.datastore.mapping.engine.types.CustomTypeMarshaller
@@ -28,14 +29,25 @@ import org.grails.datastore.mapping.query.Query
 import org.grails.datastore.mapping.query.Restrictions
 import org.grails.datastore.mapping.query.api.QueryableCriteria
 import org.grails.datastore.mapping.query.criteria.FunctionCallingCriterion
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
 import org.grails.datastore.mapping.simple.SimpleMapSession
 import org.grails.datastore.mapping.simple.engine.SimpleMapEntityPersister
+import org.grails.datastore.mapping.simple.engine.SimpleMapIndexes
 import org.springframework.dao.InvalidDataAccessResourceUsageException
 import org.springframework.util.Assert
 
 /**
  * Simple query implementation that queries a map of objects.
  *
+ * <p>Criteria that {@link SimpleMapQueryEvaluator} can compile are evaluated in a single pass over the entries of the
+ * family, or over the keys that the {@link SimpleMapIndexes secondary indexes} return for the most selective
+ * criterion. Other criteria are evaluated by the handlers below, which answer equality, range and in list criteria on
+ * simple properties from the secondary indexes where possible and scan the entries otherwise.</p>
+ *
+ * <p>Once a family reaches the {@link SimpleMapDatastore#getParallelQueryThreshold() parallel query threshold} the
+ * compiled criteria, the sorting and the aggregate projections are evaluated in parallel. The entities are always
+ * retrieved on the calling thread, as the session is not thread safe.</p>
+ *
  * @author Graeme Rocher
  * @since 1.0
  */
@@ -44,45 +56,53 @@ class SimpleMapQuery extends Query {
     Map<String, Map> datastore
     private String family
     private SimpleMapEntityPersister entityPersister
+    private int parallelThreshold
 
     SimpleMapQuery(SimpleMapSession session, PersistentEntity entity, SimpleMapEntityPersister entityPersister) {
         super(session, entity)
         this.datastore = session.getBackingMap()
         family = getFamily(entity)
         this.entityPersister = entityPersister
+        this.parallelThreshold = ((SimpleMapDatastore) session.getDatastore()).parallelQueryThreshold
     }
 
     protected List executeQuery(PersistentEntity entity, Query.Junction criteria) {
         def results = []
-        def entityMap = [:]
+        Map entityMap
+        Map<Object, Map> entries = datastore[family]
+        SimpleMapQueryEvaluator evaluator = criteria.isEmpty() ? null : SimpleMapQueryEvaluator.compile(entity, criteria, entityPersister)
         if (criteria.isEmpty()) {
-            populateQueryResult(datastore[family].keySet().toList(), entityMap)
+            entityMap = retrieveEntities(entries.keySet())
+        }
+        else if (evaluator != null) {
+            entityMap = retrieveEntities(evaluator.select(entries, candidateKeys(criteria), parallelThreshold))
         }
         else {
             def criteriaList = criteria.getCriteria()
             entityMap = executeSubQuery(criteria, criteriaList)
             if (!entity.isRoot()) {
-                def childKeys = datastore[family].keySet()
-                entityMap = entityMap.subMap(childKeys)
+                entityMap = entityMap.subMap(entries.keySet())
             }
+            entityMap.values().removeAll(Collections.singleton(null))
         }
 
-        def nullEntries = entityMap.entrySet().findAll { it.value == null }
-        entityMap.keySet().removeAll(nullEntries.collect { it.key })
-
-        if (orderBy) {
-            orderBy.reverseEach { Query.Order order ->
-                boolean desc = order.direction == Query.Order.Direction.DESC
-                entityMap = entityMap.sort { a, b ->
-                    int cmp = (a.value."${order.property}" <=> b.value."${order.property}")
-                    return desc ? -cmp : cmp
-                }
-            }
-        }
         if (projections.isEmpty()) {
-            results = entityMap.values() as List
+            if (orderBy) {
+                // only the entities up to the last requested one need to be sorted
+                results = SimpleMapQueryEvaluator.sort(entityMap.values(), orderBy, max > 0 ? offset + max : -1, parallelThreshold)
+            }
+            else {
+                results = new ArrayList(entityMap.values())
+            }
         }
         else {
+            if (orderBy) {
+                List<Map.Entry> sortedEntries = SimpleMapQueryEvaluator.sort(entityMap.entrySet(), { Map.Entry entry -> entry.value } as Function, orderBy, -1, parallelThreshold)
+                entityMap = new LinkedHashMap(sortedEntries.size() * 2)
+                for (Map.Entry entry in sortedEntries) {
+                    entityMap.put(entry.key, entry.value)
+                }
+            }
             def projectionList = projections.projectionList
             def projectionCount = projectionList.size()
             def entityList = entityMap.values()
@@ -101,22 +121,22 @@ class SimpleMapQuery extends Query {
                     results.add(entityList.size())
                 }
                 else if (p instanceof Query.CountDistinctProjection) {
-                    final uniqueList = new ArrayList(entityList).unique { it."$p.propertyName"}
-                    results.add(uniqueList.size() )
+                    def propertyValues = SimpleMapAggregates.propertyValues(entityList, p.propertyName, parallelThreshold)
+                    results.add(SimpleMapAggregates.countDistinct(propertyValues, parallelThreshold))
                 }
                 else if (p instanceof Query.PropertyProjection) {
-                    def propertyValues = entityList.collect { it."$p.propertyName"}
+                    def propertyValues = SimpleMapAggregates.propertyValues(entityList, p.propertyName, parallelThreshold)
                     if (p instanceof Query.MaxProjection) {
-                        results.add(propertyValues.max())
+                        results.add(SimpleMapAggregates.max(propertyValues, parallelThreshold))
                     }
                     else if (p instanceof Query.MinProjection) {
-                        results.add(propertyValues.min())
+                        results.add(SimpleMapAggregates.min(propertyValues, parallelThreshold))
                     }
                     else if (p instanceof Query.SumProjection) {
-                        results.add(propertyValues.sum())
+                        results.add(SimpleMapAggregates.sum(propertyValues, parallelThreshold))
                     }
                     else if (p instanceof Query.AvgProjection) {
-                        def average = propertyValues.sum() / propertyValues.size()
+                        def average = SimpleMapAggregates.sum(propertyValues, parallelThreshold) / propertyValues.size()
                         results.add(average)
                     }
                     else {
@@ -160,6 +180,43 @@ class SimpleMapQuery extends Query {
         return Collections.emptyList()
     }
 
+    /**
+     * Retrieves the entities with the given keys, skipping those that no longer exist
+     */
+    private Map retrieveEntities(Collection keys) {
+        Map entityMap = new LinkedHashMap(keys.size() * 2)
+        for (key in keys) {
+            def instance = session.retrieve(entity.javaClass, (Serializable) key)
+            if (instance != null) {
+                entityMap.put(key, instance)
+            }
+        }
+        return entityMap
+    }
+
+    /**
+     * Obtains the keys of the entries that match the most selective criterion of a conjunction that the secondary
+     * indexes can answer
+     *
+     * @return The keys or null if the entries have to be scanned
+     */
+    private Collection candidateKeys(Query.Junction criteria) {
+        if (!(criteria instanceof Query.Conjunction)) {
+            return null
+        }
+        Collection candidates = null
+        for (Query.Criterion criterion in criteria.criteria) {
+            if (criterion instanceof Query.Junction) {
+                continue
+            }
+            List keys = queryIndexes(criterion, getValidProperty(criterion))
+            if (keys != null && (candidates == null || keys.size() < candidates.size())) {
+                candidates = keys
+            }
+        }
+        return candidates
+    }
+
     private List applyMaxAndOffset(List sortedResults) {
         final def total = sortedResults.size()
         if (offset >= total) return Collections.emptyList()
@@ -695,9 +752,11 @@ class SimpleMapQuery extends Query {
                     continue
                 }
                 else {
-                    def handler = handlers[criterion.getClass()]
-
-                    def results = handler?.call(criterion, property) ?: []
+                    def results = queryIndexes(criterion, property)
+                    if (results == null) {
+                        def handler = handlers[criterion.getClass()]
+                        results = handler?.call(criterion, property) ?: []
+                    }
                     resultList.results << results
                 }
             }
@@ -705,17 +764,101 @@ class SimpleMapQuery extends Query {
         return applyJunctionToResults(criteria,resultList.results)
     }
 
+    /**
+     * Answers a criterion from the secondary indexes of the family
+     *
+     * @return The keys of the matching entries in the order of the entries or null if no index applies
+     */
+    protected List queryIndexes(Query.Criterion criterion, PersistentProperty property) {
+        if (!(criterion instanceof Query.PropertyCriterion) || property == null || property == entity.identity ||
+                property instanceof Custom || (property instanceof Association && !(property instanceof ToOne))) {
+            return null
+        }
+        Query.PropertyCriterion pc = (Query.PropertyCriterion) criterion
+        if (pc.property.contains('.') || pc.value instanceof QueryableCriteria) {
+            return null
+        }
+
+        boolean toOne = property instanceof ToOne
+        def index = { -> entityPersister.secondaryIndexes.getIndex(family, property.name, datastore[family]) }
+        if (criterion instanceof Query.Equals) {
+            return index().equalTo(indexValue(property, pc.value))
+        }
+        else if (criterion instanceof Query.In) {
+            Query.In inList = (Query.In) criterion
+            if (inList.subquery != null) {
+                return null
+            }
+            return index().in(inList.values.collect { indexValue(property, it) })
+        }
+        else if (toOne) {
+            return null
+        }
+        else if (criterion instanceof Query.Between) {
+            Query.Between between = (Query.Between) criterion
+            def from = indexValue(property, between.from)
+            def to = indexValue(property, between.to)
+            return from != null && to != null ? index().range(from, true, to, true) : null
+        }
+
+        def value = indexValue(property, pc.value)
+        if (value == null) {
+            return null
+        }
+        if (criterion instanceof Query.GreaterThan) {
+            return index().range(value, false, null, false)
+        }
+        else if (criterion instanceof Query.GreaterThanEquals) {
+            return index().range(value, true, null, false)
+        }
+        else if (criterion instanceof Query.LessThan) {
+            return index().range(null, false, value, false)
+        }
+        else if (criterion instanceof Query.LessThanEquals) {
+            return index().range(null, false, value, true)
+        }
+        return null
+    }
+
+    private indexValue(PersistentProperty property, value) {
+        if (value instanceof GString) {
+            return value.toString()
+        }
+        if (value != null && property instanceof ToOne && property.type.isInstance(value)) {
+            return entityPersister.getObjectIdentifier(value)
+        }
+        return value
+    }
+
+    /**
+     * Intersects the keys of the criteria of a conjunction, keeping the order of the smallest result
+     */
+    private static List intersectResults(List<Collection> resultList) {
+        Collection smallest = resultList.min { Collection keys -> keys.size() }
+        if (smallest.isEmpty()) {
+            return []
+        }
+        List<Set> others = []
+        for (Collection keys in resultList) {
+            if (!keys.is(smallest)) {
+                others << (keys instanceof Set ? (Set) keys : new HashSet(keys))
+            }
+        }
+        List intersection = []
+        for (key in smallest) {
+            if (others.every { Set keys -> keys.contains(key) }) {
+                intersection << key
+            }
+        }
+        return intersection
+    }
+
     private List applyJunctionToResults(Query.Junction criteria, List resultList) {
         def finalIdentifiers = []
         if (!resultList.isEmpty()) {
             if (resultList.size() > 1) {
                 if (criteria instanceof Query.Conjunction) {
-                    def total = resultList.size()
-                    finalIdentifiers = resultList[0]
-                    for (num in 1..<total) {
-                        def secondList = resultList[num]
-                        finalIdentifiers = finalIdentifiers.intersect(secondList)
-                    }
+                    finalIdentifiers = intersectResults(resultList)
                 }
                 else if (criteria instanceof Query.Negation) {
                     def total = resultList.size()
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.grails.datastore.mapping.simple.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.runtime.ScriptBytecodeAdapter;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+
+import org.grails.datastore.mapping.model.PersistentEntity;
+import org.grails.datastore.mapping.model.PersistentProperty;
+import org.grails.datastore.mapping.model.types.Association;
+import org.grails.datastore.mapping.model.types.Custom;
+import org.grails.datastore.mapping.model.types.ToOne;
+import org.grails.datastore.mapping.query.Query;
+import org.grails.datastore.mapping.query.api.QueryableCriteria;
+import org.grails.datastore.mapping.simple.engine.SimpleMapEntityPersister;
+
+/**
+ * Evaluates the criteria of a {@link SimpleMapQuery} against the native entries of a family.
+ *
+ * <p>The criteria are compiled once into a tree of predicates that compare the values of an entry the way the
+ * handlers of {@link SimpleMapQuery} do, and the entries are then passed through it in a single pass. Criteria that
+ * need the session, such as association queries, subqueries, functions and custom types, are not compiled and leave
+ * the query to the handlers.</p>
+ *
+ * @since 2022.2.5
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public final class SimpleMapQueryEvaluator {
+
+    private static final BiPredicate<Object, Map> NONE = (key, entry) -> false;
+
+    private final BiPredicate<Object, Map> predicate;
+
+    private SimpleMapQueryEvaluator(BiPredicate<Object, Map> predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Compiles the given criteria
+     *
+     * @param entity The queried entity
+     * @param criteria The criteria
+     * @param persister The persister of the entity
+     * @return The evaluator or null if the criteria contain a criterion that cannot be compiled
+     * @throws InvalidDataAccessResourceUsageException If a criterion refers to a property that does not exist
+     */
+    public static SimpleMapQueryEvaluator compile(PersistentEntity entity, Query.Junction criteria, SimpleMapEntityPersister persister) {
+        BiPredicate<Object, Map> predicate = new Compiler(entity, persister).compileJunction(criteria);
+        return predicate != null ? new SimpleMapQueryEvaluator(predicate) : null;
+    }
+
+    /**
+     * Selects the keys of the matching entries
+     *
+     * @param entries The entries of the family
+     * @param candidateKeys The keys of the entries to consider or null to consider all entries
+     * @param parallelThreshold The number of entries from which they are evaluated in parallel
+     * @return The keys in the order of the entries or of the candidates
+     */
+    public List<Object> select(Map<Object, Map> entries, Collection<Object> candidateKeys, int parallelThreshold) {
+        int size = candidateKeys != null ? candidateKeys.size() : entries.size();
+        if (SimpleMapAggregates.isParallel(size, parallelThreshold)) {
+            Object[] candidates = (candidateKeys != null ? candidateKeys : entries.keySet()).toArray();
+            return Arrays.stream(candidates).parallel()
+                    .filter(key -> {
+                        Map entry = entries.get(key);
+                        return entry != null && predicate.test(key, entry);
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        List<Object> keys = new ArrayList<>();
+        if (candidateKeys == null) {
+            for (Map.Entry<Object, Map> entry : entries.entrySet()) {
+                if (predicate.test(entry.getKey(), entry.getValue())) {
+                    keys.add(entry.getKey());
+                }
+            }
+        }
+        else {
+            for (Object key : candidateKeys) {
+                Map entry = entries.get(key);
+                if (entry != null && predicate.test(key, entry)) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Sorts entities by the given orders, comparing the values of their properties like Groovy's {@code <=>}. Entities
+     * with equal values keep their relative order.
+     *
+     * @param entities The entities
+     * @param orders The orders
+     * @param limit The number of leading entities needed or a negative value to sort all entities
+     * @param parallelThreshold The number of entities from which they are sorted in parallel
+     * @return The first {@code limit} entities in sorted order
+     */
+    public static List<Object> sort(Collection<Object> entities, List<Query.Order> orders, int limit, int parallelThreshold) {
+        return sort(entities, Function.identity(), orders, limit, parallelThreshold);
+    }
+
+    /**
+     * Sorts items by the entities they hold
+     *
+     * @param items The items
+     * @param entityOf Obtains the entity of an item
+     * @param orders The orders
+     * @param limit The number of leading items needed or a negative value to sort all items
+     * @param parallelThreshold The number of items from which they are sorted in parallel
+     * @return The first {@code limit} items in sorted order
+     */
+    public static <T> List<T> sort(Collection<T> items, Function<? super T, Object> entityOf, List<Query.Order> orders, int limit,
+            int parallelThreshold) {
+        int size = orders.size();
+        String[] properties = new String[size];
+        boolean[] descending = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Query.Order order = orders.get(i);
+            properties[i] = order.getProperty();
+            descending[i] = order.getDirection() == Query.Order.Direction.DESC;
+        }
+
+        Object[] elements = items.toArray();
+        boolean parallel = SimpleMapAggregates.isParallel(elements.length, parallelThreshold);
+        SortKey<T>[] keys = new SortKey[elements.length];
+        IntStream positions = IntStream.range(0, elements.length);
+        (parallel ? positions.parallel() : positions).forEach(position -> {
+            Object entity = entityOf.apply((T) elements[position]);
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = InvokerHelper.getProperty(entity, properties[i]);
+            }
+            keys[position] = new SortKey<>((T) elements[position], position, values);
+        });
+        List<SortKey<T>> sortKeys = Arrays.asList(keys);
+
+        Comparator<SortKey<T>> comparator = (a, b) -> {
+            for (int i = 0; i < size; i++) {
+                int cmp = DefaultTypeTransformation.compareTo(a.values[i], b.values[i]);
+                if (cmp != 0) {
+                    return descending[i] ? -cmp : cmp;
+                }
+            }
+            return Integer.compare(a.position, b.position);
+        };
+
+        if (limit >= 0 && limit < sortKeys.size()) {
+            if (parallel) {
+                // the leading entries are among the leading entries of the splits
+                List<SortKey<T>> all = sortKeys;
+                List<SortKey<T>> leading = new ArrayList<>();
+                for (List<SortKey<T>> split : SimpleMapAggregates.mapSplits(all.size(), (from, to) -> top(all.subList(from, to), comparator, limit))) {
+                    leading.addAll(split);
+                }
+                sortKeys = leading;
+            }
+            sortKeys = top(sortKeys, comparator, limit);
+        }
+        SortKey<T>[] sorted = sortKeys.toArray(new SortKey[0]);
+        if (parallel) {
+            Arrays.parallelSort(sorted, comparator);
+        }
+        else {
+            Arrays.sort(sorted, comparator);
+        }
+
+        List<T> result = new ArrayList<>(sorted.length);
+        for (SortKey<T> sortKey : sorted) {
+            result.add(sortKey.item);
+        }
+        return result;
+    }
+
+    private static <T> List<SortKey<T>> top(List<SortKey<T>> sortKeys, Comparator<SortKey<T>> comparator, int limit) {
+        // keep the smallest entries in a heap that has the largest of them on top
+        PriorityQueue<SortKey<T>> top = new PriorityQueue<>(Math.max(limit, 1), comparator.reversed());
+        for (SortKey<T> sortKey : sortKeys) {
+            if (top.size() < limit) {
+                top.add(sortKey);
+            }
+            else if (limit > 0 && comparator.compare(sortKey, top.peek()) < 0) {
+                top.poll();
+                top.add(sortKey);
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    private static final class SortKey<T> {
+
+        final T item;
+
+        final int position;
+
+        final Object[] values;
+
+        SortKey(T item, int position, Object[] values) {
+            this.item = item;
+            this.position = position;
+            this.values = values;
+        }
+
+    }
+
+    private static final class Compiler {
+
+        private final PersistentEntity entity;
+
+        private final SimpleMapEntityPersister persister;
+
+        Compiler(PersistentEntity entity, SimpleMapEntityPersister persister) {
+            this.entity = entity;
+            this.persister = persister;
+        }
+
+        BiPredicate<Object, Map> compileJunction(Query.Junction junction) {
+            List<Query.Criterion> criteria = junction.getCriteria();
+            if (criteria.isEmpty()) {
+                // the handlers intersect the results with the empty results of an empty junction
+                return NONE;
+            }
+            List<BiPredicate<Object, Map>> predicates = new ArrayList<>(criteria.size());
+            for (Query.Criterion criterion : criteria) {
+                BiPredicate<Object, Map> predicate = criterion instanceof Query.Junction ?
+                        compileJunction((Query.Junction) criterion) : compileCriterion(criterion);
+                if (predicate == null) {
+                    return null;
+                }
+                predicates.add(predicate);
+            }
+            final BiPredicate<Object, Map>[] all = predicates.toArray(new BiPredicate[0]);
+
+            if (junction instanceof Query.Disjunction) {
+                return (key, entry) -> {
+                    for (BiPredicate<Object, Map> predicate : all) {
+                        if (predicate.test(key, entry)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            else if (junction instanceof Query.Negation) {
+                return (key, entry) -> {
+                    for (BiPredicate<Object, Map> predicate : all) {
+                        if (predicate.test(key, entry)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            else if (all.length == 1) {
+                return all[0];
+            }
+            return (key, entry) -> {
+                for (BiPredicate<Object, Map> predicate : all) {
+                    if (!predicate.test(key, entry)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+
+        private BiPredicate<Object, Map> compileCriterion(Query.Criterion criterion) {
+            if (!(criterion instanceof Query.PropertyNameCriterion)) {
+                return null;
+            }
+            final String name = ((Query.PropertyNameCriterion) criterion).getProperty();
+            PersistentProperty property = getValidProperty(name);
+            if (property instanceof Custom || (property instanceof Association && !(property instanceof ToOne))) {
+                return null;
+            }
+            if (criterion instanceof Query.PropertyCriterion && ((Query.PropertyCriterion) criterion).getValue() instanceof QueryableCriteria) {
+                return null;
+            }
+
+            Class<?> type = criterion.getClass();
+            if (criterion instanceof Query.PropertyComparisonCriterion) {
+                return compileComparison((Query.PropertyComparisonCriterion) criterion, name);
+            }
+            else if (type == Query.IsNull.class) {
+                return (key, entry) -> resolve(name, entry) == null;
+            }
+            else if (type == Query.IsNotNull.class) {
+                return (key, entry) -> resolve(name, entry) != null;
+            }
+            else if (type == Query.IdEquals.class) {
+                final String id = String.valueOf(((Query.IdEquals) criterion).getValue());
+                return (key, entry) -> id.equals(InvokerHelper.toString(key));
+            }
+            else if (type == Query.Equals.class || type == Query.NotEquals.class) {
+                final BiPredicate<Object, Map> equals = compileEquals(property, name, ((Query.PropertyCriterion) criterion).getValue());
+                return type == Query.Equals.class ? equals : equals.negate();
+            }
+            else if (type == Query.In.class) {
+                Query.In in = (Query.In) criterion;
+                if (in.getSubquery() != null) {
+                    return null;
+                }
+                List<BiPredicate<Object, Map>> equals = new ArrayList<>();
+                for (Object value : in.getValues()) {
+                    equals.add(compileEquals(property, name, value));
+                }
+                final BiPredicate<Object, Map>[] any = equals.toArray(new BiPredicate[0]);
+                return (key, entry) -> {
+                    for (BiPredicate<Object, Map> predicate : any) {
+                        if (predicate.test(key, entry)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            else if (type == Query.Like.class || type == Query.ILike.class || type == Query.RLike.class) {
+                return compileLike((Query.Like) criterion, property);
+            }
+            else if (type == Query.Between.class) {
+                final Object from = ((Query.Between) criterion).getFrom();
+                final Object to = ((Query.Between) criterion).getTo();
+                return (key, entry) -> {
+                    Object value = resolve(name, entry);
+                    return ScriptBytecodeAdapter.compareGreaterThanEqual(value, from) && ScriptBytecodeAdapter.compareLessThanEqual(value, to);
+                };
+            }
+            else if (type == Query.GreaterThan.class) {
+                final Object value = ((Query.PropertyCriterion) criterion).getValue();
+                return (key, entry) -> ScriptBytecodeAdapter.compareGreaterThan(resolve(name, entry), value);
+            }
+            else if (type == Query.GreaterThanEquals.class) {
+                final Object value = ((Query.PropertyCriterion) criterion).getValue();
+                return (key, entry) -> ScriptBytecodeAdapter.compareGreaterThanEqual(resolve(name, entry), value);
+            }
+            else if (type == Query.LessThan.class) {
+                final Object value = ((Query.PropertyCriterion) criterion).getValue();
+                return (key, entry) -> ScriptBytecodeAdapter.compareLessThan(resolve(name, entry), value);
+            }
+            else if (type == Query.LessThanEquals.class) {
+                final Object value = ((Query.PropertyCriterion) criterion).getValue();
+                return (key, entry) -> ScriptBytecodeAdapter.compareLessThanEqual(resolve(name, entry), value);
+            }
+            return null;
+        }
+
+        private BiPredicate<Object, Map> compileComparison(Query.PropertyComparisonCriterion criterion, final String name) {
+            final String other = criterion.getOtherProperty();
+            Class<?> type = criterion.getClass();
+            if (type == Query.EqualsProperty.class) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareEqual(resolve(name, entry), get(entry, other));
+            }
+            else if (type == Query.NotEqualsProperty.class) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareNotEqual(resolve(name, entry), get(entry, other));
+            }
+            else if (type == Query.GreaterThanProperty.class) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareGreaterThan(resolve(name, entry), get(entry, other));
+            }
+            else if (type == Query.GreaterThanEqualsProperty.class) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareGreaterThanEqual(resolve(name, entry), get(entry, other));
+            }
+            else if (type == Query.LessThanProperty.class) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareLessThan(resolve(name, entry), get(entry, other));
+            }
+            else if (type == Query.LessThanEqualsProperty.class) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareLessThanEqual(resolve(name, entry), get(entry, other));
+            }
+            return null;
+        }
+
+        /**
+         * Values are compared with Groovy's {@code ==}. A non null value also matches an entry whose value has the
+         * same string form, as the property value index that answered these criteria before did.
+         */
+        private BiPredicate<Object, Map> compileEquals(PersistentProperty property, final String name, Object value) {
+            if (value != null && property instanceof ToOne && property.getType().isInstance(value)) {
+                value = persister.getObjectIdentifier(value);
+            }
+            final Object expected = value;
+            if (expected == null || name.indexOf('.') > -1) {
+                return (key, entry) -> ScriptBytecodeAdapter.compareEqual(resolve(name, entry), expected);
+            }
+            final String expectedString = InvokerHelper.toString(expected);
+            if (property == entity.getIdentity()) {
+                return (key, entry) -> expectedString.equals(InvokerHelper.toString(key));
+            }
+            return (key, entry) -> {
+                Object actual = resolve(name, entry);
+                return ScriptBytecodeAdapter.compareEqual(actual, expected) || expectedString.equals(InvokerHelper.toString(actual));
+            };
+        }
+
+        /**
+         * Matches the pattern against the name of the property value index entry, like the handlers do
+         */
+        private BiPredicate<Object, Map> compileLike(Query.Like like, PersistentProperty property) {
+            final String root = "~" + property.getOwner().getRootEntity().getName() + ":" + property.getName() + ":";
+            final String name = property.getName();
+            final Pattern pattern;
+            if (like instanceof Query.RLike) {
+                pattern = Pattern.compile(root + like.getPattern(), Pattern.CASE_INSENSITIVE);
+            }
+            else {
+                String regex = root + like.getPattern().replaceAll("%", ".*?");
+                pattern = like instanceof Query.ILike ? Pattern.compile(regex, Pattern.CASE_INSENSITIVE) : Pattern.compile(regex);
+            }
+            if (property == entity.getIdentity()) {
+                return (key, entry) -> pattern.matcher(root + InvokerHelper.toString(key)).matches();
+            }
+            return (key, entry) -> pattern.matcher(root + InvokerHelper.toString(get(entry, name))).matches();
+        }
+
+        private PersistentProperty getValidProperty(String name) {
+            PersistentProperty property = entity.getPropertyByName(name);
+            if (property == null) {
+                PersistentProperty identity = entity.getIdentity();
+                if (identity != null && identity.getName().equals(name)) {
+                    return identity;
+                }
+                throw new InvalidDataAccessResourceUsageException("Cannot query [" + entity + "] on non-existent property: " + name);
+            }
+            return property;
+        }
+
+    }
+
+    private static Object get(Map entry, String name) {
+        return entry != null ? entry.get(name) : null;
+    }
+
+    /**
+     * Resolves the value of a property or of a property of an embedded entry like {@code 'address.city'}
+     */
+    private static Object resolve(String name, Map entry) {
+        int dot = name.indexOf('.');
+        if (dot == -1) {
+            return get(entry, name);
+        }
+        Object embedded = get(entry, name.substring(0, dot));
+        if (embedded == null) {
+            return null;
+        }
+        String nested = name.substring(dot + 1);
+        return embedded instanceof Map ? ((Map) embedded).get(nested) : InvokerHelper.getProperty(embedded, nested);
+    }
+
+}
@@ -0,0 +1,166 @@
+package grails.gorm.services.multitenancy.database
+
+import grails.gorm.MultiTenant
+import grails.gorm.annotation.Entity
+import grails.gorm.multitenancy.Tenants
+import org.grails.datastore.gorm.GormEnhancer
+import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.connections.ConnectionSource
+import org.grails.datastore.mapping.core.connections.DefaultConnectionSource
+import org.grails.datastore.mapping.core.connections.LazyConnectionSources
+import org.grails.datastore.mapping.multitenancy.MultiTenancySettings
+import org.grails.datastore.mapping.multitenancy.resolvers.SystemPropertyTenantResolver
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class LazyDatabasePerTenantSpec extends Specification {
+
+    @TempDir
+    File directory
+
+    SimpleMapDatastore datastore
+
+    void cleanup() {
+        datastore?.close()
+    }
+
+    void "test connection sources are created the first time a tenant is used"() {
+        given:
+        datastore = open([:])
+        LazyConnectionSources connectionSources = (LazyConnectionSources) datastore.connectionSources
+
+        expect:"only the default connection source is open"
+        connectionSources.allConnectionSourceNames == [ConnectionSource.DEFAULT, 'one', 'two', 'three']
+        ['one', 'two', 'three'].every { !connectionSources.isOpen(it) }
+
+        when:
+        Tenants.withId(datastore, 'two') { new Subscriber(name: 'second').save(flush: true) }
+
+        then:
+        connectionSources.isOpen('two')
+        !connectionSources.isOpen('one')
+        Tenants.withId(datastore, 'two') { Subscriber.count() } == 1
+
+        when:"the APIs of another tenant are looked up"
+        GormEnhancer.findStaticApi(Subscriber, 'three')
+
+        then:
+        connectionSources.isOpen('three')
+        !connectionSources.isOpen('one')
+
+        when:"the tenant is not known"
+        GormEnhancer.findStaticApi(Subscriber, 'unknown')
+
+        then:
+        thrown IllegalStateException
+    }
+
+    void "test the least recently used connection sources are evicted and created again"() {
+        given:
+        datastore = open([(Settings.SETTING_LAZY_CONNECTIONS_MAX_SIZE)   : 2,
+                          (SimpleMapDatastore.SETTING_STORAGE_DIRECTORY): directory.absolutePath])
+        LazyConnectionSources connectionSources = (LazyConnectionSources) datastore.connectionSources
+
+        when:
+        for (String tenantId in ['one', 'two', 'three']) {
+            Tenants.withId(datastore, tenantId) { new Subscriber(name: tenantId).save(flush: true) }
+        }
+
+        then:
+        !connectionSources.isOpen('one')
+        connectionSources.isOpen('two')
+        connectionSources.isOpen('three')
+
+        when:
+        List<String> names = Tenants.withId(datastore, 'one') { Subscriber.list()*.name }
+
+        then:"the evicted tenant kept its data in the storage directory"
+        names == ['one']
+        connectionSources.isOpen('one')
+        !connectionSources.isOpen('two')
+    }
+
+    void "test each tenant visits the tenants without opening them up front"() {
+        given:
+        datastore = open([(Settings.SETTING_LAZY_CONNECTIONS_MAX_SIZE): 1])
+        List<String> visited = []
+
+        when:
+        Tenants.eachTenant(datastore) { String tenantId -> visited << tenantId }
+
+        then:
+        visited == ['one', 'two', 'three']
+        ((LazyConnectionSources) datastore.connectionSources).isOpen('three')
+    }
+
+    void "test a connection source evicted while it is in use is closed once it is released"() {
+        given:
+        datastore = open([(Settings.SETTING_LAZY_CONNECTIONS_MAX_SIZE)   : 1,
+                          (SimpleMapDatastore.SETTING_STORAGE_DIRECTORY): directory.absolutePath])
+        LazyConnectionSources connectionSources = (LazyConnectionSources) datastore.connectionSources
+
+        when:"the acquired connection source is evicted by another one"
+        DefaultConnectionSource one = (DefaultConnectionSource) connectionSources.acquireConnectionSource('one')
+        connectionSources.getConnectionSource('two')
+
+        then:"it stays open"
+        !connectionSources.isOpen('one')
+        !one.@closed
+
+        when:
+        connectionSources.releaseConnectionSource(one)
+
+        then:
+        one.@closed
+    }
+
+    void "test a session keeps the connection source of its tenant open"() {
+        given:
+        datastore = open([(Settings.SETTING_LAZY_CONNECTIONS_MAX_SIZE)   : 1,
+                          (SimpleMapDatastore.SETTING_STORAGE_DIRECTORY): directory.absolutePath])
+        LazyConnectionSources connectionSources = (LazyConnectionSources) datastore.connectionSources
+
+        when:"another tenant evicts the connection source of the session"
+        DefaultConnectionSource used = Tenants.withId(datastore, 'one') {
+            DefaultConnectionSource current = (DefaultConnectionSource) connectionSources.getConnectionSource('one')
+            connectionSources.getConnectionSource('two')
+            assert !current.@closed
+            return current
+        }
+
+        then:"it is closed once the session ends"
+        used.@closed
+        !connectionSources.isOpen('one')
+    }
+
+    void "test the enhancer stops listening for evictions once it is closed"() {
+        given:
+        datastore = open([:])
+        LazyConnectionSources connectionSources = (LazyConnectionSources) datastore.connectionSources
+        int listeners = connectionSources.@listeners.size()
+
+        when:
+        datastore.close()
+        datastore = null
+
+        then:
+        connectionSources.@listeners.size() == listeners - 1
+    }
+
+    private SimpleMapDatastore open(Map<String, Object> settings) {
+        new SimpleMapDatastore(
+                DatastoreUtils.createPropertyResolver([(Settings.SETTING_MULTI_TENANCY_MODE)       : MultiTenancySettings.MultiTenancyMode.DATABASE,
+                                                       (Settings.SETTING_MULTI_TENANT_RESOLVER)    : new SystemPropertyTenantResolver(),
+                                                       (Settings.SETTING_CONNECTION_SOURCES_CLASS): LazyConnectionSources] + settings),
+                [ConnectionSource.DEFAULT, 'one', 'two', 'three'],
+                Subscriber
+        )
+    }
+}
+
+@Entity
+class Subscriber implements MultiTenant<Subscriber> {
+    String name
+}
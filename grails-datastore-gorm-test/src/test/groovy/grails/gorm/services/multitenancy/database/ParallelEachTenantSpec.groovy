@@ -0,0 +1,156 @@
+package grails.gorm.services.multitenancy.database
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import grails.gorm.MultiTenant
+import grails.gorm.annotation.Entity
+import grails.gorm.multitenancy.Tenants
+import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.core.connections.ConnectionSource
+import org.grails.datastore.mapping.multitenancy.AllTenantsResolver
+import org.grails.datastore.mapping.multitenancy.MultiTenancySettings
+import org.grails.datastore.mapping.multitenancy.exceptions.TenantExecutionException
+import org.grails.datastore.mapping.multitenancy.resolvers.SystemPropertyTenantResolver
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ParallelEachTenantSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver([(Settings.SETTING_MULTI_TENANCY_MODE)   : MultiTenancySettings.MultiTenancyMode.DATABASE,
+                                                   (Settings.SETTING_MULTI_TENANT_RESOLVER): new SystemPropertyTenantResolver()]),
+            [ConnectionSource.DEFAULT, "one", "two", "three", "four", "five"],
+            Ledger
+    )
+    @Shared @AutoCleanup SimpleMapDatastore listedDatastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver([(Settings.SETTING_MULTI_TENANCY_MODE)   : MultiTenancySettings.MultiTenancyMode.DATABASE,
+                                                   (Settings.SETTING_MULTI_TENANT_RESOLVER): new ListedTenantsResolver()]),
+            [ConnectionSource.DEFAULT, "one", "two", "three", "four"],
+            Journal
+    )
+
+    void setup() {
+        for (SimpleMapDatastore parent in [datastore, listedDatastore]) {
+            for (ConnectionSource connectionSource in parent.connectionSources.allConnectionSources) {
+                ((SimpleMapDatastore) parent.getDatastoreForConnection(connectionSource.name)).clearData()
+            }
+        }
+    }
+
+    void "test each connection source is executed with its own session and tenant binding"() {
+        given:
+        Set<Session> sessions = ConcurrentHashMap.newKeySet()
+        AtomicInteger running = new AtomicInteger()
+        AtomicInteger maxRunning = new AtomicInteger()
+
+        when:
+        Map<Serializable, List> results = Tenants.eachTenantInParallel(datastore, 2) { Serializable tenantId, Session session ->
+            int current = running.incrementAndGet()
+            maxRunning.accumulateAndGet(current, { int a, int b -> Math.max(a, b) })
+            try {
+                sessions << session
+                new Ledger(name: tenantId).save(flush: true)
+                Thread.sleep(20)
+                return [Tenants.currentId(datastore), Ledger.count(), Thread.currentThread().name]
+            }
+            finally {
+                running.decrementAndGet()
+            }
+        }
+
+        then:"the results are keyed in the order of the connection sources"
+        results.keySet() as List == ['one', 'two', 'three', 'four', 'five']
+        results.every { tenantId, result -> result[0] == tenantId && result[1] == 1 && result[2].startsWith('gorm-tenants-') }
+        sessions.size() == 5
+
+        and:"no more tenants than allowed run at the same time"
+        maxRunning.get() <= 2
+    }
+
+    void "test the tenants of an all tenants resolver are executed"() {
+        when:
+        Map<Serializable, Serializable> results = Tenants.eachTenantInParallel(listedDatastore, 4) { Serializable tenantId ->
+            new Journal(name: tenantId).save(flush: true)
+            return Tenants.currentId(listedDatastore)
+        }
+
+        then:
+        results == [two: 'two', four: 'four']
+        Tenants.withId(listedDatastore, "one") { Journal.count() } == 0
+        Tenants.withId(listedDatastore, "four") { Journal.count() } == 1
+    }
+
+    void "test the failures of every tenant are aggregated"() {
+        when:
+        Tenants.eachTenantInParallel(datastore, 3) { Serializable tenantId ->
+            if (tenantId in ['two', 'four']) {
+                throw new IllegalStateException("Failed $tenantId")
+            }
+            return tenantId
+        }
+
+        then:
+        TenantExecutionException e = thrown()
+        e.failures.keySet() as List == ['two', 'four']
+        e.results.keySet() as List == ['one', 'three', 'five']
+        e.cause.message == 'Failed two'
+        e.suppressed*.message == ['Failed four']
+    }
+
+    void "test the submitted tenants are cancelled when the executor rejects a tenant"() {
+        given:"an executor that runs a single tenant and rejects the next one"
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<Runnable>())
+        CountDownLatch blocker = new CountDownLatch(1)
+
+        when:
+        Tenants.eachTenantInParallel(datastore, executor, 2) { Serializable tenantId ->
+            blocker.await()
+            return tenantId
+        }
+
+        then:"the running tenant is interrupted, so the executor terminates"
+        thrown RejectedExecutionException
+        executor.shutdown()
+        executor.awaitTermination(5, TimeUnit.SECONDS)
+
+        cleanup:
+        blocker.countDown()
+        executor.shutdownNow()
+    }
+
+    void "test the maximum concurrency must be positive"() {
+        when:
+        Tenants.eachTenantInParallel(datastore, 0) { -> }
+
+        then:
+        thrown IllegalArgumentException
+    }
+}
+
+class ListedTenantsResolver extends SystemPropertyTenantResolver implements AllTenantsResolver {
+
+    @Override
+    Iterable<Serializable> resolveTenantIds() {
+        ['two', 'four'] as List<Serializable>
+    }
+}
+
+@Entity
+class Ledger implements MultiTenant<Ledger> {
+    String name
+}
+
+@Entity
+class Journal implements MultiTenant<Journal> {
+    String name
+}
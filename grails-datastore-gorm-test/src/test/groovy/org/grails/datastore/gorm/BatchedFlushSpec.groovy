@@ -0,0 +1,138 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.engine.event.AbstractPersistenceEvent
+import org.grails.datastore.mapping.engine.event.PostInsertEvent
+import org.grails.datastore.mapping.engine.event.PostUpdateEvent
+import org.grails.datastore.mapping.engine.event.PreInsertEvent
+import org.grails.datastore.mapping.engine.event.PreUpdateEvent
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class BatchedFlushSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(BatchedItem)
+    @Shared List<String> events = []
+    @Shared List<List<String>> storedAtPreEvents = []
+
+    void setupSpec() {
+        datastore.applicationEventPublisher.addApplicationListener(new ApplicationListener<ApplicationEvent>() {
+            @Override
+            void onApplicationEvent(ApplicationEvent event) {
+                if (!(event instanceof AbstractPersistenceEvent) || !(event.entityObject instanceof BatchedItem)) {
+                    return
+                }
+                String name = ((BatchedItem) event.entityObject).name
+                if (event instanceof PreInsertEvent || event instanceof PreUpdateEvent) {
+                    storedAtPreEvents << rawStoredNames()
+                }
+                if (event instanceof PreInsertEvent) {
+                    events << "preInsert:$name".toString()
+                    if (name == 'vetoed') {
+                        event.cancel()
+                    }
+                }
+                else if (event instanceof PostInsertEvent) {
+                    events << "postInsert:$name".toString()
+                }
+                else if (event instanceof PreUpdateEvent) {
+                    events << "preUpdate:$name".toString()
+                }
+                else if (event instanceof PostUpdateEvent) {
+                    events << "postUpdate:$name".toString()
+                }
+            }
+        })
+    }
+
+    void setup() {
+        datastore.clearData()
+        events.clear()
+        storedAtPreEvents.clear()
+    }
+
+    void "test the inserts of an entity are flushed as one group"() {
+        given:
+        Session session = datastore.connect()
+
+        when:
+        ['a', 'b', 'c'].each { session.persist(new BatchedItem(name: it)) }
+        session.flush()
+
+        then:"the before events of all inserts fire before any of them is written"
+        events == ['preInsert:a', 'preInsert:b', 'preInsert:c', 'postInsert:a', 'postInsert:b', 'postInsert:c']
+        storedNames() == ['a', 'b', 'c']
+
+        and:"the listeners of an insert don't see the other inserts of the group"
+        storedAtPreEvents == [[], [], []]
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test a cancelled insert is left out of the group"() {
+        given:
+        Session session = datastore.connect()
+
+        when:
+        ['a', 'vetoed', 'c'].each { session.persist(new BatchedItem(name: it)) }
+        session.flush()
+
+        then:
+        events == ['preInsert:a', 'preInsert:vetoed', 'preInsert:c', 'postInsert:a', 'postInsert:c']
+        storedNames() == ['a', 'c']
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test updates are flushed one at a time when the persister does not write them as a batch"() {
+        given:
+        Session session = datastore.connect()
+        List<BatchedItem> items = ['a', 'b'].collect { new BatchedItem(name: it) }
+        session.persist(items)
+        session.flush()
+        events.clear()
+
+        when:
+        items.each {
+            it.name = it.name.toUpperCase()
+            session.persist(it)
+        }
+        session.flush()
+
+        then:
+        events == ['preUpdate:A', 'postUpdate:A', 'preUpdate:B', 'postUpdate:B']
+        storedNames() == ['A', 'B']
+
+        and:"the listeners of an update see the updates written before it"
+        storedAtPreEvents == [['a', 'b'], ['A', 'b']]
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    private List<String> rawStoredNames() {
+        datastore.backingMap.values().collectMany { Map family -> family.values()*.name }.sort() as List<String>
+    }
+
+    private List<String> storedNames() {
+        Session session = datastore.connect()
+        try {
+            return session.createQuery(BatchedItem).list()*.name.sort()
+        }
+        finally {
+            session.disconnect()
+        }
+    }
+}
+
+@Entity
+class BatchedItem {
+    String name
+}
@@ -0,0 +1,76 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.AbstractSession
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.cache.BoundedSessionCache
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class BoundedFirstLevelCacheSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver([(Settings.SETTING_SESSION_CACHE_MAX_SIZE): 5]),
+            new DefaultApplicationEventPublisher(),
+            BoundedItem
+    )
+
+    List<Serializable> ids
+
+    void setup() {
+        datastore.clearData()
+        AbstractSession session = (AbstractSession) datastore.connect()
+        ids = session.persist((0..<20).collect { new BoundedItem(name: "item$it") })
+        session.flush()
+        session.disconnect()
+    }
+
+    void "test clean instances are evicted from the first level cache"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+
+        when:
+        List<BoundedItem> items = ids.collect { session.retrieve(BoundedItem, it) }
+
+        then:
+        session.getFirstLevelCache() instanceof BoundedSessionCache
+        session.getFirstLevelCache().size() == 5
+        ((BoundedSessionCache) session.getFirstLevelCache()).evictionCount > 0
+        items.every { it != null }
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test modified instances are retained until they are flushed"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+        BoundedItem modified = session.retrieve(BoundedItem, ids[0])
+        modified.name = 'changed'
+
+        when:
+        ids[1..-1].each { session.retrieve(BoundedItem, it) }
+
+        then:"the modified instance is still returned by the session"
+        session.retrieve(BoundedItem, ids[0]).is(modified)
+
+        when:
+        session.flush()
+        session.clear()
+
+        then:
+        session.retrieve(BoundedItem, ids[0]).name == 'changed'
+
+        cleanup:
+        session?.disconnect()
+    }
+}
+
+@Entity
+class BoundedItem {
+    String name
+}
@@ -0,0 +1,57 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import groovy.transform.CompileStatic
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CompiledFinderSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(CompiledFinderBook)
+
+    void setup() {
+        datastore.clearData()
+        new CompiledFinderBook(title: "The Stand", author: "Stephen King", pages: 1152).save()
+        new CompiledFinderBook(title: "It", author: "Stephen King", pages: 1138).save()
+        new CompiledFinderBook(title: "Emma", author: "Jane Austen", pages: 474).save(flush: true)
+    }
+
+    void "test the generated finders query the datastore"() {
+        expect:
+        CompiledFinderBook.findByTitleAndAuthor("It", "Stephen King").pages == 1138
+        CompiledFinderBook.findByTitleAndAuthor("It", "Jane Austen") == null
+        CompiledFinderBook.findAllByPagesBetween(1000, 1200)*.title.sort() == ['It', 'The Stand']
+        CompiledFinderBook.countByAuthor("Stephen King") == 2
+        CompiledFinderBook.findAllByTitleOrAuthor("Emma", "Stephen King").size() == 3
+    }
+
+    void "test the generated finders can be called from statically compiled code"() {
+        expect:
+        CompiledFinderQueries.longBooksBy("Stephen King", 1140)*.title == ['The Stand']
+    }
+
+    void "test a null argument of a generated finder queries for null"() {
+        given:
+        new CompiledFinderBook(title: "Anonymous", pages: 10).save(validate: false, flush: true)
+
+        expect:
+        CompiledFinderBook.countByAuthor(null) == 1
+    }
+}
+
+@CompileStatic
+class CompiledFinderQueries {
+
+    static List<CompiledFinderBook> longBooksBy(String author, int pages) {
+        CompiledFinderBook.findAllByPagesBetween(pages, Integer.MAX_VALUE).findAll { CompiledFinderBook book -> book.author == author }
+    }
+}
+
+@Entity(finders = ['findByTitleAndAuthor', 'findAllByPagesBetween', 'countByAuthor', 'findAllByTitleOrAuthor'])
+class CompiledFinderBook {
+    String title
+    String author
+    int pages
+}
@@ -0,0 +1,70 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class DomainEventMethodsSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(CallbackRow)
+
+    void setup() {
+        datastore.clearData()
+    }
+
+    void "test the event methods of an entity are invoked"() {
+        when:
+        CallbackRow row = new CallbackRow(name: "row").save(flush: true)
+
+        then:"void and boolean event methods are invoked"
+        row.calls == ['beforeInsert', 'afterInsert']
+
+        when:
+        row.calls.clear()
+        row.name = "changed"
+        row.save(flush: true)
+
+        then:"an event method returning a value other than a boolean does not cancel the event"
+        row.calls == ['beforeUpdate', 'afterUpdate']
+        CallbackRow.count() == 1
+    }
+
+    void "test an event method returning false cancels the event"() {
+        when:
+        CallbackRow row = new CallbackRow(name: "row", vetoInsert: true)
+        row.save(flush: true)
+
+        then:
+        row.calls == ['beforeInsert']
+        CallbackRow.count() == 0
+    }
+}
+
+@Entity
+class CallbackRow {
+    String name
+    boolean vetoInsert
+    List<String> calls = []
+
+    static transients = ['vetoInsert', 'calls']
+
+    boolean beforeInsert() {
+        calls << 'beforeInsert'
+        !vetoInsert
+    }
+
+    void afterInsert() {
+        calls << 'afterInsert'
+    }
+
+    String beforeUpdate() {
+        calls << 'beforeUpdate'
+        'ignored'
+    }
+
+    void afterUpdate() {
+        calls << 'afterUpdate'
+    }
+}
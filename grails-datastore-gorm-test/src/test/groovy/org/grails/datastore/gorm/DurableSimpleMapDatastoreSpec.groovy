@@ -0,0 +1,106 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.grails.datastore.mapping.simple.engine.SegmentStore
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class DurableSimpleMapDatastoreSpec extends Specification {
+
+    @TempDir
+    File directory
+
+    void "test the entities survive reopening the datastore"() {
+        given:
+        SimpleMapDatastore datastore = open()
+        DurableAuthor author = new DurableAuthor(name: "Stephen")
+        author.addToBooks(new DurableBook(title: "It"))
+        author.addToBooks(new DurableBook(title: "Carrie"))
+        author.save(flush: true)
+        new DurableAuthor(name: "Removed").save(flush: true).delete(flush: true)
+        datastore.close()
+
+        when:
+        datastore = open()
+
+        then:
+        DurableAuthor.count() == 1
+        DurableBook.findAllByTitleLike('C%')*.title == ['Carrie']
+        DurableAuthor.withNewSession {
+            DurableAuthor.findByName("Stephen").books*.title.sort()
+        } == ['Carrie', 'It']
+
+        when:"an entity is saved after reopening"
+        DurableAuthor other = new DurableAuthor(name: "Other").save(flush: true)
+
+        then:"it does not reuse the identifier of the deleted entity"
+        other.id == 3
+
+        cleanup:
+        datastore?.close()
+    }
+
+    void "test updates are stored"() {
+        given:
+        SimpleMapDatastore datastore = open()
+        DurableAuthor author = new DurableAuthor(name: "Richard").save(flush: true)
+        author.name = "Richard Bachman"
+        author.save(flush: true)
+        datastore.close()
+
+        when:
+        datastore = open()
+
+        then:
+        DurableAuthor.findAll()*.name == ['Richard Bachman']
+
+        cleanup:
+        datastore?.close()
+    }
+
+    void "test identifiers of deleted entities are not reused after compaction"() {
+        given:
+        SimpleMapDatastore datastore = open()
+        new DurableAuthor(name: "Kept").save(flush: true)
+        new DurableAuthor(name: "Removed").save(flush: true).delete(flush: true)
+        ((SegmentStore) datastore.backingMap).compact()
+        datastore.close()
+
+        when:
+        datastore = open()
+        DurableAuthor other = new DurableAuthor(name: "Other").save(flush: true)
+
+        then:
+        DurableAuthor.count() == 2
+        other.id == 3
+
+        cleanup:
+        datastore?.close()
+    }
+
+    private SimpleMapDatastore open() {
+        new SimpleMapDatastore(
+                DatastoreUtils.createPropertyResolver((SimpleMapDatastore.SETTING_STORAGE_DIRECTORY): directory.absolutePath),
+                new DefaultApplicationEventPublisher(),
+                DurableAuthor, DurableBook
+        )
+    }
+}
+
+@Entity
+class DurableAuthor {
+    String name
+    Set<DurableBook> books
+
+    static hasMany = [books: DurableBook]
+}
+
+@Entity
+class DurableBook {
+    String title
+
+    static belongsTo = [author: DurableAuthor]
+}
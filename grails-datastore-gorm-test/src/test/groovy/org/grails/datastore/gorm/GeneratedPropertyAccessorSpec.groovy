@@ -0,0 +1,81 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.model.PersistentEntity
+import org.grails.datastore.mapping.reflect.EntityReflector
+import org.grails.datastore.mapping.reflect.GeneratedPropertyAccessor
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class GeneratedPropertyAccessorSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(AccessorVehicle, AccessorCar)
+
+    void "test the reflector of an entity uses the generated property accessors"() {
+        given:
+        PersistentEntity entity = datastore.mappingContext.getPersistentEntity(AccessorCar.name)
+        EntityReflector reflector = entity.reflector
+        AccessorCar car = new AccessorCar(make: "Volvo", doors: 5)
+
+        expect:
+        GeneratedPropertyAccessor.isAssignableFrom(AccessorCar)
+        reflector.getPropertyReader('doors').class.simpleName == 'GeneratedPropertyReader'
+        reflector.getPropertyReader('doors').field().name == 'doors'
+        reflector.getProperty(car, 'doors') == 5
+        reflector.getProperty(car, 'make') == "Volvo"
+
+        when:"properties are written through the reflector"
+        reflector.setProperty(car, 'doors', 3)
+        reflector.setProperty(car, 'make', "Saab")
+        reflector.setIdentifier(car, 10L)
+
+        then:"both the declared and the inherited fields are updated"
+        car.doors == 3
+        car.make == "Saab"
+        car.id == 10L
+        reflector.getIdentifier(car) == 10L
+    }
+
+    void "test writing a value of the wrong type fails with an IllegalArgumentException"() {
+        given:
+        EntityReflector reflector = datastore.mappingContext.getPersistentEntity(AccessorCar.name).reflector
+
+        when:
+        reflector.setProperty(new AccessorCar(), 'doors', "five")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    void "test entities are persisted and retrieved through the generated accessors"() {
+        given:
+        Session session = datastore.connect()
+
+        when:
+        Serializable id = session.insert(new AccessorCar(make: "Volvo", doors: 5))
+        session.flush()
+        session.clear()
+        AccessorCar car = (AccessorCar) session.retrieve(AccessorCar, id)
+
+        then:
+        car != null
+        car.make == "Volvo"
+        car.doors == 5
+
+        cleanup:
+        session?.disconnect()
+    }
+}
+
+@Entity
+class AccessorVehicle {
+    String make
+}
+
+@Entity
+class AccessorCar extends AccessorVehicle {
+    int doors
+}
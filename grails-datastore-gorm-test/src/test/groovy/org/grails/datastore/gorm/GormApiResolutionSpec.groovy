@@ -0,0 +1,43 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.core.connections.ConnectionSource
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.Specification
+
+class GormApiResolutionSpec extends Specification {
+
+    void "test the APIs of an entity are resolved again when it is registered with another datastore"() {
+        given:
+        SimpleMapDatastore first = new SimpleMapDatastore(ResolvedRow)
+        new ResolvedRow(name: "first").save(flush: true)
+
+        expect:
+        GormEnhancer.findStaticApi(ResolvedRow).is(GormEnhancer.findStaticApi(ResolvedRow, ConnectionSource.DEFAULT))
+        GormEnhancer.findDatastore(ResolvedRow).is(first)
+        ResolvedRow.count() == 1
+
+        when:
+        first.close()
+        GormEnhancer.findInstanceApi(ResolvedRow)
+
+        then:
+        thrown IllegalStateException
+
+        when:
+        SimpleMapDatastore second = new SimpleMapDatastore(ResolvedRow)
+
+        then:
+        GormEnhancer.findDatastore(ResolvedRow).is(second)
+        GormEnhancer.findValidationApi(ResolvedRow) != null
+        ResolvedRow.count() == 0
+
+        cleanup:
+        second?.close()
+    }
+}
+
+@Entity
+class ResolvedRow {
+    String name
+}
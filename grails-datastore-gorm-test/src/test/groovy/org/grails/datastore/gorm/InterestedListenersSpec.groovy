@@ -0,0 +1,130 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.engine.event.AbstractPersistenceEvent
+import org.grails.datastore.mapping.engine.event.PostLoadEvent
+import org.grails.datastore.mapping.engine.event.PreLoadEvent
+import org.grails.datastore.mapping.query.event.AbstractQueryEvent
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class InterestedListenersSpec extends Specification {
+
+    @Shared RecordingEventPublisher publisher = new RecordingEventPublisher()
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver([:]),
+            publisher,
+            PlainRow, ListeningRow
+    )
+
+    void setup() {
+        datastore.clearData()
+        publisher.published.clear()
+    }
+
+    void "test no events are published for an entity without interested listeners"() {
+        given:
+        Session session = datastore.connect()
+        3.times { session.persist(new PlainRow(name: "row$it")) }
+        session.flush()
+        session.clear()
+        publisher.published.clear()
+
+        when:
+        List<PlainRow> rows = session.createQuery(PlainRow).list()
+
+        then:"the rows are loaded without load or query events"
+        rows.size() == 3
+        publisher.published.findAll { it instanceof AbstractPersistenceEvent || it instanceof AbstractQueryEvent }.isEmpty()
+
+        and:"dirty checking is activated as the listeners would have done"
+        !rows.any { it.hasChanged() }
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test events are published for an entity that defines event methods"() {
+        given:
+        Session session = datastore.connect()
+        session.persist(new ListeningRow(name: "row"))
+        session.flush()
+        session.clear()
+        publisher.published.clear()
+
+        when:
+        List<ListeningRow> rows = session.createQuery(ListeningRow).list()
+
+        then:
+        rows.size() == 1
+        rows[0].loaded
+        publisher.published.findAll { it instanceof PostLoadEvent }.size() == 1
+        publisher.published.findAll { it instanceof PreLoadEvent }.isEmpty()
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test listeners that don't declare their interest receive all events"() {
+        given:
+        List<ApplicationEvent> received = []
+        RecordingEventPublisher otherPublisher = new RecordingEventPublisher()
+        SimpleMapDatastore otherDatastore = new SimpleMapDatastore(DatastoreUtils.createPropertyResolver([:]), otherPublisher, UnfilteredRow)
+        otherPublisher.addApplicationListener({ ApplicationEvent event -> received << event } as ApplicationListener<ApplicationEvent>)
+        Session session = otherDatastore.connect()
+
+        when:
+        session.persist(new UnfilteredRow(name: "row"))
+        session.flush()
+        session.clear()
+        session.createQuery(UnfilteredRow).list()
+
+        then:
+        received.any { it instanceof PostLoadEvent }
+        received.any { it instanceof AbstractQueryEvent }
+
+        cleanup:
+        session?.disconnect()
+        otherDatastore?.close()
+    }
+}
+
+class RecordingEventPublisher extends DefaultApplicationEventPublisher {
+
+    final List<ApplicationEvent> published = []
+
+    @Override
+    void publishEvent(ApplicationEvent event) {
+        published << event
+        super.publishEvent(event)
+    }
+}
+
+@Entity
+class PlainRow {
+    String name
+}
+
+@Entity
+class UnfilteredRow {
+    String name
+}
+
+@Entity
+class ListeningRow {
+    String name
+    boolean loaded
+
+    static transients = ['loaded']
+
+    void afterLoad() {
+        loaded = true
+    }
+}
@@ -0,0 +1,163 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.AbstractSession
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.cache.LongKeyedSessionCache
+import org.grails.datastore.mapping.core.cache.SessionCacheType
+import org.grails.datastore.mapping.model.PersistentEntity
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.grails.datastore.mapping.simple.SimpleMapSession
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class LongKeyedSessionCacheSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver([(Settings.SETTING_SESSION_CACHE_TYPE): SessionCacheType.LONG_KEYED.name()]),
+            new DefaultApplicationEventPublisher(),
+            CachedPerson
+    )
+
+    void "test the configured session cache is used"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+
+        expect:
+        session.getFirstLevelCache() instanceof LongKeyedSessionCache
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test retrieving and dirty checking instances with the long keyed session cache"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+        CachedPerson person = new CachedPerson(name: 'Fred')
+        Long id = (Long) session.persist(person)
+        session.flush()
+        session.clear()
+
+        when:
+        CachedPerson retrieved = (CachedPerson) session.retrieve(CachedPerson, id)
+
+        then:"the instance is cached once retrieved"
+        retrieved.name == 'Fred'
+        session.retrieve(CachedPerson, id).is(retrieved)
+        session.contains(retrieved)
+        session.isCached(CachedPerson, id)
+        !session.isDirty(retrieved)
+
+        when:
+        retrieved.name = 'Bob'
+
+        then:
+        session.isDirty(retrieved)
+
+        when:"the instance is evicted"
+        session.clear(retrieved)
+
+        then:
+        !session.contains(retrieved)
+        !session.isCached(CachedPerson, id)
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test the deprecated cache maps are views of the session cache"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+        Long id = (Long) session.persist(new CachedPerson(name: 'Fred'))
+        session.flush()
+        session.clear()
+        CachedPerson retrieved = (CachedPerson) session.retrieve(CachedPerson, id)
+
+        expect:
+        session.@firstLevelCache.get(CachedPerson).get(id).is(retrieved)
+        session.@firstLevelCache.get(CachedPerson).containsValue(retrieved)
+        session.@firstLevelEntryCache.get(CachedPerson).get(id) != null
+        session.@firstLevelEntryCache.get(CachedPerson).get(id).is(session.getCachedEntry(session.mappingContext.getPersistentEntity(CachedPerson.name), id))
+
+        when:
+        CachedPerson other = new CachedPerson(name: 'Bob')
+        session.@firstLevelCache.get(CachedPerson).put(2L, other)
+        session.@firstLevelCache.get(CachedPerson).remove(id)
+
+        then:
+        session.getCachedInstance(CachedPerson, 2L).is(other)
+        !session.isCached(CachedPerson, id)
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test the deprecated cache maps only contain the types with cached values"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+
+        expect:"nothing is cached for the type"
+        session.@firstLevelCache.get(CachedPerson) == null
+        !session.@firstLevelCache.containsKey(CachedPerson)
+        session.@firstLevelCache.isEmpty()
+        session.@firstLevelEntryCache.get(CachedPerson) == null
+
+        when:
+        CachedPerson fred = new CachedPerson(name: 'Fred')
+        CachedPerson bob = new CachedPerson(name: 'Bob')
+        session.@firstLevelCache.computeIfAbsent(CachedPerson) { [:] }.put(1L, fred)
+        session.@firstLevelCache.computeIfAbsent(CachedPerson) { [:] }.put(2L, bob)
+
+        then:
+        session.@firstLevelCache.size() == 1
+        session.@firstLevelCache.keySet() == [CachedPerson] as Set
+        session.@firstLevelCache.get(CachedPerson).size() == 2
+        session.@firstLevelCache.get(CachedPerson).keySet() == [1L, 2L] as Set
+        session.@firstLevelCache.get(CachedPerson).entrySet().collect { it.value } as Set == [fred, bob] as Set
+        session.getCachedInstance(CachedPerson, 2L).is(bob)
+        session.@firstLevelEntryCache.get(CachedPerson) == null
+
+        when:
+        session.@firstLevelCache.clear()
+
+        then:
+        session.@firstLevelCache.isEmpty()
+        !session.isCached(CachedPerson, 1L)
+        !session.isCached(CachedPerson, 2L)
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test the deprecated cache entry method is called for every cached entry"() {
+        given:
+        List<Serializable> cachedKeys = []
+        SimpleMapSession session = new SimpleMapSession(datastore, datastore.mappingContext, new DefaultApplicationEventPublisher()) {
+            @Override
+            protected void cacheEntry(Serializable key, Object entry, Map<Serializable, Object> entryCache, boolean forDirtyCheck) {
+                cachedKeys << key
+                super.cacheEntry(key, entry, entryCache, forDirtyCheck)
+            }
+        }
+        PersistentEntity entity = datastore.mappingContext.getPersistentEntity(CachedPerson.name)
+
+        when:
+        session.cacheEntry(entity, 1L, [name: 'Fred'])
+
+        then:"the entry is cached through the overridden method"
+        cachedKeys == [1L, 1L]
+        session.getCachedEntry(entity, 1L) == [name: 'Fred']
+        session.@firstLevelEntryCache.get(CachedPerson).get(1L) == [name: 'Fred']
+
+        cleanup:
+        session?.disconnect()
+    }
+}
+
+@Entity
+class CachedPerson {
+    String name
+}
@@ -0,0 +1,84 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ParallelQuerySpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver((SimpleMapDatastore.SETTING_PARALLEL_QUERY_THRESHOLD): 10),
+            new DefaultApplicationEventPublisher(),
+            Measurement
+    )
+
+    void setup() {
+        datastore.clearData()
+        (1..200).each { int i ->
+            new Measurement(position: i, sensor: "sensor${i % 7}", reading: i % 50, weight: i % 3 == 0 ? null : i).save(flush: i == 200)
+        }
+    }
+
+    void "test the threshold is read from the configuration"() {
+        expect:
+        datastore.parallelQueryThreshold == 10
+    }
+
+    void "test filtering keeps the order of the entries"() {
+        when:
+        List<Measurement> results = Measurement.withCriteria {
+            gt 'reading', 40
+            like 'sensor', 'sensor%'
+        }
+
+        then:
+        results*.reading == (1..200).findAll { it % 50 > 40 }.collect { it % 50 }
+    }
+
+    void "test sorted pages are the same as those of a sequential sort"() {
+        given:
+        List<Integer> expected = (1..200).sort(false) { a, b -> (b % 50 <=> a % 50) ?: (a <=> b) }
+
+        expect:
+        Measurement.list(sort: 'reading', order: 'desc', max: 15, offset: 5)*.position == expected.subList(5, 20)
+        Measurement.list(sort: 'reading', order: 'desc')*.position == expected
+    }
+
+    void "test aggregates are merged from the splits"() {
+        given:
+        int readings = (1..200).sum { it % 50 }
+
+        expect:
+        Measurement.withCriteria {
+            projections {
+                sum 'reading'
+                max 'reading'
+                min 'weight'
+                avg 'reading'
+                countDistinct 'sensor'
+            }
+        }[0] == [readings, 49, null, readings / 200, 7]
+        Measurement.withCriteria {
+            projections {
+                min 'reading'
+                max 'weight'
+            }
+        }[0] == [0, 200]
+    }
+}
+
+@Entity
+class Measurement {
+    Integer position
+    String sensor
+    Integer reading
+    Integer weight
+
+    static constraints = {
+        weight nullable: true
+    }
+}
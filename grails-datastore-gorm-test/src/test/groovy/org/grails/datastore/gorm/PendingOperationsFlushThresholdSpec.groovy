@@ -0,0 +1,132 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import javax.persistence.FlushModeType
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.AbstractSession
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class PendingOperationsFlushThresholdSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver([(Settings.SETTING_PENDING_OPERATIONS_FLUSH_THRESHOLD): 10]),
+            new DefaultApplicationEventPublisher(),
+            PendingItem
+    )
+
+    @Shared @AutoCleanup SimpleMapDatastore unboundedDatastore = new SimpleMapDatastore(PendingItem)
+
+    void setup() {
+        datastore.clearData()
+        unboundedDatastore.clearData()
+    }
+
+    void "test the session is flushed in batches when the threshold is reached"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+
+        when:"more objects are persisted than the threshold allows"
+        25.times { session.persist(new PendingItem(name: "item$it")) }
+
+        then:"the session was flushed automatically each time the threshold was reached"
+        session.pendingOperationsFlushThreshold == 10
+        session.pendingOperations.autoFlushCount == 2
+        session.pendingOperations.peakSize == 10
+        session.pendingOperations.size() == 5
+        session.pendingOperations.insertCount == 5
+        storedCount() == 20
+
+        when:"the session is flushed"
+        session.flush()
+
+        then:"the remaining operations are written"
+        session.pendingOperations.size() == 0
+        session.pendingOperations.empty
+        storedCount() == 25
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test persisting a collection is split into batches"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+        List<PendingItem> items = (0..<25).collect { new PendingItem(name: "item$it") }
+
+        when:
+        List ids = session.persist(items)
+
+        then:
+        ids.size() == 25
+        session.pendingOperations.autoFlushCount == 2
+        session.pendingOperations.size() == 5
+        storedCount() == 20
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test the session is not flushed automatically with the commit flush mode"() {
+        given:
+        AbstractSession session = (AbstractSession) datastore.connect()
+        session.flushMode = FlushModeType.COMMIT
+
+        when:
+        25.times { session.persist(new PendingItem(name: "item$it")) }
+        session.persist((0..<25).collect { new PendingItem(name: "batch$it") })
+
+        then:"the operations are kept pending until the session is flushed"
+        session.pendingOperations.autoFlushCount == 0
+        session.pendingOperations.size() == 50
+        storedCount() == 0
+
+        when:
+        session.flush()
+
+        then:
+        session.pendingOperations.empty
+        storedCount() == 50
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    void "test pending operations are not limited when no threshold is configured"() {
+        given:
+        AbstractSession session = (AbstractSession) unboundedDatastore.connect()
+
+        when:
+        6000.times { session.persist(new PendingItem(name: "item$it")) }
+
+        then:
+        session.pendingOperationsFlushThreshold == 0
+        session.pendingOperations.autoFlushCount == 0
+        session.pendingOperations.size() == 6000
+        session.pendingInserts.values().first().size() == 6000
+
+        when:
+        session.flush()
+
+        then:
+        session.pendingOperations.size() == 0
+        session.pendingOperations.peakSize == 6000
+        unboundedDatastore.connect().createQuery(PendingItem).list().size() == 6000
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    private int storedCount() {
+        datastore.connect().createQuery(PendingItem).list().size()
+    }
+}
+
+@Entity
+class PendingItem {
+    String name
+}
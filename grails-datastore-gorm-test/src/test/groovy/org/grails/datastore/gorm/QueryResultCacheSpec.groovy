@@ -0,0 +1,158 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.DetachedCriteria
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.query.Query
+import org.grails.datastore.mapping.query.cache.QueryResultCache
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class QueryResultCacheSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(LookupValue)
+
+    QueryResultCache queryResultCache
+
+    void setup() {
+        datastore.clearData()
+        queryResultCache = datastore.queryResultCache
+        withSession { Session session ->
+            session.persist([new LookupValue(code: 'a', label: 'A'), new LookupValue(code: 'b', label: 'B'), new LookupValue(code: 'a', label: 'Other A')])
+        }
+    }
+
+    void "test the results of a cached query are reused"() {
+        when:
+        List<String> first = withSession { Session session -> findLabels(session, 'a') }
+        List<String> second = withSession { Session session -> findLabels(session, 'a') }
+
+        then:
+        first == ['A', 'Other A']
+        second == first
+        queryResultCache.missCount == 1
+        queryResultCache.hitCount == 1
+
+        when:"an equivalent query is executed"
+        withSession { Session session ->
+            Query query = session.createQuery(LookupValue).cache(true)
+            query.order(Query.Order.asc('label'))
+            query.eq('code', 'a')
+            query.list()
+        }
+
+        then:
+        queryResultCache.hitCount == 2
+    }
+
+    void "test queries that do not enable caching are not cached"() {
+        when:
+        2.times {
+            withSession { Session session -> session.createQuery(LookupValue).eq('code', 'a').list() }
+        }
+
+        then:
+        queryResultCache.hitCount == 0
+        queryResultCache.missCount == 0
+    }
+
+    void "test the cached results of an entity are invalidated when it is modified"() {
+        given:
+        withSession { Session session -> findLabels(session, 'a') }
+
+        when:"a matching instance is inserted"
+        withSession { Session session -> session.persist(new LookupValue(code: 'a', label: 'New A')) }
+
+        then:
+        withSession { Session session -> findLabels(session, 'a') } == ['A', 'New A', 'Other A']
+        queryResultCache.hitCount == 0
+
+        when:"an instance is updated"
+        withSession { Session session ->
+            LookupValue value = session.createQuery(LookupValue).eq('label', 'New A').singleResult()
+            value.code = 'c'
+            session.persist(value)
+        }
+
+        then:
+        withSession { Session session -> findLabels(session, 'a') } == ['A', 'Other A']
+
+        when:"an instance is deleted"
+        withSession { Session session -> session.delete(session.createQuery(LookupValue).eq('label', 'A').singleResult()) }
+
+        then:
+        withSession { Session session -> findLabels(session, 'a') } == ['Other A']
+    }
+
+    void "test projections and dynamic finders are cached"() {
+        when:
+        2.times {
+            withSession { Session session ->
+                Query query = session.createQuery(LookupValue).eq('code', 'a').cache(true)
+                query.projections().count()
+                assert query.singleResult() == 2
+            }
+        }
+
+        then:
+        queryResultCache.hitCount == 1
+
+        when:
+        List<LookupValue> first = LookupValue.findAllByCode('b', [cache: true])
+        List<LookupValue> second = LookupValue.findAllByCode('b', [cache: true])
+
+        then:
+        first*.label == ['B']
+        second*.label == ['B']
+        queryResultCache.hitCount == 2
+    }
+
+    void "test the cached results are invalidated by batch updates and deletes"() {
+        given:
+        withSession { Session session -> findLabels(session, 'a') }
+
+        when:
+        withSession { Session session ->
+            session.updateAll(new DetachedCriteria(LookupValue).eq('label', 'Other A'), [label: 'Changed A'])
+        }
+
+        then:
+        withSession { Session session -> findLabels(session, 'a') } == ['A', 'Changed A']
+
+        when:
+        withSession { Session session ->
+            session.deleteAll(new DetachedCriteria(LookupValue).eq('label', 'A'))
+        }
+
+        then:
+        withSession { Session session -> findLabels(session, 'a') } == ['Changed A']
+        queryResultCache.hitCount == 0
+    }
+
+    private List<String> findLabels(Session session, String code) {
+        Query query = session.createQuery(LookupValue).cache(true)
+        query.eq('code', code)
+        query.order(Query.Order.asc('label'))
+        return query.list()*.label
+    }
+
+    private <T> T withSession(Closure<T> callable) {
+        Session session = datastore.connect()
+        try {
+            T result = callable.call(session)
+            session.flush()
+            return result
+        }
+        finally {
+            session.disconnect()
+        }
+    }
+}
+
+@Entity
+class LookupValue {
+    String code
+    String label
+}
@@ -0,0 +1,111 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import grails.gorm.multitenancy.Tenants
+import org.grails.datastore.gorm.events.DefaultApplicationEventPublisher
+import org.grails.datastore.mapping.config.Settings
+import org.grails.datastore.mapping.core.DatastoreUtils
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.core.SessionCallback
+import org.grails.datastore.mapping.core.connections.ConnectionSource
+import org.grails.datastore.mapping.core.context.ContextStorage
+import org.grails.datastore.mapping.core.context.ContextStorages
+import org.grails.datastore.mapping.core.context.ScopedContextStorage
+import org.grails.datastore.mapping.core.context.ScopedContexts
+import org.grails.datastore.mapping.multitenancy.MultiTenancySettings
+import org.grails.datastore.mapping.multitenancy.resolvers.SystemPropertyTenantResolver
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ScopedContextsSpec extends Specification {
+
+    @Shared ContextStorage previousStorage = ContextStorages.get()
+    @Shared ScopedContextStorage storage = new ScopedContextStorage()
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(
+            DatastoreUtils.createPropertyResolver(
+                    (Settings.SETTING_MULTI_TENANCY_MODE): MultiTenancySettings.MultiTenancyMode.DISCRIMINATOR,
+                    (Settings.SETTING_MULTI_TENANT_RESOLVER): new SystemPropertyTenantResolver()
+            ),
+            new DefaultApplicationEventPublisher(),
+            ScopedNote
+    )
+
+    void setupSpec() {
+        ContextStorages.set(storage)
+    }
+
+    void cleanupSpec() {
+        ContextStorages.set(previousStorage)
+    }
+
+    void setup() {
+        datastore.clearData()
+    }
+
+    void "test a session is bound for the duration of the callback"() {
+        given:
+        List<Session> sessions = []
+
+        when:
+        ScopedContexts.withSession(datastore, { Session session ->
+            sessions << session
+            sessions << datastore.getCurrentSession()
+            new ScopedNote(text: 'first').save(flush: true)
+            sessions << ScopedContexts.withSession(datastore, { Session nested -> nested } as SessionCallback<Session>)
+        } as SessionCallback)
+
+        then:"the nested callback and GORM use the same session"
+        sessions.size() == 3
+        sessions.every { it.is(sessions[0]) }
+
+        and:"the session is closed and unbound afterwards"
+        !sessions[0].connected
+        !datastore.hasCurrentSession()
+        storage.@bindings.get() == null
+        ScopedNote.count() == 1
+    }
+
+    void "test the scoped session is not the current session within a transaction"() {
+        given:
+        Session transactional = null
+
+        when:
+        Map<String, Object> result = ScopedContexts.withSession(datastore, { Session session ->
+            TransactionSynchronizationManager.initSynchronization()
+            try {
+                boolean hasCurrentSession = datastore.hasCurrentSession()
+                transactional = datastore.getCurrentSession()
+                [scoped: session, hasCurrentSession: hasCurrentSession]
+            }
+            finally {
+                TransactionSynchronizationManager.unbindResourceIfPossible(datastore)
+                TransactionSynchronizationManager.clearSynchronization()
+            }
+        } as SessionCallback<Map<String, Object>>)
+
+        then:"hasCurrentSession agrees with the session getCurrentSession returns"
+        !result.hasCurrentSession
+        transactional != null
+        !transactional.is(result.scoped)
+
+        cleanup:
+        transactional?.disconnect()
+    }
+
+    void "test a tenant is bound for the duration of the closure"() {
+        expect:
+        Tenants.withId(datastore, 'acme') {
+            [Tenants.currentId(datastore), Tenants.withoutId(datastore) { ScopedContexts.currentTenant() }, Tenants.currentId(datastore)]
+        } == ['acme', ConnectionSource.DEFAULT, 'acme']
+        ScopedContexts.currentTenant() == null
+        storage.@bindings.get() == null
+    }
+}
+
+@Entity
+class ScopedNote {
+    String text
+}
@@ -0,0 +1,120 @@
+package org.grails.datastore.gorm
+
+import java.time.Duration
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.cache.TPCacheAdapter
+import org.grails.datastore.mapping.config.CacheConfig
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.model.PersistentEntity
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class SecondLevelCacheSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(CachedBook, UncachedBook)
+
+    void setup() {
+        datastore.clearData()
+    }
+
+    void "test the cache is configured from the mapping"() {
+        when:
+        CacheConfig cacheConfig = datastore.mappingContext.getPersistentEntity(CachedBook.name).mapping.mappedForm.secondLevelCache
+
+        then:
+        cacheConfig.enabled
+        cacheConfig.maxSize == 100
+        cacheConfig.timeToLive == Duration.ofMinutes(5)
+        cacheAdapter(CachedBook) != null
+        cacheAdapter(UncachedBook) == null
+    }
+
+    void "test entries are read from the cache"() {
+        given:
+        Serializable id = withSession { Session session -> session.insert(new CachedBook(title: 'Cached')) }
+
+        when:"the entity is read in new sessions"
+        CachedBook first = withSession { Session session -> session.retrieve(CachedBook, id) }
+        datastore.backingMap.clear()
+        CachedBook second = withSession { Session session -> session.retrieve(CachedBook, id) }
+
+        then:"the second read is served by the cache"
+        first.title == 'Cached'
+        second.title == 'Cached'
+        cacheAdapter(CachedBook).statistics.hitCount == 2
+    }
+
+    void "test entries are evicted when they are updated or deleted"() {
+        given:
+        Serializable id = withSession { Session session -> session.insert(new CachedBook(title: 'Original')) }
+
+        when:
+        withSession { Session session ->
+            CachedBook book = session.retrieve(CachedBook, id)
+            book.title = 'Updated'
+            session.persist(book)
+        }
+
+        then:
+        cacheAdapter(CachedBook).getCachedEntry(id) == null
+        withSession { Session session -> session.retrieve(CachedBook, id) }.title == 'Updated'
+
+        when:
+        withSession { Session session -> session.delete(session.retrieve(CachedBook, id)) }
+
+        then:
+        cacheAdapter(CachedBook).getCachedEntry(id) == null
+        withSession { Session session -> session.retrieve(CachedBook, id) } == null
+    }
+
+    void "test changes that are not flushed are not shared through the cache"() {
+        given:
+        Serializable id = withSession { Session session -> session.insert(new CachedBook(title: 'Original')) }
+
+        when:
+        Session session = datastore.connect()
+        CachedBook book = session.retrieve(CachedBook, id)
+        book.title = 'Changed'
+        session.persist(book)
+
+        then:
+        withSession { Session other -> other.retrieve(CachedBook, id) }.title == 'Original'
+
+        cleanup:
+        session?.disconnect()
+    }
+
+    private TPCacheAdapter cacheAdapter(Class type) {
+        PersistentEntity entity = datastore.mappingContext.getPersistentEntity(type.name)
+        datastore.cacheAdapterRepository.getTPCacheAdapter(entity)
+    }
+
+    private <T> T withSession(Closure<T> callable) {
+        Session session = datastore.connect()
+        try {
+            T result = callable.call(session)
+            session.flush()
+            return result
+        }
+        finally {
+            session.disconnect()
+        }
+    }
+}
+
+@Entity
+class CachedBook {
+    String title
+
+    static mapping = {
+        secondLevelCache maxSize: 100, timeToLive: Duration.ofMinutes(5)
+    }
+}
+
+@Entity
+class UncachedBook {
+    String title
+}
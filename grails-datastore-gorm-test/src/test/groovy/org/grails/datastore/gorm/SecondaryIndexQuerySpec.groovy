@@ -0,0 +1,127 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.grails.datastore.mapping.simple.engine.SimpleMapIndexes
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class SecondaryIndexQuerySpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(IndexedItem)
+
+    void setup() {
+        datastore.clearData()
+        new IndexedItem(name: "pen", category: "office", price: 3).save()
+        new IndexedItem(name: "desk", category: "office", price: 250).save()
+        new IndexedItem(name: "lamp", category: "home", price: 40).save()
+        new IndexedItem(name: "gift", category: "home").save(flush: true)
+    }
+
+    void "test equality, in list and range criteria are answered in the order of the entries"() {
+        expect:
+        IndexedItem.findAllByCategory("office")*.name == ['pen', 'desk']
+        IndexedItem.findAllByCategoryInList(["home", "office"])*.name == ['pen', 'desk', 'lamp', 'gift']
+        IndexedItem.findAllByPriceBetween(3, 40)*.name == ['pen', 'lamp']
+        IndexedItem.findAllByPriceGreaterThan(3)*.name == ['desk', 'lamp']
+        IndexedItem.findAllByPriceGreaterThanEquals(40)*.name == ['desk', 'lamp']
+        IndexedItem.findAllByPriceIsNull()*.name == ['gift']
+    }
+
+    void "test entries without a value are ordered before any other value as Groovy does"() {
+        expect:
+        IndexedItem.findAllByPriceLessThan(40)*.name == ['pen', 'gift']
+        IndexedItem.findAllByPriceLessThanEquals(40)*.name == ['pen', 'lamp', 'gift']
+    }
+
+    void "test the keys of a conjunction are intersected"() {
+        expect:
+        IndexedItem.findAllByCategoryAndPriceGreaterThan("office", 10)*.name == ['desk']
+        IndexedItem.withCriteria {
+            eq 'category', 'home'
+            lt 'price', 100
+            like 'name', 'l%'
+        }*.name == ['lamp']
+    }
+
+    void "test the indexes reflect updates and deletes"() {
+        expect:
+        IndexedItem.countByCategory("office") == 2
+
+        when:
+        IndexedItem desk = IndexedItem.findByName("desk")
+        desk.category = "home"
+        desk.save(flush: true)
+        IndexedItem.findByName("pen").delete(flush: true)
+
+        then:
+        IndexedItem.countByCategory("office") == 0
+        IndexedItem.findAllByCategory("home")*.name == ['desk', 'lamp', 'gift']
+        IndexedItem.findAllByPriceLessThan(10)*.name == ['gift']
+    }
+
+    void "test values of another type than the indexed values are compared by scanning"() {
+        expect:"the index does not coerce the long to the integer values"
+        IndexedItem.findAllByPriceGreaterThan(39L)*.name == ['desk', 'lamp']
+        IndexedItem.findAllByPrice(40L)*.name == ['lamp']
+    }
+
+    void "test a property index only answers the lookups it can compare"() {
+        given:
+        Map<Object, Map> entries = [1: [value: 1], 2: [value: 2L], 3: [value: null]]
+        Map<Object, Map> uniform = [1: [value: [1]], 2: [value: [2]]]
+        SimpleMapIndexes indexes = new SimpleMapIndexes()
+
+        expect:"values of mixed types are not indexed"
+        indexes.getIndex('mixed', 'value', entries).equalTo(1) == null
+        indexes.getIndex('mixed', 'value', entries).range(1, true, 2, true) == null
+
+        and:"collections are only compared by Groovy"
+        indexes.getIndex('lists', 'value', uniform).equalTo([1]) == null
+    }
+
+    void "test an index built while the family is written is not published"() {
+        given:"entries that a concurrent writer replaces while the index reads their keys"
+        SimpleMapIndexes indexes = new SimpleMapIndexes()
+        Map<Object, Map> entries = new ConcurrentWriteMap(writer: { Map<Object, Map> map ->
+            map.remove(1)
+            map.put(3, [value: 'c'])
+            indexes.invalidate('items')
+        })
+        entries.putAll([1: [value: 'a'], 2: [value: 'b']])
+
+        when:"the index is built while the writer removes one entry and adds another"
+        indexes.getIndex('items', 'value', entries)
+
+        then:"the next lookup orders the written entries by their position"
+        indexes.getIndex('items', 'value', entries).in(['c', 'b']) == [2, 3]
+        indexes.getIndex('items', 'value', entries).equalTo('a') == []
+    }
+}
+
+class ConcurrentWriteMap extends LinkedHashMap<Object, Map> {
+    Closure writer
+
+    @Override
+    Set<Object> keySet() {
+        Set<Object> keys = new ArrayList<Object>(super.keySet()) as LinkedHashSet
+        if (writer != null) {
+            Closure write = writer
+            writer = null
+            write.call(this)
+        }
+        return keys
+    }
+}
+
+@Entity
+class IndexedItem {
+    String name
+    String category
+    Integer price
+
+    static constraints = {
+        price nullable: true
+    }
+}
@@ -0,0 +1,101 @@
+package org.grails.datastore.gorm
+
+import grails.gorm.annotation.Entity
+import org.grails.datastore.mapping.simple.SimpleMapDatastore
+import org.springframework.dao.InvalidDataAccessResourceUsageException
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+class SimpleMapQueryEvaluatorSpec extends Specification {
+
+    @Shared @AutoCleanup SimpleMapDatastore datastore = new SimpleMapDatastore(EvaluatedTask)
+
+    void setup() {
+        datastore.clearData()
+        new EvaluatedTask(title: "write", owner: "anna", priority: 2, estimate: 5).save()
+        new EvaluatedTask(title: "review", owner: "bob", priority: 1, estimate: 1).save()
+        new EvaluatedTask(title: "release", owner: "anna", priority: 1, estimate: 8).save()
+        new EvaluatedTask(title: "rework", owner: "carl", priority: 3, estimate: 3).save()
+        new EvaluatedTask(title: "plan", owner: "bob", priority: 2, estimate: 2).save(flush: true)
+    }
+
+    void "test ordered results are paged as if all entries were sorted"() {
+        expect:"ties keep the order of the entries"
+        EvaluatedTask.list(sort: 'priority')*.title == ['review', 'release', 'write', 'plan', 'rework']
+        EvaluatedTask.list(sort: 'priority', max: 2)*.title == ['review', 'release']
+        EvaluatedTask.list(sort: 'priority', max: 2, offset: 2)*.title == ['write', 'plan']
+        EvaluatedTask.list(sort: 'estimate', order: 'desc', max: 1)*.title == ['release']
+
+        and:"multiple orders are applied in turn"
+        EvaluatedTask.withCriteria {
+            order 'owner', 'desc'
+            order 'estimate'
+            maxResults 3
+        }*.title == ['rework', 'review', 'plan']
+    }
+
+    void "test junctions are evaluated"() {
+        expect:
+        EvaluatedTask.withCriteria {
+            or {
+                eq 'owner', 'carl'
+                and {
+                    eq 'owner', 'anna'
+                    gt 'estimate', 6
+                }
+            }
+        }*.title == ['release', 'rework']
+        EvaluatedTask.withCriteria {
+            not {
+                eq 'owner', 'anna'
+                eq 'priority', 1
+            }
+            order 'title'
+        }*.title == ['plan', 'rework']
+    }
+
+    void "test like and property comparison criteria are evaluated"() {
+        expect:
+        EvaluatedTask.findAllByTitleLike('re%')*.title == ['review', 'release', 'rework']
+        EvaluatedTask.findAllByTitleIlike('RE%W')*.title == ['review']
+        EvaluatedTask.withCriteria {
+            gtProperty 'estimate', 'priority'
+        }*.title == ['write', 'release']
+        EvaluatedTask.withCriteria {
+            eqProperty 'estimate', 'priority'
+            projections {
+                property 'title'
+            }
+        } == ['review', 'rework', 'plan']
+    }
+
+    void "test projections are applied to the sorted entries"() {
+        expect:
+        EvaluatedTask.withCriteria {
+            eq 'owner', 'bob'
+            order 'estimate', 'desc'
+            projections {
+                property 'title'
+            }
+        } == ['plan', 'review']
+    }
+
+    void "test querying a property that does not exist fails"() {
+        when:
+        EvaluatedTask.withCriteria {
+            eq 'missing', 'value'
+        }
+
+        then:
+        thrown InvalidDataAccessResourceUsageException
+    }
+}
+
+@Entity
+class EvaluatedTask {
+    String title
+    String owner
+    Integer priority
+    Integer estimate
+}
@@ -2,6 +2,7 @@ package org.grails.datastore.mapping
 
 import grails.gorm.tests.GormDatastoreSpec
 import grails.persistence.Entity
+import org.grails.datastore.mapping.model.PersistentEntity
 
 /**
  * Created by Jim on 8/19/2016.
@@ -18,6 +19,23 @@ class EntityReflectorSpec extends GormDatastoreSpec {
         id == null
     }
 
+    void "test the dirty checking state of an instance without changes can be modified"() {
+        given:
+        Library library = new Library()
+        LibraryBook book = new LibraryBook()
+        book.trackChanges()
+        PersistentEntity entity = session.mappingContext.getPersistentEntity(LibraryBook.name)
+
+        when:
+        Map<String, Object> state = session.mappingContext.getEntityReflector(entity).getDirtyCheckingState(book)
+        state.put('library', library)
+
+        then:
+        noExceptionThrown()
+        book.hasChanged('library')
+        book.getOriginalValue('library').is(library)
+    }
+
     @Override
     List getDomainClasses() {
         [Library, LibraryBook]
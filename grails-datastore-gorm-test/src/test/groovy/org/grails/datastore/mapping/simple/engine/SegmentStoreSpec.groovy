@@ -0,0 +1,94 @@
+package org.grails.datastore.mapping.simple.engine
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class SegmentStoreSpec extends Specification {
+
+    @TempDir
+    File directory
+
+    void "test the entries are replayed from the segments when the store is reopened"() {
+        given:
+        SegmentStore store = new SegmentStore(directory, 4096, 0.5d)
+        store.get('book').put(1L, [title: 'It'])
+        store.get('book').put(2L, [title: 'Carrie'])
+        store.get('book').put(1L, [title: 'It', pages: 1138])
+        store.get('book').remove(2L)
+        store.get('author').put('stephen', [name: 'Stephen King'])
+        store.close()
+
+        when:
+        store = new SegmentStore(directory, 4096, 0.5d)
+
+        then:
+        store.get('book') == [1L: [title: 'It', pages: 1138]]
+        store.get('book').getHighestKey() == 2
+        store.get('author').get('stephen') == [name: 'Stephen King']
+        store.keySet() == ['book', 'author'] as Set
+
+        cleanup:
+        store?.close()
+    }
+
+    void "test the entries keep the order in which they were first stored"() {
+        given:
+        SegmentStore store = new SegmentStore(directory, 4096, 0.5d)
+        Map book = store.get('book')
+
+        when:
+        book.put(3L, [title: 'c'])
+        book.put(1L, [title: 'a'])
+        book.put(3L, [title: 'C'])
+        book.put(2L, [title: 'b'])
+
+        then:
+        book.keySet().toList() == [3L, 1L, 2L]
+        book.values()*.title == ['C', 'a', 'b']
+
+        cleanup:
+        store?.close()
+    }
+
+    void "test overwritten entries are compacted away"() {
+        given:
+        SegmentStore store = new SegmentStore(directory, 1024, 0.5d)
+
+        when:
+        200.times { int count ->
+            store.get('counter').put('value', [count: count])
+        }
+
+        then:
+        store.getSegmentCount() <= 2
+        store.get('counter').get('value') == [count: 199]
+
+        when:
+        store.close()
+        store = new SegmentStore(directory, 1024, 0.5d)
+
+        then:
+        store.get('counter') == [value: [count: 199]]
+
+        cleanup:
+        store?.close()
+    }
+
+    void "test clearing the store deletes the segments"() {
+        given:
+        SegmentStore store = new SegmentStore(directory, 4096, 0.5d)
+        store.get('book').put(1L, [title: 'It'])
+
+        when:
+        store.clear()
+        store.close()
+        store = new SegmentStore(directory, 4096, 0.5d)
+
+        then:
+        store.get('book').isEmpty()
+        store.get('book').getHighestKey() == 0
+
+        cleanup:
+        store?.close()
+    }
+}
@@ -1,5 +1,8 @@
 package org.grails.datastore.gorm.support;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -138,13 +141,32 @@ public abstract class EventTriggerCaller {
 
     private static class MethodCaller extends EventTriggerCaller {
 
-        Method method;
+        private static final MethodType CALLER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
 
-        int numberOfParameters;
+        final MethodHandle method;
+
+        final int numberOfParameters;
 
         MethodCaller(Method method) {
-            this.method = method;
-            this.numberOfParameters = method.getParameterTypes().length;
+            this.numberOfParameters = method.getParameterCount();
+            this.method = bind(method, numberOfParameters);
+        }
+
+        /**
+         * Adapts the method to a handle of type {@code (Object, Object[])Object} that spreads the arguments and
+         * returns {@code null} for void methods
+         */
+        private static MethodHandle bind(Method method, int numberOfParameters) {
+            try {
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                return handle.asSpreader(Object[].class, numberOfParameters).asType(CALLER_TYPE);
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access event method [" + method + "]", e);
+            }
         }
 
         @Override
@@ -155,7 +177,14 @@ public abstract class EventTriggerCaller {
                     arguments[i] = argumentArray[i];
                 }
             }
-            Object retval = ReflectionUtils.invokeMethod(method, entity, arguments);
+            Object retval;
+            try {
+                retval = (Object) method.invokeExact(entity, arguments);
+            }
+            catch (Throwable e) {
+                ReflectionUtils.rethrowRuntimeException(e);
+                return false;
+            }
             return resolveReturnValue(retval);
         }
 
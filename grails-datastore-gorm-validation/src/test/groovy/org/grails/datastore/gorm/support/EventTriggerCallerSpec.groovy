@@ -0,0 +1,58 @@
+package org.grails.datastore.gorm.support
+
+import spock.lang.Specification
+
+class EventTriggerCallerSpec extends Specification {
+
+    void "test a method caller passes the preferred arguments"() {
+        given:
+        EventTriggerCaller caller = EventTriggerCaller.buildCaller('beforeValidate', Target, null, [List] as Class[])
+        Target target = new Target()
+
+        when:
+        boolean result = caller.call(target, [['name']] as Object[])
+
+        then:
+        target.validated == ['name']
+        !result
+    }
+
+    void "test a method caller inverts a boolean result"() {
+        given:
+        EventTriggerCaller caller = EventTriggerCaller.buildCaller('veto', Target)
+
+        expect:
+        caller.call(new Target(veto: false))
+        !caller.call(new Target(veto: true))
+    }
+
+    void "test exceptions thrown by the method are propagated"() {
+        given:
+        EventTriggerCaller caller = EventTriggerCaller.buildCaller('fail', Target)
+
+        when:
+        caller.call(new Target())
+
+        then:
+        IllegalStateException e = thrown()
+        e.message == 'failed'
+    }
+
+    static class Target {
+
+        List validated
+        boolean veto
+
+        void beforeValidate(List properties) {
+            validated = properties
+        }
+
+        boolean veto() {
+            veto
+        }
+
+        void fail() {
+            throw new IllegalStateException('failed')
+        }
+    }
+}
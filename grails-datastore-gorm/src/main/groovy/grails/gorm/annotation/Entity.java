@@ -32,5 +32,19 @@ import org.codehaus.groovy.transform.GroovyASTTransformationClass;
 @Target({ ElementType.TYPE })
 @GroovyASTTransformationClass("org.grails.compiler.gorm.GormEntityTransformation")
 public @interface Entity {
-    // no attributes
+
+    /**
+     * The names of dynamic finders to generate as static methods of the entity at compile time, for example
+     * {@code findByTitleAndAuthor}, {@code findAllByPagesBetween} or {@code countByAuthor}. Only the "findBy",
+     * "findAllBy" and "countBy" prefixes are supported.
+     *
+     * <p>The generated methods take one parameter per argument of the finder, typed after the queried property,
+     * and build the query directly instead of being dispatched through {@code staticMethodMissing}. They can
+     * therefore be called from statically compiled code.</p>
+     *
+     * @return The finder method names
+     * @since 2022.2.5
+     */
+    String[] finders() default {};
+
 }
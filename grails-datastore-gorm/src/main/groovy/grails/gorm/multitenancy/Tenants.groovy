@@ -1,5 +1,16 @@
 package grails.gorm.multitenancy
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Supplier
+
 import groovy.transform.CompileStatic
 import groovy.util.logging.Slf4j
 
@@ -7,10 +18,14 @@ import org.grails.datastore.gorm.GormEnhancer
 import org.grails.datastore.mapping.core.Datastore
 import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.grails.datastore.mapping.core.connections.ConnectionSources
+import org.grails.datastore.mapping.core.context.ScopedContexts
 import org.grails.datastore.mapping.multitenancy.AllTenantsResolver
 import org.grails.datastore.mapping.multitenancy.MultiTenancySettings
 import org.grails.datastore.mapping.multitenancy.MultiTenantCapableDatastore
+import org.grails.datastore.mapping.multitenancy.TenantContext
 import org.grails.datastore.mapping.multitenancy.TenantResolver
+import org.grails.datastore.mapping.multitenancy.exceptions.TenantException
+import org.grails.datastore.mapping.multitenancy.exceptions.TenantExecutionException
 
 /**
  * Helper methods for working with multi tenancy
@@ -72,7 +87,7 @@ class Tenants {
         }
         else {
             TenantResolver tenantResolver = multiTenantCapableDatastore.getTenantResolver()
-            Serializable tenantIdentifier = tenantResolver.resolveTenantIdentifier()
+            Serializable tenantIdentifier = TenantContext.resolveTenantIdentifier(tenantResolver)
             log.debug "Resolved tenant id [$tenantIdentifier] from resolver [${tenantResolver.getClass().simpleName}]"
             return tenantIdentifier
         }
@@ -94,7 +109,7 @@ class Tenants {
             }
             else {
                 TenantResolver tenantResolver = multiTenantCapableDatastore.getTenantResolver()
-                def tenantIdentifier = tenantResolver.resolveTenantIdentifier()
+                def tenantIdentifier = TenantContext.resolveTenantIdentifier(tenantResolver)
                 log.debug "Resolved tenant id [$tenantIdentifier] from resolver [${tenantResolver.getClass().simpleName}]"
                 return tenantIdentifier
             }
@@ -286,20 +301,137 @@ class Tenants {
      * @return The result of the closure
      */
     static void eachTenant(MultiTenantCapableDatastore multiTenantCapableDatastore, Closure callable) {
+        for (Serializable tenantId in allTenantIds(multiTenantCapableDatastore)) {
+            withId(multiTenantCapableDatastore, tenantId, callable)
+        }
+    }
+
+    /**
+     * Execute the given closure for each tenant in parallel, running at most the given number of tenants at the same time.
+     *
+     * @param maxConcurrency The maximum number of tenants executed at the same time
+     * @param callable The closure
+     * @return The results of the closure keyed by tenant id
+     * @since 2022.2.5
+     */
+    static <T> Map<Serializable, T> eachTenantInParallel(int maxConcurrency, Closure<T> callable) {
+        Datastore datastore = GormEnhancer.findSingleDatastore()
+        if (datastore instanceof MultiTenantCapableDatastore) {
+            return eachTenantInParallel((MultiTenantCapableDatastore) datastore, maxConcurrency, callable)
+        }
+        else {
+            throw new UnsupportedOperationException("Datastore implementation does not support multi-tenancy")
+        }
+    }
+
+    /**
+     * Execute the given closure for each tenant of the given datastore in parallel on a thread pool that is shut down once all the tenants
+     * have been executed.
+     *
+     * @param multiTenantCapableDatastore The multi tenant capable datastore
+     * @param maxConcurrency The maximum number of tenants executed at the same time
+     * @param callable The closure
+     * @return The results of the closure keyed by tenant id
+     * @since 2022.2.5
+     */
+    static <T> Map<Serializable, T> eachTenantInParallel(MultiTenantCapableDatastore multiTenantCapableDatastore, int maxConcurrency, Closure<T> callable) {
+        eachTenantInParallel(multiTenantCapableDatastore, maxConcurrency, false, callable)
+    }
+
+    /**
+     * Execute the given closure for each tenant of the given datastore in parallel, either on a thread pool or on virtual threads.
+     * The executor is shut down once all the tenants have been executed.
+     *
+     * @param multiTenantCapableDatastore The multi tenant capable datastore
+     * @param maxConcurrency The maximum number of tenants executed at the same time
+     * @param virtualThreads Whether to execute each tenant on its own virtual thread, which requires Java 21 or above
+     * @param callable The closure
+     * @return The results of the closure keyed by tenant id
+     * @since 2022.2.5
+     */
+    static <T> Map<Serializable, T> eachTenantInParallel(MultiTenantCapableDatastore multiTenantCapableDatastore, int maxConcurrency,
+                                                         boolean virtualThreads, Closure<T> callable) {
+        ExecutorService executor = virtualThreads ? newVirtualThreadExecutor() : newTenantThreadPool(maxConcurrency)
+        try {
+            return eachTenantInParallel(multiTenantCapableDatastore, executor, maxConcurrency, callable)
+        }
+        finally {
+            executor.shutdownNow()
+        }
+    }
+
+    /**
+     * Execute the given closure for each tenant of the given datastore in parallel on the given executor. Each tenant is executed as with
+     * {@link #withId(MultiTenantCapableDatastore, Serializable, Closure)}, so it is bound as the current tenant of the thread that executes it.
+     * With {@link MultiTenancySettings.MultiTenancyMode#DATABASE} each tenant uses a new session of its connection source. In the shared
+     * connection modes a session is only opened for a closure that accepts the session argument; other closures use whatever session the
+     * GORM methods they call open on the worker thread. The closure is called concurrently and must not share state that is not thread safe.
+     *
+     * <p>Tenants are submitted in the order they are resolved, and a tenant is only submitted once fewer than {@code maxConcurrency} tenants
+     * are running. Every tenant is executed even if others fail; a {@link TenantExecutionException} holding the results and the failures
+     * is then thrown.</p>
+     *
+     * @param multiTenantCapableDatastore The multi tenant capable datastore
+     * @param executor The executor that runs the tenants, which is left open
+     * @param maxConcurrency The maximum number of tenants executed at the same time
+     * @param callable The closure
+     * @return The results of the closure keyed by tenant id, in the order the tenants are resolved
+     * @throws TenantExecutionException if the closure failed for any of the tenants
+     * @since 2022.2.5
+     */
+    static <T> Map<Serializable, T> eachTenantInParallel(MultiTenantCapableDatastore multiTenantCapableDatastore, ExecutorService executor,
+                                                         int maxConcurrency, Closure<T> callable) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least 1, but was $maxConcurrency")
+        }
+        Semaphore permits = new Semaphore(maxConcurrency)
+        Map<Serializable, Future<T>> futures = new LinkedHashMap<>()
+        Map<Serializable, T> results = new LinkedHashMap<>()
+        Map<Serializable, Throwable> failures = new LinkedHashMap<>()
+        try {
+            for (Serializable tenantId in allTenantIds(multiTenantCapableDatastore)) {
+                permits.acquire()
+                futures.put(tenantId, submitTenant(executor, permits, multiTenantCapableDatastore, tenantId, callable))
+            }
+            for (Map.Entry<Serializable, Future<T>> entry in futures.entrySet()) {
+                try {
+                    results.put(entry.key, entry.value.get())
+                }
+                catch (ExecutionException e) {
+                    failures.put(entry.key, e.cause ?: e)
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            cancelAll(futures.values())
+            Thread.currentThread().interrupt()
+            throw new TenantException("Interrupted while executing the tenants in parallel", e)
+        }
+        catch (RejectedExecutionException e) {
+            // the tenants already submitted would otherwise keep running after the caller has given up on them
+            cancelAll(futures.values())
+            throw e
+        }
+        if (!failures.isEmpty()) {
+            throw new TenantExecutionException(results, failures)
+        }
+        return results
+    }
+
+    private static Collection<Serializable> allTenantIds(MultiTenantCapableDatastore multiTenantCapableDatastore) {
         MultiTenancySettings.MultiTenancyMode multiTenancyMode = multiTenantCapableDatastore.multiTenancyMode
+        List<Serializable> tenantIds = []
         if (multiTenancyMode == MultiTenancySettings.MultiTenancyMode.DATABASE) {
             if (multiTenantCapableDatastore.tenantResolver instanceof AllTenantsResolver) {
-                def tenantIds = ((AllTenantsResolver) multiTenantCapableDatastore.tenantResolver).resolveTenantIds()
-                for (tenantId in tenantIds) {
-                    withId(multiTenantCapableDatastore, tenantId, callable)
+                for (tenantId in ((AllTenantsResolver) multiTenantCapableDatastore.tenantResolver).resolveTenantIds()) {
+                    tenantIds.add(tenantId)
                 }
             }
             else {
                 ConnectionSources connectionSources = multiTenantCapableDatastore.connectionSources
-                for (ConnectionSource connectionSource in connectionSources.allConnectionSources) {
-                    def tenantId = connectionSource.name
+                for (String tenantId in connectionSources.allConnectionSourceNames) {
                     if (tenantId != ConnectionSource.DEFAULT) {
-                        withId(multiTenantCapableDatastore, tenantId, callable)
+                        tenantIds.add(tenantId)
                     }
                 }
             }
@@ -308,7 +440,7 @@ class Tenants {
             TenantResolver tenantResolver = multiTenantCapableDatastore.tenantResolver
             if (tenantResolver instanceof AllTenantsResolver) {
                 for (tenantId in ((AllTenantsResolver) tenantResolver).resolveTenantIds()) {
-                    withId(multiTenantCapableDatastore, tenantId, callable)
+                    tenantIds.add(tenantId)
                 }
             }
             else {
@@ -318,6 +450,55 @@ class Tenants {
         else {
             throw new UnsupportedOperationException("Method not supported in multi tenancy mode $multiTenancyMode")
         }
+        return tenantIds
+    }
+
+    private static <T> Future<T> submitTenant(ExecutorService executor, Semaphore permits, MultiTenantCapableDatastore multiTenantCapableDatastore,
+                                              Serializable tenantId, Closure<T> callable) {
+        try {
+            return executor.submit(new Callable<T>() {
+                @Override
+                T call() throws Exception {
+                    try {
+                        return withId(multiTenantCapableDatastore, tenantId, callable)
+                    }
+                    finally {
+                        permits.release()
+                    }
+                }
+            })
+        }
+        catch (RejectedExecutionException e) {
+            permits.release()
+            throw e
+        }
+    }
+
+    private static void cancelAll(Collection<? extends Future> futures) {
+        for (Future future in futures) {
+            future.cancel(true)
+        }
+    }
+
+    private static ExecutorService newTenantThreadPool(int threads) {
+        AtomicInteger threadCount = new AtomicInteger()
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "gorm-tenants-" + threadCount.incrementAndGet())
+                thread.setDaemon(true)
+                return thread
+            }
+        })
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+        }
+        catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or above", e)
+        }
     }
 
     private static void eachTenantInternal(Datastore datastore, Closure callable) {
@@ -333,26 +514,11 @@ class Tenants {
     @CompileStatic
     protected static class CurrentTenant {
 
-        private static final ThreadLocal<Serializable> currentTenantThreadLocal = new ThreadLocal<>()
-
         /**
          * @return Obtain the current tenant
          */
         static Serializable get() {
-            currentTenantThreadLocal.get()
-        }
-
-        /**
-         * Set the current tenant
-         *
-         * @param tenantId The tenant id
-         */
-        private static void set(Serializable tenantId) {
-            currentTenantThreadLocal.set(tenantId)
-        }
-
-        private static void remove() {
-            currentTenantThreadLocal.remove()
+            ScopedContexts.currentTenant()
         }
 
         /**
@@ -362,18 +528,7 @@ class Tenants {
          * @return The result of the closure
          */
         static <T> T withTenant(Serializable tenantId, Closure<T> callable) {
-            def previous = get()
-            try {
-                set(tenantId)
-                callable.call(tenantId)
-            } finally {
-                if (previous == null) {
-                    remove()
-                }
-                else {
-                    set(previous)
-                }
-            }
+            ScopedContexts.withTenant(tenantId, { callable.call(tenantId) } as Supplier<T>)
         }
 
         /**
@@ -383,18 +538,7 @@ class Tenants {
          * @return The result of the closure
          */
         static <T> T withoutTenant(Closure<T> callable) {
-            def previous = get()
-            try {
-                set(ConnectionSource.DEFAULT)
-                callable.call()
-            } finally {
-                if (previous == null) {
-                    remove()
-                }
-                else {
-                    set(previous)
-                }
-            }
+            ScopedContexts.withTenant(ConnectionSource.DEFAULT, { callable.call() } as Supplier<T>)
         }
     }
 
@@ -42,6 +42,7 @@ import static org.codehaus.groovy.ast.tools.GeneralUtils.assignS
 import static org.codehaus.groovy.ast.tools.GeneralUtils.block
 import static org.codehaus.groovy.ast.tools.GeneralUtils.callX
 import static org.codehaus.groovy.ast.tools.GeneralUtils.constX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.fieldX
 import static org.codehaus.groovy.ast.tools.GeneralUtils.param
 import static org.codehaus.groovy.ast.tools.GeneralUtils.params
 import static org.codehaus.groovy.ast.tools.GeneralUtils.propX
@@ -71,6 +72,10 @@ class DirtyCheckingTransformer implements CompilationUnitAware {
 
     private static final ClassNode VALIDATION_CONSTRAINT_NODE
     public static final String METHOD_NAME_MARK_DIRTY = "markDirty"
+    /**
+     * The number of properties per class for which the dirty state is recorded in a bit set
+     */
+    public static final int MAX_INDEXED_PROPERTIES = 64
     public static final ConstantExpression CONSTANT_NULL = new ConstantExpression(null)
     public static final ClassNode DIRTY_CHECKED_PROPERTY_CLASS_NODE = ClassHelper.make(DirtyCheckedProperty)
     public static final ClassNode DIRTY_CHECK_CLASS_NODE = ClassHelper.make(DirtyCheck)
@@ -105,6 +110,7 @@ class DirtyCheckingTransformer implements CompilationUnitAware {
             changeTrackableClassNode.setSuperClass(new ClassNode(DirtyCheckable).getPlainNodeReference())
         }
         final MethodNode markDirtyMethodNode = changeTrackableClassNode.getMethod(METHOD_NAME_MARK_DIRTY, new Parameter(ClassHelper.STRING_TYPE, "propertyName"), new Parameter(ClassHelper.OBJECT_TYPE, "newValue"))
+        final MethodNode indexedMarkDirtyMethodNode = changeTrackableClassNode.getMethod(METHOD_NAME_MARK_DIRTY, new Parameter(ClassHelper.int_TYPE, "propertyIndex"), new Parameter(ClassHelper.STRING_TYPE, "propertyName"), new Parameter(ClassHelper.OBJECT_TYPE, "newValue"), new Parameter(ClassHelper.OBJECT_TYPE, "oldValue"))
 
 
         ClassNode superClass = classNode.getSuperClass()
@@ -168,6 +174,8 @@ class DirtyCheckingTransformer implements CompilationUnitAware {
             }
         }
 
+        // the properties are indexed in the class that declares the dirty checking state only, so that the indices of a class hierarchy do not clash
+        int propertyIndex = 0
         boolean hasVersion = false
         for (PropertyNode pn in propertyNodes) {
             final propertyName = pn.name
@@ -246,6 +254,7 @@ class DirtyCheckingTransformer implements CompilationUnitAware {
                     String getterName = NameUtils.getGetterName(propertyName, false)
 
                     MethodNode getter = classNode.getMethod(getterName, ZERO_PARAMETERS)
+                    boolean generatedGetter = getter == null
                     if (getter == null) {
 
                         getter = classNode.addMethod(getterName, PUBLIC, returnType, ZERO_PARAMETERS, null, returnS(varX(fieldName)))
@@ -261,7 +270,14 @@ class DirtyCheckingTransformer implements CompilationUnitAware {
 
                     // now add the setter that tracks changes. Each setters becomes:
                     // void setFoo(String foo) { markDirty("foo", foo); this.foo = foo }
-                    addDirtyCheckingSetter(classNode, propertyName, fieldName, returnType, markDirtyMethodNode, staticCompilationVisitor)
+                    // or, if the old value can be read from the field and the property can be indexed:
+                    // void setFoo(String foo) { markDirty(0, "foo", foo, this.foo); this.foo = foo }
+                    if (shouldWeave && generatedGetter && indexedMarkDirtyMethodNode != null && propertyIndex < MAX_INDEXED_PROPERTIES) {
+                        addIndexedDirtyCheckingSetter(classNode, propertyName, propertyField, propertyIndex++, returnType, indexedMarkDirtyMethodNode, staticCompilationVisitor)
+                    }
+                    else {
+                        addDirtyCheckingSetter(classNode, propertyName, fieldName, returnType, markDirtyMethodNode, staticCompilationVisitor)
+                    }
                 }
                 else if (getterAndSetter.hasBoth()) {
                     // if both a setter and getter are present, we get hold of the setter and weave the markDirty method call into it
@@ -358,6 +374,26 @@ class DirtyCheckingTransformer implements CompilationUnitAware {
         }
     }
 
+    private void addIndexedDirtyCheckingSetter(ClassNode classNode, String propertyName, FieldNode propertyField, int propertyIndex, ClassNode returnType, MethodNode markDirtyMethodNode, StaticCompilationVisitor staticCompilationVisitor) {
+        final String setterName = NameUtils.getSetterName(propertyName)
+        final Parameter setterParameter = param(returnType, propertyName)
+        MethodNode setter = classNode.getMethod(setterName, setterParameter)
+        if (setter == null) {
+            final BlockStatement setterBody = new BlockStatement()
+            def markDirtyArgs = args(constX(propertyIndex, true), constX(propertyName), varX(setterParameter), fieldX(propertyField))
+            final markDirtyMethodCall = callX(varX("this"), markDirtyMethodNode.name, markDirtyArgs)
+            markDirtyMethodCall.methodTarget = markDirtyMethodNode
+            setterBody.addStatement(stmt(markDirtyMethodCall))
+            setterBody.addStatement(assignS(propX(varX("this"), propertyField.getName()), varX(setterParameter)))
+
+            setter = classNode.addMethod(setterName, PUBLIC, ClassHelper.VOID_TYPE, params(setterParameter), null, setterBody)
+            setter.addAnnotation(DIRTY_CHECKED_PROPERTY_ANNOTATION_NODE)
+            staticCompilationVisitor.visitMethod(
+                    setter
+            )
+        }
+    }
+
     protected boolean isAnnotatedWithJavaValidationApi(List<AnnotationNode> annotationNodes) {
         VALIDATION_CONSTRAINT_NODE != null && annotationNodes.any { AnnotationNode an -> an.classNode.getAnnotations(VALIDATION_CONSTRAINT_NODE) }
     }
@@ -34,12 +34,14 @@ import org.codehaus.groovy.ast.AnnotatedNode
 import org.codehaus.groovy.ast.AnnotationNode
 import org.codehaus.groovy.ast.ClassHelper
 import org.codehaus.groovy.ast.ClassNode
+import org.codehaus.groovy.ast.FieldNode
 import org.codehaus.groovy.ast.GenericsType
 import org.codehaus.groovy.ast.InnerClassNode
 import org.codehaus.groovy.ast.MethodNode
 import org.codehaus.groovy.ast.Parameter
 import org.codehaus.groovy.ast.PropertyNode
 import org.codehaus.groovy.ast.expr.ArgumentListExpression
+import org.codehaus.groovy.ast.expr.ArrayExpression
 import org.codehaus.groovy.ast.expr.BooleanExpression
 import org.codehaus.groovy.ast.expr.ClassExpression
 import org.codehaus.groovy.ast.expr.ClosureExpression
@@ -62,23 +64,47 @@ import org.codehaus.groovy.control.SourceUnit
 import org.codehaus.groovy.transform.ASTTransformation
 import org.codehaus.groovy.transform.AbstractASTTransformation
 import org.codehaus.groovy.transform.GroovyASTTransformation
+import org.codehaus.groovy.transform.sc.StaticCompilationVisitor
 
 import grails.gorm.annotation.Entity
 
 import org.grails.datastore.gorm.GormEnhancer
 import org.grails.datastore.gorm.GormEntity
 import org.grails.datastore.gorm.GormEntityDirtyCheckable
+import org.grails.datastore.gorm.finders.AbstractFindByFinder
+import org.grails.datastore.gorm.finders.DynamicFinder
+import org.grails.datastore.gorm.finders.MatchSpec
+import org.grails.datastore.gorm.finders.MethodExpression
 import org.grails.datastore.gorm.query.GormQueryOperations
 import org.grails.datastore.mapping.model.config.GormProperties
+import org.grails.datastore.mapping.query.Query
+import org.grails.datastore.mapping.query.Restrictions
 import org.grails.datastore.mapping.reflect.AstUtils
 import org.grails.datastore.mapping.reflect.ClassUtils
+import org.grails.datastore.mapping.reflect.GeneratedPropertyAccessor
 import org.grails.datastore.mapping.reflect.NameUtils
 
 import static org.codehaus.groovy.ast.tools.GeneralUtils.args
+import static org.codehaus.groovy.ast.tools.GeneralUtils.assignS
+import static org.codehaus.groovy.ast.tools.GeneralUtils.block
 import static org.codehaus.groovy.ast.tools.GeneralUtils.callX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.castX
 import static org.codehaus.groovy.ast.tools.GeneralUtils.classX
 import static org.codehaus.groovy.ast.tools.GeneralUtils.constX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ctorX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.equalsNullX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.fieldX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ifElseS
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ifS
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ltX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.notX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.orX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.param
+import static org.codehaus.groovy.ast.tools.GeneralUtils.params
 import static org.codehaus.groovy.ast.tools.GeneralUtils.returnS
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ternaryX
+import static org.codehaus.groovy.ast.tools.GeneralUtils.throwS
+import static org.codehaus.groovy.ast.tools.GeneralUtils.varX
 
 
 /**
@@ -90,6 +116,8 @@ import static org.codehaus.groovy.ast.tools.GeneralUtils.returnS
  * - Association id getter methods ('userId' for 'user' association)<br>
  * - Adds the GormEntity and GormValidateable traits<br>
  * - Named query methods<br>
+ * - Indexed accessors for the fields of the entity ({@link GeneratedPropertyAccessor})<br>
+ * - Static finder methods for the finders listed by {@link Entity#finders()}<br>
  *
  * @author Graeme Rocher
  * @since 5.0
@@ -106,6 +134,7 @@ class GormEntityTransformation extends AbstractASTTransformation implements Comp
     public static final AnnotationNode JPA_TRANSIENT_ANNOTATION_NODE = new AnnotationNode(ClassHelper.make(Transient))
 
     private static final String CREATE_NAMED_QUERY = "createNamedQuery"
+    private static final List<String> COMPILED_FINDER_PREFIXES = ['findAllBy', 'findBy', 'countBy']
     private static ClassNode GORM_ENTITY_CLASS_NODE = ClassHelper.make(GormEntity)
     private static MethodNode ADD_TO_METHOD_NODE = GORM_ENTITY_CLASS_NODE.getMethods("addTo").get(0)
     private static MethodNode REMOVE_FROM_METHOD_NODE = GORM_ENTITY_CLASS_NODE.getMethods("removeFrom").get(0)
@@ -373,6 +402,12 @@ class GormEntityTransformation extends AbstractASTTransformation implements Comp
             }
 
         }
+        // generate the accessors used by the entity reflector
+        injectPropertyAccessor(classNode)
+
+        // generate the finders listed by @Entity(finders = [...])
+        injectCompiledFinders(classNode, sourceUnit)
+
         def additionalTransforms = ServiceLoader.load(AdditionalGormEntityTransformation, getClass().classLoader)
         for (additionalTransform in additionalTransforms) {
             if (additionalTransform.isAvailable()) {
@@ -690,6 +725,223 @@ class GormEntityTransformation extends AbstractASTTransformation implements Comp
         properties.add(new PropertyNode(key, Modifier.PUBLIC, propertyType, declaringType, null, null, null));
     }
 
+    /**
+     * Implements {@link GeneratedPropertyAccessor} by generating methods that read and write the fields of the
+     * properties declared by the class by index, so that the entity reflector does not access them reflectively.
+     * The index lookup is a binary search over if statements, as switch statements are not compiled to a table.
+     */
+    protected void injectPropertyAccessor(ClassNode classNode) {
+        if (classNode.getDeclaredField(GeneratedPropertyAccessor.PROPERTY_NAMES_FIELD) != null) {
+            return
+        }
+
+        List<FieldNode> fields = []
+        List<Expression> propertyNames = []
+        for (PropertyNode propertyNode in classNode.getProperties()) {
+            FieldNode field = propertyNode.getField()
+            if (field == null || field.isStatic() || field.isFinal() || field.getName() != propertyNode.getName()) {
+                continue
+            }
+            fields.add(field)
+            propertyNames.add(constX(field.getName()))
+        }
+
+        ClassNode accessorClassNode = ClassHelper.make(GeneratedPropertyAccessor)
+        if (!classNode.declaresInterface(accessorClassNode)) {
+            classNode.addInterface(accessorClassNode)
+        }
+        classNode.addField(GeneratedPropertyAccessor.PROPERTY_NAMES_FIELD, Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL,
+                ClassHelper.STRING_TYPE.makeArray(), new ArrayExpression(ClassHelper.STRING_TYPE, propertyNames))
+
+        Parameter readIndex = param(ClassHelper.int_TYPE, "index")
+        BlockStatement readBody = block(checkPropertyIndexS(readIndex, fields.size()))
+        if (!fields.isEmpty()) {
+            readBody.addStatement(propertyIndexS(readIndex, fields, 0, fields.size()) { FieldNode field ->
+                (Statement) returnS(fieldX(field))
+            })
+        }
+        classNode.addMethod('$gormReadProperty', Modifier.PUBLIC, AstUtils.OBJECT_CLASS_NODE, params(readIndex), null, readBody)
+
+        Parameter writeIndex = param(ClassHelper.int_TYPE, "index")
+        Parameter writeValue = param(AstUtils.OBJECT_CLASS_NODE, "value")
+        BlockStatement writeBody = block(checkPropertyIndexS(writeIndex, fields.size()))
+        if (!fields.isEmpty()) {
+            writeBody.addStatement(propertyIndexS(writeIndex, fields, 0, fields.size()) { FieldNode field ->
+                (Statement) assignS(fieldX(field), castX(writeTypeOf(field), varX(writeValue)))
+            })
+        }
+        classNode.addMethod('$gormWriteProperty', Modifier.PUBLIC, ClassHelper.VOID_TYPE, params(writeIndex, writeValue), null, writeBody)
+    }
+
+    /**
+     * The type the value written to a field is cast to, so that the generated accessor passes static type checking. Primitive
+     * fields are written through their wrapper type.
+     */
+    private static ClassNode writeTypeOf(FieldNode field) {
+        ClassNode type = field.getType()
+        if (ClassHelper.isPrimitiveType(type)) {
+            return ClassHelper.getWrapper(type)
+        }
+        if (type.isGenericsPlaceHolder()) {
+            type = type.redirect()
+        }
+        return type.getPlainNodeReference()
+    }
+
+    private Statement checkPropertyIndexS(Parameter index, int size) {
+        ifS(orX(ltX(varX(index), constX(0, true)), notX(ltX(varX(index), constX(size, true)))),
+                throwS(ctorX(ClassHelper.make(IndexOutOfBoundsException), args(varX(index)))))
+    }
+
+    private Statement propertyIndexS(Parameter index, List<FieldNode> fields, int from, int to, Closure<Statement> accessor) {
+        if (to - from == 1) {
+            return accessor.call(fields.get(from))
+        }
+        int middle = (from + to) >>> 1
+        ifElseS(ltX(varX(index), constX(middle, true)),
+                propertyIndexS(index, fields, from, middle, accessor),
+                propertyIndexS(index, fields, middle, to, accessor))
+    }
+
+    protected void injectCompiledFinders(ClassNode classNode, SourceUnit sourceUnit) {
+        AnnotationNode entityAnnotation = classNode.getAnnotations(MY_TYPE).find()
+        Expression finders = entityAnnotation?.getMember("finders")
+        if (finders == null) {
+            return
+        }
+
+        List<Expression> finderNames = finders instanceof ListExpression ? ((ListExpression) finders).expressions : [finders]
+        StaticCompilationVisitor staticCompilationVisitor = new StaticCompilationVisitor(sourceUnit, classNode)
+        for (Expression finderName in finderNames) {
+            if (!(finderName instanceof ConstantExpression) || !(((ConstantExpression) finderName).value instanceof String)) {
+                AstUtils.error(sourceUnit, finderName, "The finders of class [$classNode.name] must be specified as String constants")
+                continue
+            }
+            MethodNode finder = injectCompiledFinder(classNode, sourceUnit, finderName, (String) ((ConstantExpression) finderName).value)
+            if (finder != null) {
+                staticCompilationVisitor.visitMethod(finder)
+            }
+        }
+    }
+
+    private MethodNode injectCompiledFinder(ClassNode classNode, SourceUnit sourceUnit, ASTNode finderName, String methodName) {
+        String prefix = COMPILED_FINDER_PREFIXES.find { String prefix -> methodName.startsWith(prefix) }
+        MatchSpec matchSpec = prefix != null ? DynamicFinder.buildMatchSpec(prefix, methodName, Integer.MAX_VALUE) : null
+        if (matchSpec == null) {
+            AstUtils.error(sourceUnit, finderName, "Cannot generate finder [$methodName] of class [$classNode.name]. Only findBy, findAllBy and countBy finders are supported")
+            return null
+        }
+
+        List<Parameter> parameters = []
+        List<Expression> criteria = []
+        for (MethodExpression expression in matchSpec.methodCallExpressions) {
+            PropertyNode property = AstUtils.getPropertyFromHierarchy(classNode, expression.propertyName)
+            if (property == null) {
+                AstUtils.error(sourceUnit, finderName, "Cannot generate finder [$methodName] for non-existent property [$expression.propertyName] of class [$classNode.name]")
+                return null
+            }
+            Expression criterion = finderCriterionX(expression, property, parameters)
+            if (criterion == null) {
+                AstUtils.error(sourceUnit, finderName, "Cannot generate finder [$methodName] of class [$classNode.name]. The expression [${expression.getClass().simpleName}] is not supported")
+                return null
+            }
+            criteria.add(criterion)
+        }
+
+        Parameter[] finderParameters = parameters as Parameter[]
+        if (classNode.getDeclaredMethod(methodName, finderParameters) != null) {
+            // a finder implemented by the entity itself takes precedence
+            return null
+        }
+
+        ClassNode returnType
+        if (prefix == 'findAllBy') {
+            returnType = ClassHelper.LIST_TYPE.getPlainNodeReference()
+            returnType.setGenericsTypes([new GenericsType(classNode.getPlainNodeReference())] as GenericsType[])
+        }
+        else if (prefix == 'countBy') {
+            returnType = ClassHelper.Number_TYPE
+        }
+        else {
+            returnType = classNode.getPlainNodeReference()
+        }
+
+        Expression staticApi = callX(classX(ClassHelper.make(GormEnhancer)), "findStaticApi", args(classX(classNode.getPlainNodeReference())))
+        Expression finderCall = callX(staticApi, "executeCompiledFinder", args(
+                constX(prefix),
+                constX(matchSpec.operator == AbstractFindByFinder.OPERATOR_OR, true),
+                new ArrayExpression(ClassHelper.make(Query.Criterion), criteria)))
+        classNode.addMethod(methodName, Modifier.PUBLIC | Modifier.STATIC, returnType, finderParameters, null, block(returnS(castX(returnType, finderCall))))
+    }
+
+    private Expression finderCriterionX(MethodExpression expression, PropertyNode property, List<Parameter> parameters) {
+        ClassNode propertyType = ClassHelper.isPrimitiveType(property.type) ? property.type : property.type.getPlainNodeReference()
+        ClassExpression restrictions = classX(ClassHelper.make(Restrictions))
+        Expression propertyName = constX(property.name)
+        switch (expression) {
+            case MethodExpression.Equal:
+                Parameter value = finderParameter(parameters, propertyType, property.name)
+                return nullSafeCriterionX(value, callX(restrictions, "eq", args(propertyName, varX(value))), callX(restrictions, "isNull", args(propertyName)))
+            case MethodExpression.NotEqual:
+                Parameter notValue = finderParameter(parameters, propertyType, property.name)
+                return nullSafeCriterionX(notValue, callX(restrictions, "ne", args(propertyName, varX(notValue))), callX(restrictions, "isNotNull", args(propertyName)))
+            case MethodExpression.GreaterThan:
+                return callX(restrictions, "gt", args(propertyName, varX(finderParameter(parameters, propertyType, property.name))))
+            case MethodExpression.GreaterThanEquals:
+                return callX(restrictions, "gte", args(propertyName, varX(finderParameter(parameters, propertyType, property.name))))
+            case MethodExpression.LessThan:
+                return callX(restrictions, "lt", args(propertyName, varX(finderParameter(parameters, propertyType, property.name))))
+            case MethodExpression.LessThanEquals:
+                return callX(restrictions, "lte", args(propertyName, varX(finderParameter(parameters, propertyType, property.name))))
+            case MethodExpression.Like:
+                return callX(restrictions, "like", args(propertyName, varX(finderParameter(parameters, ClassHelper.STRING_TYPE, property.name))))
+            case MethodExpression.Ilike:
+                return callX(restrictions, "ilike", args(propertyName, varX(finderParameter(parameters, ClassHelper.STRING_TYPE, property.name))))
+            case MethodExpression.Rlike:
+                return callX(restrictions, "rlike", args(propertyName, varX(finderParameter(parameters, ClassHelper.STRING_TYPE, property.name))))
+            case MethodExpression.InList:
+                return callX(restrictions, "in", args(propertyName, varX(finderParameter(parameters, ClassHelper.make(Collection), property.name))))
+            case MethodExpression.NotInList:
+                Expression inList = callX(restrictions, "in", args(propertyName, varX(finderParameter(parameters, ClassHelper.make(Collection), property.name))))
+                return callX(ctorX(ClassHelper.make(Query.Negation)), "add", args(inList))
+            case MethodExpression.Between:
+                Parameter from = finderParameter(parameters, propertyType, property.name + "From")
+                Parameter to = finderParameter(parameters, propertyType, property.name + "To")
+                return callX(restrictions, "between", args(propertyName, varX(from), varX(to)))
+            case MethodExpression.InRange:
+                Parameter range = finderParameter(parameters, ClassHelper.RANGE_TYPE.getPlainNodeReference(), property.name + "Range")
+                return callX(restrictions, "between", args(propertyName, callX(varX(range), "getFrom"), callX(varX(range), "getTo")))
+            case MethodExpression.IsNull:
+                return callX(restrictions, "isNull", args(propertyName))
+            case MethodExpression.IsNotNull:
+                return callX(restrictions, "isNotNull", args(propertyName))
+            case MethodExpression.IsEmpty:
+                return callX(restrictions, "isEmpty", args(propertyName))
+            case MethodExpression.IsNotEmpty:
+                return callX(restrictions, "isNotEmpty", args(propertyName))
+            default:
+                return null
+        }
+    }
+
+    private Expression nullSafeCriterionX(Parameter value, Expression criterion, Expression nullCriterion) {
+        if (ClassHelper.isPrimitiveType(value.type)) {
+            return criterion
+        }
+        ternaryX(equalsNullX(varX(value)), nullCriterion, criterion)
+    }
+
+    private Parameter finderParameter(List<Parameter> parameters, ClassNode type, String name) {
+        String parameterName = name
+        int suffix = 1
+        while (parameters.any { Parameter p -> p.name == parameterName }) {
+            parameterName = name + (++suffix)
+        }
+        Parameter parameter = param(type, parameterName)
+        parameters.add(parameter)
+        parameter
+    }
+
     private void injectToStringMethod(ClassNode classNode) {
         final boolean hasToString = AstUtils.implementsOrInheritsZeroArgMethod(classNode, "toString")
         final boolean hasToStringAnnotation = AstUtils.findAnnotation(classNode, ToString.class) != null;
@@ -17,6 +17,7 @@ package org.grails.datastore.gorm
 import java.lang.reflect.Method
 import java.lang.reflect.Modifier
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 
 import groovy.transform.CompileDynamic
 import groovy.transform.CompileStatic
@@ -47,8 +48,11 @@ import org.grails.datastore.gorm.query.NamedQueriesBuilder
 import org.grails.datastore.mapping.core.Datastore
 import org.grails.datastore.mapping.core.connections.ConnectionSource
 import org.grails.datastore.mapping.core.connections.ConnectionSourceSettings
+import org.grails.datastore.mapping.core.connections.ConnectionSources
+import org.grails.datastore.mapping.core.connections.ConnectionSourcesEvictionListener
 import org.grails.datastore.mapping.core.connections.ConnectionSourcesProvider
 import org.grails.datastore.mapping.core.connections.ConnectionSourcesSupport
+import org.grails.datastore.mapping.core.connections.LazyConnectionSources
 import org.grails.datastore.mapping.core.connections.MultipleConnectionSourceCapableDatastore
 import org.grails.datastore.mapping.model.PersistentEntity
 import org.grails.datastore.mapping.model.config.GormProperties
@@ -89,6 +93,23 @@ class GormEnhancer implements Closeable {
 
     private static final Map<Class, Datastore> DATASTORES_BY_TYPE = new ConcurrentHashMap<Class, Datastore>()
 
+    /**
+     * The enhancers by entity name, used to register the APIs of connection sources created on demand
+     */
+    private static final Map<String, GormEnhancer> ENHANCERS = new ConcurrentHashMap<String, GormEnhancer>()
+
+    /**
+     * Counts the changes to the registered APIs, the APIs cached for an entity class are resolved again after a change
+     */
+    private static final AtomicInteger REGISTRATIONS = new AtomicInteger()
+
+    private static final ClassValue<EntityApiCache> ENTITY_APIS = new ClassValue<EntityApiCache>() {
+        @Override
+        protected EntityApiCache computeValue(Class<?> type) {
+            return new EntityApiCache(type)
+        }
+    }
+
     final Datastore datastore
     PlatformTransactionManager transactionManager
     List<FinderMethod> finders
@@ -104,6 +125,7 @@ class GormEnhancer implements Closeable {
      */
     final boolean dynamicEnhance
 
+    private ConnectionSourcesEvictionListener evictionListener
 
     GormEnhancer(Datastore datastore) {
         this(datastore, null)
@@ -133,6 +155,22 @@ class GormEnhancer implements Closeable {
         NAMED_QUERIES.clear()
         DATASTORES_BY_TYPE.put(datastore.getClass(), datastore)
 
+        LazyConnectionSources lazyConnectionSources = findLazyConnectionSources(datastore)
+        if (lazyConnectionSources != null) {
+            evictionListener = new ConnectionSourcesEvictionListener() {
+                @Override
+                void newConnectionSource(ConnectionSource connectionSource) {
+                    // the APIs are registered once they are looked up
+                }
+
+                @Override
+                void connectionSourceEvicted(ConnectionSource connectionSource) {
+                    unregisterConnectionSource(connectionSource.name)
+                }
+            }
+            lazyConnectionSources.addListener(evictionListener)
+        }
+
         for (entity in datastore.mappingContext.persistentEntities) {
             registerEntity(entity)
         }
@@ -161,17 +199,64 @@ class GormEnhancer implements Closeable {
                 DATASTORES.get(ConnectionSource.DEFAULT).put(name, this.datastore)
 
             }
+            LazyConnectionSources lazyConnectionSources = findLazyConnectionSources(datastore)
             for (qualifier in qualifiers) {
-                def staticApi = getStaticApi(cls, qualifier)
-                def name = entity.name
-                STATIC_APIS.get(qualifier).put(name, staticApi)
-                def instanceApi = getInstanceApi(cls, qualifier)
-                INSTANCE_APIS.get(qualifier).put(name, instanceApi)
-                def validationApi = getValidationApi(cls, qualifier)
-                VALIDATION_APIS.get(qualifier).put(name, validationApi)
-                DATASTORES.get(qualifier).put(name, this.datastore)
+                if (lazyConnectionSources == null || lazyConnectionSources.isOpen(qualifier)) {
+                    registerApis(entity, qualifier)
+                }
             }
+            ENHANCERS.put(entity.name, this)
+            REGISTRATIONS.incrementAndGet()
+        }
+    }
+
+    /**
+     * Registers the APIs of the given entity for a connection source that is created on demand by {@link LazyConnectionSources}
+     *
+     * @param cls The entity class
+     * @param qualifier The qualifier
+     * @return Whether the APIs were registered
+     * @since 2022.2.5
+     */
+    protected boolean registerConnectionSource(Class cls, String qualifier) {
+        LazyConnectionSources lazyConnectionSources = findLazyConnectionSources(datastore)
+        PersistentEntity entity = datastore.mappingContext.getPersistentEntity(cls.name)
+        if (lazyConnectionSources == null || entity == null || lazyConnectionSources.getConnectionSource(qualifier) == null) {
+            return false
         }
+        if (!allQualifiers(datastore, entity).contains(qualifier)) {
+            return false
+        }
+        registerApis(entity, qualifier)
+        return true
+    }
+
+    /**
+     * Removes the APIs of all entities for a connection source that was evicted by {@link LazyConnectionSources}
+     *
+     * @param qualifier The qualifier
+     * @since 2022.2.5
+     */
+    protected void unregisterConnectionSource(String qualifier) {
+        for (entity in datastore.mappingContext.persistentEntities) {
+            def name = entity.name
+            STATIC_APIS.get(qualifier)?.remove(name)
+            INSTANCE_APIS.get(qualifier)?.remove(name)
+            VALIDATION_APIS.get(qualifier)?.remove(name)
+            DATASTORES.get(qualifier)?.remove(name)
+        }
+    }
+
+    private void registerApis(PersistentEntity entity, String qualifier) {
+        def cls = entity.javaClass
+        def staticApi = getStaticApi(cls, qualifier)
+        def name = entity.name
+        STATIC_APIS.get(qualifier).put(name, staticApi)
+        def instanceApi = getInstanceApi(cls, qualifier)
+        INSTANCE_APIS.get(qualifier).put(name, instanceApi)
+        def validationApi = getValidationApi(cls, qualifier)
+        VALIDATION_APIS.get(qualifier).put(name, validationApi)
+        DATASTORES.get(qualifier).put(name, this.datastore)
     }
 
     /**
@@ -188,10 +273,12 @@ class GormEnhancer implements Closeable {
             qualifiers.clear()
             qualifiers.add(ConnectionSource.DEFAULT)
 
-            Iterable<ConnectionSource> allConnectionSources = ((ConnectionSourcesProvider) datastore).getConnectionSources().allConnectionSources
-            Collection<String> allConnectionSourceNames = allConnectionSources.findAll() { ConnectionSource connectionSource -> connectionSource.name != ConnectionSource.DEFAULT }
-                    .collect() { ((ConnectionSource) it).name }
-            qualifiers.addAll allConnectionSourceNames
+            Iterable<String> allConnectionSourceNames = ((ConnectionSourcesProvider) datastore).getConnectionSources().allConnectionSourceNames
+            for (String connectionSourceName in allConnectionSourceNames) {
+                if (connectionSourceName != ConnectionSource.DEFAULT) {
+                    qualifiers.add(connectionSourceName)
+                }
+            }
         }
         return qualifiers
     }
@@ -269,26 +356,28 @@ class GormEnhancer implements Closeable {
      * @return
      */
     protected static String findTenantId(Class entity) {
-        if (MultiTenant.isAssignableFrom(entity)) {
-            Datastore defaultDatastore = findDatastore(entity, ConnectionSource.DEFAULT)
-            if ((defaultDatastore instanceof MultiTenantCapableDatastore)) {
-                MultiTenantCapableDatastore multiTenantCapableDatastore = (MultiTenantCapableDatastore) defaultDatastore
-                if (multiTenantCapableDatastore.getMultiTenancyMode() == MultiTenancySettings.MultiTenancyMode.DATABASE) {
-                    return Tenants.currentId(multiTenantCapableDatastore)
-                }
-                else {
-                    return ConnectionSource.DEFAULT
-                }
-            }
-            else {
-                log.debug("Return default tenant id for non-multitenant capable datastore")
-                return ConnectionSource.DEFAULT
-            }
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        return cache.tenantId(cache.current())
+    }
+
+    /**
+     * Find a static API for the give entity type and the current tenant
+     *
+     * @param entity The entity class
+     * @return A static API
+     *
+     * @throws IllegalStateException if no static API is found for the type
+     */
+    static <D> GormStaticApi<D> findStaticApi(Class<D> entity) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        EntityApis apis = cache.current()
+        if (cache.multiTenant) {
+            return findStaticApi(entity, cache.tenantId(apis))
         }
-        else {
-            log.debug "Returning default tenant id for non-multitenant class [$entity]"
-            return ConnectionSource.DEFAULT
+        if (apis.staticApi == null) {
+            throw stateException(entity)
         }
+        return apis.staticApi
     }
 
     /**
@@ -300,15 +389,38 @@ class GormEnhancer implements Closeable {
      *
      * @throws IllegalStateException if no static API is found for the type
      */
-    static <D> GormStaticApi<D> findStaticApi(Class<D> entity, String qualifier = findTenantId(entity)) {
-        String className = NameUtils.getClassName(entity)
-        def staticApi = STATIC_APIS.get(qualifier)?.get(className)
+    static <D> GormStaticApi<D> findStaticApi(Class<D> entity, String qualifier) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        def staticApi = ConnectionSource.DEFAULT == qualifier ? cache.current().staticApi : STATIC_APIS.get(qualifier)?.get(cache.className)
+        if (staticApi == null && registerOnDemand(entity, qualifier)) {
+            staticApi = STATIC_APIS.get(qualifier)?.get(cache.className)
+        }
         if (staticApi == null) {
             throw stateException(entity)
         }
         return staticApi
     }
 
+    /**
+     * Find an instance API for the give entity type and the current tenant
+     *
+     * @param entity The entity class
+     * @return An instance API
+     *
+     * @throws IllegalStateException if no instance API is found for the type
+     */
+    static <D> GormInstanceApi<D> findInstanceApi(Class<D> entity) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        EntityApis apis = cache.current()
+        if (cache.multiTenant) {
+            return findInstanceApi(entity, cache.tenantId(apis))
+        }
+        if (apis.instanceApi == null) {
+            throw stateException(entity)
+        }
+        return apis.instanceApi
+    }
+
     /**
      * Find an instance API for the give entity type and qualifier (the connection name)
      *
@@ -318,14 +430,38 @@ class GormEnhancer implements Closeable {
      *
      * @throws IllegalStateException if no instance API is found for the type
      */
-    static <D> GormInstanceApi<D> findInstanceApi(Class<D> entity, String qualifier = findTenantId(entity)) {
-        def instanceApi = INSTANCE_APIS.get(qualifier)?.get(NameUtils.getClassName(entity))
+    static <D> GormInstanceApi<D> findInstanceApi(Class<D> entity, String qualifier) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        def instanceApi = ConnectionSource.DEFAULT == qualifier ? cache.current().instanceApi : INSTANCE_APIS.get(qualifier)?.get(cache.className)
+        if (instanceApi == null && registerOnDemand(entity, qualifier)) {
+            instanceApi = INSTANCE_APIS.get(qualifier)?.get(cache.className)
+        }
         if (instanceApi == null) {
             throw stateException(entity)
         }
         return instanceApi
     }
 
+    /**
+     * Find a validation API for the give entity type and the current tenant
+     *
+     * @param entity The entity class
+     * @return A validation API
+     *
+     * @throws IllegalStateException if no validation API is found for the type
+     */
+    static <D> GormValidationApi<D> findValidationApi(Class<D> entity) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        EntityApis apis = cache.current()
+        if (cache.multiTenant) {
+            return findValidationApi(entity, cache.tenantId(apis))
+        }
+        if (apis.validationApi == null) {
+            throw stateException(entity)
+        }
+        return apis.validationApi
+    }
+
     /**
      * Find a validation API for the give entity type and qualifier (the connection name)
      *
@@ -335,12 +471,36 @@ class GormEnhancer implements Closeable {
      *
      * @throws IllegalStateException if no validation API is found for the type
      */
-    static <D> GormValidationApi<D> findValidationApi(Class<D> entity, String qualifier = findTenantId(entity)) {
-        def instanceApi = VALIDATION_APIS.get(qualifier)?.get(NameUtils.getClassName(entity))
-        if (instanceApi == null) {
+    static <D> GormValidationApi<D> findValidationApi(Class<D> entity, String qualifier) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        def validationApi = ConnectionSource.DEFAULT == qualifier ? cache.current().validationApi : VALIDATION_APIS.get(qualifier)?.get(cache.className)
+        if (validationApi == null && registerOnDemand(entity, qualifier)) {
+            validationApi = VALIDATION_APIS.get(qualifier)?.get(cache.className)
+        }
+        if (validationApi == null) {
             throw stateException(entity)
         }
-        return instanceApi
+        return validationApi
+    }
+
+    /**
+     * Find a datastore for the give entity type and the current tenant
+     *
+     * @param entity The entity class
+     * @return A datastore
+     *
+     * @throws IllegalStateException if no datastore is found for the type
+     */
+    static Datastore findDatastore(Class entity) {
+        EntityApiCache cache = ENTITY_APIS.get(entity)
+        EntityApis apis = cache.current()
+        if (cache.multiTenant) {
+            return findDatastore(entity, cache.tenantId(apis))
+        }
+        if (apis.datastore == null) {
+            throw stateException(entity)
+        }
+        return apis.datastore
     }
 
     /**
@@ -352,8 +512,11 @@ class GormEnhancer implements Closeable {
      *
      * @throws IllegalStateException if no datastore is found for the type
      */
-    static Datastore findDatastore(Class entity, String qualifier = findTenantId(entity)) {
-        def datastore = DATASTORES.get(qualifier)?.get(entity.name)
+    static Datastore findDatastore(Class entity, String qualifier) {
+        def datastore = ConnectionSource.DEFAULT == qualifier ? ENTITY_APIS.get(entity).current().datastore : DATASTORES.get(qualifier)?.get(entity.name)
+        if (datastore == null && registerOnDemand(entity, qualifier)) {
+            datastore = DATASTORES.get(qualifier)?.get(entity.name)
+        }
         if (datastore == null) {
             throw stateException(entity)
         }
@@ -443,6 +606,10 @@ class GormEnhancer implements Closeable {
     void close() throws IOException {
         removeConstraints()
         DATASTORES_BY_TYPE.clear()
+        if (evictionListener != null) {
+            findLazyConnectionSources(datastore)?.removeListener(evictionListener)
+            evictionListener = null
+        }
 
         def registry = GroovySystem.metaClassRegistry
 
@@ -457,8 +624,11 @@ class GormEnhancer implements Closeable {
                 VALIDATION_APIS.get(q)?.remove(className)
                 DATASTORES.get(q)?.remove(datastore)
             }
+            ENHANCERS.remove(className, this)
+            ENTITY_APIS.remove(cls)
             registry.removeMetaClass(cls)
         }
+        REGISTRATIONS.incrementAndGet()
     }
 
     private static PlatformTransactionManager getTransactionManagerForConnection(Datastore datastore, String connectionName) {
@@ -474,6 +644,103 @@ class GormEnhancer implements Closeable {
         throw new TransactionSystemException("Datastore implementation ${datastore.getClass().getName()} does not support transactions!")
     }
 
+    /**
+     * The class name and the APIs of the default connection of an entity class
+     */
+    private static final class EntityApiCache {
+
+        final Class entity
+        final String className
+        final boolean multiTenant
+        private volatile EntityApis apis
+
+        EntityApiCache(Class entity) {
+            this.entity = entity
+            this.className = NameUtils.getClassName(entity)
+            this.multiTenant = MultiTenant.isAssignableFrom(entity)
+        }
+
+        EntityApis current() {
+            int registration = REGISTRATIONS.get()
+            EntityApis current = apis
+            if (current == null || current.registration != registration) {
+                current = resolve(registration)
+                apis = current
+            }
+            return current
+        }
+
+        String tenantId(EntityApis apis) {
+            if (multiTenant) {
+                if (apis.datastore == null) {
+                    throw stateException(entity)
+                }
+                if (apis.tenantDatastore != null) {
+                    return Tenants.currentId(apis.tenantDatastore)
+                }
+            }
+            return ConnectionSource.DEFAULT
+        }
+
+        private EntityApis resolve(int registration) {
+            Datastore datastore = DATASTORES.get(ConnectionSource.DEFAULT)?.get(entity.name)
+            MultiTenantCapableDatastore tenantDatastore = null
+            if (multiTenant && datastore instanceof MultiTenantCapableDatastore &&
+                    ((MultiTenantCapableDatastore) datastore).getMultiTenancyMode() == MultiTenancySettings.MultiTenancyMode.DATABASE) {
+                tenantDatastore = (MultiTenantCapableDatastore) datastore
+            }
+            return new EntityApis(
+                    registration,
+                    STATIC_APIS.get(ConnectionSource.DEFAULT)?.get(className),
+                    INSTANCE_APIS.get(ConnectionSource.DEFAULT)?.get(className),
+                    VALIDATION_APIS.get(ConnectionSource.DEFAULT)?.get(className),
+                    datastore,
+                    tenantDatastore
+            )
+        }
+    }
+
+    private static final class EntityApis {
+
+        final int registration
+        final GormStaticApi staticApi
+        final GormInstanceApi instanceApi
+        final GormValidationApi validationApi
+        final Datastore datastore
+        /**
+         * The datastore that resolves the tenant of a multi tenant entity that uses a database per tenant
+         */
+        final MultiTenantCapableDatastore tenantDatastore
+
+        EntityApis(int registration, GormStaticApi staticApi, GormInstanceApi instanceApi, GormValidationApi validationApi,
+                   Datastore datastore, MultiTenantCapableDatastore tenantDatastore) {
+            this.registration = registration
+            this.staticApi = staticApi
+            this.instanceApi = instanceApi
+            this.validationApi = validationApi
+            this.datastore = datastore
+            this.tenantDatastore = tenantDatastore
+        }
+    }
+
+    private static boolean registerOnDemand(Class entity, String qualifier) {
+        if (ConnectionSource.DEFAULT == qualifier) {
+            return false
+        }
+        GormEnhancer enhancer = ENHANCERS.get(entity.name)
+        return enhancer != null && enhancer.registerConnectionSource(entity, qualifier)
+    }
+
+    private static LazyConnectionSources findLazyConnectionSources(Datastore datastore) {
+        if (datastore instanceof ConnectionSourcesProvider) {
+            ConnectionSources connectionSources = ((ConnectionSourcesProvider) datastore).getConnectionSources()
+            if (connectionSources instanceof LazyConnectionSources) {
+                return (LazyConnectionSources) connectionSources
+            }
+        }
+        return null
+    }
+
     private static IllegalStateException stateException(Class entity) {
         new IllegalStateException("Either class [$entity.name] is not a domain class or GORM has not been initialized correctly or has already been shutdown. Ensure GORM is loaded and configured correctly before calling any methods on a GORM entity.")
     }
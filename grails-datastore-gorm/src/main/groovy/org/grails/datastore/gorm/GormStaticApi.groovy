@@ -15,6 +15,8 @@
  */
 package org.grails.datastore.gorm
 
+import java.util.concurrent.ConcurrentHashMap
+
 import groovy.transform.CompileDynamic
 import groovy.transform.CompileStatic
 import groovy.transform.TypeCheckingMode
@@ -65,6 +67,7 @@ import org.grails.datastore.mapping.query.api.Criteria
 class GormStaticApi<D> extends AbstractGormApi<D> implements GormAllOperations<D> {
 
     protected final List<FinderMethod> gormDynamicFinders
+    protected final Map<String, FinderMethod> dynamicFindersByMethodName = new ConcurrentHashMap<>()
 
     protected final PlatformTransactionManager transactionManager
     protected final String defaultQualifier
@@ -107,6 +110,23 @@ class GormStaticApi<D> extends AbstractGormApi<D> implements GormAllOperations<D
         gormDynamicFinders
     }
 
+    /**
+     * Finds the dynamic finder that handles the given method name. The result is cached per method name.
+     *
+     * @param methodName The method name
+     * @return The finder or null if no finder matches the method name
+     */
+    FinderMethod findDynamicFinder(String methodName) {
+        FinderMethod method = dynamicFindersByMethodName.get(methodName)
+        if (method == null) {
+            method = gormDynamicFinders.find { FinderMethod f -> f.isMethodMatch(methodName) }
+            if (method != null) {
+                dynamicFindersByMethodName.put(methodName, method)
+            }
+        }
+        return method
+    }
+
     /**
      * Property missing handler
      *
@@ -139,7 +159,7 @@ class GormStaticApi<D> extends AbstractGormApi<D> implements GormAllOperations<D
      */
     @CompileDynamic
     def methodMissing(String methodName, Object args) {
-        FinderMethod method = gormDynamicFinders.find { FinderMethod f -> f.isMethodMatch(methodName) }
+        FinderMethod method = findDynamicFinder(methodName)
         if (!method) {
             if (args && args[-1] instanceof Closure) {
                 NamedCriteriaProxy proxy = GormEnhancer.createNamedQuery(persistentClass, methodName)
@@ -155,40 +175,75 @@ class GormStaticApi<D> extends AbstractGormApi<D> implements GormAllOperations<D
             }
         }
 
-        // if the class is multi tenant, don't cache the method because the tenant will need to be resolved
-        // for each method call
-        if (!MultiTenant.isAssignableFrom(persistentClass)) {
-            def mc = persistentClass.getMetaClass()
-
-            // register the method invocation for next time
-            mc.static."$methodName" = { Object[] varArgs ->
-                // FYI... This is relevant to http://jira.grails.org/browse/GRAILS-3463 and may
-                // become problematic if http://jira.codehaus.org/browse/GROOVY-5876 is addressed...
-                final argumentsForMethod
-                if (varArgs == null) {
-                    argumentsForMethod = [null] as Object[]
-                }
-                // if the argument component type is not an Object then we have an array passed that is the actual argument
-                else if (varArgs.getClass().componentType != Object) {
-                    // so we wrap it in an object array
-                    argumentsForMethod = [varArgs] as Object[]
+        // if the class is multi tenant, the finder of the static API of the current tenant is resolved for each method call
+        boolean multiTenant = MultiTenant.isAssignableFrom(persistentClass)
+        Class<D> entityClass = persistentClass
+        def mc = persistentClass.getMetaClass()
+
+        // register the method invocation for next time
+        mc.static."$methodName" = { Object[] varArgs ->
+            // FYI... This is relevant to http://jira.grails.org/browse/GRAILS-3463 and may
+            // become problematic if http://jira.codehaus.org/browse/GROOVY-5876 is addressed...
+            final argumentsForMethod
+            if (varArgs == null) {
+                argumentsForMethod = [null] as Object[]
+            }
+            // if the argument component type is not an Object then we have an array passed that is the actual argument
+            else if (varArgs.getClass().componentType != Object) {
+                // so we wrap it in an object array
+                argumentsForMethod = [varArgs] as Object[]
+            }
+            else {
+                if (varArgs.length == 1 && varArgs[0].getClass().isArray()) {
+                    argumentsForMethod = varArgs[0]
                 }
                 else {
-                    if (varArgs.length == 1 && varArgs[0].getClass().isArray()) {
-                        argumentsForMethod = varArgs[0]
-                    }
-                    else {
 
-                        argumentsForMethod = varArgs
-                    }
+                    argumentsForMethod = varArgs
                 }
-                method.invoke(delegate, methodName, argumentsForMethod)
             }
+            FinderMethod finder = multiTenant ? GormEnhancer.findStaticApi(entityClass).findDynamicFinder(methodName) : method
+            finder.invoke(delegate, methodName, argumentsForMethod)
         }
 
         return method.invoke(persistentClass, methodName, args)
     }
 
+    /**
+     * Executes a dynamic finder whose criteria were created at compile time. Used by the finder methods that are
+     * generated for the names listed in {@link grails.gorm.annotation.Entity#finders()}
+     *
+     * @param prefix The finder prefix, one of "findBy", "findAllBy" or "countBy"
+     * @param disjunction Whether the criteria are combined with "Or" instead of "And"
+     * @param criteria The criteria
+     * @return The result of the finder
+     */
+    Object executeCompiledFinder(String prefix, boolean disjunction, Query.Criterion... criteria) {
+        execute({ Session session ->
+            Query query = session.createQuery(persistentClass)
+            Query.Junction junction = disjunction ? query.disjunction() : null
+            for (Query.Criterion criterion in criteria) {
+                if (junction != null) {
+                    query.add(junction, criterion)
+                }
+                else {
+                    query.add(criterion)
+                }
+            }
+            switch (prefix) {
+                case 'findAllBy':
+                    return query.list()
+                case 'countBy':
+                    query.projections().count()
+                    return query.singleResult()
+                case 'findBy':
+                    return query.singleResult()
+                default:
+                    throw new IllegalArgumentException("Unsupported finder prefix [$prefix]")
+            }
+        } as SessionCallback)
+    }
+
     /**
      *
      * @param callable Callable closure containing detached criteria definition
@@ -100,6 +100,21 @@ public class AutoTimestampEventListener extends AbstractPersistenceEventListener
                 PreUpdateEvent.class.isAssignableFrom(eventType);
     }
 
+    /**
+     * Ignores the events of entities without a dateCreated or lastUpdated property. The answer is cached, so it does
+     * not depend on whether timestamps are currently disabled with {@link #withoutTimestamps(Runnable)}.
+     */
+    @Override
+    public boolean supportsEntityEvent(Class<? extends ApplicationEvent> eventType, PersistentEntity entity) {
+        if (PreInsertEvent.class.isAssignableFrom(eventType)) {
+            return entity.getPropertyByName(DATE_CREATED_PROPERTY) != null || entity.getPropertyByName(LAST_UPDATED_PROPERTY) != null;
+        }
+        else if (PreUpdateEvent.class.isAssignableFrom(eventType)) {
+            return entity.getPropertyByName(LAST_UPDATED_PROPERTY) != null;
+        }
+        return true;
+    }
+
     public boolean beforeInsert(PersistentEntity entity, EntityAccess ea) {
         final String name = entity.getName();
         initializeIfNecessary(entity, name);
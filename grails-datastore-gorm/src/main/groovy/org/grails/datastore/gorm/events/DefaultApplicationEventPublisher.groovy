@@ -1,59 +1,131 @@
 package org.grails.datastore.gorm.events
 
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+
 import groovy.transform.CompileStatic
 import org.springframework.context.ApplicationEvent
 import org.springframework.context.ApplicationListener
 import org.springframework.context.PayloadApplicationEvent
 import org.springframework.context.event.SmartApplicationListener
 
+import org.grails.datastore.mapping.engine.event.EntityEventPublisher
+import org.grails.datastore.mapping.engine.event.PersistenceEventListener
+import org.grails.datastore.mapping.model.PersistentEntity
+
 /**
- * Simple implementation that just iterates over a sequence of listeners
+ * Simple implementation that dispatches events to a sequence of listeners.
+ *
+ * <p>The listeners that support an event are resolved once per event type and source type and cached, so
+ * publishing an event does not consult every {@link SmartApplicationListener}. Whether any of these listeners
+ * handles the event of a particular entity is cached as well, see {@link EntityEventPublisher}. The caches are
+ * discarded whenever a listener is added.</p>
  *
  * @author Graeme Rocher
  * @since 6.0
  */
 @CompileStatic
-class DefaultApplicationEventPublisher implements ConfigurableApplicationEventPublisher {
+class DefaultApplicationEventPublisher implements ConfigurableApplicationEventPublisher, EntityEventPublisher {
 
-    private List<ApplicationListener> applicationListeners = []
+    private volatile ListenerRegistry listenerRegistry = new ListenerRegistry(new ApplicationListener[0])
 
     @Override
     void publishEvent(ApplicationEvent event) {
-        for (listener in applicationListeners) {
-            if (listener instanceof SmartApplicationListener) {
-                SmartApplicationListener smartApplicationListener = (SmartApplicationListener) listener
-                if (!smartApplicationListener.supportsEventType((Class<ApplicationEvent>) event.getClass())) {
-                    continue
-                }
-                else if (!smartApplicationListener.supportsSourceType(event.source.getClass())) {
-                    continue
-                }
-            }
+        ApplicationListener[] listeners = listenerRegistry.getListeners(event.getClass(), event.source.getClass())
+        for (ApplicationListener listener in listeners) {
             listener.onApplicationEvent(event)
         }
     }
 
     @Override
     void publishEvent(Object event) {
-        for (listener in applicationListeners) {
-            def eventObject = new PayloadApplicationEvent<Object>(this, event)
-            if (listener instanceof SmartApplicationListener) {
-                SmartApplicationListener smartApplicationListener = (SmartApplicationListener) listener
-                if (!smartApplicationListener.supportsEventType((Class<ApplicationEvent>) eventObject.getClass())) {
-                    continue
-                }
-                else if (!smartApplicationListener.supportsSourceType(eventObject.source.getClass())) {
-                    continue
+        publishEvent((ApplicationEvent) new PayloadApplicationEvent<Object>(this, event))
+    }
+
+    @Override
+    boolean hasInterestedListeners(Class<? extends ApplicationEvent> eventType, Class<?> sourceType, PersistentEntity entity) {
+        listenerRegistry.hasInterestedListeners(eventType, sourceType, entity)
+    }
+
+    @Override
+    synchronized void addApplicationListener(ApplicationListener<?> listener) {
+        ApplicationListener[] current = listenerRegistry.applicationListeners
+        ApplicationListener[] listeners = Arrays.copyOf(current, current.length + 1)
+        listeners[current.length] = listener
+        listenerRegistry = new ListenerRegistry(listeners)
+    }
+
+    /**
+     * An immutable set of listeners together with the listeners resolved for each event and source type and
+     * whether they handle the events of each entity
+     */
+    private static final class ListenerRegistry {
+
+        final ApplicationListener[] applicationListeners
+
+        private final ConcurrentMap<Class, ConcurrentMap<Class, ApplicationListener[]>> listenersByEventType = new ConcurrentHashMap<>()
+
+        private final ConcurrentMap<PersistentEntity, ConcurrentMap<Class, ConcurrentMap<Class, Boolean>>> interestByEntity = new ConcurrentHashMap<>()
+
+        ListenerRegistry(ApplicationListener[] applicationListeners) {
+            this.applicationListeners = applicationListeners
+        }
+
+        ApplicationListener[] getListeners(Class eventType, Class sourceType) {
+            ConcurrentMap<Class, ApplicationListener[]> listenersBySourceType = nested(listenersByEventType, eventType)
+            ApplicationListener[] listeners = listenersBySourceType.get(sourceType)
+            if (listeners == null) {
+                listeners = resolveListeners(eventType, sourceType)
+                listenersBySourceType.put(sourceType, listeners)
+            }
+            return listeners
+        }
+
+        boolean hasInterestedListeners(Class eventType, Class sourceType, PersistentEntity entity) {
+            ConcurrentMap<Class, Boolean> interestBySourceType = nested(nested(interestByEntity, entity), eventType)
+            Boolean interested = interestBySourceType.get(sourceType)
+            if (interested == null) {
+                interested = Boolean.FALSE
+                for (ApplicationListener listener in getListeners(eventType, sourceType)) {
+                    if (!(listener instanceof PersistenceEventListener) ||
+                            ((PersistenceEventListener) listener).supportsEntityEvent((Class<ApplicationEvent>) eventType, entity)) {
+                        interested = Boolean.TRUE
+                        break
+                    }
                 }
+                interestBySourceType.put(sourceType, interested)
             }
+            return interested
+        }
 
-            listener.onApplicationEvent(eventObject)
+        private static <K, K2, V> ConcurrentMap<K2, V> nested(ConcurrentMap<K, ConcurrentMap<K2, V>> map, K key) {
+            ConcurrentMap<K2, V> values = map.get(key)
+            if (values == null) {
+                values = new ConcurrentHashMap<>()
+                ConcurrentMap<K2, V> existing = map.putIfAbsent(key, values)
+                if (existing != null) {
+                    values = existing
+                }
+            }
+            return values
         }
-    }
 
-    @Override
-    void addApplicationListener(ApplicationListener<?> listener) {
-        applicationListeners.add(listener)
+        private ApplicationListener[] resolveListeners(Class eventType, Class sourceType) {
+            List<ApplicationListener> supported = []
+            for (ApplicationListener listener in applicationListeners) {
+                if (listener instanceof SmartApplicationListener) {
+                    SmartApplicationListener smartApplicationListener = (SmartApplicationListener) listener
+                    if (!smartApplicationListener.supportsEventType((Class<ApplicationEvent>) eventType)) {
+                        continue
+                    }
+                    else if (!smartApplicationListener.supportsSourceType(sourceType)) {
+                        continue
+                    }
+                }
+                supported.add(listener)
+            }
+            return supported.toArray(new ApplicationListener[supported.size()])
+        }
     }
 
 }
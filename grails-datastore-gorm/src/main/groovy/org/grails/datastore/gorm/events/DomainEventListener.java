@@ -14,11 +14,14 @@
  */
 package org.grails.datastore.gorm.events;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.sql.Timestamp;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -33,6 +36,7 @@ import org.grails.datastore.mapping.dirty.checking.DirtyCheckable;
 import org.grails.datastore.mapping.engine.EntityAccess;
 import org.grails.datastore.mapping.engine.event.AbstractPersistenceEvent;
 import org.grails.datastore.mapping.engine.event.AbstractPersistenceEventListener;
+import org.grails.datastore.mapping.engine.event.EventType;
 import org.grails.datastore.mapping.engine.event.PostDeleteEvent;
 import org.grails.datastore.mapping.engine.event.PostInsertEvent;
 import org.grails.datastore.mapping.engine.event.PostLoadEvent;
@@ -41,6 +45,8 @@ import org.grails.datastore.mapping.engine.event.PreDeleteEvent;
 import org.grails.datastore.mapping.engine.event.PreInsertEvent;
 import org.grails.datastore.mapping.engine.event.PreLoadEvent;
 import org.grails.datastore.mapping.engine.event.PreUpdateEvent;
+import org.grails.datastore.mapping.engine.event.SaveOrUpdateEvent;
+import org.grails.datastore.mapping.engine.event.ValidationEvent;
 import org.grails.datastore.mapping.model.MappingContext;
 import org.grails.datastore.mapping.model.PersistentEntity;
 import org.grails.datastore.mapping.model.config.GormProperties;
@@ -48,13 +54,20 @@ import org.grails.datastore.mapping.model.config.GormProperties;
 /**
  * An event listener that provides support for GORM domain events.
  *
+ * <p>The event methods of each entity are resolved once, when the entity is added to the mapping context, into an
+ * array of method handles indexed by {@link EventType#ordinal()}, so dispatching an event is an array lookup.</p>
+ *
  * @author Graeme Rocher
  * @since 1.0
  */
 public class DomainEventListener extends AbstractPersistenceEventListener
         implements MappingContext.Listener {
 
-    private Map<PersistentEntity, Map<String, Method>> entityEvents = new ConcurrentHashMap<PersistentEntity, Map<String, Method>>();
+    private static final MethodType EVENT_METHOD_TYPE = MethodType.methodType(Object.class, Object.class, ApplicationEvent.class);
+
+    private static final EnumSet<EventType> REFRESH_EVENTS = EnumSet.of(EventType.PreInsert, EventType.PreUpdate, EventType.PreDelete);
+
+    private final Map<PersistentEntity, MethodHandle[]> entityEvents = new ConcurrentHashMap<PersistentEntity, MethodHandle[]>();
 
     @SuppressWarnings("rawtypes")
     public static final Class[] ZERO_PARAMS = {};
@@ -75,8 +88,18 @@ public class DomainEventListener extends AbstractPersistenceEventListener
 
     private static final String EVENT_AFTER_LOAD = "afterLoad";
 
-    private static final List<String> REFRESH_EVENTS = Arrays.asList(
-            EVENT_BEFORE_INSERT, EVENT_BEFORE_UPDATE, EVENT_BEFORE_DELETE);
+    private static final String[] EVENT_METHOD_NAMES = new String[EventType.values().length];
+
+    static {
+        EVENT_METHOD_NAMES[EventType.PreInsert.ordinal()] = EVENT_BEFORE_INSERT;
+        EVENT_METHOD_NAMES[EventType.PreUpdate.ordinal()] = EVENT_BEFORE_UPDATE;
+        EVENT_METHOD_NAMES[EventType.PreDelete.ordinal()] = EVENT_BEFORE_DELETE;
+        EVENT_METHOD_NAMES[EventType.PreLoad.ordinal()] = EVENT_BEFORE_LOAD;
+        EVENT_METHOD_NAMES[EventType.PostInsert.ordinal()] = EVENT_AFTER_INSERT;
+        EVENT_METHOD_NAMES[EventType.PostUpdate.ordinal()] = EVENT_AFTER_UPDATE;
+        EVENT_METHOD_NAMES[EventType.PostDelete.ordinal()] = EVENT_AFTER_DELETE;
+        EVENT_METHOD_NAMES[EventType.PostLoad.ordinal()] = EVENT_AFTER_LOAD;
+    }
 
     private final boolean autowireEntities;
 
@@ -166,7 +189,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
             }
         }
 
-        return invokeEvent(EVENT_BEFORE_INSERT, entity, ea, event);
+        return invokeEvent(EventType.PreInsert, entity, ea, event);
     }
 
     protected void setVersion(final EntityAccess ea) {
@@ -183,19 +206,19 @@ public class DomainEventListener extends AbstractPersistenceEventListener
     }
 
     public boolean beforeUpdate(final PersistentEntity entity, final EntityAccess ea) {
-        return invokeEvent(EVENT_BEFORE_UPDATE, entity, ea, null);
+        return invokeEvent(EventType.PreUpdate, entity, ea, null);
     }
 
     public boolean beforeUpdate(final PersistentEntity entity, final EntityAccess ea, PreUpdateEvent event) {
-        return invokeEvent(EVENT_BEFORE_UPDATE, entity, ea, event);
+        return invokeEvent(EventType.PreUpdate, entity, ea, event);
     }
 
     public boolean beforeDelete(final PersistentEntity entity, final EntityAccess ea) {
-        return invokeEvent(EVENT_BEFORE_DELETE, entity, ea, null);
+        return invokeEvent(EventType.PreDelete, entity, ea, null);
     }
 
     public boolean beforeDelete(final PersistentEntity entity, final EntityAccess ea, PreDeleteEvent event) {
-        return invokeEvent(EVENT_BEFORE_DELETE, entity, ea, event);
+        return invokeEvent(EventType.PreDelete, entity, ea, event);
     }
 
     public void beforeLoad(final PersistentEntity entity, final EntityAccess ea) {
@@ -203,7 +226,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
     }
 
     public void beforeLoad(final PersistentEntity entity, final EntityAccess ea, PreLoadEvent event) {
-        invokeEvent(EVENT_BEFORE_LOAD, entity, ea, event);
+        invokeEvent(EventType.PreLoad, entity, ea, event);
     }
 
     public void afterDelete(final PersistentEntity entity, final EntityAccess ea) {
@@ -211,7 +234,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
     }
 
     public void afterDelete(final PersistentEntity entity, final EntityAccess ea, PostDeleteEvent event) {
-        invokeEvent(EVENT_AFTER_DELETE, entity, ea, event);
+        invokeEvent(EventType.PostDelete, entity, ea, event);
     }
 
     public void afterInsert(final PersistentEntity entity, final EntityAccess ea) {
@@ -220,7 +243,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
 
     public void afterInsert(final PersistentEntity entity, final EntityAccess ea, PostInsertEvent event) {
         activateDirtyChecking(ea);
-        invokeEvent(EVENT_AFTER_INSERT, entity, ea, event);
+        invokeEvent(EventType.PostInsert, entity, ea, event);
     }
 
     private void activateDirtyChecking(EntityAccess ea) {
@@ -236,7 +259,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
 
     public void afterUpdate(final PersistentEntity entity, final EntityAccess ea, PostUpdateEvent event) {
         activateDirtyChecking(ea); // reset dirty checking
-        invokeEvent(EVENT_AFTER_UPDATE, entity, ea, event);
+        invokeEvent(EventType.PostUpdate, entity, ea, event);
     }
 
     public void afterLoad(final PersistentEntity entity, final EntityAccess ea) {
@@ -248,7 +271,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
         if (autowireEntities || (entity != null && entity.getMapping().getMappedForm().isAutowire())) {
             autowireBeanProperties(ea.getEntity());
         }
-        invokeEvent(EVENT_AFTER_LOAD, entity, ea, event);
+        invokeEvent(EventType.PostLoad, entity, ea, event);
     }
 
     protected void autowireBeanProperties(final Object entity) {
@@ -277,26 +300,72 @@ public class DomainEventListener extends AbstractPersistenceEventListener
         return AbstractPersistenceEvent.class.isAssignableFrom(eventType);
     }
 
-    private boolean invokeEvent(String eventName, PersistentEntity entity, EntityAccess ea, ApplicationEvent event) {
-        final Map<String, Method> events = entityEvents.get(entity);
+    /**
+     * Ignores the events of entities that don't define the corresponding event method. Post insert, update and load
+     * events that are not published activate dirty checking in the persister instead.
+     *
+     * @see org.grails.datastore.mapping.engine.event.PersistenceEventListener#supportsEntityEvent(java.lang.Class,
+     *org.grails.datastore.mapping.model.PersistentEntity)
+     */
+    @Override
+    public boolean supportsEntityEvent(Class<? extends ApplicationEvent> eventType, PersistentEntity entity) {
+        final MethodHandle[] events = entityEvents.get(entity);
         if (events == null) {
             return true;
         }
+        if (PreInsertEvent.class.isAssignableFrom(eventType)) {
+            return entity.isVersioned() || hasEventMethod(events, EventType.PreInsert);
+        }
+        else if (PostInsertEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PostInsert);
+        }
+        else if (PreUpdateEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PreUpdate);
+        }
+        else if (PostUpdateEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PostUpdate);
+        }
+        else if (PreDeleteEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PreDelete);
+        }
+        else if (PostDeleteEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PostDelete);
+        }
+        else if (PreLoadEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PreLoad);
+        }
+        else if (PostLoadEvent.class.isAssignableFrom(eventType)) {
+            return hasEventMethod(events, EventType.PostLoad) || autowireEntities || entity.getMapping().getMappedForm().isAutowire();
+        }
+        else if (SaveOrUpdateEvent.class.isAssignableFrom(eventType) || ValidationEvent.class.isAssignableFrom(eventType)) {
+            return false;
+        }
+        return true;
+    }
 
-        final Method eventMethod = events.get(eventName);
+    private static boolean hasEventMethod(MethodHandle[] events, EventType eventType) {
+        return events[eventType.ordinal()] != null;
+    }
+
+    private boolean invokeEvent(EventType eventType, PersistentEntity entity, EntityAccess ea, ApplicationEvent event) {
+        final MethodHandle[] events = entityEvents.get(entity);
+        if (events == null) {
+            return true;
+        }
+
+        final MethodHandle eventMethod = events[eventType.ordinal()];
         if (eventMethod == null) {
             return true;
         }
 
         final Object result;
         if (ea != null) {
-            final Object o = ea.getEntity();
-
-            if (eventMethod.getParameterTypes().length == 1) {
-                result = ReflectionUtils.invokeMethod(eventMethod, o, event);
+            try {
+                result = (Object) eventMethod.invokeExact(ea.getEntity(), event);
             }
-            else {
-                result = ReflectionUtils.invokeMethod(eventMethod, o);
+            catch (Throwable e) {
+                ReflectionUtils.rethrowRuntimeException(e);
+                return false;
             }
         }
         else {
@@ -304,7 +373,7 @@ public class DomainEventListener extends AbstractPersistenceEventListener
         }
 
         boolean booleanResult = (result instanceof Boolean) ? (Boolean) result : true;
-        if (booleanResult && REFRESH_EVENTS.contains(eventName)) {
+        if (booleanResult && REFRESH_EVENTS.contains(eventType)) {
             ea.refresh();
         }
         return booleanResult;
@@ -312,23 +381,37 @@ public class DomainEventListener extends AbstractPersistenceEventListener
 
     private void createEventCaches(PersistentEntity entity) {
         Class<?> javaClass = entity.getJavaClass();
-        final ConcurrentHashMap<String, Method> events = new ConcurrentHashMap<String, Method>();
+        final MethodHandle[] events = new MethodHandle[EVENT_METHOD_NAMES.length];
+        for (int i = 0; i < EVENT_METHOD_NAMES.length; i++) {
+            if (EVENT_METHOD_NAMES[i] != null) {
+                events[i] = findEventMethod(EVENT_METHOD_NAMES[i], javaClass);
+            }
+        }
         entityEvents.put(entity, events);
-
-        findAndCacheEvent(EVENT_BEFORE_INSERT, javaClass, events);
-        findAndCacheEvent(EVENT_BEFORE_UPDATE, javaClass, events);
-        findAndCacheEvent(EVENT_BEFORE_DELETE, javaClass, events);
-        findAndCacheEvent(EVENT_BEFORE_LOAD, javaClass, events);
-        findAndCacheEvent(EVENT_AFTER_INSERT, javaClass, events);
-        findAndCacheEvent(EVENT_AFTER_UPDATE, javaClass, events);
-        findAndCacheEvent(EVENT_AFTER_DELETE, javaClass, events);
-        findAndCacheEvent(EVENT_AFTER_LOAD, javaClass, events);
     }
 
-    private void findAndCacheEvent(String event, Class<?> javaClass, Map<String, Method> events) {
+    /**
+     * Resolves the event method with the given name into a handle of type {@code (Object, ApplicationEvent)Object}
+     * that ignores the event and returns {@code null} for void methods
+     */
+    private static MethodHandle findEventMethod(String event, Class<?> javaClass) {
         final Method method = ReflectionUtils.findMethod(javaClass, event);
-        if (method != null) {
-            events.put(event, method);
+        if (method == null) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(method);
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            if (method.getParameterCount() == 0) {
+                handle = MethodHandles.dropArguments(handle, 1, ApplicationEvent.class);
+            }
+            return handle.asType(EVENT_METHOD_TYPE);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access event method [" + event + "] of class [" + javaClass.getName() + "]", e);
         }
     }
 
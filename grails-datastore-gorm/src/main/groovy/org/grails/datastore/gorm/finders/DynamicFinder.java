@@ -16,10 +16,12 @@ package org.grails.datastore.gorm.finders;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,6 +68,9 @@ import org.grails.datastore.mapping.reflect.NameUtils;
 /**
  * Abstract base class for dynamic finders.
  *
+ * <p>The method names of finders are parsed once into a {@link FinderPlan}, which is cached by the finder. Invoking a
+ * finder then only creates the method expressions of the plan and binds the arguments to them.</p>
+ *
  * @author Graeme Rocher
  * @since 1.0
  */
@@ -122,6 +127,10 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
 
     private static final Map<String, Constructor> methodExpressions = new LinkedHashMap<String, Constructor>();
 
+    private static final Map<String, ParsedMethodExpression> parsedMethodExpressions = new ConcurrentHashMap<>();
+
+    private final Map<String, FinderPlan> finderPlans = new ConcurrentHashMap<>();
+
     protected final MappingContext mappingContext;
 
     static {
@@ -211,7 +220,7 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
             List<MethodExpression> expressions = new ArrayList<>();
             if (matcher.groupCount() == 2) {
                 String querySequence = matcher.group(2);
-                String operatorInUse;
+                String operatorInUse = null;
                 boolean containsOperator = false;
                 String[] queryParameters;
                 for (int i = 0; i < DEFAULT_OPERATORS.length; i++) {
@@ -252,7 +261,7 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
                     return null;
                 }
                 else {
-                    return new MatchSpec(methodName, prefix, querySequence, totalRequiredArguments, expressions);
+                    return new MatchSpec(methodName, prefix, querySequence, totalRequiredArguments, expressions, operatorInUse);
                 }
             }
         }
@@ -266,6 +275,7 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
      */
     public void setPattern(String pattern) {
         this.pattern = Pattern.compile(pattern);
+        finderPlans.clear();
     }
 
     /**
@@ -300,84 +310,50 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
             System.arraycopy(arguments, 0, tmp, 0, arguments.length);
             arguments = tmp;
         }
-        Matcher match = pattern.matcher(methodName);
-        // find match
-        match.find();
+        FinderPlan plan = getFinderPlan(methodName);
 
-        String[] queryParameters;
         int totalRequiredArguments = 0;
-        // get the sequence clauses
-        final String querySequence;
-        int groupCount = match.groupCount();
-        if (groupCount == 6) {
-            String booleanProperty = match.group(3);
-            if (booleanProperty == null) {
-                booleanProperty = match.group(6);
-                querySequence = null;
-            }
-            else {
-                querySequence = match.group(5);
-            }
-            Boolean arg = Boolean.TRUE;
-            if (booleanProperty.matches("Not[A-Z].*")) {
-                booleanProperty = booleanProperty.substring(3);
-                arg = Boolean.FALSE;
-            }
-            MethodExpression booleanExpression = findMethodExpression(clazz, booleanProperty);
-            booleanExpression.setArguments(new Object[] { arg });
+        if (plan.booleanProperty != null) {
+            MethodExpression booleanExpression = findMethodExpression(clazz, plan.booleanProperty);
+            booleanExpression.setArguments(new Object[] { plan.booleanArgument });
             expressions.add(booleanExpression);
         }
-        else {
-            querySequence = match.group(2);
-        }
-        // if it contains operator and split
-        boolean containsOperator = false;
-        String operatorInUse = null;
-        if (querySequence != null) {
-            for (int i = 0; i < operators.length; i++) {
-                Matcher currentMatcher = operatorPatterns[i].matcher(querySequence);
-                if (currentMatcher.find()) {
-                    containsOperator = true;
-                    operatorInUse = operators[i];
-
-                    queryParameters = querySequence.split(operatorInUse);
-
-                    // loop through query parameters and create expressions
-                    // calculating the number of arguments required for the expression
-                    int argumentCursor = 0;
-                    for (String queryParameter : queryParameters) {
-                        MethodExpression currentExpression = findMethodExpression(clazz, queryParameter);
-                        final int requiredArgs = currentExpression.getArgumentsRequired();
-                        // populate the arguments into the GrailsExpression from the argument list
-                        Object[] currentArguments = new Object[requiredArgs];
-                        if ((argumentCursor + requiredArgs) > arguments.length) {
-                            throw new MissingMethodException(methodName, clazz, arguments);
-                        }
 
-                        for (int k = 0; k < requiredArgs; k++, argumentCursor++) {
-                            currentArguments[k] = arguments[argumentCursor];
-                        }
-                        currentExpression = getInitializedExpression(currentExpression, currentArguments);
-                        PersistentEntity persistentEntity = mappingContext.getPersistentEntity(clazz.getName());
+        String[] queryParameters = plan.queryParameters;
+        if (plan.operatorInUse != null) {
+            // loop through query parameters and create expressions
+            // calculating the number of arguments required for the expression
+            int argumentCursor = 0;
+            for (String queryParameter : queryParameters) {
+                MethodExpression currentExpression = findMethodExpression(clazz, queryParameter);
+                final int requiredArgs = currentExpression.getArgumentsRequired();
+                // populate the arguments into the GrailsExpression from the argument list
+                Object[] currentArguments = new Object[requiredArgs];
+                if ((argumentCursor + requiredArgs) > arguments.length) {
+                    throw new MissingMethodException(methodName, clazz, arguments);
+                }
 
-                        try {
-                            currentExpression.convertArguments(persistentEntity);
-                        }
-                        catch (ConversionException e) {
-                            throw new MissingMethodException(methodName, clazz, arguments);
-                        }
+                for (int k = 0; k < requiredArgs; k++, argumentCursor++) {
+                    currentArguments[k] = arguments[argumentCursor];
+                }
+                currentExpression = getInitializedExpression(currentExpression, currentArguments);
+                PersistentEntity persistentEntity = mappingContext.getPersistentEntity(clazz.getName());
 
-                        // add to list of expressions
-                        totalRequiredArguments += currentExpression.argumentsRequired;
-                        expressions.add(currentExpression);
-                    }
-                    break;
+                try {
+                    currentExpression.convertArguments(persistentEntity);
+                }
+                catch (ConversionException e) {
+                    throw new MissingMethodException(methodName, clazz, arguments);
                 }
+
+                // add to list of expressions
+                totalRequiredArguments += currentExpression.argumentsRequired;
+                expressions.add(currentExpression);
             }
         }
         // otherwise there is only one expression
-        if (!containsOperator && querySequence != null) {
-            MethodExpression solo = findMethodExpression(clazz, querySequence);
+        else if (queryParameters != null) {
+            MethodExpression solo = findMethodExpression(clazz, queryParameters[0]);
 
             final int requiredArguments = solo.getArgumentsRequired();
             if (requiredArguments > arguments.length) {
@@ -385,8 +361,6 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
             }
 
             totalRequiredArguments += requiredArguments;
-            Object[] soloArgs = new Object[requiredArguments];
-            System.arraycopy(arguments, 0, soloArgs, 0, requiredArguments);
             solo = getInitializedExpression(solo, arguments);
             PersistentEntity persistentEntity = mappingContext.getPersistentEntity(clazz.getName());
             try {
@@ -415,7 +389,65 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
         }
 
         return new DynamicFinderInvocation(clazz, methodName, remainingArguments,
-                expressions, additionalCriteria, operatorInUse);
+                expressions, additionalCriteria, plan.operatorInUse);
+    }
+
+    /**
+     * Obtains the plan for the given method name, parsing the method name the first time it is used
+     *
+     * @param methodName The method name
+     * @return The plan
+     */
+    protected FinderPlan getFinderPlan(String methodName) {
+        FinderPlan plan = finderPlans.get(methodName);
+        if (plan == null) {
+            plan = createFinderPlan(methodName);
+            finderPlans.put(methodName, plan);
+        }
+        return plan;
+    }
+
+    private FinderPlan createFinderPlan(String methodName) {
+        Matcher match = pattern.matcher(methodName);
+        // find match
+        match.find();
+
+        String booleanProperty = null;
+        Boolean booleanArgument = null;
+        // get the sequence clauses
+        final String querySequence;
+        int groupCount = match.groupCount();
+        if (groupCount == 6) {
+            booleanProperty = match.group(3);
+            if (booleanProperty == null) {
+                booleanProperty = match.group(6);
+                querySequence = null;
+            }
+            else {
+                querySequence = match.group(5);
+            }
+            booleanArgument = Boolean.TRUE;
+            if (booleanProperty.matches("Not[A-Z].*")) {
+                booleanProperty = booleanProperty.substring(3);
+                booleanArgument = Boolean.FALSE;
+            }
+        }
+        else {
+            querySequence = match.group(2);
+        }
+
+        // if it contains operator and split
+        if (querySequence != null) {
+            for (int i = 0; i < operators.length; i++) {
+                Matcher currentMatcher = operatorPatterns[i].matcher(querySequence);
+                if (currentMatcher.find()) {
+                    String operatorInUse = operators[i];
+                    return new FinderPlan(booleanProperty, booleanArgument, querySequence.split(operatorInUse), operatorInUse);
+                }
+            }
+            return new FinderPlan(booleanProperty, booleanArgument, new String[] { querySequence }, null);
+        }
+        return new FinderPlan(booleanProperty, booleanArgument, null, null);
     }
 
     public Object invoke(final Class clazz, String methodName, Object[] arguments) {
@@ -663,32 +695,16 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
     }
 
     private static MethodExpression findMethodExpressionInternal(final Class clazz, String expression) {
-        MethodExpression me = null;
-        final Matcher matcher = methodExpressinPattern.matcher(expression);
-        Class methodExpressionClass = Equal.class;
-        Constructor methodExpressionConstructor = null;
-        String clause = methodExpressionClass.getSimpleName();
-        if (matcher.find()) {
-            clause = matcher.group(1);
-            methodExpressionConstructor = methodExpressions.get(clause);
-            if (methodExpressionConstructor != null) {
-                methodExpressionClass = methodExpressionConstructor.getDeclaringClass();
-            }
-        }
-
-        String propertyName = calcPropertyName(expression, methodExpressionClass.getSimpleName());
-        boolean negation = false;
-        if (propertyName.endsWith(NOT)) {
-            int i = propertyName.lastIndexOf(NOT);
-            propertyName = propertyName.substring(0, i);
-            negation = true;
+        ParsedMethodExpression parsed = parsedMethodExpressions.get(expression);
+        if (parsed == null) {
+            parsed = parseMethodExpression(expression);
+            parsedMethodExpressions.put(expression, parsed);
         }
 
-        if (!StringUtils.hasLength(propertyName)) {
-            throw new IllegalArgumentException("No property name specified in clause: " + clause);
-        }
-
-        propertyName = NameUtils.decapitalizeFirstChar(propertyName);
+        MethodExpression me = null;
+        Constructor methodExpressionConstructor = parsed.constructor;
+        String propertyName = parsed.propertyName;
+        boolean negation = parsed.negation;
         if (methodExpressionConstructor != null) {
             try {
                 me = (MethodExpression) methodExpressionConstructor.newInstance(clazz, propertyName);
@@ -727,6 +743,34 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
         return me;
     }
 
+    private static ParsedMethodExpression parseMethodExpression(String expression) {
+        final Matcher matcher = methodExpressinPattern.matcher(expression);
+        Class methodExpressionClass = Equal.class;
+        Constructor methodExpressionConstructor = null;
+        String clause = methodExpressionClass.getSimpleName();
+        if (matcher.find()) {
+            clause = matcher.group(1);
+            methodExpressionConstructor = methodExpressions.get(clause);
+            if (methodExpressionConstructor != null) {
+                methodExpressionClass = methodExpressionConstructor.getDeclaringClass();
+            }
+        }
+
+        String propertyName = calcPropertyName(expression, methodExpressionClass.getSimpleName());
+        boolean negation = false;
+        if (propertyName.endsWith(NOT)) {
+            int i = propertyName.lastIndexOf(NOT);
+            propertyName = propertyName.substring(0, i);
+            negation = true;
+        }
+
+        if (!StringUtils.hasLength(propertyName)) {
+            throw new IllegalArgumentException("No property name specified in clause: " + clause);
+        }
+
+        return new ParsedMethodExpression(methodExpressionConstructor, NameUtils.decapitalizeFirstChar(propertyName), negation);
+    }
+
     private static void handleFetchType(BuildableCriteria q, String associationName, FetchType fetchType) {
         switch (fetchType) {
             case LAZY:
@@ -738,6 +782,7 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
     }
 
     private static void resetMethodExpressionPattern() {
+        parsedMethodExpressions.clear();
         String expressionPattern = DefaultGroovyMethods.join((Iterable) methodExpressions.keySet(), "|");
         methodExpressinPattern = Pattern.compile("\\p{Upper}[\\p{Lower}\\d]+(" + expressionPattern + ")");
     }
@@ -803,4 +848,71 @@ public abstract class DynamicFinder extends AbstractFinder implements QueryBuild
         return expression;
     }
 
+    /**
+     * The result of parsing the method name of a finder. A plan only holds the parts of the method name, the method
+     * expressions are created from them for each invocation, as they hold the arguments of the invocation.
+     */
+    protected static final class FinderPlan {
+
+        final String booleanProperty;
+
+        final Boolean booleanArgument;
+
+        final String[] queryParameters;
+
+        final String operatorInUse;
+
+        FinderPlan(String booleanProperty, Boolean booleanArgument, String[] queryParameters, String operatorInUse) {
+            this.booleanProperty = booleanProperty;
+            this.booleanArgument = booleanArgument;
+            this.queryParameters = queryParameters;
+            this.operatorInUse = operatorInUse;
+        }
+
+        /**
+         * @return The boolean property of a boolean finder, otherwise null
+         */
+        public String getBooleanProperty() {
+            return booleanProperty;
+        }
+
+        /**
+         * @return The value the boolean property of a boolean finder is compared with, otherwise null
+         */
+        public Boolean getBooleanArgument() {
+            return booleanArgument;
+        }
+
+        /**
+         * @return The clauses of the method name, each of which is turned into a method expression
+         */
+        public List<String> getQueryParameters() {
+            return queryParameters != null ? Collections.unmodifiableList(Arrays.asList(queryParameters)) : Collections.emptyList();
+        }
+
+        /**
+         * @return The operator joining the clauses or null if there is only one clause
+         */
+        public String getOperatorInUse() {
+            return operatorInUse;
+        }
+
+    }
+
+    private static final class ParsedMethodExpression {
+
+        final Constructor constructor;
+
+        final String propertyName;
+
+        final boolean negation;
+
+        ParsedMethodExpression(Constructor constructor, String propertyName, boolean negation) {
+            this.constructor = constructor;
+            this.propertyName = propertyName;
+            this.negation = negation;
+        }
+
+    }
+
 }
@@ -35,12 +35,22 @@ class MatchSpec {
      */
     final List<MethodExpression> methodCallExpressions
 
+    /**
+     * The operator that combines the method call expressions (for example "Or") or null if there is a single expression
+     */
+    final String operator
+
     MatchSpec(String methodName, String prefix, String queryExpression, int requiredArguments, List<MethodExpression> methodCallExpressions) {
+        this(methodName, prefix, queryExpression, requiredArguments, methodCallExpressions, null)
+    }
+
+    MatchSpec(String methodName, String prefix, String queryExpression, int requiredArguments, List<MethodExpression> methodCallExpressions, String operator) {
         this.methodName = methodName
         this.prefix = prefix
         this.queryExpression = queryExpression
         this.requiredArguments = requiredArguments
         this.methodCallExpressions = methodCallExpressions
+        this.operator = operator
     }
 
     Collection<String> getPropertyNames() {
@@ -44,6 +44,11 @@ public class MultiTenantEventListener implements PersistenceEventListener {
         return SUPPORTED_EVENTS.contains(eventType);
     }
 
+    @Override
+    public boolean supportsEntityEvent(Class<? extends ApplicationEvent> eventType, PersistentEntity entity) {
+        return entity.isMultiTenant();
+    }
+
     @Override
     public boolean supportsSourceType(Class<?> sourceType) {
         return Datastore.class.isAssignableFrom(sourceType);
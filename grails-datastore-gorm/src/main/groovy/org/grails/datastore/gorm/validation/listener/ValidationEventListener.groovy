@@ -15,6 +15,7 @@ import org.grails.datastore.mapping.engine.event.AbstractPersistenceEvent
 import org.grails.datastore.mapping.engine.event.AbstractPersistenceEventListener
 import org.grails.datastore.mapping.engine.event.PreInsertEvent
 import org.grails.datastore.mapping.engine.event.PreUpdateEvent
+import org.grails.datastore.mapping.model.PersistentEntity
 
 /**
  * An event listener for ensuring entities are valid before saving or updating
@@ -70,4 +71,9 @@ class ValidationEventListener extends AbstractPersistenceEventListener {
         return PreInsertEvent.isAssignableFrom(eventType) || PreUpdateEvent.isAssignableFrom(eventType)
     }
 
+    @Override
+    boolean supportsEntityEvent(Class<? extends ApplicationEvent> eventType, PersistentEntity entity) {
+        return GormValidateable.isAssignableFrom(entity.javaClass)
+    }
+
 }
@@ -1,9 +1,14 @@
 package org.grails.compiler.gorm
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
 import grails.gorm.annotation.Entity
 import org.codehaus.groovy.ast.ClassNode
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
 import org.grails.datastore.gorm.GormEntity
 import org.grails.datastore.gorm.GormValidateable
 import org.grails.datastore.mapping.dirty.checking.DirtyCheckable
+import org.grails.datastore.mapping.reflect.GeneratedPropertyAccessor
 import spock.lang.Specification
 /*
  * Copyright 2014 original authors
@@ -174,6 +179,133 @@ class Foo {
         new Book().hasProperty('authorId')
     }
 
+    void "Test GORM entity transformation generates indexed property accessors"() {
+        given:
+        Book book = new Book(title: "The Stand")
+        List<String> names = Book.getDeclaredField(GeneratedPropertyAccessor.PROPERTY_NAMES_FIELD).get(null) as List<String>
+
+        expect:
+        GeneratedPropertyAccessor.isAssignableFrom(Book)
+        names.containsAll(['title', 'author', 'id', 'version'])
+        book.$gormReadProperty(names.indexOf('title')) == "The Stand"
+
+        when:"a property is written through the accessor"
+        book.$gormWriteProperty(names.indexOf('title'), "It")
+
+        then:"the field is updated"
+        book.title == "It"
+
+        when:"an unknown index is used"
+        book.$gormReadProperty(names.size())
+
+        then:
+        thrown IndexOutOfBoundsException
+    }
+
+    void "Test generated property accessors only cover the fields declared by the class"() {
+        when:
+        def classLoader = new GroovyClassLoader()
+        classLoader.parseClass('''
+import grails.gorm.annotation.Entity
+
+@Entity
+class Vehicle {
+    String make
+}
+
+@Entity
+class Car extends Vehicle {
+    Integer doors
+    int wheels
+}
+''')
+        Class carClass = classLoader.loadClass('Car')
+        List<String> names = carClass.getDeclaredField(GeneratedPropertyAccessor.PROPERTY_NAMES_FIELD).get(null) as List<String>
+        def car = carClass.newInstance()
+        car.$gormWriteProperty(names.indexOf('wheels'), 4)
+
+        then:
+        names == ['doors', 'wheels']
+        car.wheels == 4
+        car.$gormReadProperty(names.indexOf('doors')) == null
+    }
+
+    void "Test generated property accessors of a statically compiled entity"() {
+        when:
+        Class ticketClass = new GroovyClassLoader().parseClass('''
+import grails.gorm.annotation.Entity
+import groovy.transform.CompileStatic
+
+@CompileStatic
+@Entity
+class Ticket {
+    Long id
+    Long version
+    int seats
+    String holder
+}
+''')
+        List<String> names = ticketClass.getDeclaredField(GeneratedPropertyAccessor.PROPERTY_NAMES_FIELD).get(null) as List<String>
+        def ticket = ticketClass.newInstance()
+        ticket.$gormWriteProperty(names.indexOf('id'), 10L)
+        ticket.$gormWriteProperty(names.indexOf('version'), 2L)
+        ticket.$gormWriteProperty(names.indexOf('seats'), 3)
+        ticket.$gormWriteProperty(names.indexOf('holder'), "Fred")
+
+        then:
+        ticket.id == 10L
+        ticket.version == 2L
+        ticket.seats == 3
+        ticket.holder == "Fred"
+        ticket.$gormReadProperty(names.indexOf('seats')) == 3
+
+        when:
+        ticket.$gormWriteProperty(names.indexOf('holder'), null)
+
+        then:
+        ticket.holder == null
+    }
+
+    void "Test GORM entity transformation generates the finders listed by the entity annotation"() {
+        when:
+        Class novelClass = new GroovyClassLoader().parseClass('''
+import grails.gorm.annotation.Entity
+
+@Entity(finders = ['findByTitleAndAuthor', 'findAllByPagesBetween', 'countByAuthorIsNull', 'findAllByTitleInList'])
+class Novel {
+    String title
+    String author
+    int pages
+}
+''')
+        Method findBy = novelClass.getDeclaredMethod('findByTitleAndAuthor', String, String)
+        Method findAllBy = novelClass.getDeclaredMethod('findAllByPagesBetween', int, int)
+        Method countBy = novelClass.getDeclaredMethod('countByAuthorIsNull')
+
+        then:"static methods typed after the queried properties are generated"
+        Modifier.isStatic(findBy.modifiers)
+        findBy.returnType == novelClass
+        findAllBy.returnType == List
+        countBy.returnType == Number
+        novelClass.getDeclaredMethod('findAllByTitleInList', Collection)
+    }
+
+    void "Test an invalid finder listed by the entity annotation is a compilation error"() {
+        when:
+        new GroovyClassLoader().parseClass('''
+import grails.gorm.annotation.Entity
+
+@Entity(finders = ['findByPublisher'])
+class Novel {
+    String title
+}
+''')
+
+        then:
+        MultipleCompilationErrorsException e = thrown()
+        e.message.contains('Cannot generate finder [findByPublisher] for non-existent property [publisher] of class [Novel]')
+    }
+
     void "Test property/method missing"() {
 
         when:
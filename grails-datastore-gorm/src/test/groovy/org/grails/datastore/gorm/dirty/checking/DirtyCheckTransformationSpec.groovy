@@ -376,6 +376,51 @@ class FundProduct {
             b.hasChanged("age")
     }
 
+    void "Test dirty check of a sub class does not clash with the properties of the super class"() {
+        when:"A class hierarchy is parsed"
+        def gcl = new GroovyClassLoader()
+        gcl.parseClass('''
+package org.grails.datastore.gorm.dirty.checking
+
+import grails.gorm.dirty.checking.DirtyCheck
+
+@DirtyCheck
+class Shape {
+    String name
+    int sides
+}
+
+@DirtyCheck
+class Polygon extends Shape {
+    String color
+    boolean regular
+}
+''')
+        def polygon = gcl.loadClass('org.grails.datastore.gorm.dirty.checking.Polygon').newInstance()
+        polygon.name = "square"
+        polygon.sides = 4
+        polygon.color = "red"
+        polygon.trackChanges()
+        polygon.sides = 5
+        polygon.color = "blue"
+        polygon.name = "pentagon"
+        polygon.regular = true
+
+        then:"every changed property is tracked"
+        polygon.listDirtyPropertyNames() == ['sides', 'color', 'name', 'regular']
+        polygon.getOriginalValue('sides') == 4
+        polygon.getOriginalValue('color') == "red"
+        polygon.getOriginalValue('name') == "square"
+        polygon.getOriginalValue('regular') == false
+
+        when:"the changes are reset and a value is set again"
+        polygon.trackChanges()
+        polygon.sides = 5
+
+        then:
+        !polygon.hasChanged()
+    }
+
     @Issue("https://github.com/grails/grails-data-mapping/issues/744")
     void "Test that listDirtyPropertyNames does not include the entity name"() {
         when: "A new book is created"
@@ -0,0 +1,108 @@
+package org.grails.datastore.gorm.events
+
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import org.springframework.context.PayloadApplicationEvent
+import org.springframework.context.event.SmartApplicationListener
+import spock.lang.Specification
+
+class DefaultApplicationEventPublisherSpec extends Specification {
+
+    void "test listeners only receive the events they support"() {
+        given:
+        DefaultApplicationEventPublisher publisher = new DefaultApplicationEventPublisher()
+        CountingListener saveListener = new CountingListener(SaveEvent)
+        CountingListener loadListener = new CountingListener(LoadEvent)
+        List<ApplicationEvent> received = []
+        publisher.addApplicationListener(saveListener)
+        publisher.addApplicationListener(loadListener)
+        publisher.addApplicationListener({ ApplicationEvent event -> received << event } as ApplicationListener<ApplicationEvent>)
+
+        when:
+        publisher.publishEvent(new SaveEvent(this))
+        publisher.publishEvent(new SaveEvent(this))
+        publisher.publishEvent(new LoadEvent(this))
+
+        then:"the listeners are only asked once per event type whether they support it"
+        saveListener.events.size() == 2
+        loadListener.events.size() == 1
+        received.size() == 3
+        saveListener.supportsEventTypeCalls == 2
+        loadListener.supportsEventTypeCalls == 2
+    }
+
+    void "test the resolved listeners are discarded when a listener is added"() {
+        given:
+        DefaultApplicationEventPublisher publisher = new DefaultApplicationEventPublisher()
+        CountingListener first = new CountingListener(SaveEvent)
+        publisher.addApplicationListener(first)
+        publisher.publishEvent(new SaveEvent(this))
+
+        when:
+        CountingListener second = new CountingListener(SaveEvent)
+        publisher.addApplicationListener(second)
+        publisher.publishEvent(new SaveEvent(this))
+
+        then:
+        first.events.size() == 2
+        second.events.size() == 1
+        first.supportsEventTypeCalls == 2
+    }
+
+    void "test a payload is wrapped in a single event for all listeners"() {
+        given:
+        DefaultApplicationEventPublisher publisher = new DefaultApplicationEventPublisher()
+        List<ApplicationEvent> received = []
+        2.times {
+            publisher.addApplicationListener({ ApplicationEvent event -> received << event } as ApplicationListener<ApplicationEvent>)
+        }
+
+        when:
+        publisher.publishEvent((Object) "payload")
+
+        then:
+        received.size() == 2
+        received[0].is(received[1])
+        received[0] instanceof PayloadApplicationEvent
+        ((PayloadApplicationEvent) received[0]).payload == "payload"
+    }
+
+    static class SaveEvent extends ApplicationEvent {
+        SaveEvent(Object source) {
+            super(source)
+        }
+    }
+
+    static class LoadEvent extends ApplicationEvent {
+        LoadEvent(Object source) {
+            super(source)
+        }
+    }
+
+    static class CountingListener implements SmartApplicationListener {
+
+        final Class<? extends ApplicationEvent> supportedType
+        final List<ApplicationEvent> events = []
+        int supportsEventTypeCalls
+
+        CountingListener(Class<? extends ApplicationEvent> supportedType) {
+            this.supportedType = supportedType
+        }
+
+        @Override
+        boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+            supportsEventTypeCalls++
+            supportedType.isAssignableFrom(eventType)
+        }
+
+        @Override
+        boolean supportsSourceType(Class<?> sourceType) {
+            true
+        }
+
+        @Override
+        void onApplicationEvent(ApplicationEvent event) {
+            events << event
+        }
+    }
+}
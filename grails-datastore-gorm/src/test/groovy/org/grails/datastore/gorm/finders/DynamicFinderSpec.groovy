@@ -1,5 +1,7 @@
 package org.grails.datastore.gorm.finders
 
+import org.grails.datastore.mapping.keyvalue.mapping.config.KeyValueMappingContext
+import org.grails.datastore.mapping.model.MappingContext
 import spock.lang.Specification
 
 /**
@@ -24,4 +26,65 @@ class DynamicFinderSpec extends Specification {
         "findBy" | "findByTitleBetween"    | 2          |    1        | "TitleBetween"     |  ['title']
         "findBy" | "findByTitleAndAuthor"  | 2          |    2        | "TitleAndAuthor"   |  ['title', 'author']
     }
+
+    void "test the plan of a finder is created once per method name"() {
+        given:
+        FindAllByFinder finder = new FindAllByFinder(new KeyValueMappingContext("test"))
+
+        when:
+        DynamicFinder.FinderPlan plan = finder.getFinderPlan('findAllByTitleAndAuthorLike')
+
+        then:
+        plan.is(finder.getFinderPlan('findAllByTitleAndAuthorLike'))
+        plan.queryParameters == ['Title', 'AuthorLike']
+        plan.operatorInUse == 'And'
+        plan.booleanProperty == null
+        !plan.is(finder.getFinderPlan('findAllByTitle'))
+        finder.getFinderPlan('findAllByTitle').queryParameters == ['Title']
+        finder.getFinderPlan('findAllByTitle').operatorInUse == null
+    }
+
+    void "test the plan of a boolean finder"() {
+        given:
+        FindByBooleanFinder finder = new FindByBooleanFinder(new KeyValueMappingContext("test"))
+
+        when:
+        DynamicFinder.FinderPlan plan = finder.getFinderPlan('findNotPublishedByTitle')
+
+        then:
+        plan.booleanProperty == 'Published'
+        plan.booleanArgument == false
+        plan.queryParameters == ['Title']
+    }
+
+    void "test the arguments are bound to new expressions for each invocation"() {
+        given:
+        MappingContext mappingContext = new KeyValueMappingContext("test")
+        mappingContext.addPersistentEntity(FinderBook)
+        FindAllByFinder finder = new FindAllByFinder(mappingContext)
+
+        when:
+        DynamicFinderInvocation first = finder.createFinderInvocation(FinderBook, 'findAllByTitleAndAuthorLike', null, ['The Stand', 'Stephen%', [max: 1]] as Object[])
+        DynamicFinderInvocation second = finder.createFinderInvocation(FinderBook, 'findAllByTitleAndAuthorLike', null, ['It', 'King%'] as Object[])
+
+        then:
+        first.operator == 'And'
+        first.expressions*.propertyName == ['title', 'author']
+        first.expressions*.arguments*.toList() == [['The Stand'], ['Stephen%']]
+        first.expressions[1] instanceof MethodExpression.Like
+        first.arguments.toList() == [[max: 1]]
+        second.expressions*.arguments*.toList() == [['It'], ['King%']]
+
+        when:"too few arguments are passed"
+        finder.createFinderInvocation(FinderBook, 'findAllByTitleAndAuthorLike', null, ['It'] as Object[])
+
+        then:
+        thrown(MissingMethodException)
+    }
+}
+
+class FinderBook {
+    Long id
+    String title
+    String author
 }
@@ -0,0 +1,47 @@
+package org.grails.datastore.mapping.multitenancy.web
+
+import javax.servlet.Filter
+import javax.servlet.FilterChain
+import javax.servlet.ServletException
+import javax.servlet.ServletRequest
+import javax.servlet.ServletResponse
+
+import groovy.transform.CompileStatic
+
+import org.grails.datastore.mapping.multitenancy.TenantContext
+
+/**
+ * A filter that binds a {@link TenantContext} for the duration of each request, so that the tenant resolvers are called
+ * at most once per request. Use it when the requests are not handled by the
+ * {@link org.grails.datastore.mapping.web.support.OpenSessionInViewInterceptor}, which binds the context itself.
+ *
+ * @since 2022.2.5
+ */
+@CompileStatic
+class TenantContextFilter implements Filter {
+
+    private static final String TENANT_CONTEXT_ATTRIBUTE = TenantContextFilter.name + '.TENANT_CONTEXT'
+
+    @Override
+    void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        Object requestContext = request.getAttribute(TENANT_CONTEXT_ATTRIBUTE)
+        if (requestContext != null && TenantContext.current().is(requestContext)) {
+            // a forward or include of the request keeps the context of the outer dispatch
+            chain.doFilter(request, response)
+            return
+        }
+
+        // a context left bound to a pooled thread belongs to another request
+        TenantContext tenantContext = new TenantContext()
+        TenantContext previous = TenantContext.bind(tenantContext)
+        request.setAttribute(TENANT_CONTEXT_ATTRIBUTE, tenantContext)
+        try {
+            chain.doFilter(request, response)
+        }
+        finally {
+            request.removeAttribute(TENANT_CONTEXT_ATTRIBUTE)
+            TenantContext.bind(previous)
+        }
+    }
+
+}
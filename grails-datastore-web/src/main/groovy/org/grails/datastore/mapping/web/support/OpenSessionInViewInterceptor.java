@@ -20,22 +20,34 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.ui.ModelMap;
+import org.springframework.web.context.request.AsyncWebRequestInterceptor;
 import org.springframework.web.context.request.WebRequest;
-import org.springframework.web.context.request.WebRequestInterceptor;
 
 import org.grails.datastore.mapping.core.Datastore;
 import org.grails.datastore.mapping.core.DatastoreUtils;
 import org.grails.datastore.mapping.core.Session;
+import org.grails.datastore.mapping.multitenancy.MultiTenancySettings;
+import org.grails.datastore.mapping.multitenancy.MultiTenantCapableDatastore;
+import org.grails.datastore.mapping.multitenancy.TenantContext;
+import org.grails.datastore.mapping.multitenancy.exceptions.TenantNotFoundException;
 import org.grails.datastore.mapping.transactions.SessionHolder;
 
 /**
  * A {@link org.springframework.web.context.request.WebRequestInterceptor} instance that
- * handles opening a Datastore session within the scope of a request
+ * handles opening a Datastore session within the scope of a request. It also binds a new {@link TenantContext} for the
+ * request, so that the tenant of a multi tenant datastore is resolved once per request, and restores the context that
+ * was bound before once the request completes or its handling continues asynchronously on another thread.
  */
-public class OpenSessionInViewInterceptor implements WebRequestInterceptor {
+public class OpenSessionInViewInterceptor implements AsyncWebRequestInterceptor {
 
     private static final Log LOG = LogFactory.getLog(OpenSessionInViewInterceptor.class);
 
+    private static final String TENANT_CONTEXT_ATTRIBUTE = OpenSessionInViewInterceptor.class.getName() + ".TENANT_CONTEXT";
+
+    private static final String PREVIOUS_TENANT_CONTEXT_ATTRIBUTE = OpenSessionInViewInterceptor.class.getName() + ".PREVIOUS_TENANT_CONTEXT";
+
+    private static final String PARTICIPATE_ATTRIBUTE = OpenSessionInViewInterceptor.class.getName() + ".PARTICIPATE";
+
     Datastore datastore;
 
     FlushModeType flushMode = FlushModeType.AUTO;
@@ -49,6 +61,22 @@ public class OpenSessionInViewInterceptor implements WebRequestInterceptor {
     }
 
     public void preHandle(WebRequest webRequest) throws Exception {
+        Object requestContext = webRequest.getAttribute(TENANT_CONTEXT_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        if (requestContext != null && TenantContext.current() == requestContext) {
+            // a forward or include of the request participates in the context and the session of the outer dispatch
+            incrementParticipateCount(webRequest);
+        }
+        else {
+            // a context left on a pooled thread by an earlier request is never reused
+            TenantContext tenantContext = new TenantContext();
+            TenantContext previous = TenantContext.bind(tenantContext);
+            webRequest.setAttribute(TENANT_CONTEXT_ATTRIBUTE, tenantContext, WebRequest.SCOPE_REQUEST);
+            if (previous != null) {
+                webRequest.setAttribute(PREVIOUS_TENANT_CONTEXT_ATTRIBUTE, previous, WebRequest.SCOPE_REQUEST);
+            }
+            resolveTenant(tenantContext);
+        }
+
         if (hasSessionBound()) {
             return;
         }
@@ -81,20 +109,89 @@ public class OpenSessionInViewInterceptor implements WebRequestInterceptor {
         }
     }
 
+    /**
+     * Resolves the tenant of the datastore in the context of the request, so that the tenant is known to any task
+     * the context is handed off to. A request without a tenant is not an error until the tenant is used.
+     *
+     * @param tenantContext The tenant context of the request
+     */
+    protected void resolveTenant(TenantContext tenantContext) {
+        if (datastore instanceof MultiTenantCapableDatastore) {
+            MultiTenantCapableDatastore multiTenantCapableDatastore = (MultiTenantCapableDatastore) datastore;
+            if (multiTenantCapableDatastore.getMultiTenancyMode() != MultiTenancySettings.MultiTenancyMode.NONE &&
+                    multiTenantCapableDatastore.getTenantResolver() != null) {
+                try {
+                    tenantContext.resolve(multiTenantCapableDatastore.getTenantResolver());
+                }
+                catch (TenantNotFoundException e) {
+                    LOG.debug("No tenant resolved for the request: " + e.getMessage());
+                }
+            }
+        }
+    }
+
     protected boolean hasSessionBound() {
         return TransactionSynchronizationManager.getResource(getDatastore()) != null;
     }
 
     public void afterCompletion(WebRequest webRequest, Exception e) throws Exception {
-        if (!hasSessionBound()) {
+        if (decrementParticipateCount(webRequest)) {
+            // the outer dispatch is still running, it closes the session and restores the context on completion
             return;
         }
+        try {
+            if (!hasSessionBound()) {
+                return;
+            }
 
-        // single session mode
-        SessionHolder sessionHolder =
-                (SessionHolder) TransactionSynchronizationManager.unbindResource(getDatastore());
-        LOG.debug("Closing single Datastore Session in OpenSessionInViewInterceptor");
-        DatastoreUtils.closeSession(sessionHolder.getSession());
+            // single session mode
+            SessionHolder sessionHolder =
+                    (SessionHolder) TransactionSynchronizationManager.unbindResource(getDatastore());
+            LOG.debug("Closing single Datastore Session in OpenSessionInViewInterceptor");
+            DatastoreUtils.closeSession(sessionHolder.getSession());
+        }
+        finally {
+            restoreTenantContext(webRequest);
+        }
+    }
+
+    /**
+     * Restores the tenant context that was bound before the request, since the thread is released while the request
+     * is handled asynchronously. The handling continues in a new dispatch that binds a context of its own.
+     */
+    public void afterConcurrentHandlingStarted(WebRequest webRequest) {
+        if (!decrementParticipateCount(webRequest)) {
+            restoreTenantContext(webRequest);
+        }
+    }
+
+    private void incrementParticipateCount(WebRequest webRequest) {
+        Integer count = (Integer) webRequest.getAttribute(PARTICIPATE_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        webRequest.setAttribute(PARTICIPATE_ATTRIBUTE, count != null ? count + 1 : 1, WebRequest.SCOPE_REQUEST);
+    }
+
+    private boolean decrementParticipateCount(WebRequest webRequest) {
+        Integer count = (Integer) webRequest.getAttribute(PARTICIPATE_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            webRequest.setAttribute(PARTICIPATE_ATTRIBUTE, count - 1, WebRequest.SCOPE_REQUEST);
+        }
+        else {
+            webRequest.removeAttribute(PARTICIPATE_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        }
+        return true;
+    }
+
+    protected void restoreTenantContext(WebRequest webRequest) {
+        if (webRequest.getAttribute(TENANT_CONTEXT_ATTRIBUTE, WebRequest.SCOPE_REQUEST) == null) {
+            return;
+        }
+        TenantContext previous = (TenantContext) webRequest.getAttribute(PREVIOUS_TENANT_CONTEXT_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        webRequest.removeAttribute(TENANT_CONTEXT_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        webRequest.removeAttribute(PREVIOUS_TENANT_CONTEXT_ATTRIBUTE, WebRequest.SCOPE_REQUEST);
+        TenantContext.bind(previous);
     }
 
 }
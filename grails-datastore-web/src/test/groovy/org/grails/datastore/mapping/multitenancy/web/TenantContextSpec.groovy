@@ -0,0 +1,153 @@
+package org.grails.datastore.mapping.multitenancy.web
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import javax.servlet.http.HttpServlet
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+
+import org.grails.datastore.mapping.multitenancy.TenantContext
+import org.grails.datastore.mapping.multitenancy.TenantResolver
+import org.grails.datastore.mapping.multitenancy.exceptions.TenantNotFoundException
+import org.springframework.mock.web.MockFilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.web.context.request.RequestContextHolder
+import org.springframework.web.context.request.ServletWebRequest
+import spock.lang.Specification
+
+class TenantContextSpec extends Specification {
+
+    void cleanup() {
+        TenantContext.bind(null)
+        RequestContextHolder.setRequestAttributes(null)
+    }
+
+    void "test the resolver is called once per context"() {
+        given:
+        CountingTenantResolver resolver = new CountingTenantResolver(new HttpHeaderTenantResolver())
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo")
+        request.addHeader(HttpHeaderTenantResolver.HEADER_NAME, "foo")
+        RequestContextHolder.setRequestAttributes(new ServletWebRequest(request))
+
+        when:"no context is bound"
+        TenantContext.resolveTenantIdentifier(resolver)
+        TenantContext.resolveTenantIdentifier(resolver)
+
+        then:
+        resolver.calls == 2
+
+        when:"a context is bound"
+        TenantContext.bind(new TenantContext())
+
+        then:
+        TenantContext.resolveTenantIdentifier(resolver) == "foo"
+        TenantContext.resolveTenantIdentifier(resolver) == "foo"
+        resolver.calls == 3
+    }
+
+    void "test a tenant that is not found is not cached"() {
+        given:
+        CountingTenantResolver resolver = new CountingTenantResolver(new HttpHeaderTenantResolver())
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo")
+        RequestContextHolder.setRequestAttributes(new ServletWebRequest(request))
+        TenantContext.bind(new TenantContext())
+
+        when:
+        TenantContext.resolveTenantIdentifier(resolver)
+
+        then:
+        thrown(TenantNotFoundException)
+
+        when:
+        request.addHeader(HttpHeaderTenantResolver.HEADER_NAME, "foo")
+
+        then:
+        TenantContext.resolveTenantIdentifier(resolver) == "foo"
+        resolver.calls == 2
+    }
+
+    void "test the filter binds a context for the duration of the request"() {
+        given:
+        List<TenantContext> duringRequest = []
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                duringRequest << TenantContext.current()
+            }
+        })
+
+        when:
+        new TenantContextFilter().doFilter(new MockHttpServletRequest("GET", "/foo"), new MockHttpServletResponse(), chain)
+
+        then:
+        duringRequest.size() == 1
+        duringRequest[0] != null
+        TenantContext.current() == null
+    }
+
+    void "test a forward of the request keeps the context of the outer dispatch"() {
+        given:
+        TenantContextFilter filter = new TenantContextFilter()
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo")
+        List<TenantContext> contexts = []
+        MockFilterChain forward = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                contexts << TenantContext.current()
+            }
+        })
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                contexts << TenantContext.current()
+                filter.doFilter(req, res, forward)
+                contexts << TenantContext.current()
+            }
+        })
+
+        when:
+        filter.doFilter(request, new MockHttpServletResponse(), chain)
+
+        then:"the forward uses the context of the request, which is still bound after the forward completes"
+        contexts.size() == 3
+        contexts[0] != null
+        contexts.every { it.is(contexts[0]) }
+        TenantContext.current() == null
+    }
+
+    void "test the context is carried over to the tasks of an executor"() {
+        given:
+        ExecutorService executor = Executors.newSingleThreadExecutor()
+        TenantContext tenantContext = new TenantContext()
+        TenantContext.bind(tenantContext)
+
+        when:
+        TenantContext inTask = executor.submit(TenantContext.wrap({ TenantContext.current() } as Callable<TenantContext>)).get()
+        TenantContext afterTask = executor.submit({ TenantContext.current() } as Callable<TenantContext>).get()
+
+        then:
+        inTask.is(tenantContext)
+        afterTask == null
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    static class CountingTenantResolver implements TenantResolver {
+
+        final TenantResolver delegate
+        int calls
+
+        CountingTenantResolver(TenantResolver delegate) {
+            this.delegate = delegate
+        }
+
+        @Override
+        Serializable resolveTenantIdentifier() throws TenantNotFoundException {
+            calls++
+            delegate.resolveTenantIdentifier()
+        }
+    }
+}
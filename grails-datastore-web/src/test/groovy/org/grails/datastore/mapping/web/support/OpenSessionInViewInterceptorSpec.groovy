@@ -0,0 +1,121 @@
+package org.grails.datastore.mapping.web.support
+
+import org.grails.datastore.mapping.core.Datastore
+import org.grails.datastore.mapping.core.Session
+import org.grails.datastore.mapping.multitenancy.TenantContext
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.web.context.request.ServletWebRequest
+import spock.lang.Specification
+
+class OpenSessionInViewInterceptorSpec extends Specification {
+
+    Datastore datastore = Stub()
+    OpenSessionInViewInterceptor interceptor = new OpenSessionInViewInterceptor(datastore: datastore)
+
+    void setup() {
+        Session session = Stub {
+            getDatastore() >> datastore
+        }
+        datastore.connect() >> session
+    }
+
+    void cleanup() {
+        TenantContext.bind(null)
+        if (TransactionSynchronizationManager.hasResource(datastore)) {
+            TransactionSynchronizationManager.unbindResource(datastore)
+        }
+    }
+
+    void "test a context left bound to the thread is not reused by the next request"() {
+        given:"a context that an earlier task left bound to the pooled thread"
+        TenantContext stale = new TenantContext()
+        TenantContext.bind(stale)
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/foo"))
+
+        when:
+        interceptor.preHandle(webRequest)
+        TenantContext duringRequest = TenantContext.current()
+
+        then:
+        duringRequest != null
+        !duringRequest.is(stale)
+
+        when:
+        interceptor.afterCompletion(webRequest, null)
+
+        then:"the previous context is restored"
+        TenantContext.current().is(stale)
+    }
+
+    void "test each request binds its own context"() {
+        given:
+        ServletWebRequest first = new ServletWebRequest(new MockHttpServletRequest("GET", "/foo"))
+        ServletWebRequest second = new ServletWebRequest(new MockHttpServletRequest("GET", "/bar"))
+
+        when:
+        interceptor.preHandle(first)
+        TenantContext firstContext = TenantContext.current()
+        interceptor.afterCompletion(first, null)
+        interceptor.preHandle(second)
+        TenantContext secondContext = TenantContext.current()
+        interceptor.afterCompletion(second, null)
+
+        then:
+        firstContext != null
+        secondContext != null
+        !firstContext.is(secondContext)
+        TenantContext.current() == null
+    }
+
+    void "test a forward of the request keeps its context"() {
+        given:
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/foo"))
+
+        when:
+        interceptor.preHandle(webRequest)
+        TenantContext requestContext = TenantContext.current()
+        interceptor.preHandle(webRequest)
+
+        then:
+        TenantContext.current().is(requestContext)
+
+        when:"the forward completes"
+        interceptor.afterCompletion(webRequest, null)
+
+        then:"the context and the session stay bound for the outer dispatch"
+        TenantContext.current().is(requestContext)
+        TransactionSynchronizationManager.hasResource(datastore)
+
+        when:"the request completes"
+        interceptor.afterCompletion(webRequest, null)
+
+        then:
+        TenantContext.current() == null
+        !TransactionSynchronizationManager.hasResource(datastore)
+    }
+
+    void "test the context is unbound when the request is handled asynchronously"() {
+        given:
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/foo"))
+
+        when:
+        interceptor.preHandle(webRequest)
+
+        then:
+        TenantContext.current() != null
+
+        when:"the thread is released to the pool"
+        interceptor.afterConcurrentHandlingStarted(webRequest)
+
+        then:
+        TenantContext.current() == null
+
+        when:"the asynchronous dispatch completes the request"
+        interceptor.preHandle(webRequest)
+        interceptor.afterCompletion(webRequest, null)
+
+        then:
+        TenantContext.current() == null
+    }
+}